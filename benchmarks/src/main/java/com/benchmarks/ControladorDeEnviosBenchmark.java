@@ -0,0 +1,94 @@
+package com.benchmarks;
+
+import com.controlador.ControladorDeEnvios;
+import com.model.Pedido;
+import com.model.Repartidor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Historial de {@link ControladorDeEnvios}: registro de entregas (con uno y varios hilos)
+ * y recorrido completo de {@code verHistorial} con la consola descartada.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControladorDeEnviosBenchmark {
+
+    @Param({"1024", "65536"})
+    public int capacidad;
+
+    private ControladorDeEnvios controlador;
+    private Pedido[] pedidos;
+    private Repartidor repartidor;
+    private final SalidaSilenciada salida = new SalidaSilenciada();
+
+    @Setup
+    public void preparar() {
+        controlador = new ControladorDeEnvios(capacidad);
+        repartidor = new Repartidor(7, "Ana Rojas");
+        Pedido.TipoPedido[] tipos = Pedido.TipoPedido.values();
+        pedidos = new Pedido[1024];
+        for (int i = 0; i < pedidos.length; i++) {
+            pedidos[i] = PedidoBenchmark.crear(tipos[i % tipos.length], i + 1, "Calle " + (i + 1), i % 25);
+            pedidos[i].asignarRepartidor();
+        }
+        // Historial lleno, para que verHistorial recorra la capacidad completa
+        for (int i = 0; i < capacidad; i++) {
+            controlador.registrarEntrega(pedidos[i & (pedidos.length - 1)], repartidor);
+        }
+        salida.activar();
+    }
+
+    @TearDown
+    public void restaurar() {
+        salida.restaurar();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int i;
+    }
+
+    /** Registro por nombre de repartidor (resuelve el código en el mapa de nombres). */
+    @Benchmark
+    public void registrarEntrega(Cursor cursor) {
+        controlador.registrarEntrega(pedidos[cursor.i++ & (pedidos.length - 1)]);
+    }
+
+    /** Registro con repartidor explícito. */
+    @Benchmark
+    public void registrarEntregaConRepartidor(Cursor cursor) {
+        controlador.registrarEntrega(pedidos[cursor.i++ & (pedidos.length - 1)], repartidor);
+    }
+
+    /** Registro concurrente desde cuatro hilos sobre el mismo historial. */
+    @Benchmark
+    @Threads(4)
+    public void registrarEntregaConcurrente(Cursor cursor) {
+        controlador.registrarEntrega(pedidos[cursor.i++ & (pedidos.length - 1)], repartidor);
+    }
+
+    /** Recorrido e impresión del historial completo. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void verHistorial() {
+        controlador.verHistorial();
+    }
+}
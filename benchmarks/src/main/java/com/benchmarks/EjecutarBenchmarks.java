@@ -0,0 +1,32 @@
+package com.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Punto de entrada de {@code benchmarks.jar}.
+ * <p>
+ * Delega en el lanzador de JMH ({@code org.openjdk.jmh.Main}), pero si no se indica otro formato
+ * agrega {@code -rf json -rff jmh-resultados.json}, para que cada ejecución deje un resultado
+ * legible por máquina que pueda compararse entre versiones. Acepta las mismas opciones que JMH,
+ * por ejemplo: {@code java -jar benchmarks.jar Pedido -f 1 -wi 3 -i 5}.
+ * </p>
+ */
+public class EjecutarBenchmarks {
+
+    private static final String RESULTADOS_POR_DEFECTO = "jmh-resultados.json";
+
+    public static void main(String[] args) throws Exception {
+        List<String> argumentos = new ArrayList<>(Arrays.asList(args));
+        if (!argumentos.contains("-rf")) {
+            argumentos.add("-rf");
+            argumentos.add("json");
+            if (!argumentos.contains("-rff")) {
+                argumentos.add("-rff");
+                argumentos.add(RESULTADOS_POR_DEFECTO);
+            }
+        }
+        org.openjdk.jmh.Main.main(argumentos.toArray(new String[0]));
+    }
+}
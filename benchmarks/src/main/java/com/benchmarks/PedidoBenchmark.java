@@ -0,0 +1,111 @@
+package com.benchmarks;
+
+import com.model.InstantaneaPedidos;
+import com.model.Pedido;
+import com.model.PedidoComida;
+import com.model.PedidoCompraXpress;
+import com.model.PedidoEncomienda;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminos calientes del modelo: construcción de pedidos (con su validación) y cálculo del
+ * tiempo estimado de entrega por subtipo, recorriendo objetos o la {@link InstantaneaPedidos}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PedidoBenchmark {
+
+    @Param({"COMIDA", "ENCOMIENDA", "EXPRESS"})
+    public Pedido.TipoPedido tipo;
+
+    @Param({"10000"})
+    public int cantidad;
+
+    private final Random random = new Random(42);
+    private int siguienteId;
+    private double distancia;
+    private Pedido pedido;
+    private List<Pedido> pedidos;
+    private InstantaneaPedidos instantanea;
+
+    @Setup
+    public void preparar() {
+        distancia = 0.5 + random.nextDouble() * 20;
+        pedido = crear(tipo, 1, "Av. Providencia 1234", distancia);
+        pedidos = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            pedidos.add(crear(tipo, i, "Calle " + i, random.nextDouble() * 30));
+        }
+        instantanea = InstantaneaPedidos.desde(pedidos);
+    }
+
+    /** Constructor del subtipo, incluida la validación de {@link Pedido}. */
+    @Benchmark
+    public Pedido construir() {
+        int id = ++siguienteId;
+        if (id <= 0) id = siguienteId = 1;
+        return crear(tipo, id, "Av. Providencia 1234", distancia);
+    }
+
+    /** Llamada virtual a {@code calcularTiempoEntrega} sobre un solo pedido. */
+    @Benchmark
+    public int calcularTiempoEntrega() {
+        return pedido.calcularTiempoEntrega();
+    }
+
+    /** Suma de tiempos recorriendo la lista de objetos. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long sumarTiemposObjetos() {
+        long suma = 0;
+        for (Pedido p : pedidos) {
+            suma += p.calcularTiempoEntrega();
+        }
+        return suma;
+    }
+
+    /** Misma suma sobre la instantánea columnar. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long sumarTiemposInstantanea() {
+        return instantanea.sumarTiemposEntrega();
+    }
+
+    /** Construcción de la instantánea desde la lista de objetos. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void construirInstantanea(Blackhole bh) {
+        bh.consume(InstantaneaPedidos.desde(pedidos));
+    }
+
+    static Pedido crear(Pedido.TipoPedido tipo, int id, String direccion, double distanciaKm) {
+        switch (tipo) {
+            case COMIDA:
+                return new PedidoComida(id, direccion, distanciaKm);
+            case ENCOMIENDA:
+                return new PedidoEncomienda(id, direccion, distanciaKm);
+            default:
+                return new PedidoCompraXpress(id, direccion, distanciaKm);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.benchmarks;
+
+import com.dao.ConexionDB;
+import com.dao.PedidoDAO;
+import com.model.Pedido;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura y mapeo de filas de {@link PedidoDAO} contra una base H2 en memoria (modo MySQL),
+ * que reemplaza a {@code speedfast_db} para no depender de un servidor.
+ * <p>
+ * La URL se entrega a {@link ConexionDB} mediante la propiedad {@code speedfast.db.url} del
+ * proceso de cada fork. Los tiempos incluyen el préstamo de la conexión del pool y el
+ * mapeo a objetos; no representan la latencia de red de un MySQL real.
+ * {@code readEach} y {@code readSnapshot} se omiten porque H2 no admite el fetch size
+ * de streaming de MySQL.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dspeedfast.db.url=jdbc:h2:mem:speedfast;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@State(Scope.Benchmark)
+public class PedidoDAOBenchmark {
+
+    private static final String[] ESTADOS = {"PENDIENTE", "EN_REPARTO", "ENTREGADO"};
+
+    @Param({"1000", "10000"})
+    public int filas;
+
+    @Param({"100"})
+    public int tamanoPagina;
+
+    private PedidoDAO dao;
+
+    @Setup
+    public void preparar() throws SQLException {
+        try (Connection con = ConexionDB.conectar();
+             Statement st = con.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS pedidos");
+            st.execute("CREATE TABLE pedidos ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "direccion VARCHAR(255) NOT NULL, "
+                    + "tipo VARCHAR(20) NOT NULL, "
+                    + "estado VARCHAR(20) NOT NULL DEFAULT 'PENDIENTE')");
+        }
+
+        dao = new PedidoDAO();
+        Pedido.TipoPedido[] tipos = Pedido.TipoPedido.values();
+        List<Pedido> pedidos = new ArrayList<>(filas);
+        for (int i = 0; i < filas; i++) {
+            pedidos.add(PedidoBenchmark.crear(tipos[i % tipos.length], i + 1, "Calle " + (i + 1), i % 25));
+        }
+        if (dao.createAll(pedidos).length != filas) {
+            throw new IllegalStateException("No se pudieron cargar los pedidos de prueba.");
+        }
+
+        // Variedad de estados para que el mapeo no siempre tome la misma rama
+        try (Connection con = ConexionDB.conectar();
+             Statement st = con.createStatement()) {
+            for (int e = 1; e < ESTADOS.length; e++) {
+                st.executeUpdate("UPDATE pedidos SET estado = '" + ESTADOS[e] + "' WHERE MOD(id, 3) = " + e);
+            }
+        }
+    }
+
+    /** Tabla completa materializada en una lista. */
+    @Benchmark
+    public List<Pedido> readAll() {
+        return dao.readAll();
+    }
+
+    /** Primera página por clave (keyset). */
+    @Benchmark
+    public List<Pedido> readPage() {
+        return dao.readPage(0, tamanoPagina);
+    }
+
+    /** Página del medio, para comparar el salto por clave con {@code OFFSET}. */
+    @Benchmark
+    public List<Pedido> readPageMedio() {
+        return dao.readPage(filas / 2, tamanoPagina);
+    }
+
+    /** Misma página del medio con {@code LIMIT/OFFSET}. */
+    @Benchmark
+    public List<Pedido> readOffsetMedio() {
+        return dao.readOffset(filas / 2, tamanoPagina);
+    }
+}
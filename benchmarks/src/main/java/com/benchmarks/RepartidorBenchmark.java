@@ -0,0 +1,71 @@
+package com.benchmarks;
+
+import com.model.Pedido;
+import com.model.Repartidor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bucle de {@link Repartidor#run()} sin las pausas reales entre entregas: mide el despacho,
+ * las transiciones de estado y el armado de los mensajes de cada pedido de la ruta.
+ * <p>
+ * Cada invocación necesita pedidos nuevos en PENDIENTE, por eso la ruta se arma en un
+ * {@code Setup} por invocación; con rutas de cientos de pedidos su costo queda fuera de la medición.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RepartidorBenchmark {
+
+    @Param({"100", "1000"})
+    public int pedidosPorRuta;
+
+    private Repartidor repartidor;
+    private final SalidaSilenciada salida = new SalidaSilenciada();
+
+    @Setup(Level.Trial)
+    public void silenciar() {
+        salida.activar();
+    }
+
+    @TearDown(Level.Trial)
+    public void restaurar() {
+        salida.restaurar();
+    }
+
+    @Setup(Level.Invocation)
+    public void armarRuta() {
+        Pedido.TipoPedido[] tipos = Pedido.TipoPedido.values();
+        List<Pedido> ruta = new ArrayList<>(pedidosPorRuta);
+        for (int i = 0; i < pedidosPorRuta; i++) {
+            ruta.add(PedidoBenchmark.crear(tipos[i % tipos.length], i + 1, "Calle " + (i + 1), i % 25));
+        }
+        repartidor = new Repartidor(1, "Ana Rojas", ruta);
+        repartidor.setPausa(ms -> { });
+    }
+
+    @Benchmark
+    public Repartidor recorrerRuta() {
+        repartidor.run();
+        return repartidor;
+    }
+}
@@ -0,0 +1,27 @@
+package com.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Reemplaza {@code System.out} por un flujo que descarta todo, para que los métodos que
+ * imprimen por consola ({@code verHistorial}, {@code Repartidor.run}) no midan la terminal.
+ */
+final class SalidaSilenciada {
+
+    private static final PrintStream NULA = new PrintStream(OutputStream.nullOutputStream());
+
+    private PrintStream original;
+
+    void activar() {
+        original = System.out;
+        System.setOut(NULA);
+    }
+
+    void restaurar() {
+        if (original != null) {
+            System.setOut(original);
+            original = null;
+        }
+    }
+}
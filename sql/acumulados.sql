@@ -0,0 +1,42 @@
+-- =============================================================
+-- SpeedFast - Acumulados operacionales por hora
+-- Ejecutar sobre speedfast_db después de crear las tablas.
+-- =============================================================
+
+USE speedfast_db;
+
+-- com.dao.AcumuladosEntregas mantiene estos contadores en memoria y, en cada punto de control,
+-- suma aquí lo que cambió desde el anterior. "hora" es la hora local contada desde
+-- 1970-01-01 00:00 (días * 24 + hora del día), de modo que un día son 24 filas contiguas.
+
+-- Entregas por repartidor y hora
+CREATE TABLE acumulado_repartidor_hora (
+    hora          INT    NOT NULL,
+    id_repartidor INT    NOT NULL,
+    entregas      BIGINT NOT NULL,
+    PRIMARY KEY (hora, id_repartidor)
+);
+
+-- Transiciones de estado por tipo de pedido, estado alcanzado y hora,
+-- con la suma de los tiempos estimados de esos pedidos (para promedios)
+CREATE TABLE acumulado_tipo_hora (
+    hora         INT         NOT NULL,
+    tipo         VARCHAR(20) NOT NULL,
+    estado       VARCHAR(20) NOT NULL,
+    transiciones BIGINT      NOT NULL,
+    suma_eta_min BIGINT      NOT NULL,
+    PRIMARY KEY (hora, tipo, estado)
+);
+
+-- Carga inicial desde las entregas existentes (una sola vez, antes de iniciar la aplicación).
+-- Las transiciones anteriores no quedaron registradas con su hora, por lo que empiezan en cero.
+INSERT INTO acumulado_repartidor_hora (hora, id_repartidor, entregas)
+SELECT DATEDIFF(fecha, '1970-01-01') * 24 + HOUR(hora), id_repartidor, COUNT(*)
+FROM entregas
+WHERE fecha IS NOT NULL AND hora IS NOT NULL
+GROUP BY DATEDIFF(fecha, '1970-01-01') * 24 + HOUR(hora), id_repartidor;
+
+-- Ejemplo: entregas de cada repartidor hoy (24 filas por repartidor, por clave primaria)
+-- SELECT id_repartidor, SUM(entregas) FROM acumulado_repartidor_hora
+-- WHERE hora BETWEEN DATEDIFF(CURDATE(), '1970-01-01') * 24 AND DATEDIFF(CURDATE(), '1970-01-01') * 24 + 23
+-- GROUP BY id_repartidor;
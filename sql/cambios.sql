@@ -0,0 +1,86 @@
+-- =============================================================
+-- SpeedFast - Registro de cambios para sincronización incremental
+-- Ejecutar sobre speedfast_db después de crear las tablas.
+-- =============================================================
+
+USE speedfast_db;
+
+-- Una fila por cada INSERT, UPDATE o DELETE sobre las tablas de la aplicación.
+-- El id autoincremental se asigna al insertar, no al confirmar, así que no sirve como token: una
+-- transacción abierta con un id menor se confirmaría después de que un lector lo dejó atrás.
+-- La aplicación sella cada cambio ya confirmado con una secuencia (RegistroCambios.sellar), bajo el
+-- bloqueo de cambios_secuencia, y los DAO leen solo los cambios con secuencia mayor al último token
+-- conocido (readChangesSince), sin recorrer las tablas completas.
+CREATE TABLE cambios (
+    id        BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tabla     VARCHAR(32) NOT NULL,
+    id_fila   INT         NOT NULL,
+    operacion CHAR(1)     NOT NULL,  -- I = insert, U = update, D = delete
+    fecha     TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    secuencia BIGINT      NULL,      -- NULL hasta que se sella
+    UNIQUE INDEX idx_cambios_secuencia (secuencia),
+    INDEX idx_cambios_tabla_secuencia (tabla, secuencia, id_fila),
+    INDEX idx_cambios_fecha (fecha)
+);
+
+-- Una sola fila: última secuencia asignada y hasta qué secuencia se purgó el registro.
+-- Un lector cuyo token sea menor que "purgada" debe volver a leer la tabla completa.
+CREATE TABLE cambios_secuencia (
+    id      TINYINT PRIMARY KEY,
+    ultima  BIGINT NOT NULL,
+    purgada BIGINT NOT NULL
+);
+INSERT INTO cambios_secuencia (id, ultima, purgada) VALUES (1, 0, 0);
+
+-- Instalaciones con la versión anterior de esta tabla (token = id), con la aplicación cerrada (los
+-- tokens solo viven en memoria): en lugar del CREATE TABLE cambios,
+--   ALTER TABLE cambios ADD COLUMN secuencia BIGINT NULL, ADD UNIQUE INDEX idx_cambios_secuencia (secuencia),
+--       DROP INDEX idx_cambios_tabla_id, ADD INDEX idx_cambios_tabla_secuencia (tabla, secuencia, id_fila);
+-- y crear cambios_secuencia como arriba; los cambios existentes se sellan en la primera lectura.
+
+-- Los triggers registran los cambios de cualquier cliente, no solo los de la aplicación
+DELIMITER //
+
+CREATE TRIGGER trg_pedidos_insert AFTER INSERT ON pedidos FOR EACH ROW
+    INSERT INTO cambios (tabla, id_fila, operacion) VALUES ('pedidos', NEW.id, 'I')//
+CREATE TRIGGER trg_pedidos_update AFTER UPDATE ON pedidos FOR EACH ROW
+    INSERT INTO cambios (tabla, id_fila, operacion) VALUES ('pedidos', NEW.id, 'U')//
+CREATE TRIGGER trg_pedidos_delete AFTER DELETE ON pedidos FOR EACH ROW
+    INSERT INTO cambios (tabla, id_fila, operacion) VALUES ('pedidos', OLD.id, 'D')//
+
+CREATE TRIGGER trg_entregas_insert AFTER INSERT ON entregas FOR EACH ROW
+    INSERT INTO cambios (tabla, id_fila, operacion) VALUES ('entregas', NEW.id, 'I')//
+CREATE TRIGGER trg_entregas_update AFTER UPDATE ON entregas FOR EACH ROW
+    INSERT INTO cambios (tabla, id_fila, operacion) VALUES ('entregas', NEW.id, 'U')//
+CREATE TRIGGER trg_entregas_delete AFTER DELETE ON entregas FOR EACH ROW
+    INSERT INTO cambios (tabla, id_fila, operacion) VALUES ('entregas', OLD.id, 'D')//
+
+CREATE TRIGGER trg_repartidores_insert AFTER INSERT ON repartidores FOR EACH ROW
+    INSERT INTO cambios (tabla, id_fila, operacion) VALUES ('repartidores', NEW.id, 'I')//
+CREATE TRIGGER trg_repartidores_update AFTER UPDATE ON repartidores FOR EACH ROW
+    INSERT INTO cambios (tabla, id_fila, operacion) VALUES ('repartidores', NEW.id, 'U')//
+CREATE TRIGGER trg_repartidores_delete AFTER DELETE ON repartidores FOR EACH ROW
+    INSERT INTO cambios (tabla, id_fila, operacion) VALUES ('repartidores', OLD.id, 'D')//
+
+DELIMITER ;
+
+-- Limpieza periódica (opcional): CALL purgar_cambios(7);
+-- Borra solo cambios ya sellados y deja registrado el horizonte en cambios_secuencia.purgada, de modo
+-- que un cliente con un token anterior lo detecta y vuelve a leer la tabla completa. Los huecos del id
+-- (inserts revertidos, innodb_autoinc_lock_mode = 2) no se confunden con una purga.
+DELIMITER //
+
+CREATE PROCEDURE purgar_cambios(IN dias INT)
+BEGIN
+    DECLARE horizonte BIGINT;
+    START TRANSACTION;
+    -- Bloquear el contador impide sellar mientras se purga
+    SELECT purgada INTO horizonte FROM cambios_secuencia WHERE id = 1 FOR UPDATE;
+    SELECT GREATEST(horizonte, COALESCE(MAX(secuencia), 0)) INTO horizonte
+        FROM cambios WHERE secuencia IS NOT NULL AND fecha < NOW() - INTERVAL dias DAY;
+    DELETE FROM cambios WHERE secuencia <= horizonte;
+    UPDATE cambios_secuencia SET purgada = horizonte WHERE id = 1;
+    COMMIT;
+END//
+
+DELIMITER ;
@@ -0,0 +1,13 @@
+-- =============================================================
+-- SpeedFast - Índices de apoyo para consultas filtradas
+-- Ejecutar sobre speedfast_db después de crear las tablas.
+-- =============================================================
+
+USE speedfast_db;
+
+-- PedidoDAO.findByEstado: filtro por estado ordenado por id
+-- (permite leer solo los pedidos PENDIENTE sin recorrer el historial completo)
+CREATE INDEX idx_pedidos_estado_id ON pedidos (estado, id);
+
+-- PedidoDAO.findByTipoAndEstado: filtro por tipo y estado ordenado por id
+CREATE INDEX idx_pedidos_tipo_estado_id ON pedidos (tipo, estado, id);
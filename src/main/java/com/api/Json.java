@@ -0,0 +1,166 @@
+package com.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lectura y escritura mínima de JSON para la API HTTP.
+ * <p>
+ * Los cuerpos de la API son objetos planos (sin objetos ni arreglos anidados), por lo que basta con
+ * un analizador de ese subconjunto; así el proyecto no suma una dependencia solo para esto.
+ * Los valores se leen como {@code String}, {@code Boolean}, {@code null} o, para los números, el texto
+ * del número ({@link Numero}), que cada campo convierte al tipo que espera.
+ * </p>
+ */
+final class Json {
+
+    private Json() { }
+
+    /** Texto de un número tal como venía en el JSON. */
+    static final class Numero {
+        private final String texto;
+
+        private Numero(String texto) {
+            this.texto = texto;
+        }
+
+        @Override
+        public String toString() { return texto; }
+    }
+
+    /**
+     * Analiza un objeto JSON plano.
+     *
+     * @param texto cuerpo de la solicitud.
+     * @return campos en el orden en que aparecen.
+     * @throws IllegalArgumentException si el texto no es un objeto JSON plano válido.
+     */
+    static Map<String, Object> leerObjeto(String texto) {
+        Lector lector = new Lector(texto);
+        Map<String, Object> campos = new LinkedHashMap<>();
+        lector.esperar('{');
+        if (!lector.siguienteEs('}')) {
+            do {
+                String nombre = lector.cadena();
+                lector.esperar(':');
+                campos.put(nombre, lector.valor());
+            } while (lector.siguienteEs(','));
+            lector.esperar('}');
+        }
+        lector.fin();
+        return campos;
+    }
+
+    /**
+     * Agrega una cadena JSON (entre comillas y con los caracteres de control escapados).
+     *
+     * @param sb    destino.
+     * @param valor texto a escribir; {@code null} se escribe como {@code null}.
+     * @return el mismo {@code sb}.
+     */
+    static StringBuilder cadena(StringBuilder sb, String valor) {
+        if (valor == null) return sb.append("null");
+        sb.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"');
+    }
+
+    private static final class Lector {
+        private final String texto;
+        private int pos;
+
+        private Lector(String texto) {
+            this.texto = texto;
+        }
+
+        private void saltarEspacios() {
+            while (pos < texto.length() && Character.isWhitespace(texto.charAt(pos))) pos++;
+        }
+
+        private boolean siguienteEs(char c) {
+            saltarEspacios();
+            if (pos < texto.length() && texto.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void esperar(char c) {
+            if (!siguienteEs(c)) throw error("se esperaba '" + c + "'");
+        }
+
+        private void fin() {
+            saltarEspacios();
+            if (pos != texto.length()) throw error("texto después del objeto");
+        }
+
+        private Object valor() {
+            saltarEspacios();
+            if (pos >= texto.length()) throw error("falta un valor");
+            char c = texto.charAt(pos);
+            if (c == '"') return cadena();
+            if (c == '{' || c == '[') throw error("no se admiten objetos ni arreglos anidados");
+            if (texto.startsWith("true", pos)) { pos += 4; return Boolean.TRUE; }
+            if (texto.startsWith("false", pos)) { pos += 5; return Boolean.FALSE; }
+            if (texto.startsWith("null", pos)) { pos += 4; return null; }
+            int inicio = pos;
+            while (pos < texto.length() && "+-0123456789.eE".indexOf(texto.charAt(pos)) >= 0) pos++;
+            if (pos == inicio) throw error("valor no válido");
+            return new Numero(texto.substring(inicio, pos));
+        }
+
+        private String cadena() {
+            esperar('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (pos >= texto.length()) throw error("cadena sin cerrar");
+                char c = texto.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= texto.length()) throw error("cadena sin cerrar");
+                char e = texto.charAt(pos++);
+                switch (e) {
+                    case '"': case '\\': case '/': sb.append(e); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'u':
+                        if (pos + 4 > texto.length()) throw error("escape \\u incompleto");
+                        try {
+                            sb.append((char) Integer.parseInt(texto.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("escape \\u no válido");
+                        }
+                        pos += 4;
+                        break;
+                    default: throw error("escape no válido");
+                }
+            }
+        }
+
+        private IllegalArgumentException error(String motivo) {
+            return new IllegalArgumentException("JSON no válido en la posición " + pos + ": " + motivo + ".");
+        }
+    }
+}
@@ -0,0 +1,855 @@
+package com.api;
+
+import com.dao.AcumuladosEntregas;
+import com.dao.EntregaDAO;
+import com.dao.PedidoDAO;
+import com.dao.RepartidorDAO;
+import com.metricas.MetricasOperacion;
+import com.model.Entrega;
+import com.model.EstadoPedido;
+import com.model.Pedido;
+import com.model.PedidoComida;
+import com.model.PedidoCompraXpress;
+import com.model.PedidoEncomienda;
+import com.model.Repartidor;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * API HTTP/JSON sin interfaz gráfica sobre los DAO de pedidos, entregas y repartidores, para que
+ * las aplicaciones y los socios registren trabajo sin pasar por una ventana.
+ *
+ * <h2>Rutas</h2>
+ * <pre>
+ * GET    /pedidos?despuesDe=0&amp;limite=100     página por clave (también ?estado=…[&amp;tipo=…])
+ * GET    /pedidos/{id}
+ * POST   /pedidos              {"direccion", "tipo", "distanciaKm"?}  → 201 {"id"}; nace PENDIENTE
+ * PUT    /pedidos/{id}         {"direccion", "tipo", "estado"?}  → 409 si el estado no es el siguiente
+ * DELETE /pedidos/{id}
+ * GET    /entregas?despuesDe=0&amp;limite=100
+ * POST   /entregas             {"idPedido", "idRepartidor"}  → 201 entrega; 409 si el pedido no estaba PENDIENTE
+ * DELETE /entregas/{id}
+ * GET    /repartidores?despuesDe=0&amp;limite=100
+ * GET    /repartidores/{id}
+ * POST   /repartidores         {"nombre"}  → 201 {"id"}
+ * PUT    /repartidores/{id}    {"nombre"}
+ * DELETE /repartidores/{id}
+ * GET    /acumulados/entregas?dia=AAAA-MM-DD   entregas por repartidor del día (hoy si se omite)
+ * GET    /salud
+ * </pre>
+ * <p>
+ * Los errores responden {@code {"error": "..."}}: 400 por datos no válidos, 404, 405, 409, 413 por
+ * cuerpos de más de 64 KB y 500 si falló la base de datos (cualquier error registrado por un DAO
+ * durante la solicitud, ver {@link MetricasOperacion#getErroresDelHilo()}). {@code distanciaKm} se valida
+ * pero no se guarda: la tabla {@code pedidos} no tiene esa columna.
+ * </p>
+ *
+ * <h2>Conexiones y concurrencia</h2>
+ * <ul>
+ *   <li>HTTP/1.1 propio sobre {@link ServerSocket}: cada conexión se atiende en un hilo virtual que
+ *       lee sus solicitudes en orden, de modo que una solicitud que espera a la base de datos no ocupa
+ *       un hilo de plataforma. Cada respuesta sale en una sola escritura con {@code TCP_NODELAY}; con
+ *       {@code com.sun.net.httpserver} las conexiones persistentes rendían unas quince veces menos.</li>
+ *   <li>Las conexiones son persistentes (keep-alive) y admiten solicitudes encadenadas (pipelining):
+ *       las respuestas se escriben en el mismo orden y se envían juntas mientras queden solicitudes leídas.</li>
+ *   <li>A lo sumo {@code concurrencia} solicitudes se atienden a la vez. Las demás esperan hasta
+ *       {@code esperaMs} y, si no hay lugar, reciben 503 con {@code Retry-After}, en lugar de encolarse
+ *       sin límite detrás del pool de conexiones. Las conexiones abiertas también tienen un máximo.</li>
+ *   <li>Los cuerpos deben indicar {@code Content-Length} (no se admite {@code Transfer-Encoding}).</li>
+ * </ul>
+ */
+public class ServidorHttp implements ServidorHttpMXBean {
+
+    /** Solicitudes atendidas a la vez por defecto. */
+    public static final int CONCURRENCIA_POR_DEFECTO = Integer.getInteger("speedfast.http.concurrencia", 256);
+
+    /** Espera máxima por defecto por un lugar libre antes de responder 503, en milisegundos. */
+    public static final long ESPERA_POR_DEFECTO_MS = Long.getLong("speedfast.http.esperaMs", 100L);
+
+    /** Conexiones abiertas a la vez como máximo; las siguientes reciben 503 y se cierran. */
+    public static final int CONEXIONES_POR_DEFECTO = Integer.getInteger("speedfast.http.conexiones", 10_000);
+
+    /** Tiempo sin recibir datos tras el cual se cierra una conexión, en milisegundos. */
+    private static final int INACTIVIDAD_MS = 30_000;
+
+    /** Tamaño máximo del cuerpo de una solicitud, en bytes. */
+    private static final int MAXIMO_CUERPO = 64 * 1024;
+
+    /** Largo máximo de la línea de solicitud y de cada encabezado, en bytes. */
+    private static final int MAXIMO_LINEA = 8 * 1024;
+
+    /** Encabezados por solicitud como máximo. */
+    private static final int MAXIMO_ENCABEZADOS = 100;
+
+    /** Conexiones pendientes de aceptar que admite el sistema operativo. */
+    private static final int BACKLOG = 1024;
+
+    private static final int LIMITE_POR_DEFECTO = 100;
+    private static final int LIMITE_MAXIMO = 1000;
+
+    private final ServerSocket socket;
+    private final Thread aceptador;
+    private final ExecutorService conexiones;
+    private final Set<Socket> abiertas = ConcurrentHashMap.newKeySet();
+    private final Semaphore permisos;
+    private final int concurrencia;
+    private final long esperaMs;
+    private volatile boolean detenido;
+
+    private final PedidoDAO pedidoDAO;
+    private final EntregaDAO entregaDAO;
+    private final RepartidorDAO repartidorDAO;
+    private final AcumuladosEntregas acumulados;
+
+    private final LongAdder atendidas = new LongAdder();
+    private final LongAdder rechazadas = new LongAdder();
+    private final LongAdder erroresCliente = new LongAdder();
+    private final LongAdder erroresServidor = new LongAdder();
+
+    /**
+     * Crea el servidor con la concurrencia y la espera por defecto (sin iniciarlo).
+     *
+     * @param direccion     dirección y puerto de escucha (puerto 0 para uno libre).
+     * @param pedidoDAO     DAO de pedidos.
+     * @param entregaDAO    DAO de entregas.
+     * @param repartidorDAO DAO de repartidores.
+     * @param acumulados    acumulados de entregas, o null si no están disponibles.
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public ServidorHttp(InetSocketAddress direccion, PedidoDAO pedidoDAO, EntregaDAO entregaDAO,
+                        RepartidorDAO repartidorDAO, AcumuladosEntregas acumulados) throws IOException {
+        this(direccion, CONCURRENCIA_POR_DEFECTO, ESPERA_POR_DEFECTO_MS, pedidoDAO, entregaDAO, repartidorDAO, acumulados);
+    }
+
+    /**
+     * Crea el servidor y abre el puerto (sin aceptar conexiones hasta {@link #iniciar()}).
+     *
+     * @param direccion     dirección y puerto de escucha (puerto 0 para uno libre).
+     * @param concurrencia  solicitudes atendidas a la vez (mayor que 0).
+     * @param esperaMs      espera máxima por un lugar libre antes de responder 503 (0 o más).
+     * @param pedidoDAO     DAO de pedidos (no nulo).
+     * @param entregaDAO    DAO de entregas (no nulo).
+     * @param repartidorDAO DAO de repartidores (no nulo).
+     * @param acumulados    acumulados de entregas, o null si no están disponibles.
+     * @throws IllegalArgumentException si algún parámetro no cumple validación.
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public ServidorHttp(InetSocketAddress direccion, int concurrencia, long esperaMs, PedidoDAO pedidoDAO,
+                        EntregaDAO entregaDAO, RepartidorDAO repartidorDAO, AcumuladosEntregas acumulados) throws IOException {
+        if (direccion == null) throw new IllegalArgumentException("direccion no puede ser nula.");
+        if (concurrencia <= 0) throw new IllegalArgumentException("La concurrencia debe ser mayor que 0.");
+        if (esperaMs < 0) throw new IllegalArgumentException("La espera no puede ser negativa.");
+        if (pedidoDAO == null || entregaDAO == null || repartidorDAO == null) {
+            throw new IllegalArgumentException("Los DAO no pueden ser nulos.");
+        }
+        this.concurrencia = concurrencia;
+        this.esperaMs = esperaMs;
+        this.permisos = new Semaphore(concurrencia);
+        this.pedidoDAO = pedidoDAO;
+        this.entregaDAO = entregaDAO;
+        this.repartidorDAO = repartidorDAO;
+        this.acumulados = acumulados;
+
+        this.socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(direccion, BACKLOG);
+        this.conexiones = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("speedfast-http-", 0).factory());
+        // No es daemon: en modo servidor es el hilo que mantiene viva la JVM
+        this.aceptador = new Thread(this::aceptar, "speedfast-http-aceptar");
+    }
+
+    /** Comienza a aceptar conexiones. */
+    public void iniciar() {
+        aceptador.start();
+    }
+
+    /**
+     * Deja de aceptar conexiones, deja terminar las solicitudes en curso y cierra todas las conexiones.
+     *
+     * @param segundos espera máxima por las solicitudes en curso.
+     */
+    public void detener(int segundos) {
+        detenido = true;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar el puerto de la API HTTP: " + e.getMessage());
+        }
+        // Las conexiones inactivas ven fin de datos; las que atienden una solicitud aún pueden responderla
+        for (Socket s : abiertas) {
+            try {
+                s.shutdownInput();
+            } catch (IOException e) {
+                // ya cerrada
+            }
+        }
+        conexiones.shutdown();
+        try {
+            conexiones.awaitTermination(segundos, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Socket s : abiertas) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                // ya cerrada
+            }
+        }
+    }
+
+    @Override
+    public int getPuerto() { return socket.getLocalPort(); }
+
+    @Override
+    public int getConcurrencia() { return concurrencia; }
+
+    @Override
+    public int getEnCurso() { return concurrencia - permisos.availablePermits(); }
+
+    @Override
+    public int getConexionesAbiertas() { return abiertas.size(); }
+
+    @Override
+    public long getAtendidas() { return atendidas.sum(); }
+
+    @Override
+    public long getRechazadasPorSaturacion() { return rechazadas.sum(); }
+
+    @Override
+    public long getErroresCliente() { return erroresCliente.sum(); }
+
+    @Override
+    public long getErroresServidor() { return erroresServidor.sum(); }
+
+    private void aceptar() {
+        while (!detenido) {
+            Socket cliente;
+            try {
+                cliente = socket.accept();
+            } catch (IOException e) {
+                if (!detenido) System.err.println("Error al aceptar una conexión HTTP: " + e.getMessage());
+                continue;
+            }
+            abiertas.add(cliente);
+            try {
+                conexiones.execute(() -> atenderConexion(cliente));
+            } catch (RuntimeException e) { // detenido mientras se aceptaba
+                abiertas.remove(cliente);
+                cerrar(cliente);
+            }
+        }
+    }
+
+    /**
+     * Atiende las solicitudes de una conexión en orden, hasta que el cliente la cierre, pida cerrarla
+     * o quede inactiva. Las respuestas se envían cuando no quedan solicitudes ya recibidas por leer.
+     */
+    private void atenderConexion(Socket cliente) {
+        try (cliente) {
+            cliente.setTcpNoDelay(true);
+            cliente.setSoTimeout(INACTIVIDAD_MS);
+            InputStream entrada = new BufferedInputStream(cliente.getInputStream(), 16 * 1024);
+            OutputStream salida = new BufferedOutputStream(cliente.getOutputStream(), 16 * 1024);
+
+            if (abiertas.size() > CONEXIONES_POR_DEFECTO) {
+                rechazadas.increment();
+                escribir(salida, Respuesta.error(503, "Demasiadas conexiones; reintente más tarde."), false);
+                salida.flush();
+                return;
+            }
+            while (true) {
+                Solicitud solicitud;
+                try {
+                    solicitud = Solicitud.leer(entrada, salida);
+                } catch (RuntimeException e) {
+                    // Solicitud mal formada: no se sabe dónde empieza la siguiente, así que se cierra
+                    erroresCliente.increment();
+                    escribir(salida, e instanceof ErrorHttp
+                            ? Respuesta.error(((ErrorHttp) e).codigo, e.getMessage())
+                            : Respuesta.error(400, "Solicitud no válida."), false);
+                    salida.flush();
+                    return;
+                }
+                if (solicitud == null) { // el cliente cerró la conexión
+                    salida.flush();
+                    return;
+                }
+                boolean seguir = solicitud.mantenerAbierta && !detenido;
+                escribir(salida, atender(solicitud), seguir);
+                if (!seguir || entrada.available() == 0) salida.flush();
+                if (!seguir) return;
+            }
+        } catch (SocketTimeoutException | EOFException e) {
+            // conexión inactiva o cortada a mitad de una solicitud
+        } catch (SocketException e) {
+            // el cliente cerró la conexión (o se detuvo el servidor)
+        } catch (IOException e) {
+            System.err.println("Error en una conexión HTTP: " + e.getMessage());
+        } finally {
+            abiertas.remove(cliente);
+        }
+    }
+
+    // Limita la concurrencia y traduce las excepciones a códigos HTTP
+    private Respuesta atender(Solicitud solicitud) {
+        boolean permitido;
+        try {
+            permitido = permisos.tryAcquire(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permitido = false;
+        }
+        if (!permitido) {
+            rechazadas.increment();
+            return Respuesta.error(503, "Servidor saturado; reintente más tarde.");
+        }
+        Respuesta respuesta;
+        long erroresAntes = MetricasOperacion.getErroresDelHilo();
+        try {
+            respuesta = enrutar(solicitud);
+        } catch (ErrorHttp e) {
+            respuesta = Respuesta.error(e.codigo, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            respuesta = Respuesta.error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Error al atender " + solicitud.metodo + " " + solicitud.destino + ": " + e);
+            respuesta = Respuesta.error(500, "Error interno del servidor.");
+        } finally {
+            permisos.release();
+        }
+        // Los DAO informan los fallos con null, false o listas vacías: sin esto, una caída de la base
+        // de datos se vería como 404 o como una lista vacía
+        if (MetricasOperacion.getErroresDelHilo() != erroresAntes) {
+            respuesta = Respuesta.error(500, "Error al acceder a la base de datos.");
+        }
+        atendidas.increment();
+        if (respuesta.codigo >= 500) erroresServidor.increment();
+        else if (respuesta.codigo >= 400) erroresCliente.increment();
+        return respuesta;
+    }
+
+    private Respuesta enrutar(Solicitud s) {
+        switch (s.recurso) {
+            case "pedidos": return pedidos(s);
+            case "entregas": return entregas(s);
+            case "repartidores": return repartidores(s);
+            case "acumulados": return acumulados(s);
+            case "salud":
+                if (s.ruta.length != 0) throw new ErrorHttp(404, "Ruta no encontrada.");
+                if (!"GET".equals(s.metodo)) throw metodoNoPermitido();
+                return Respuesta.ok("{\"estado\":\"ok\"}");
+            default:
+                throw new ErrorHttp(404, "Ruta no encontrada.");
+        }
+    }
+
+    private static void escribir(OutputStream salida, Respuesta respuesta, boolean mantenerAbierta) throws IOException {
+        byte[] cuerpo = respuesta.cuerpo == null ? null : respuesta.cuerpo.getBytes(StandardCharsets.UTF_8);
+        StringBuilder cabecera = new StringBuilder(160)
+                .append("HTTP/1.1 ").append(respuesta.codigo).append(' ').append(razon(respuesta.codigo)).append("\r\n");
+        if (cuerpo != null) {
+            cabecera.append("Content-Type: application/json; charset=utf-8\r\n")
+                    .append("Content-Length: ").append(cuerpo.length).append("\r\n");
+        } else if (respuesta.codigo != 204) {
+            cabecera.append("Content-Length: 0\r\n");
+        }
+        if (respuesta.codigo == 503) cabecera.append("Retry-After: 1\r\n");
+        if (!mantenerAbierta) cabecera.append("Connection: close\r\n");
+        salida.write(cabecera.append("\r\n").toString().getBytes(StandardCharsets.ISO_8859_1));
+        if (cuerpo != null) salida.write(cuerpo);
+    }
+
+    private static String razon(int codigo) {
+        switch (codigo) {
+            case 200: return "OK";
+            case 201: return "Created";
+            case 204: return "No Content";
+            case 400: return "Bad Request";
+            case 404: return "Not Found";
+            case 405: return "Method Not Allowed";
+            case 409: return "Conflict";
+            case 413: return "Payload Too Large";
+            case 431: return "Request Header Fields Too Large";
+            case 500: return "Internal Server Error";
+            case 501: return "Not Implemented";
+            case 503: return "Service Unavailable";
+            case 505: return "HTTP Version Not Supported";
+            default: return "Error";
+        }
+    }
+
+    private static void cerrar(Socket cliente) {
+        try {
+            cliente.close();
+        } catch (IOException e) {
+            // ya cerrada
+        }
+    }
+
+    private Respuesta pedidos(Solicitud s) {
+        if (s.ruta.length == 0) {
+            switch (s.metodo) {
+                case "GET": {
+                    int limite = s.limite();
+                    String estado = s.parametros.get("estado");
+                    String tipo = s.parametros.get("tipo");
+                    List<Pedido> pedidos;
+                    if (estado == null && tipo == null) {
+                        pedidos = pedidoDAO.readPage(s.entero("despuesDe", 0), limite);
+                    } else if (estado == null) {
+                        throw new IllegalArgumentException("Para filtrar por tipo también se debe indicar el estado.");
+                    } else if (tipo == null) {
+                        pedidos = pedidoDAO.findPageByEstado(estadoDe(estado), s.entero("despuesDe", 0), limite);
+                    } else {
+                        pedidos = pedidoDAO.findPageByTipoAndEstado(tipoDe(tipo), estadoDe(estado), s.entero("despuesDe", 0), limite);
+                    }
+                    StringBuilder sb = new StringBuilder(64 * pedidos.size() + 2).append('[');
+                    for (int i = 0; i < pedidos.size(); i++) {
+                        if (i > 0) sb.append(',');
+                        escribirPedido(sb, pedidos.get(i));
+                    }
+                    return Respuesta.ok(sb.append(']').toString());
+                }
+                case "POST": {
+                    Map<String, Object> campos = s.json();
+                    // El ID definitivo lo asigna la base de datos; 1 cumple la validación del constructor
+                    // El estado solo avanza por transiciones (PUT), que notifican al diario y a los acumulados
+                    if (campos.containsKey("estado")) throw new IllegalArgumentException("Un pedido nuevo siempre nace PENDIENTE; no indique 'estado'.");
+                    Pedido pedido = nuevoPedido(1, texto(campos, "direccion"), decimal(campos, "distanciaKm", 0.0), tipoDe(texto(campos, "tipo")));
+                    int id = pedidoDAO.createAndGetId(pedido);
+                    if (id <= 0) throw new ErrorHttp(500, "No se pudo registrar el pedido.");
+                    return Respuesta.creado("{\"id\":" + id + "}");
+                }
+                default:
+                    throw metodoNoPermitido();
+            }
+        }
+        int id = s.id();
+        switch (s.metodo) {
+            case "GET": {
+                Pedido pedido = pedidoDAO.readById(id);
+                if (pedido == null) throw new ErrorHttp(404, "Pedido " + id + " no encontrado.");
+                return Respuesta.ok(escribirPedido(new StringBuilder(64), pedido).toString());
+            }
+            case "PUT": {
+                Map<String, Object> campos = s.json();
+                Pedido pedido = nuevoPedido(id, texto(campos, "direccion"), decimal(campos, "distanciaKm", 0.0), tipoDe(texto(campos, "tipo")));
+                String estadoTexto = textoOpcional(campos, "estado");
+                Pedido guardado = pedidoDAO.readById(id);
+                if (guardado == null) throw new ErrorHttp(404, "Pedido " + id + " no encontrado.");
+                EstadoPedido anterior = guardado.getEstado();
+                EstadoPedido nuevo = estadoTexto == null ? anterior : estadoDe(estadoTexto);
+                if (nuevo != anterior && !Pedido.esTransicionValida(anterior, nuevo)) {
+                    throw new ErrorHttp(409, "El pedido " + id + " no puede pasar de " + anterior + " a " + nuevo + ".");
+                }
+                pedido.setEstado(nuevo);
+                // Condicionado al estado leído: si otra solicitud lo cambió entre medio, no se pisa
+                if (!pedidoDAO.updateIfEstado(pedido, anterior)) {
+                    throw new ErrorHttp(409, "El pedido " + id + " cambió mientras se actualizaba; reintente.");
+                }
+                // La transición en el modelo notifica a los observadores (diario, escritura diferida y acumulados)
+                if (nuevo != anterior) guardado.transicionar(anterior, nuevo);
+                return Respuesta.sinContenido();
+            }
+            case "DELETE":
+                if (!pedidoDAO.delete(id)) throw new ErrorHttp(409, "Pedido " + id + " no encontrado o con entregas asociadas.");
+                return Respuesta.sinContenido();
+            default:
+                throw metodoNoPermitido();
+        }
+    }
+
+    private Respuesta entregas(Solicitud s) {
+        if (s.ruta.length == 0) {
+            switch (s.metodo) {
+                case "GET": {
+                    List<Entrega> entregas = entregaDAO.readPage(s.entero("despuesDe", 0), s.limite());
+                    StringBuilder sb = new StringBuilder(96 * entregas.size() + 2).append('[');
+                    for (int i = 0; i < entregas.size(); i++) {
+                        if (i > 0) sb.append(',');
+                        escribirEntrega(sb, entregas.get(i));
+                    }
+                    return Respuesta.ok(sb.append(']').toString());
+                }
+                case "POST": {
+                    Map<String, Object> campos = s.json();
+                    int idPedido = entero(campos, "idPedido");
+                    Entrega entrega = entregaDAO.asignarEntrega(idPedido, entero(campos, "idRepartidor"));
+                    if (entrega == null) throw new ErrorHttp(409, "El pedido " + idPedido + " no existe o ya no está PENDIENTE.");
+                    return Respuesta.creado(escribirEntrega(new StringBuilder(96), entrega).toString());
+                }
+                default:
+                    throw metodoNoPermitido();
+            }
+        }
+        int id = s.id();
+        if (!"DELETE".equals(s.metodo)) throw metodoNoPermitido();
+        if (!entregaDAO.delete(id)) throw new ErrorHttp(404, "Entrega " + id + " no encontrada.");
+        return Respuesta.sinContenido();
+    }
+
+    private Respuesta repartidores(Solicitud s) {
+        if (s.ruta.length == 0) {
+            switch (s.metodo) {
+                case "GET": {
+                    List<Repartidor> repartidores = repartidorDAO.readPage(s.entero("despuesDe", 0), s.limite());
+                    StringBuilder sb = new StringBuilder(48 * repartidores.size() + 2).append('[');
+                    for (int i = 0; i < repartidores.size(); i++) {
+                        if (i > 0) sb.append(',');
+                        escribirRepartidor(sb, repartidores.get(i));
+                    }
+                    return Respuesta.ok(sb.append(']').toString());
+                }
+                case "POST": {
+                    int id = repartidorDAO.createAndGetId(new Repartidor(0, nombreDe(s.json())));
+                    if (id <= 0) throw new ErrorHttp(500, "No se pudo registrar el repartidor.");
+                    return Respuesta.creado("{\"id\":" + id + "}");
+                }
+                default:
+                    throw metodoNoPermitido();
+            }
+        }
+        int id = s.id();
+        switch (s.metodo) {
+            case "GET": {
+                Repartidor repartidor = repartidorDAO.readById(id);
+                if (repartidor == null) throw new ErrorHttp(404, "Repartidor " + id + " no encontrado.");
+                return Respuesta.ok(escribirRepartidor(new StringBuilder(48), repartidor).toString());
+            }
+            case "PUT":
+                if (!repartidorDAO.update(new Repartidor(id, nombreDe(s.json())))) throw new ErrorHttp(404, "Repartidor " + id + " no encontrado.");
+                return Respuesta.sinContenido();
+            case "DELETE":
+                if (!repartidorDAO.delete(id)) throw new ErrorHttp(409, "Repartidor " + id + " no encontrado o con entregas asociadas.");
+                return Respuesta.sinContenido();
+            default:
+                throw metodoNoPermitido();
+        }
+    }
+
+    private Respuesta acumulados(Solicitud s) {
+        if (s.ruta.length != 1 || !"entregas".equals(s.ruta[0])) throw new ErrorHttp(404, "Ruta no encontrada.");
+        if (!"GET".equals(s.metodo)) throw metodoNoPermitido();
+        if (acumulados == null) throw new ErrorHttp(404, "Los acumulados no están disponibles.");
+        LocalDate dia;
+        try {
+            String texto = s.parametros.get("dia");
+            dia = texto == null ? LocalDate.now() : LocalDate.parse(texto);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("dia debe tener el formato AAAA-MM-DD.");
+        }
+        Map<Integer, Long> porRepartidor = acumulados.getEntregasPorRepartidor(dia);
+        long total = 0;
+        StringBuilder sb = new StringBuilder(64 + 16 * porRepartidor.size());
+        sb.append("{\"dia\":\"").append(dia).append("\",\"porRepartidor\":{");
+        boolean primero = true;
+        for (Map.Entry<Integer, Long> e : porRepartidor.entrySet()) {
+            if (!primero) sb.append(',');
+            sb.append('"').append(e.getKey()).append("\":").append(e.getValue());
+            total += e.getValue();
+            primero = false;
+        }
+        return Respuesta.ok(sb.append("},\"total\":").append(total).append('}').toString());
+    }
+
+    // Mismas reglas que el formulario de pedidos: el constructor de cada tipo valida los datos
+    private static Pedido nuevoPedido(int id, String direccion, double distanciaKm, Pedido.TipoPedido tipo) {
+        switch (tipo) {
+            case COMIDA: return new PedidoComida(id, direccion, distanciaKm);
+            case ENCOMIENDA: return new PedidoEncomienda(id, direccion, distanciaKm);
+            default: return new PedidoCompraXpress(id, direccion, distanciaKm);
+        }
+    }
+
+    private static StringBuilder escribirPedido(StringBuilder sb, Pedido pedido) {
+        sb.append("{\"id\":").append(pedido.getIdPedido()).append(",\"direccion\":");
+        Json.cadena(sb, pedido.getDireccionEntrega());
+        return sb.append(",\"tipo\":\"").append(pedido.getTipoPedido().name())
+                .append("\",\"estado\":\"").append(pedido.getEstado().name()).append("\"}");
+    }
+
+    private static StringBuilder escribirEntrega(StringBuilder sb, Entrega entrega) {
+        sb.append("{\"id\":").append(entrega.getId())
+                .append(",\"idPedido\":").append(entrega.getIdPedido())
+                .append(",\"idRepartidor\":").append(entrega.getIdRepartidor())
+                .append(",\"fecha\":");
+        Json.cadena(sb, entrega.getFecha() == null ? null : entrega.getFecha().toString());
+        sb.append(",\"hora\":");
+        Json.cadena(sb, entrega.getHora() == null ? null : entrega.getHora().toString());
+        return sb.append('}');
+    }
+
+    private static StringBuilder escribirRepartidor(StringBuilder sb, Repartidor repartidor) {
+        sb.append("{\"id\":").append(repartidor.getId()).append(",\"nombre\":");
+        return Json.cadena(sb, repartidor.getNombre()).append('}');
+    }
+
+    private static String nombreDe(Map<String, Object> campos) {
+        String nombre = texto(campos, "nombre").trim();
+        if (nombre.isEmpty()) throw new IllegalArgumentException("El nombre es obligatorio.");
+        return nombre;
+    }
+
+    private static Pedido.TipoPedido tipoDe(String texto) {
+        try {
+            return Pedido.TipoPedido.valueOf(texto.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tipo de pedido desconocido: '" + texto + "'.");
+        }
+    }
+
+    private static EstadoPedido estadoDe(String texto) {
+        try {
+            return EstadoPedido.valueOf(texto.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Estado desconocido: '" + texto + "'.");
+        }
+    }
+
+    private static String texto(Map<String, Object> campos, String nombre) {
+        String valor = textoOpcional(campos, nombre);
+        if (valor == null) throw new IllegalArgumentException("Falta el campo '" + nombre + "'.");
+        return valor;
+    }
+
+    private static String textoOpcional(Map<String, Object> campos, String nombre) {
+        Object valor = campos.get(nombre);
+        if (valor != null && !(valor instanceof String)) throw new IllegalArgumentException("El campo '" + nombre + "' debe ser texto.");
+        return (String) valor;
+    }
+
+    private static int entero(Map<String, Object> campos, String nombre) {
+        Object valor = campos.get(nombre);
+        if (!(valor instanceof Json.Numero)) throw new IllegalArgumentException("Falta el campo numérico '" + nombre + "'.");
+        try {
+            return Integer.parseInt(valor.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El campo '" + nombre + "' debe ser un entero.");
+        }
+    }
+
+    private static double decimal(Map<String, Object> campos, String nombre, double porDefecto) {
+        Object valor = campos.get(nombre);
+        if (valor == null) return porDefecto;
+        if (!(valor instanceof Json.Numero)) throw new IllegalArgumentException("El campo '" + nombre + "' debe ser numérico.");
+        try {
+            return Double.parseDouble(valor.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El campo '" + nombre + "' debe ser numérico.");
+        }
+    }
+
+    private static ErrorHttp metodoNoPermitido() {
+        return new ErrorHttp(405, "Método no permitido.");
+    }
+
+
+    /** Solicitud ya leída: método, recurso (primer segmento), resto de la ruta, parámetros y cuerpo. */
+    private static final class Solicitud {
+        private final String metodo;
+        private final String destino;
+        private final String recurso;
+        private final String[] ruta;
+        private final Map<String, String> parametros;
+        private final byte[] cuerpo;
+        private final boolean mantenerAbierta;
+
+        private Solicitud(String metodo, String destino, String recurso, String[] ruta, Map<String, String> parametros,
+                          byte[] cuerpo, boolean mantenerAbierta) {
+            this.metodo = metodo;
+            this.destino = destino;
+            this.recurso = recurso;
+            this.ruta = ruta;
+            this.parametros = parametros;
+            this.cuerpo = cuerpo;
+            this.mantenerAbierta = mantenerAbierta;
+        }
+
+        /**
+         * Lee la siguiente solicitud de la conexión.
+         *
+         * @return solicitud leída, o null si el cliente cerró la conexión antes de enviar otra.
+         * @throws ErrorHttp si la solicitud no es válida (la conexión debe cerrarse).
+         * @throws IOException si la conexión se corta a mitad de la solicitud.
+         */
+        private static Solicitud leer(InputStream entrada, OutputStream salida) throws IOException {
+            String linea = leerLinea(entrada, true);
+            while (linea != null && linea.isEmpty()) linea = leerLinea(entrada, true); // CRLF sueltos entre solicitudes
+            if (linea == null) return null;
+
+            String[] partes = linea.split(" ");
+            if (partes.length != 3) throw new ErrorHttp(400, "Línea de solicitud no válida.");
+            boolean http11 = "HTTP/1.1".equals(partes[2]);
+            if (!http11 && !"HTTP/1.0".equals(partes[2])) throw new ErrorHttp(505, "Solo se admite HTTP/1.0 y HTTP/1.1.");
+
+            Map<String, String> encabezados = new HashMap<>();
+            for (int n = 0; ; n++) {
+                String encabezado = leerLinea(entrada, false);
+                if (encabezado.isEmpty()) break;
+                if (n == MAXIMO_ENCABEZADOS) throw new ErrorHttp(431, "Demasiados encabezados.");
+                int dosPuntos = encabezado.indexOf(':');
+                if (dosPuntos <= 0) throw new ErrorHttp(400, "Encabezado no válido.");
+                encabezados.merge(encabezado.substring(0, dosPuntos).trim().toLowerCase(Locale.ROOT),
+                        encabezado.substring(dosPuntos + 1).trim(), (a, b) -> a + ", " + b);
+            }
+            if (encabezados.containsKey("transfer-encoding")) {
+                throw new ErrorHttp(501, "Transfer-Encoding no soportado; envíe Content-Length.");
+            }
+            int largo = 0;
+            String contentLength = encabezados.get("content-length");
+            if (contentLength != null) {
+                try {
+                    largo = Integer.parseInt(contentLength);
+                } catch (NumberFormatException e) {
+                    throw new ErrorHttp(400, "Content-Length no válido.");
+                }
+                if (largo < 0) throw new ErrorHttp(400, "Content-Length no válido.");
+                if (largo > MAXIMO_CUERPO) throw new ErrorHttp(413, "El cuerpo supera los " + MAXIMO_CUERPO + " bytes.");
+            }
+            if (largo > 0 && "100-continue".equalsIgnoreCase(encabezados.get("expect"))) {
+                salida.write("HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                salida.flush();
+            }
+            byte[] cuerpo = entrada.readNBytes(largo);
+            if (cuerpo.length < largo) throw new EOFException();
+
+            String conexion = encabezados.getOrDefault("connection", "");
+            boolean mantenerAbierta = http11 ? !"close".equalsIgnoreCase(conexion) : "keep-alive".equalsIgnoreCase(conexion);
+
+            URI uri;
+            try {
+                uri = new URI(partes[1]);
+            } catch (URISyntaxException e) {
+                throw new ErrorHttp(400, "Ruta no válida.");
+            }
+            String camino = uri.getPath() == null ? "" : uri.getPath().replaceAll("^/+|/+$", "");
+            String[] segmentos = camino.isEmpty() ? new String[0] : camino.split("/+");
+            String recurso = segmentos.length == 0 ? "" : segmentos[0];
+            String[] ruta = segmentos.length <= 1 ? new String[0] : Arrays.copyOfRange(segmentos, 1, segmentos.length);
+            Map<String, String> parametros;
+            try {
+                parametros = leerParametros(uri.getRawQuery());
+            } catch (IllegalArgumentException e) { // escape % mal formado
+                throw new ErrorHttp(400, "Parámetros de consulta no válidos.");
+            }
+            return new Solicitud(partes[0], partes[1], recurso, ruta, parametros, cuerpo, mantenerAbierta);
+        }
+
+        // Línea terminada en LF (con o sin CR), en ISO-8859-1; null si la conexión se cerró antes del primer byte
+        private static String leerLinea(InputStream entrada, boolean puedeTerminar) throws IOException {
+            ByteArrayOutputStream linea = new ByteArrayOutputStream(128);
+            while (true) {
+                int b = entrada.read();
+                if (b < 0) {
+                    if (puedeTerminar && linea.size() == 0) return null;
+                    throw new EOFException();
+                }
+                if (b == '\n') break;
+                if (linea.size() == MAXIMO_LINEA) throw new ErrorHttp(431, "Línea de solicitud o encabezado demasiado largo.");
+                linea.write(b);
+            }
+            String texto = linea.toString(StandardCharsets.ISO_8859_1);
+            return texto.endsWith("\r") ? texto.substring(0, texto.length() - 1) : texto;
+        }
+
+        private int id() {
+            if (ruta.length != 1) throw new ErrorHttp(404, "Ruta no encontrada.");
+            try {
+                return Integer.parseInt(ruta[0]);
+            } catch (NumberFormatException e) {
+                throw new ErrorHttp(404, "Ruta no encontrada.");
+            }
+        }
+
+        private int entero(String nombre, int porDefecto) {
+            String valor = parametros.get(nombre);
+            if (valor == null) return porDefecto;
+            try {
+                return Integer.parseInt(valor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("El parámetro '" + nombre + "' debe ser un entero.");
+            }
+        }
+
+        private int limite() {
+            int limite = entero("limite", LIMITE_POR_DEFECTO);
+            if (limite <= 0 || limite > LIMITE_MAXIMO) throw new IllegalArgumentException("limite debe estar entre 1 y " + LIMITE_MAXIMO + ".");
+            return limite;
+        }
+
+        private Map<String, Object> json() {
+            return Json.leerObjeto(new String(cuerpo, StandardCharsets.UTF_8));
+        }
+
+        private static Map<String, String> leerParametros(String consulta) {
+            Map<String, String> parametros = new HashMap<>();
+            if (consulta == null || consulta.isEmpty()) return parametros;
+            for (String par : consulta.split("&")) {
+                int igual = par.indexOf('=');
+                String nombre = igual < 0 ? par : par.substring(0, igual);
+                String valor = igual < 0 ? "" : par.substring(igual + 1);
+                parametros.put(URLDecoder.decode(nombre, StandardCharsets.UTF_8), URLDecoder.decode(valor, StandardCharsets.UTF_8));
+            }
+            return parametros;
+        }
+    }
+
+    private static final class Respuesta {
+        private final int codigo;
+        private final String cuerpo;
+
+        private Respuesta(int codigo, String cuerpo) {
+            this.codigo = codigo;
+            this.cuerpo = cuerpo;
+        }
+
+        private static Respuesta ok(String json) { return new Respuesta(200, json); }
+
+        private static Respuesta creado(String json) { return new Respuesta(201, json); }
+
+        private static Respuesta sinContenido() { return new Respuesta(204, null); }
+
+        private static Respuesta error(int codigo, String mensaje) {
+            return new Respuesta(codigo, Json.cadena(new StringBuilder("{\"error\":"), mensaje).append('}').toString());
+        }
+    }
+
+    /** Error con su código HTTP, para cortar el manejo de una solicitud. */
+    private static final class ErrorHttp extends RuntimeException {
+        private final int codigo;
+
+        private ErrorHttp(int codigo, String mensaje) {
+            super(mensaje, null, false, false);
+            this.codigo = codigo;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.api;
+
+/**
+ * Vista JMX del {@link ServidorHttp}: conexiones abiertas y solicitudes en curso, atendidas y rechazadas.
+ */
+public interface ServidorHttpMXBean {
+
+    /** @return puerto en que escucha el servidor. */
+    int getPuerto();
+
+    /** @return solicitudes atendidas a la vez como máximo. */
+    int getConcurrencia();
+
+    /** @return solicitudes en curso. */
+    int getEnCurso();
+
+    /** @return conexiones abiertas (persistentes, atendiendo o inactivas). */
+    int getConexionesAbiertas();
+
+    /** @return solicitudes atendidas (cualquier código de respuesta salvo 503 por saturación). */
+    long getAtendidas();
+
+    /** @return solicitudes rechazadas con 503 por superar la concurrencia durante la espera máxima. */
+    long getRechazadasPorSaturacion();
+
+    /** @return respuestas 4xx. */
+    long getErroresCliente();
+
+    /** @return respuestas 5xx (sin contar los rechazos por saturación). */
+    long getErroresServidor();
+}
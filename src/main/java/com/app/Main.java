@@ -1,15 +1,92 @@
 package com.app;
 
+import com.api.ServidorHttp;
+import com.dao.AcumuladosEntregas;
+import com.dao.ConexionDB;
+import com.dao.DiarioTransiciones;
+import com.dao.EntregaDAO;
+import com.dao.EscrituraDiferidaEstados;
+import com.dao.ImportadorCsvPedidos;
+import com.dao.PedidoDAO;
+import com.dao.RepartidorDAO;
+import com.dao.RespaldoProtobuf;
+import com.metricas.Metricas;
+import com.model.EstadoPedido;
+import com.model.Pedido;
 import com.ui.VentanaPrincipal;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
 import javax.swing.SwingUtilities;
 
 /**
  * Punto de entrada del sistema SpeedFast (Semana 8).
  * Inicia la interfaz gráfica de usuario conectada a la base de datos.
+ * <p>
+ * Con {@code exportar <archivo>} o {@code importar <archivo>} no abre la interfaz: transfiere
+ * un respaldo binario ({@link RespaldoProtobuf}) y termina. Con {@code importar-csv <archivo> [rechazos]}
+ * carga pedidos desde un CSV ({@link ImportadorCsvPedidos}) y termina. Con {@code servidor [puerto]} no abre la
+ * interfaz y atiende la API HTTP ({@link ServidorHttp}) hasta que se detiene el proceso.
+ * </p>
  */
 public class Main {
 
     public static void main(String[] args) {
+        if (args.length == 2 && ("exportar".equals(args[0]) || "importar".equals(args[0]))) {
+            System.exit(transferirRespaldo(args[0], args[1]) ? 0 : 1);
+        }
+        if ((args.length == 2 || args.length == 3) && "importar-csv".equals(args[0])) {
+            System.exit(importarCsv(args[1], args.length == 3 ? args[2] : args[1] + ".rechazos.csv") ? 0 : 1);
+        }
+
+        boolean servidor = (args.length == 1 || args.length == 2) && "servidor".equals(args[0]);
+        int puerto = servidor ? leerPuerto(args.length == 2 ? args[1] : System.getProperty("speedfast.http.puerto", "8080")) : -1;
+        if (servidor && puerto < 0) System.exit(1);
+
+        // Abrimos las conexiones mínimas del pool antes de mostrar la interfaz
+        ConexionDB.precalentar();
+
+        // Las transiciones de estado de los pedidos se guardan en lotes, en segundo plano
+        EscrituraDiferidaEstados escrituraEstados = new EscrituraDiferidaEstados(new PedidoDAO());
+        Metricas.publicar("EscrituraDiferida", "estados", escrituraEstados);
+
+        // Y además en el diario local, que se reproduce al iniciar sin consultar la base de datos
+        DiarioTransiciones diario = abrirDiario();
+        if (diario != null) recuperarEstados(diario, escrituraEstados);
+
+        // Entregas por repartidor y transiciones por tipo, por hora, sin recorrer las tablas
+        AcumuladosEntregas acumulados = new AcumuladosEntregas();
+        Metricas.publicar("AcumuladosEntregas", "entregas", acumulados);
+        EntregaDAO.setObservadorEntregas(acumulados);
+
+        Pedido.ObservadorEstado persistencia = diario == null ? escrituraEstados : diario.luego(escrituraEstados);
+        Pedido.setObservadorEstado(persistencia.luego(acumulados));
+
+        ServidorHttp api = servidor
+                ? iniciarServidor(puerto, acumulados)
+                : null;
+        if (servidor && api == null) System.exit(1);
+
+        // Un solo gancho: lo pendiente debe escribirse antes de cerrar el pool
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (api != null) api.detener(5);
+            long marca = diario == null ? 0 : diario.getUltimaSecuencia();
+            boolean escritos = escrituraEstados.cerrar();
+            if (diario != null) {
+                if (escritos) diario.marcarPersistido(marca);
+                diario.cerrar();
+            }
+            acumulados.cerrar();
+            ConexionDB.cerrar();
+        }, "speedfast-cierre"));
+
+        // En modo servidor el hilo que acepta conexiones mantiene viva la JVM
+        if (servidor) return;
+
         // Ejecutamos la interfaz gráfica en el hilo de eventos de Swing
         SwingUtilities.invokeLater(() -> {
             VentanaPrincipal ventana = new VentanaPrincipal();
@@ -20,4 +97,130 @@ public class Main {
          * reemplazada por la interfaz gráfica (CRUD completo) de la Semana 8.
          */
     }
-}
\ No newline at end of file
+
+    /**
+     * Exporta o importa un respaldo binario y cierra el pool.
+     *
+     * @param operacion {@code exportar} o {@code importar}.
+     * @param archivo   ruta del respaldo.
+     * @return true si la transferencia terminó sin errores de E/S.
+     */
+    private static boolean transferirRespaldo(String operacion, String archivo) {
+        RespaldoProtobuf respaldo = new RespaldoProtobuf();
+        long inicio = System.nanoTime();
+        try {
+            RespaldoProtobuf.Resumen resumen;
+            if ("exportar".equals(operacion)) {
+                try (OutputStream salida = Files.newOutputStream(Paths.get(archivo))) {
+                    resumen = respaldo.exportar(salida);
+                }
+            } else {
+                try (InputStream entrada = Files.newInputStream(Paths.get(archivo))) {
+                    resumen = respaldo.importar(entrada);
+                }
+            }
+            System.out.println("Respaldo " + archivo + ": " + resumen + " en " + (System.nanoTime() - inicio) / 1_000_000 + " ms.");
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error al " + operacion + " el respaldo '" + archivo + "': " + e.getMessage());
+            return false;
+        } finally {
+            ConexionDB.cerrar();
+        }
+    }
+
+    /**
+     * Importa pedidos desde un CSV y cierra el pool.
+     *
+     * @param archivo  ruta del CSV ({@code direccion,tipo,distancia_km}).
+     * @param rechazos ruta donde se escriben las filas rechazadas.
+     * @return true si la importación terminó sin errores de E/S (aunque haya filas rechazadas).
+     */
+    private static boolean importarCsv(String archivo, String rechazos) {
+        try {
+            ImportadorCsvPedidos.Resultado resultado = new ImportadorCsvPedidos(new PedidoDAO())
+                    .importar(Paths.get(archivo), Paths.get(rechazos));
+            System.out.println("Importación " + archivo + ": " + resultado);
+            if (resultado.getRechazados() > 0) {
+                System.out.println("Filas rechazadas en " + rechazos);
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error al importar el CSV '" + archivo + "': " + e.getMessage());
+            return false;
+        } finally {
+            ConexionDB.cerrar();
+        }
+    }
+
+    /**
+     * @param texto puerto indicado en la línea de comandos o en {@code speedfast.http.puerto}.
+     * @return puerto (0 para uno libre), o -1 si no es un número entre 0 y 65535.
+     */
+    private static int leerPuerto(String texto) {
+        try {
+            int puerto = Integer.parseInt(texto.trim());
+            if (puerto >= 0 && puerto <= 65535) return puerto;
+        } catch (NumberFormatException e) {
+            // se informa abajo
+        }
+        System.err.println("Puerto no válido para la API HTTP: '" + texto + "' (debe ser un número entre 0 y 65535).");
+        return -1;
+    }
+
+    /**
+     * Inicia la API HTTP en la dirección configurada ({@code speedfast.http.host}, por defecto solo local).
+     *
+     * @param puerto     puerto de escucha.
+     * @param acumulados acumulados de entregas que expone la API.
+     * @return servidor iniciado, o null si no se pudo abrir el puerto.
+     */
+    private static ServidorHttp iniciarServidor(int puerto, AcumuladosEntregas acumulados) {
+        String host = System.getProperty("speedfast.http.host", "127.0.0.1");
+        try {
+            ServidorHttp http = new ServidorHttp(new InetSocketAddress(host, puerto),
+                    new PedidoDAO(), new EntregaDAO(), new RepartidorDAO(), acumulados);
+            http.iniciar();
+            Metricas.publicar("ServidorHttp", "api", http);
+            System.out.println("API HTTP escuchando en http://" + host + ":" + http.getPuerto() + "/");
+            return http;
+        } catch (IOException e) {
+            System.err.println("Error al iniciar la API HTTP en " + host + ":" + puerto + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Vuelve a encolar los estados del diario que no llegaron a la base de datos antes del último
+     * cierre (por ejemplo, si la aplicación se cayó con la escritura diferida pendiente).
+     *
+     * @param diario           diario ya reproducido.
+     * @param escrituraEstados escritura diferida donde encolarlos.
+     */
+    private static void recuperarEstados(DiarioTransiciones diario, EscrituraDiferidaEstados escrituraEstados) {
+        Map<Integer, EstadoPedido> sinPersistir = diario.getEstadosSinPersistir();
+        if (sinPersistir.isEmpty()) return;
+        sinPersistir.forEach(escrituraEstados::encolar);
+        System.out.println("Diario de transiciones: " + sinPersistir.size() + " estados sin guardar vueltos a encolar.");
+    }
+
+    /**
+     * Abre el diario de transiciones del directorio configurado ({@code speedfast.diario.dir}).
+     *
+     * @return diario abierto, o null si no se pudo abrir (la aplicación sigue sin él).
+     */
+    private static DiarioTransiciones abrirDiario() {
+        String directorio = System.getProperty("speedfast.diario.dir", "diario");
+        boolean durable = Boolean.parseBoolean(System.getProperty("speedfast.diario.durable", "true"));
+        try {
+            DiarioTransiciones diario = new DiarioTransiciones(Paths.get(directorio), durable);
+            Metricas.publicar("DiarioTransiciones", "estados", diario);
+            System.out.println("Diario de transiciones: " + diario.getPedidosIndexados() + " pedidos reproducidos en "
+                    + diario.getReproduccionMs() + " ms.");
+            return diario;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error al abrir el diario de transiciones en '" + directorio + "': " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.controlador;
+
+import com.model.EstadoPedido;
+import com.model.Pedido;
+import com.model.Repartidor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Motor de asignación en lote de pedidos pendientes a repartidores, balanceando la carga.
+ * <p>
+ * Reemplaza la regla fija de cada tipo de pedido ({@link Pedido#asignarRepartidor()}) y la elección
+ * manual en la ventana de entregas: recibe los pedidos pendientes y los repartidores disponibles
+ * y reparte los pedidos para que la ruta más larga (suma de {@link Pedido#calcularTiempoEntrega()}
+ * de sus pedidos) sea lo más corta posible.
+ * </p>
+ *
+ * <h2>Algoritmo</h2>
+ * <ol>
+ *   <li><b>Voraz (LPT)</b>: los pedidos se toman de mayor a menor tiempo estimado y cada uno va al
+ *       repartidor con menos carga (un heap de mínimos sobre arreglos primitivos).</li>
+ *   <li><b>Búsqueda local</b>: mientras mejore, se mueve un pedido del repartidor más cargado al
+ *       menos cargado, o se intercambia un pedido entre ambos.</li>
+ *   <li>Cada ruta se ordena de menor a mayor tiempo, lo que minimiza la espera total de los clientes
+ *       sin cambiar la carga de ningún repartidor.</li>
+ * </ol>
+ * <p>
+ * La carga previa de cada repartidor (sus pedidos asignados que aún no se entregan) se respeta y
+ * no se mueve. Con 10.000 pedidos y 1.000 repartidores la asignación toma pocos milisegundos.
+ * </p>
+ */
+public class AsignadorRepartidores {
+
+    private static final int ITERACIONES_POR_DEFECTO = 5000;
+
+    private final int maximoIteraciones;
+
+    /**
+     * Crea un asignador con el límite de iteraciones de búsqueda local por defecto.
+     */
+    public AsignadorRepartidores() {
+        this(ITERACIONES_POR_DEFECTO);
+    }
+
+    /**
+     * Crea un asignador.
+     *
+     * @param maximoIteraciones iteraciones máximas de búsqueda local (0 = solo la asignación voraz).
+     * @throws IllegalArgumentException si el máximo es negativo.
+     */
+    public AsignadorRepartidores(int maximoIteraciones) {
+        if (maximoIteraciones < 0) throw new IllegalArgumentException("maximoIteraciones no puede ser negativo.");
+        this.maximoIteraciones = maximoIteraciones;
+    }
+
+    /**
+     * Calcula una asignación balanceada. No modifica los pedidos ni los repartidores;
+     * para aplicarla use {@link Resultado#aplicar()}.
+     *
+     * @param pedidos      pedidos a asignar; se omiten los cancelados y los que no están PENDIENTE.
+     * @param repartidores repartidores disponibles (al menos uno si hay pedidos que asignar).
+     * @return asignación calculada.
+     * @throws IllegalArgumentException si alguna lista es nula o no hay repartidores para pedidos válidos.
+     */
+    public Resultado asignar(List<? extends Pedido> pedidos, List<? extends Repartidor> repartidores) {
+        if (pedidos == null || repartidores == null) throw new IllegalArgumentException("Las listas no pueden ser nulas.");
+        long inicioNs = System.nanoTime();
+
+        List<Pedido> listaPedidos = new ArrayList<>(pedidos);
+        List<Repartidor> listaRepartidores = new ArrayList<>(repartidores);
+        int n = listaPedidos.size();
+        int m = listaRepartidores.size();
+
+        int[] tiempos = new int[n];
+        int[] asignacion = new int[n];
+        Arrays.fill(asignacion, -1);
+        int validos = 0;
+        long totalMinutos = 0;
+        int mayorTiempo = 0;
+        for (int i = 0; i < n; i++) {
+            Pedido p = listaPedidos.get(i);
+            if (p.isCancelado() || p.getEstado() != EstadoPedido.PENDIENTE) continue;
+            tiempos[i] = Math.max(0, p.calcularTiempoEntrega());
+            asignacion[i] = 0; // marca provisional de "válido"; se reemplaza en la fase voraz
+            validos++;
+            totalMinutos += tiempos[i];
+            mayorTiempo = Math.max(mayorTiempo, tiempos[i]);
+        }
+        if (validos > 0 && m == 0) throw new IllegalArgumentException("No hay repartidores disponibles.");
+
+        long[] cargas = new long[m];
+        long cargaPreviaMaxima = 0;
+        for (int j = 0; j < m; j++) {
+            for (Pedido p : listaRepartidores.get(j).getPedidosAsignados()) {
+                if (!p.isCancelado() && p.getEstado() != EstadoPedido.ENTREGADO) {
+                    cargas[j] += Math.max(0, p.calcularTiempoEntrega());
+                }
+            }
+            totalMinutos += cargas[j];
+            cargaPreviaMaxima = Math.max(cargaPreviaMaxima, cargas[j]);
+        }
+
+        Rutas rutas = new Rutas(n, m);
+        asignarVoraz(tiempos, asignacion, cargas, rutas);
+        int movimientos = buscarLocalmente(tiempos, asignacion, cargas, rutas);
+
+        long cargaMaxima = 0;
+        for (long c : cargas) cargaMaxima = Math.max(cargaMaxima, c);
+        long cotaInferior = m == 0 ? 0 : Math.max(Math.max((totalMinutos + m - 1) / m, mayorTiempo), cargaPreviaMaxima);
+
+        return new Resultado(listaPedidos, listaRepartidores, asignacion, rutas.ordenadasPorTiempo(tiempos),
+                cargas, validos, cargaMaxima, cotaInferior, movimientos, System.nanoTime() - inicioNs);
+    }
+
+    /**
+     * Fase voraz LPT: de mayor a menor tiempo, cada pedido va al repartidor con menos carga.
+     */
+    private static void asignarVoraz(int[] tiempos, int[] asignacion, long[] cargas, Rutas rutas) {
+        int n = tiempos.length;
+        int m = cargas.length;
+
+        // Orden descendente por tiempo, empaquetando (tiempo, índice) en un long para ordenar sin objetos
+        long[] orden = new long[n];
+        int validos = 0;
+        for (int i = 0; i < n; i++) {
+            if (asignacion[i] >= 0) orden[validos++] = ((long) tiempos[i] << 32) | i;
+        }
+        Arrays.sort(orden, 0, validos);
+
+        int[] heap = new int[m];
+        for (int j = 0; j < m; j++) heap[j] = j;
+        for (int j = m / 2 - 1; j >= 0; j--) hundir(heap, j, cargas);
+
+        for (int k = validos - 1; k >= 0; k--) {
+            int i = (int) orden[k];
+            int j = heap[0];
+            asignacion[i] = j;
+            cargas[j] += tiempos[i];
+            rutas.agregar(j, i);
+            hundir(heap, 0, cargas);
+        }
+    }
+
+    /** Restaura el heap de mínimos (por carga y luego por índice) desde la posición indicada. */
+    private static void hundir(int[] heap, int i, long[] cargas) {
+        int m = heap.length;
+        int valor = heap[i];
+        while (true) {
+            int hijo = 2 * i + 1;
+            if (hijo >= m) break;
+            if (hijo + 1 < m && menor(heap[hijo + 1], heap[hijo], cargas)) hijo++;
+            if (!menor(heap[hijo], valor, cargas)) break;
+            heap[i] = heap[hijo];
+            i = hijo;
+        }
+        heap[i] = valor;
+    }
+
+    private static boolean menor(int a, int b, long[] cargas) {
+        return cargas[a] < cargas[b] || (cargas[a] == cargas[b] && a < b);
+    }
+
+    /**
+     * Búsqueda local sobre el repartidor más cargado y el menos cargado: mueve o intercambia
+     * el pedido que deja a ambos más parejos, mientras la diferencia se reduzca.
+     *
+     * @return cantidad de movimientos e intercambios aplicados.
+     */
+    private int buscarLocalmente(int[] tiempos, int[] asignacion, long[] cargas, Rutas rutas) {
+        int m = cargas.length;
+        int movimientos = 0;
+        for (int iteracion = 0; iteracion < maximoIteraciones && m > 1; iteracion++) {
+            int masCargado = 0;
+            int menosCargado = 0;
+            for (int j = 1; j < m; j++) {
+                if (cargas[j] > cargas[masCargado]) masCargado = j;
+                if (cargas[j] < cargas[menosCargado]) menosCargado = j;
+            }
+            long diferencia = cargas[masCargado] - cargas[menosCargado];
+            if (diferencia <= 1) break;
+
+            // Mover un pedido de tiempo t mejora si 0 < t < diferencia; lo ideal es t = diferencia / 2
+            int mejorA = -1;
+            int mejorB = -1;
+            long mejorDesvio = Long.MAX_VALUE;
+            for (int a = rutas.primero[masCargado]; a >= 0; a = rutas.siguiente[a]) {
+                long t = tiempos[a];
+                if (t > 0 && t < diferencia) {
+                    long desvio = Math.abs(diferencia - 2 * t);
+                    if (desvio < mejorDesvio) {
+                        mejorDesvio = desvio;
+                        mejorA = a;
+                    }
+                }
+            }
+            for (int a = rutas.primero[masCargado]; a >= 0; a = rutas.siguiente[a]) {
+                for (int b = rutas.primero[menosCargado]; b >= 0; b = rutas.siguiente[b]) {
+                    long d = (long) tiempos[a] - tiempos[b];
+                    if (d > 0 && d < diferencia) {
+                        long desvio = Math.abs(diferencia - 2 * d);
+                        if (desvio < mejorDesvio) {
+                            mejorDesvio = desvio;
+                            mejorA = a;
+                            mejorB = b;
+                        }
+                    }
+                }
+            }
+            if (mejorA < 0) break; // el más cargado no tiene pedidos movibles que mejoren
+
+            mover(mejorA, masCargado, menosCargado, tiempos, asignacion, cargas, rutas);
+            if (mejorB >= 0) {
+                mover(mejorB, menosCargado, masCargado, tiempos, asignacion, cargas, rutas);
+            }
+            movimientos++;
+        }
+        return movimientos;
+    }
+
+    private static void mover(int pedido, int desde, int hacia, int[] tiempos, int[] asignacion, long[] cargas, Rutas rutas) {
+        rutas.quitar(desde, pedido);
+        rutas.agregar(hacia, pedido);
+        asignacion[pedido] = hacia;
+        cargas[desde] -= tiempos[pedido];
+        cargas[hacia] += tiempos[pedido];
+    }
+
+    /**
+     * Pedidos de cada repartidor como listas doblemente enlazadas sobre arreglos (quitar y agregar en O(1)).
+     */
+    private static final class Rutas {
+        private final int[] primero;
+        private final int[] siguiente;
+        private final int[] anterior;
+
+        private Rutas(int pedidos, int repartidores) {
+            this.primero = new int[repartidores];
+            this.siguiente = new int[pedidos];
+            this.anterior = new int[pedidos];
+            Arrays.fill(primero, -1);
+        }
+
+        private void agregar(int repartidor, int pedido) {
+            int cabeza = primero[repartidor];
+            siguiente[pedido] = cabeza;
+            anterior[pedido] = -1;
+            if (cabeza >= 0) anterior[cabeza] = pedido;
+            primero[repartidor] = pedido;
+        }
+
+        private void quitar(int repartidor, int pedido) {
+            int a = anterior[pedido];
+            int s = siguiente[pedido];
+            if (a >= 0) siguiente[a] = s; else primero[repartidor] = s;
+            if (s >= 0) anterior[s] = a;
+        }
+
+        /** @return índices de los pedidos de cada repartidor, de menor a mayor tiempo (y luego por índice). */
+        private int[][] ordenadasPorTiempo(int[] tiempos) {
+            int[][] resultado = new int[primero.length][];
+            for (int j = 0; j < primero.length; j++) {
+                int cantidad = 0;
+                for (int i = primero[j]; i >= 0; i = siguiente[i]) cantidad++;
+                long[] claves = new long[cantidad];
+                int k = 0;
+                for (int i = primero[j]; i >= 0; i = siguiente[i]) claves[k++] = ((long) tiempos[i] << 32) | i;
+                Arrays.sort(claves);
+                int[] ruta = new int[cantidad];
+                for (k = 0; k < cantidad; k++) ruta[k] = (int) claves[k];
+                resultado[j] = ruta;
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Asignación calculada por {@link #asignar(List, List)}.
+     */
+    public static final class Resultado {
+        private final List<Pedido> pedidos;
+        private final List<Repartidor> repartidores;
+        private final int[] asignacion;
+        private final int[][] rutas;
+        private final long[] cargas;
+        private final int asignados;
+        private final long cargaMaxima;
+        private final long cotaInferior;
+        private final int movimientos;
+        private final long duracionNs;
+
+        private Resultado(List<Pedido> pedidos, List<Repartidor> repartidores, int[] asignacion, int[][] rutas,
+                          long[] cargas, int asignados, long cargaMaxima, long cotaInferior, int movimientos, long duracionNs) {
+            this.pedidos = pedidos;
+            this.repartidores = repartidores;
+            this.asignacion = asignacion;
+            this.rutas = rutas;
+            this.cargas = cargas;
+            this.asignados = asignados;
+            this.cargaMaxima = cargaMaxima;
+            this.cotaInferior = cotaInferior;
+            this.movimientos = movimientos;
+            this.duracionNs = duracionNs;
+        }
+
+        /**
+         * @param indicePedido posición del pedido en la lista recibida.
+         * @return repartidor asignado, o null si el pedido se omitió.
+         */
+        public Repartidor getRepartidorDe(int indicePedido) {
+            int j = asignacion[indicePedido];
+            return j < 0 ? null : repartidores.get(j);
+        }
+
+        /**
+         * @param indiceRepartidor posición del repartidor en la lista recibida.
+         * @return pedidos asignados a ese repartidor, en el orden en que conviene entregarlos.
+         */
+        public List<Pedido> getRuta(int indiceRepartidor) {
+            int[] ruta = rutas[indiceRepartidor];
+            List<Pedido> lista = new ArrayList<>(ruta.length);
+            for (int i : ruta) lista.add(pedidos.get(i));
+            return lista;
+        }
+
+        /**
+         * @param indiceRepartidor posición del repartidor en la lista recibida.
+         * @return carga total del repartidor en minutos, incluida su carga previa.
+         */
+        public long getCargaMinutos(int indiceRepartidor) { return cargas[indiceRepartidor]; }
+
+        /** @return IDs de los pedidos asignados, agrupados por repartidor (para {@code EntregaDAO.asignarEntregas}). */
+        public int[] getIdsPedido() {
+            int[] ids = new int[asignados];
+            int k = 0;
+            for (int[] ruta : rutas) {
+                for (int i : ruta) ids[k++] = pedidos.get(i).getIdPedido();
+            }
+            return ids;
+        }
+
+        /** @return ID del repartidor de cada pedido, en el mismo orden que {@link #getIdsPedido()}. */
+        public int[] getIdsRepartidor() {
+            int[] ids = new int[asignados];
+            int k = 0;
+            for (int j = 0; j < rutas.length; j++) {
+                Arrays.fill(ids, k, k + rutas[j].length, repartidores.get(j).getId());
+                k += rutas[j].length;
+            }
+            return ids;
+        }
+
+        /**
+         * Aplica la asignación en memoria: agrega cada pedido a la ruta de su repartidor
+         * (en orden de menor a mayor tiempo) y registra el nombre del repartidor en el pedido.
+         */
+        public void aplicar() {
+            for (int j = 0; j < rutas.length; j++) {
+                Repartidor r = repartidores.get(j);
+                for (int i : rutas[j]) {
+                    Pedido p = pedidos.get(i);
+                    r.getPedidosAsignados().add(p);
+                    if (r.getNombre() != null && !r.getNombre().trim().isEmpty()) {
+                        p.asignarRepartidor(r.getNombre());
+                    }
+                }
+            }
+        }
+
+        /** @return cantidad de pedidos asignados. */
+        public int getAsignados() { return asignados; }
+
+        /** @return cantidad de pedidos omitidos por estar cancelados o no PENDIENTE. */
+        public int getOmitidos() { return pedidos.size() - asignados; }
+
+        /** @return carga del repartidor más cargado, en minutos. */
+        public long getCargaMaxima() { return cargaMaxima; }
+
+        /** @return cota inferior de la carga máxima óptima; si coincide con la obtenida, la asignación es óptima. */
+        public long getCotaInferior() { return cotaInferior; }
+
+        /** @return movimientos e intercambios aplicados por la búsqueda local. */
+        public int getMovimientos() { return movimientos; }
+
+        /** @return tiempo que tomó calcular la asignación, en nanosegundos. */
+        public long getDuracionNs() { return duracionNs; }
+
+        @Override
+        public String toString() {
+            return "Resultado{asignados=" + asignados + ", omitidos=" + getOmitidos() + ", cargaMaxima=" + cargaMaxima
+                    + ", cotaInferior=" + cotaInferior + ", movimientos=" + movimientos
+                    + ", duracionMs=" + (duracionNs / 1_000_000) + '}';
+        }
+    }
+}
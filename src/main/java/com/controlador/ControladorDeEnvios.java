@@ -2,10 +2,15 @@ package com.controlador;
 
 import com.interfaces.Rastreable;
 import com.model.Pedido;
+import com.model.Repartidor;
 
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Controlador de envíos del sistema SpeedFast.
@@ -19,21 +24,89 @@ import java.util.List;
  *   <li>Registrar pedidos gestionados en un historial interno.</li>
  *   <li>Visualizar el historial de envíos por consola.</li>
  * </ul>
+ *
+ * <h2>Historial acotado y concurrente</h2>
+ * <p>
+ * El historial es un buffer circular de capacidad fija que guarda registros compactos
+ * (ID de pedido, tipo, repartidor y marca de tiempo) en arreglos primitivos, en lugar de
+ * retener los objetos {@link Pedido} completos. Varios hilos de repartidores pueden registrar
+ * entregas a la vez sin locks; cuando el buffer se llena, los registros más antiguos se
+ * sobrescriben. Así, el historial de un turno completo ocupa una cantidad de memoria fija.
+ * </p>
  */
 public class ControladorDeEnvios implements Rastreable {
 
-    /** Historial de pedidos registrados. */
-    private final List<Pedido> historial;
+    /** Capacidad por defecto del historial (potencia de 2). */
+    public static final int CAPACIDAD_POR_DEFECTO = 1 << 16;
+
+    /** Valor de publicación que indica que un registro se está escribiendo. */
+    private static final long ESCRIBIENDO = -1L;
+
+    /** Tamaño de página usado por {@link #verHistorial()} para no copiar todo el historial de una vez. */
+    private static final int PAGINA_CONSOLA = 1024;
+
+    private static final Pedido.TipoPedido[] TIPOS = Pedido.TipoPedido.values();
+
+    private final int capacidad;
+    private final int mascara;
+
+    // Columnas del buffer circular: una posición por registro
+    private final int[] idsPedido;
+    private final byte[] tipos;
+    private final int[] idsRepartidor;
+    private final long[] marcasTiempo;
 
     /**
-     * Construye un controlador con historial vacío.
+     * Secuencia publicada en cada posición (secuencia + 1), 0 si nunca se escribió,
+     * o {@link #ESCRIBIENDO} mientras un hilo la está llenando.
+     */
+    private final AtomicLongArray publicados;
+
+    /** Próxima secuencia a asignar; también es el total de registros hechos desde el inicio. */
+    private final AtomicLong siguiente = new AtomicLong();
+
+    /** Nombres de los repartidores por ID, para mostrarlos en {@link #verHistorial()}. */
+    private final ConcurrentHashMap<Integer, String> nombresRepartidor = new ConcurrentHashMap<>();
+
+    /** Códigos negativos para repartidores conocidos solo por nombre (asignación automática). */
+    private final ConcurrentHashMap<String, Integer> codigosPorNombre = new ConcurrentHashMap<>();
+    private final AtomicInteger ultimoCodigo = new AtomicInteger();
+
+    /**
+     * Construye un controlador con historial vacío y capacidad por defecto.
      */
     public ControladorDeEnvios() {
-        this.historial = new ArrayList<>();
+        this(CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * Construye un controlador con historial vacío.
+     *
+     * @param capacidad cantidad máxima de registros retenidos; se redondea a la siguiente potencia de 2.
+     * @throws IllegalArgumentException si la capacidad no es positiva o excede 2^30.
+     */
+    public ControladorDeEnvios(int capacidad) {
+        if (capacidad <= 0 || capacidad > (1 << 30)) {
+            throw new IllegalArgumentException("La capacidad debe estar entre 1 y 2^30.");
+        }
+        int potencia = 1;
+        while (potencia < capacidad) {
+            potencia <<= 1;
+        }
+        this.capacidad = potencia;
+        this.mascara = this.capacidad - 1;
+        this.idsPedido = new int[this.capacidad];
+        this.tipos = new byte[this.capacidad];
+        this.idsRepartidor = new int[this.capacidad];
+        this.marcasTiempo = new long[this.capacidad];
+        this.publicados = new AtomicLongArray(this.capacidad);
     }
 
     /**
      * Registra un pedido en el historial del sistema.
+     * <p>
+     * El repartidor se identifica por el nombre asignado al pedido.
+     * </p>
      *
      * @param pedido pedido a registrar (no nulo).
      * @throws IllegalArgumentException si el pedido es nulo.
@@ -42,18 +115,72 @@ public class ControladorDeEnvios implements Rastreable {
         if (pedido == null) {
             throw new IllegalArgumentException("El pedido no puede ser nulo.");
         }
-        historial.add(pedido);
+        String nombre = pedido.getRepartidor();
+        int codigo = 0;
+        if (nombre != null) {
+            codigo = codigosPorNombre.computeIfAbsent(nombre, n -> {
+                int nuevo = -ultimoCodigo.incrementAndGet();
+                nombresRepartidor.put(nuevo, n);
+                return nuevo;
+            });
+        }
+        escribir(pedido, codigo);
+    }
+
+    /**
+     * Registra un pedido en el historial del sistema indicando el repartidor que lo entregó.
+     *
+     * @param pedido     pedido a registrar (no nulo).
+     * @param repartidor repartidor que realizó la entrega (no nulo).
+     * @throws IllegalArgumentException si el pedido o el repartidor son nulos.
+     */
+    public void registrarEntrega(Pedido pedido, Repartidor repartidor) {
+        if (pedido == null) {
+            throw new IllegalArgumentException("El pedido no puede ser nulo.");
+        }
+        if (repartidor == null) {
+            throw new IllegalArgumentException("El repartidor no puede ser nulo.");
+        }
+        if (repartidor.getNombre() != null) {
+            nombresRepartidor.putIfAbsent(repartidor.getId(), repartidor.getNombre());
+        }
+        escribir(pedido, repartidor.getId());
     }
 
     /**
-     * Retorna una vista inmodificable del historial.
+     * Retorna una copia de los registros retenidos, del más antiguo al más reciente.
      *
-     * @return lista de pedidos registrados (solo lectura).
+     * @return lista de registros (instantánea; no refleja registros posteriores).
      */
-    public List<Pedido> getHistorial() {
-        return Collections.unmodifiableList(historial);
+    public List<RegistroEntrega> getHistorial() {
+        long fin = siguiente.get();
+        return leer(Math.max(0, fin - capacidad), fin, capacidad);
     }
 
+    /**
+     * Retorna una página de registros usando la secuencia como clave, del más antiguo al más reciente.
+     * <p>
+     * Para recorrer el historial completo se comienza con {@code -1} y luego se pasa la
+     * secuencia del último registro recibido. Los registros ya sobrescritos se omiten.
+     * </p>
+     *
+     * @param despuesDeSecuencia secuencia del último registro de la página anterior (-1 para comenzar).
+     * @param limite             cantidad máxima de registros a retornar (mayor que 0).
+     * @return página de registros; vacía si no hay más.
+     */
+    public List<RegistroEntrega> getPagina(long despuesDeSecuencia, int limite) {
+        if (limite <= 0) throw new IllegalArgumentException("limite debe ser mayor que 0.");
+        long fin = siguiente.get();
+        long desde = Math.max(despuesDeSecuencia + 1, fin - capacidad);
+        return leer(Math.max(0, desde), fin, limite);
+    }
+
+    /** @return cantidad total de entregas registradas desde el inicio (incluye las ya sobrescritas). */
+    public long getTotalRegistrados() { return siguiente.get(); }
+
+    /** @return cantidad máxima de registros que retiene el historial. */
+    public int getCapacidad() { return capacidad; }
+
     /**
      * Muestra por consola el historial de pedidos gestionados.
      * <p>
@@ -64,19 +191,127 @@ public class ControladorDeEnvios implements Rastreable {
     @Override
     public void verHistorial() {
         System.out.println("\nHistorial:");
-        if (historial.isEmpty()) {
+        List<RegistroEntrega> pagina = getPagina(-1, PAGINA_CONSOLA);
+        if (pagina.isEmpty()) {
             System.out.println("- (sin registros)");
             return;
         }
 
-        for (Pedido p : historial) {
-            String tipo = p.getClass().getSimpleName();
-            String id = String.format("%03d", p.getIdPedido());
-            String repartidor = (p.getRepartidor() == null)
-                    ? "Sin asignar"
-                    : p.getRepartidor();
+        while (!pagina.isEmpty()) {
+            for (RegistroEntrega r : pagina) {
+                String tipo = nombreClase(r.getTipo());
+                String id = String.format("%03d", r.getIdPedido());
+                String repartidor = (r.getIdRepartidor() == 0)
+                        ? "Sin asignar"
+                        : nombresRepartidor.getOrDefault(r.getIdRepartidor(), "#" + r.getIdRepartidor());
+
+                System.out.println("- " + tipo + " #" + id + " – entregado por " + repartidor);
+            }
+            pagina = getPagina(pagina.get(pagina.size() - 1).getSecuencia(), PAGINA_CONSOLA);
+        }
+    }
+
+    /**
+     * Nombre de la clase de pedido correspondiente al tipo, para mantener el formato original del historial.
+     */
+    private static String nombreClase(Pedido.TipoPedido tipo) {
+        switch (tipo) {
+            case COMIDA: return "PedidoComida";
+            case ENCOMIENDA: return "PedidoEncomienda";
+            case EXPRESS: return "PedidoCompraXpress";
+            default: return tipo.name();
+        }
+    }
+
+    /**
+     * Escribe un registro en la siguiente posición del buffer circular.
+     * <p>
+     * Cada posición funciona como un seqlock: se marca como {@link #ESCRIBIENDO}, se llenan las
+     * columnas y se publica la secuencia. Si un productor más nuevo llega a la misma posición
+     * (el buffer dio una vuelta completa) espera a que el anterior publique antes de sobrescribirla.
+     * </p>
+     */
+    private void escribir(Pedido pedido, int idRepartidor) {
+        long secuencia = siguiente.getAndIncrement();
+        int pos = (int) (secuencia & mascara);
+        long anterior = secuencia >= capacidad ? secuencia - capacidad + 1 : 0L;
+
+        while (!publicados.compareAndSet(pos, anterior, ESCRIBIENDO)) {
+            Thread.onSpinWait();
+        }
+        VarHandle.releaseFence();
+
+        idsPedido[pos] = pedido.getIdPedido();
+        tipos[pos] = (byte) pedido.getTipoPedido().ordinal();
+        idsRepartidor[pos] = idRepartidor;
+        marcasTiempo[pos] = System.currentTimeMillis();
+
+        publicados.set(pos, secuencia + 1);
+    }
+
+    /**
+     * Copia los registros publicados en el rango de secuencias [desde, hasta), hasta {@code limite} registros.
+     * Los registros en escritura o sobrescritos durante la lectura se omiten.
+     */
+    private List<RegistroEntrega> leer(long desde, long hasta, int limite) {
+        List<RegistroEntrega> resultado = new ArrayList<>((int) Math.min(limite, Math.max(0, hasta - desde)));
+        for (long s = desde; s < hasta && resultado.size() < limite; s++) {
+            int pos = (int) (s & mascara);
+            long v1 = publicados.get(pos);
+            if (v1 != s + 1) continue;
+
+            int idPedido = idsPedido[pos];
+            byte tipo = tipos[pos];
+            int idRepartidor = idsRepartidor[pos];
+            long marca = marcasTiempo[pos];
+
+            VarHandle.acquireFence();
+            if (publicados.get(pos) != v1) continue;
+
+            resultado.add(new RegistroEntrega(s, idPedido, TIPOS[tipo], idRepartidor, marca));
+        }
+        return resultado;
+    }
+
+    /**
+     * Registro compacto e inmutable de una entrega en el historial.
+     */
+    public static final class RegistroEntrega {
+        private final long secuencia;
+        private final int idPedido;
+        private final Pedido.TipoPedido tipo;
+        private final int idRepartidor;
+        private final long marcaTiempo;
+
+        private RegistroEntrega(long secuencia, int idPedido, Pedido.TipoPedido tipo, int idRepartidor, long marcaTiempo) {
+            this.secuencia = secuencia;
+            this.idPedido = idPedido;
+            this.tipo = tipo;
+            this.idRepartidor = idRepartidor;
+            this.marcaTiempo = marcaTiempo;
+        }
+
+        /** @return posición del registro en el orden global de registros. */
+        public long getSecuencia() { return secuencia; }
+
+        /** @return ID del pedido entregado. */
+        public int getIdPedido() { return idPedido; }
+
+        /** @return tipo del pedido entregado. */
+        public Pedido.TipoPedido getTipo() { return tipo; }
+
+        /**
+         * @return ID del repartidor; negativo si solo se conocía su nombre, 0 si no tenía repartidor.
+         */
+        public int getIdRepartidor() { return idRepartidor; }
+
+        /** @return instante del registro, en milisegundos desde la época. */
+        public long getMarcaTiempo() { return marcaTiempo; }
 
-            System.out.println("- " + tipo + " #" + id + " – entregado por " + repartidor);
+        @Override
+        public String toString() {
+            return "RegistroEntrega{secuencia=" + secuencia + ", idPedido=" + idPedido + ", tipo=" + tipo
+                    + ", idRepartidor=" + idRepartidor + ", marcaTiempo=" + marcaTiempo + '}';
         }
     }
 }
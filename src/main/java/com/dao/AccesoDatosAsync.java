@@ -0,0 +1,211 @@
+package com.dao;
+
+import java.awt.EventQueue;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Fachada para ejecutar operaciones de los DAO fuera del hilo de eventos de Swing (EDT).
+ * <p>
+ * Las consultas se ejecutan en un ejecutor dedicado y retornan un {@link CompletableFuture};
+ * con {@link #enEdt(CompletableFuture, Consumer)} el resultado se publica de vuelta en el EDT
+ * para actualizar la interfaz. Así, una base de datos lenta ya no congela las ventanas.
+ * </p>
+ *
+ * <h2>Cargas por canal</h2>
+ * <p>
+ * {@link #cargar(String, String, Supplier)} agrupa las lecturas por canal (por ejemplo, la tabla
+ * de una ventana):
+ * </p>
+ * <ul>
+ *   <li>Si ya hay una carga en curso en el canal con la misma clave, se reutiliza
+ *       (varios clics en "Refrescar" no apilan consultas idénticas), salvo que haya comenzado
+ *       antes de una escritura hecha con {@link #ejecutar(Supplier)}: podría no verla, así que
+ *       se reemplaza por una carga nueva.</li>
+ *   <li>Si la carga en curso tiene otra clave, queda obsoleta: se cancela y su resultado
+ *       nunca se publica en la interfaz.</li>
+ * </ul>
+ */
+public class AccesoDatosAsync {
+
+    private static final int HILOS_POR_DEFECTO = Integer.getInteger("speedfast.async.hilos", 4);
+
+    private static final AccesoDatosAsync INSTANCIA = new AccesoDatosAsync(HILOS_POR_DEFECTO);
+
+    private final ExecutorService ejecutor;
+
+    /** Carga en curso por canal. */
+    private final Map<String, CargaEnCurso<?>> enCurso = new ConcurrentHashMap<>();
+
+    /** Aumenta al iniciar y al terminar cada escritura; una carga de otra versión no se reutiliza. */
+    private final AtomicLong versionEscrituras = new AtomicLong();
+
+    /**
+     * Crea una fachada con su propio ejecutor.
+     *
+     * @param hilos cantidad de hilos dedicados a las consultas (mayor que 0).
+     * @throws IllegalArgumentException si la cantidad de hilos no es positiva.
+     */
+    public AccesoDatosAsync(int hilos) {
+        if (hilos <= 0) throw new IllegalArgumentException("hilos debe ser mayor que 0.");
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, "speedfast-datos-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * @return fachada compartida por toda la aplicación.
+     */
+    public static AccesoDatosAsync getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Ejecuta una lectura en segundo plano, deduplicando y cancelando cargas obsoletas del mismo canal.
+     *
+     * @param canal    identifica quién consume el resultado (por ejemplo, {@code "pedidos.tabla"}).
+     * @param clave    identifica la consulta (por ejemplo, sus parámetros); igual clave = misma consulta.
+     * @param consulta operación a ejecutar sobre los DAO.
+     * @param <T>      tipo del resultado.
+     * @return futuro con el resultado; se cancela si otra carga lo deja obsoleto.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> cargar(String canal, String clave, Supplier<T> consulta) {
+        while (true) {
+            CargaEnCurso<?> actual = enCurso.get(canal);
+            long version = versionEscrituras.get();
+            if (actual != null && !actual.futuro.isDone() && actual.clave.equals(clave) && actual.version == version) {
+                return (CompletableFuture<T>) actual.futuro;
+            }
+
+            CompletableFuture<T> futuro = new CompletableFuture<>();
+            CargaEnCurso<T> nueva = new CargaEnCurso<>(clave, version, futuro);
+            boolean registrada = (actual == null)
+                    ? enCurso.putIfAbsent(canal, nueva) == null
+                    : enCurso.replace(canal, actual, nueva);
+            if (!registrada) {
+                continue; // otro hilo registró una carga en el canal; volvemos a evaluar
+            }
+
+            if (actual != null) {
+                actual.futuro.cancel(false); // carga obsoleta: su resultado ya no se publicará
+            }
+            ejecutor.execute(() -> {
+                if (futuro.isDone()) return; // cancelada antes de comenzar
+                try {
+                    futuro.complete(consulta.get());
+                } catch (Throwable e) {
+                    futuro.completeExceptionally(e);
+                }
+            });
+            futuro.whenComplete((r, e) -> enCurso.remove(canal, nueva));
+            return futuro;
+        }
+    }
+
+    /**
+     * Ejecuta una lectura en segundo plano, sin deduplicar ni cancelar (por ejemplo, una página de una tabla).
+     * A diferencia de {@link #ejecutar(Supplier)}, no deja viejas a las cargas en curso.
+     *
+     * @param lectura operación de solo lectura sobre los DAO.
+     * @param <T>     tipo del resultado.
+     * @return futuro con el resultado de la lectura.
+     */
+    public <T> CompletableFuture<T> leer(Supplier<T> lectura) {
+        return CompletableFuture.supplyAsync(lectura, ejecutor);
+    }
+
+    /**
+     * Ejecuta una operación (por ejemplo, una escritura) en segundo plano, sin deduplicar.
+     * <p>
+     * Las cargas que estén en curso mientras corre la operación ya no se reutilizan en
+     * {@link #cargar(String, String, Supplier)}.
+     * </p>
+     *
+     * @param operacion operación a ejecutar sobre los DAO.
+     * @param <T>       tipo del resultado.
+     * @return futuro con el resultado de la operación.
+     */
+    public <T> CompletableFuture<T> ejecutar(Supplier<T> operacion) {
+        versionEscrituras.incrementAndGet();
+        CompletableFuture<T> futuro = CompletableFuture.supplyAsync(operacion, ejecutor);
+        // Una carga iniciada durante la escritura pudo leer antes del commit: también queda vieja al terminar
+        futuro.whenComplete((r, e) -> versionEscrituras.incrementAndGet());
+        return futuro;
+    }
+
+    /**
+     * Cancela la carga en curso de un canal, si existe. Útil al cerrar una ventana.
+     *
+     * @param canal canal a cancelar.
+     */
+    public void cancelar(String canal) {
+        CargaEnCurso<?> actual = enCurso.remove(canal);
+        if (actual != null) {
+            actual.futuro.cancel(false);
+        }
+    }
+
+    /**
+     * Publica el resultado de un futuro en el hilo de eventos de Swing.
+     * Los futuros cancelados se ignoran y los errores se informan por consola.
+     *
+     * @param futuro      futuro a observar.
+     * @param alCompletar acción a ejecutar en el EDT con el resultado.
+     * @param <T>         tipo del resultado.
+     */
+    public static <T> void enEdt(CompletableFuture<T> futuro, Consumer<? super T> alCompletar) {
+        enEdt(futuro, alCompletar, e -> System.err.println("Error en operación de datos: " + e.getMessage()));
+    }
+
+    /**
+     * Publica el resultado (o el error) de un futuro en el hilo de eventos de Swing.
+     * Los futuros cancelados se ignoran.
+     *
+     * @param futuro      futuro a observar.
+     * @param alCompletar acción a ejecutar en el EDT con el resultado.
+     * @param alFallar    acción a ejecutar en el EDT con el error.
+     * @param <T>         tipo del resultado.
+     */
+    public static <T> void enEdt(CompletableFuture<T> futuro, Consumer<? super T> alCompletar, Consumer<Throwable> alFallar) {
+        futuro.whenComplete((resultado, error) -> {
+            if (futuro.isCancelled() || error instanceof CancellationException) return;
+            Throwable causa = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+            EventQueue.invokeLater(() -> {
+                if (causa == null) {
+                    alCompletar.accept(resultado);
+                } else {
+                    alFallar.accept(causa);
+                }
+            });
+        });
+    }
+
+    /**
+     * Carga registrada en un canal junto con la clave de su consulta y la versión de escrituras
+     * vigente al iniciarla.
+     */
+    private static final class CargaEnCurso<T> {
+        private final String clave;
+        private final long version;
+        private final CompletableFuture<T> futuro;
+
+        private CargaEnCurso(String clave, long version, CompletableFuture<T> futuro) {
+            this.clave = clave;
+            this.version = version;
+            this.futuro = futuro;
+        }
+    }
+}
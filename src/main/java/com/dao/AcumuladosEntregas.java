@@ -0,0 +1,487 @@
+package com.dao;
+
+import com.metricas.Metricas;
+import com.metricas.MetricasOperacion;
+import com.model.Entrega;
+import com.model.EstadoPedido;
+import com.model.Pedido;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Acumulados operacionales mantenidos en forma incremental: entregas por repartidor y hora, y
+ * transiciones de estado (con la suma de sus tiempos estimados) por tipo de pedido, estado y hora.
+ * <p>
+ * Responder "cuántas entregas hizo cada repartidor hoy" ya no requiere leer {@code entregas}
+ * completa: cada registro o eliminación ({@link EntregaDAO.ObservadorEntregas}) y cada transición
+ * ({@link Pedido.ObservadorEstado}) suma o resta en un contador {@link LongAdder} de su celda, sin
+ * bloqueos compartidos entre hilos. Las consultas leen a lo sumo 24 celdas por día y dimensión.
+ * </p>
+ *
+ * <h2>Funcionamiento</h2>
+ * <ul>
+ *   <li><b>Horas:</b> las celdas se identifican por la hora local, contada desde 1970-01-01 00:00
+ *       ({@code dias * 24 + hora}); es la misma clave de las tablas {@code acumulado_*_hora}
+ *       ({@code sql/acumulados.sql}).</li>
+ *   <li><b>Puntos de control:</b> cada {@code intervaloMs} un hilo escribe en una transacción lo que
+ *       cada celda sumó desde el punto anterior ({@code cantidad = cantidad + ?}), de modo que varias
+ *       instancias pueden escribir en las mismas tablas. Si falla, lo no escrito va en el siguiente.</li>
+ *   <li><b>Ventana en memoria:</b> al iniciar se cargan desde las tablas los últimos {@code dias};
+ *       las celdas más antiguas se descartan una vez escritas. Los cambios sobre horas anteriores a la
+ *       ventana (por ejemplo, al eliminar una entrega antigua) solo se acumulan hasta escribirlos.</li>
+ *   <li><b>Cierre:</b> {@link #cerrar()} escribe lo pendiente; debe invocarse antes de cerrar el pool.</li>
+ * </ul>
+ * <p>
+ * Los valores en memoria incluyen lo cargado al iniciar más lo observado por esta instancia; lo que
+ * escriban otras instancias se ve en las tablas, no aquí.
+ * </p>
+ */
+public class AcumuladosEntregas implements EntregaDAO.ObservadorEntregas, Pedido.ObservadorEstado, AcumuladosEntregasMXBean {
+
+    /** Días por defecto que se mantienen en memoria (hoy incluido). */
+    public static final int DIAS_POR_DEFECTO = Integer.getInteger("speedfast.acumulados.dias", 7);
+
+    /** Intervalo por defecto entre puntos de control, en milisegundos. */
+    public static final long INTERVALO_POR_DEFECTO_MS = Long.getLong("speedfast.acumulados.intervaloMs", 10_000L);
+
+    /** Intentos del último punto de control durante el cierre. */
+    private static final int INTENTOS_AL_CERRAR = 3;
+
+    private static final Pedido.TipoPedido[] TIPOS = Pedido.TipoPedido.values();
+    private static final EstadoPedido[] ESTADOS = EstadoPedido.values();
+    private static final int CELDAS_TIPO_POR_HORA = TIPOS.length * ESTADOS.length;
+
+    private static final String SQL_LEER_REPARTIDORES = "SELECT hora, id_repartidor, entregas FROM acumulado_repartidor_hora WHERE hora >= ?";
+    private static final String SQL_LEER_TIPOS = "SELECT hora, tipo, estado, transiciones, suma_eta_min FROM acumulado_tipo_hora WHERE hora >= ?";
+    private static final String SQL_SUMAR_REPARTIDOR = "INSERT INTO acumulado_repartidor_hora (hora, id_repartidor, entregas) VALUES (?, ?, ?) AS n "
+            + "ON DUPLICATE KEY UPDATE entregas = entregas + n.entregas";
+    private static final String SQL_SUMAR_TIPO = "INSERT INTO acumulado_tipo_hora (hora, tipo, estado, transiciones, suma_eta_min) VALUES (?, ?, ?, ?, ?) AS n "
+            + "ON DUPLICATE KEY UPDATE transiciones = transiciones + n.transiciones, suma_eta_min = suma_eta_min + n.suma_eta_min";
+
+    private static final MetricasOperacion OP_CARGAR = Metricas.operacion("AcumuladosEntregas.cargar");
+    private static final MetricasOperacion OP_PUNTO_DE_CONTROL = Metricas.operacion("AcumuladosEntregas.puntoDeControl");
+
+    private final ZoneId zona = ZoneId.systemDefault();
+    private final int diasEnMemoria;
+
+    /** Entregas por celda; clave {@code hora << 32 | idRepartidor}. */
+    private final ConcurrentHashMap<Long, Celda> porRepartidor = new ConcurrentHashMap<>();
+
+    /** Transiciones por celda; clave {@code hora * CELDAS_TIPO_POR_HORA + tipo * ESTADOS + estado}. */
+    private final ConcurrentHashMap<Long, Celda> porTipo = new ConcurrentHashMap<>();
+
+    /** Repartidores con alguna celda, para listar los del día sin recorrer todas las celdas. */
+    private final Set<Integer> repartidores = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Cambios de entregas anteriores a la ventana, pendientes de escribir (misma clave que {@link #porRepartidor}).
+     * Son poco frecuentes; se acumulan con {@code merge} y se retiran con {@code remove}, sin celdas en memoria.
+     */
+    private final ConcurrentHashMap<Long, Long> fueraDeVentana = new ConcurrentHashMap<>();
+
+    /** Primera hora con celdas en memoria; solo avanza, en cada punto de control. */
+    private volatile int horaMinima;
+
+    private final ScheduledExecutorService escritor;
+
+    private final LongAdder eventos = new LongAdder();
+    private final LongAdder puntosDeControl = new LongAdder();
+    private final LongAdder puntosDeControlFallidos = new LongAdder();
+    private final LongAdder filasEscritas = new LongAdder();
+    private volatile long ultimoPuntoDeControlMs;
+
+    /**
+     * Crea los acumulados con la configuración por defecto, carga la ventana e inicia los puntos de control.
+     */
+    public AcumuladosEntregas() {
+        this(DIAS_POR_DEFECTO, INTERVALO_POR_DEFECTO_MS);
+    }
+
+    /**
+     * Crea los acumulados, carga desde las tablas los días en memoria e inicia los puntos de control.
+     * Si las tablas no se pueden leer, parte desde cero; los puntos de control siguen sumando en ellas.
+     *
+     * @param diasEnMemoria días que se mantienen en memoria, hoy incluido (mayor que 0).
+     * @param intervaloMs   tiempo entre puntos de control, en milisegundos (mayor que 0).
+     * @throws IllegalArgumentException si algún parámetro no cumple validación.
+     */
+    public AcumuladosEntregas(int diasEnMemoria, long intervaloMs) {
+        if (diasEnMemoria <= 0) throw new IllegalArgumentException("diasEnMemoria debe ser mayor que 0.");
+        if (intervaloMs <= 0) throw new IllegalArgumentException("El intervalo debe ser mayor que 0.");
+        this.diasEnMemoria = diasEnMemoria;
+        this.horaMinima = primeraHoraDeVentana();
+        cargar();
+
+        this.escritor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "speedfast-acumulados");
+            // Daemon para no retener la JVM; lo pendiente se escribe en cerrar() (gancho de apagado)
+            t.setDaemon(true);
+            return t;
+        });
+        escritor.scheduleWithFixedDelay(this::puntoDeControl, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void entregaCambiada(Entrega entrega, int delta) {
+        if (entrega.getFecha() == null || entrega.getHora() == null) return; // sin hora no hay celda
+        int hora = hora(entrega.getFecha().toLocalDate(), entrega.getHora().toLocalTime().getHour());
+        long clave = (long) hora << 32 | (entrega.getIdRepartidor() & 0xFFFFFFFFL);
+        eventos.increment();
+        if (hora >= horaMinima) {
+            repartidores.add(entrega.getIdRepartidor());
+            porRepartidor.computeIfAbsent(clave, k -> new Celda()).cantidad.add(delta);
+        } else {
+            fueraDeVentana.merge(clave, (long) delta, Long::sum);
+        }
+    }
+
+    @Override
+    public void estadoCambiado(Pedido pedido, EstadoPedido anterior, EstadoPedido nuevo) {
+        Celda celda = porTipo.computeIfAbsent(claveTipo(horaActual(), pedido.getTipoPedido(), nuevo), k -> new Celda());
+        celda.cantidad.increment();
+        celda.sumaEtaMin.add(pedido.calcularTiempoEntrega());
+        eventos.increment();
+    }
+
+    /**
+     * @param idRepartidor ID del repartidor.
+     * @param dia          día local (dentro de la ventana en memoria).
+     * @return entregas del repartidor en ese día.
+     */
+    public long getEntregas(int idRepartidor, LocalDate dia) {
+        int desde = hora(dia, 0);
+        long total = 0;
+        for (int h = desde; h < desde + 24; h++) {
+            total += valor(porRepartidor.get((long) h << 32 | (idRepartidor & 0xFFFFFFFFL)));
+        }
+        return total;
+    }
+
+    /**
+     * @param idRepartidor ID del repartidor.
+     * @param hora         fecha y hora local (se toma la hora completa que la contiene).
+     * @return entregas del repartidor en esa hora.
+     */
+    public long getEntregas(int idRepartidor, LocalDateTime hora) {
+        return valor(porRepartidor.get((long) hora(hora.toLocalDate(), hora.getHour()) << 32 | (idRepartidor & 0xFFFFFFFFL)));
+    }
+
+    /**
+     * @param dia día local (dentro de la ventana en memoria).
+     * @return entregas de cada repartidor en ese día, por ID de repartidor (solo los que tienen entregas).
+     */
+    public Map<Integer, Long> getEntregasPorRepartidor(LocalDate dia) {
+        Map<Integer, Long> resultado = new TreeMap<>();
+        for (int idRepartidor : repartidores) {
+            long total = getEntregas(idRepartidor, dia);
+            if (total != 0) resultado.put(idRepartidor, total);
+        }
+        return resultado;
+    }
+
+    /**
+     * @param tipo   tipo de pedido.
+     * @param estado estado al que llegaron los pedidos.
+     * @param dia    día local (dentro de la ventana en memoria).
+     * @return transiciones a {@code estado} de pedidos de {@code tipo} en ese día.
+     */
+    public long getTransiciones(Pedido.TipoPedido tipo, EstadoPedido estado, LocalDate dia) {
+        int desde = hora(dia, 0);
+        long total = 0;
+        for (int h = desde; h < desde + 24; h++) {
+            total += valor(porTipo.get(claveTipo(h, tipo, estado)));
+        }
+        return total;
+    }
+
+    /**
+     * @param tipo   tipo de pedido.
+     * @param estado estado al que llegaron los pedidos.
+     * @param dia    día local (dentro de la ventana en memoria).
+     * @return tiempo estimado promedio, en minutos, de esas transiciones; 0 si no hubo.
+     */
+    public double getTiempoEstimadoPromedioMin(Pedido.TipoPedido tipo, EstadoPedido estado, LocalDate dia) {
+        int desde = hora(dia, 0);
+        long cantidad = 0;
+        long suma = 0;
+        for (int h = desde; h < desde + 24; h++) {
+            Celda celda = porTipo.get(claveTipo(h, tipo, estado));
+            if (celda != null) {
+                cantidad += celda.cantidad.sum();
+                suma += celda.sumaEtaMin.sum();
+            }
+        }
+        return cantidad == 0 ? 0 : (double) suma / cantidad;
+    }
+
+    @Override
+    public long getEntregasHoy() {
+        LocalDate hoy = LocalDate.now(zona);
+        long total = 0;
+        for (int idRepartidor : repartidores) total += getEntregas(idRepartidor, hoy);
+        return total;
+    }
+
+    @Override
+    public long getTransicionesHoy() {
+        LocalDate hoy = LocalDate.now(zona);
+        long total = 0;
+        for (Pedido.TipoPedido tipo : TIPOS) {
+            for (EstadoPedido estado : ESTADOS) total += getTransiciones(tipo, estado, hoy);
+        }
+        return total;
+    }
+
+    @Override
+    public int getCeldas() { return porRepartidor.size() + porTipo.size(); }
+
+    @Override
+    public int getDiasEnMemoria() { return diasEnMemoria; }
+
+    @Override
+    public long getEventos() { return eventos.sum(); }
+
+    @Override
+    public long getPuntosDeControl() { return puntosDeControl.sum(); }
+
+    @Override
+    public long getPuntosDeControlFallidos() { return puntosDeControlFallidos.sum(); }
+
+    @Override
+    public long getFilasEscritas() { return filasEscritas.sum(); }
+
+    @Override
+    public long getUltimoPuntoDeControlMs() { return ultimoPuntoDeControlMs; }
+
+    /**
+     * Escribe en las tablas lo que cada celda sumó desde el punto anterior, en una sola transacción,
+     * y descarta las celdas ya escritas que quedaron fuera de la ventana.
+     *
+     * @return true si se escribió todo lo pendiente (o no había nada).
+     */
+    public synchronized boolean puntoDeControl() {
+        long inicio = System.nanoTime();
+        List<Pendiente> lote = new ArrayList<>();
+        porRepartidor.forEach((clave, celda) -> {
+            long cantidad = celda.cantidad.sum();
+            if (cantidad != celda.cantidadEscrita) lote.add(new Pendiente(clave, celda, cantidad, 0));
+        });
+        Map<Long, Long> antiguas = new TreeMap<>();
+        for (Long clave : fueraDeVentana.keySet()) {
+            Long delta = fueraDeVentana.remove(clave);
+            if (delta != null && delta != 0) antiguas.put(clave, delta);
+        }
+        int celdasRepartidor = lote.size();
+        porTipo.forEach((clave, celda) -> {
+            long cantidad = celda.cantidad.sum();
+            long suma = celda.sumaEtaMin.sum();
+            if (cantidad != celda.cantidadEscrita || suma != celda.etaEscrita) lote.add(new Pendiente(clave, celda, cantidad, suma));
+        });
+
+        if (!lote.isEmpty() || !antiguas.isEmpty()) {
+            if (!escribir(lote, celdasRepartidor, antiguas)) {
+                antiguas.forEach((clave, delta) -> fueraDeVentana.merge(clave, delta, Long::sum));
+                puntosDeControlFallidos.increment();
+                OP_PUNTO_DE_CONTROL.registrarError(inicio);
+                return false;
+            }
+            for (Pendiente p : lote) {
+                p.celda.cantidadEscrita = p.cantidad;
+                p.celda.etaEscrita = p.sumaEta;
+            }
+            filasEscritas.add(lote.size() + antiguas.size());
+        }
+        descartarAntiguas();
+        puntosDeControl.increment();
+        ultimoPuntoDeControlMs = (System.nanoTime() - inicio) / 1_000_000;
+        OP_PUNTO_DE_CONTROL.registrar(inicio, lote.size() + antiguas.size());
+        return true;
+    }
+
+    private boolean escribir(List<Pendiente> lote, int celdasRepartidor, Map<Long, Long> antiguas) {
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement repartidor = con.prepareStatement(SQL_SUMAR_REPARTIDOR);
+             PreparedStatement tipo = con.prepareStatement(SQL_SUMAR_TIPO)) {
+
+            con.setAutoCommit(false);
+            for (int i = 0; i < lote.size(); i++) {
+                Pendiente p = lote.get(i);
+                if (i < celdasRepartidor) {
+                    agregarRepartidor(repartidor, p.clave, p.cantidad - p.celda.cantidadEscrita);
+                } else {
+                    long hora = Math.floorDiv(p.clave, CELDAS_TIPO_POR_HORA);
+                    int resto = Math.floorMod(p.clave, CELDAS_TIPO_POR_HORA);
+                    tipo.setLong(1, hora);
+                    tipo.setString(2, TIPOS[resto / ESTADOS.length].name());
+                    tipo.setString(3, ESTADOS[resto % ESTADOS.length].name());
+                    tipo.setLong(4, p.cantidad - p.celda.cantidadEscrita);
+                    tipo.setLong(5, p.sumaEta - p.celda.etaEscrita);
+                    tipo.addBatch();
+                }
+            }
+            for (Map.Entry<Long, Long> e : antiguas.entrySet()) {
+                agregarRepartidor(repartidor, e.getKey(), e.getValue());
+            }
+            repartidor.executeBatch();
+            tipo.executeBatch();
+            con.commit();
+            return true;
+
+        } catch (SQLException e) {
+            // La transacción se revierte al devolver la conexión al pool
+            System.err.println("Error al escribir los acumulados de entregas: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void agregarRepartidor(PreparedStatement ps, long clave, long delta) throws SQLException {
+        ps.setLong(1, clave >> 32);
+        ps.setInt(2, (int) clave);
+        ps.setLong(3, delta);
+        ps.addBatch();
+    }
+
+    /**
+     * Descarta las celdas escritas anteriores a la ventana. La ventana avanza aquí y las celdas se
+     * descartan recién en el punto siguiente: un hilo que leyó la hora mínima anterior ya terminó
+     * de sumar en su celda (tuvo todo un intervalo), y los nuevos cambios van a {@link #fueraDeVentana}.
+     */
+    private void descartarAntiguas() {
+        int limite = horaMinima;
+        porRepartidor.entrySet().removeIf(e -> (int) (e.getKey() >> 32) < limite
+                && e.getValue().cantidad.sum() == e.getValue().cantidadEscrita);
+        porTipo.entrySet().removeIf(e -> Math.floorDiv(e.getKey(), CELDAS_TIPO_POR_HORA) < limite
+                && e.getValue().cantidad.sum() == e.getValue().cantidadEscrita);
+        horaMinima = Math.max(limite, primeraHoraDeVentana());
+    }
+
+    /**
+     * Detiene los puntos de control y escribe lo pendiente (con reintentos).
+     * Debe invocarse antes de cerrar el pool de conexiones.
+     */
+    public void cerrar() {
+        escritor.shutdown();
+        try {
+            escritor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (int intento = 1; intento <= INTENTOS_AL_CERRAR; intento++) {
+            if (puntoDeControl()) return;
+        }
+        System.err.println("No se pudieron escribir los acumulados de entregas al cerrar.");
+    }
+
+    private void cargar() {
+        long inicio = System.nanoTime();
+        int filas = 0;
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement repartidor = con.prepareStatement(SQL_LEER_REPARTIDORES);
+             PreparedStatement tipo = con.prepareStatement(SQL_LEER_TIPOS)) {
+
+            repartidor.setInt(1, horaMinima);
+            try (ResultSet rs = repartidor.executeQuery()) {
+                while (rs.next()) {
+                    int idRepartidor = rs.getInt("id_repartidor");
+                    Celda celda = porRepartidor.computeIfAbsent((long) rs.getInt("hora") << 32 | (idRepartidor & 0xFFFFFFFFL), k -> new Celda());
+                    celda.iniciar(rs.getLong("entregas"), 0);
+                    repartidores.add(idRepartidor);
+                    filas++;
+                }
+            }
+            tipo.setInt(1, horaMinima);
+            try (ResultSet rs = tipo.executeQuery()) {
+                while (rs.next()) {
+                    Pedido.TipoPedido tipoPedido;
+                    EstadoPedido estado;
+                    try {
+                        tipoPedido = Pedido.TipoPedido.valueOf(rs.getString("tipo"));
+                        estado = EstadoPedido.valueOf(rs.getString("estado"));
+                    } catch (IllegalArgumentException e) {
+                        continue; // tipo o estado que esta versión no conoce
+                    }
+                    Celda celda = porTipo.computeIfAbsent(claveTipo(rs.getInt("hora"), tipoPedido, estado), k -> new Celda());
+                    celda.iniciar(rs.getLong("transiciones"), rs.getLong("suma_eta_min"));
+                    filas++;
+                }
+            }
+            OP_CARGAR.registrar(inicio, filas);
+
+        } catch (SQLException e) {
+            OP_CARGAR.registrarError(inicio);
+            System.err.println("Error al cargar los acumulados de entregas: " + e.getMessage());
+        }
+    }
+
+    private static int hora(LocalDate dia, int hora) {
+        return (int) (dia.toEpochDay() * 24 + hora);
+    }
+
+    private int horaActual() {
+        long ahora = System.currentTimeMillis();
+        long segundos = Math.floorDiv(ahora, 1000) + zona.getRules().getOffset(Instant.ofEpochMilli(ahora)).getTotalSeconds();
+        return (int) Math.floorDiv(segundos, 3600);
+    }
+
+    private int primeraHoraDeVentana() {
+        return hora(LocalDate.now(zona).minusDays(diasEnMemoria - 1), 0);
+    }
+
+    private static long claveTipo(int hora, Pedido.TipoPedido tipo, EstadoPedido estado) {
+        return (long) hora * CELDAS_TIPO_POR_HORA + tipo.ordinal() * ESTADOS.length + estado.ordinal();
+    }
+
+    private static long valor(Celda celda) {
+        return celda == null ? 0 : celda.cantidad.sum();
+    }
+
+    /**
+     * Contadores de una celda. Los {@code LongAdder} reparten las sumas concurrentes en varias
+     * ranuras; los valores escritos solo los usa el hilo del punto de control.
+     */
+    private static final class Celda {
+        private final LongAdder cantidad = new LongAdder();
+        private final LongAdder sumaEtaMin = new LongAdder();
+        private long cantidadEscrita;
+        private long etaEscrita;
+
+        // Valor cargado desde la tabla: ya está escrito
+        private void iniciar(long cantidadInicial, long etaInicial) {
+            cantidad.add(cantidadInicial);
+            sumaEtaMin.add(etaInicial);
+            cantidadEscrita += cantidadInicial;
+            etaEscrita += etaInicial;
+        }
+    }
+
+    /** Celda con cambios observados al iniciar un punto de control. */
+    private static final class Pendiente {
+        private final long clave;
+        private final Celda celda;
+        private final long cantidad;
+        private final long sumaEta;
+
+        private Pendiente(long clave, Celda celda, long cantidad, long sumaEta) {
+            this.clave = clave;
+            this.celda = celda;
+            this.cantidad = cantidad;
+            this.sumaEta = sumaEta;
+        }
+    }
+}
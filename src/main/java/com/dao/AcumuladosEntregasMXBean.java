@@ -0,0 +1,34 @@
+package com.dao;
+
+/**
+ * Vista JMX de los {@link AcumuladosEntregas}: totales del día y estado de los puntos de control.
+ */
+public interface AcumuladosEntregasMXBean {
+
+    /** @return entregas registradas hoy (todos los repartidores). */
+    long getEntregasHoy();
+
+    /** @return transiciones de estado de hoy (todos los tipos y estados). */
+    long getTransicionesHoy();
+
+    /** @return celdas (por repartidor, o por tipo y estado, de cada hora) en memoria. */
+    int getCeldas();
+
+    /** @return días que se mantienen en memoria. */
+    int getDiasEnMemoria();
+
+    /** @return eventos recibidos (entregas y transiciones) desde el inicio. */
+    long getEventos();
+
+    /** @return puntos de control confirmados. */
+    long getPuntosDeControl();
+
+    /** @return puntos de control fallidos (se reintentan en el siguiente). */
+    long getPuntosDeControlFallidos();
+
+    /** @return filas escritas en las tablas de acumulados. */
+    long getFilasEscritas();
+
+    /** @return duración del último punto de control, en milisegundos. */
+    long getUltimoPuntoDeControlMs();
+}
@@ -0,0 +1,277 @@
+package com.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché LRU de sentencias preparadas de una conexión física del {@link PoolConexiones}.
+ * <p>
+ * Cuando un DAO llama a {@code prepareStatement} con un SQL que ya preparó antes sobre la misma
+ * conexión física, recibe la sentencia existente en lugar de una nueva: el driver no vuelve a
+ * analizar el SQL y, con {@code useServerPrepStmts=true}, el servidor tampoco (la sentencia
+ * sigue preparada en el servidor mientras esté en la caché). Al cerrarla, el DAO solo la
+ * devuelve a la caché: se limpian sus parámetros y queda lista para el próximo préstamo.
+ * </p>
+ * <p>
+ * Cada conexión física se usa en un solo hilo a la vez (el que la tiene prestada), por lo que
+ * la caché no necesita sincronización. Si se pide una sentencia que ya está en uso en el mismo
+ * préstamo, se prepara una aparte que no se guarda.
+ * </p>
+ */
+final class CacheSentencias {
+
+    private final int capacidad;
+    private final LongAdder aciertos;
+    private final LongAdder fallos;
+    private final LongAdder desalojadas;
+
+    /** En orden de acceso: la primera entrada es la usada hace más tiempo. */
+    private final LinkedHashMap<Clave, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+
+    CacheSentencias(int capacidad, LongAdder aciertos, LongAdder fallos, LongAdder desalojadas) {
+        this.capacidad = capacidad;
+        this.aciertos = aciertos;
+        this.fallos = fallos;
+        this.desalojadas = desalojadas;
+    }
+
+    /**
+     * Atiende una llamada a {@code prepareStatement} de un DAO.
+     *
+     * @param conexion conexión física.
+     * @param method   variante de {@code prepareStatement} invocada.
+     * @param args     argumentos de la llamada (el primero es el SQL).
+     * @return sentencia de la caché (envuelta) o una sentencia nueva del driver.
+     * @throws SQLException si el driver no puede preparar la sentencia.
+     */
+    PreparedStatement preparar(Connection conexion, Method method, Object[] args) throws SQLException {
+        Clave clave = Clave.de(args);
+        if (clave == null) {
+            // Variantes con columnas de claves generadas (int[] / String[]): se preparan sin caché
+            return (PreparedStatement) invocar(method, conexion, args);
+        }
+
+        Entrada entrada = entradas.get(clave);
+        if (entrada != null) {
+            if (entrada.enUso == null) {
+                aciertos.increment();
+                return entrada.prestar();
+            }
+            // La misma sentencia ya está abierta en este préstamo: se prepara otra que no se guarda
+            fallos.increment();
+            return (PreparedStatement) invocar(method, conexion, args);
+        }
+
+        fallos.increment();
+        PreparedStatement sentencia = (PreparedStatement) invocar(method, conexion, args);
+        entrada = new Entrada(clave, sentencia);
+        entradas.put(clave, entrada);
+        desalojarSobrantes();
+        return entrada.prestar();
+    }
+
+    /**
+     * Devuelve a la caché las sentencias que el préstamo dejó abiertas.
+     * Se invoca cuando la conexión vuelve al pool.
+     */
+    void liberarTodas() {
+        List<Entrada> invalidas = null;
+        for (Entrada entrada : entradas.values()) {
+            if (entrada.enUso != null && !entrada.liberar()) {
+                if (invalidas == null) invalidas = new ArrayList<>();
+                invalidas.add(entrada);
+            }
+        }
+        if (invalidas != null) {
+            for (Entrada entrada : invalidas) descartar(entrada);
+        }
+    }
+
+    private void desalojarSobrantes() {
+        Iterator<Entrada> it = entradas.values().iterator();
+        while (entradas.size() > capacidad && it.hasNext()) {
+            Entrada candidata = it.next();
+            if (candidata.enUso != null) continue;
+            it.remove();
+            desalojadas.increment();
+            cerrar(candidata.sentencia);
+        }
+    }
+
+    private void descartar(Entrada entrada) {
+        entradas.remove(entrada.clave);
+        cerrar(entrada.sentencia);
+    }
+
+    private static void cerrar(PreparedStatement sentencia) {
+        try {
+            sentencia.close();
+        } catch (SQLException e) {
+            System.err.println("Error al cerrar sentencia desalojada de la caché: " + e.getMessage());
+        }
+    }
+
+    private static Object invocar(Method method, Object objetivo, Object[] args) throws SQLException {
+        try {
+            return method.invoke(objetivo, args);
+        } catch (InvocationTargetException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof SQLException) throw (SQLException) causa;
+            if (causa instanceof RuntimeException) throw (RuntimeException) causa;
+            throw new SQLException(causa);
+        } catch (IllegalAccessException e) {
+            throw new SQLException(e);
+        }
+    }
+
+    /**
+     * SQL más las opciones de {@code prepareStatement} (claves generadas, tipo y concurrencia
+     * del resultado), que producen sentencias distintas para un mismo SQL.
+     */
+    private static final class Clave {
+        private final String sql;
+        private final int[] opciones;
+        private final int hash;
+
+        private Clave(String sql, int[] opciones) {
+            this.sql = sql;
+            this.opciones = opciones;
+            this.hash = 31 * sql.hashCode() + Arrays.hashCode(opciones);
+        }
+
+        /** @return clave de la llamada, o null si usa una variante que no se guarda en caché. */
+        static Clave de(Object[] args) {
+            if (args == null || args.length == 0 || !(args[0] instanceof String)) return null;
+            int[] opciones = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                if (!(args[i] instanceof Integer)) return null;
+                opciones[i - 1] = (Integer) args[i];
+            }
+            return new Clave((String) args[0], opciones);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Clave)) return false;
+            Clave otra = (Clave) o;
+            return hash == otra.hash && sql.equals(otra.sql) && Arrays.equals(opciones, otra.opciones);
+        }
+
+        @Override
+        public int hashCode() { return hash; }
+    }
+
+    /**
+     * Sentencia guardada y el préstamo que la está usando (null si está libre).
+     */
+    private final class Entrada {
+        private final Clave clave;
+        private final PreparedStatement sentencia;
+        private SentenciaCacheada enUso;
+
+        private Entrada(Clave clave, PreparedStatement sentencia) {
+            this.clave = clave;
+            this.sentencia = sentencia;
+        }
+
+        private PreparedStatement prestar() {
+            enUso = new SentenciaCacheada(this);
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    enUso);
+        }
+
+        /**
+         * Deja la sentencia lista para otro uso.
+         *
+         * @return false si no pudo limpiarse (y debe descartarse).
+         */
+        private boolean liberar() {
+            SentenciaCacheada prestada = enUso;
+            enUso = null;
+            prestada.activa = false;
+            try {
+                // Cerrar la sentencia cerraría su resultado; como queda abierta, se cierra aquí
+                ResultSet abierto = sentencia.getResultSet();
+                if (abierto != null) abierto.close();
+                sentencia.clearParameters();
+                if (prestada.usoLote) sentencia.clearBatch();
+                if (prestada.configurada) {
+                    sentencia.setFetchSize(0);
+                    sentencia.setMaxRows(0);
+                    sentencia.setQueryTimeout(0);
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Proxy entregado al DAO: {@code close()} devuelve la sentencia a la caché y bloquea su
+     * uso posterior desde ese mismo proxy.
+     */
+    private final class SentenciaCacheada implements InvocationHandler {
+        private final Entrada entrada;
+        private boolean activa = true;
+        private boolean usoLote;
+        private boolean configurada;
+
+        private SentenciaCacheada(Entrada entrada) {
+            this.entrada = entrada;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nombre = method.getName();
+            switch (nombre) {
+                case "close":
+                    if (activa && entrada.enUso == this && !entrada.liberar()) {
+                        descartar(entrada);
+                    }
+                    return null;
+                case "isClosed":
+                    return !activa;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "SentenciaCacheada[" + (activa ? entrada.sentencia : "devuelta") + "]";
+                case "addBatch":
+                    usoLote = true;
+                    break;
+                case "setFetchSize":
+                case "setMaxRows":
+                case "setQueryTimeout":
+                    configurada = true;
+                    break;
+                default:
+                    break;
+            }
+            if (!activa) {
+                throw new SQLException("La sentencia ya fue cerrada.");
+            }
+            try {
+                return method.invoke(entrada.sentencia, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cambios de una tabla posteriores a un token, leídos desde el registro {@code cambios}.
+ * <p>
+ * Cada fila modificada aparece una sola vez, clasificada según su situación respecto del token:
+ * </p>
+ * <ul>
+ *   <li><b>Insertadas</b>: no existían en el token y existen ahora.</li>
+ *   <li><b>Actualizadas</b>: existían en el token y siguen existiendo (con sus datos actuales).</li>
+ *   <li><b>Eliminadas</b>: existían en el token y ya no existen (solo se informa su ID).</li>
+ * </ul>
+ * <p>
+ * Las filas creadas y eliminadas dentro del mismo intervalo no aparecen. Si el resultado no es
+ * {@linkplain #isCompleto() completo} (demasiados cambios o registro purgado), el llamador debe
+ * volver a leer la tabla completa.
+ * </p>
+ *
+ * @param <T> tipo de las filas.
+ */
+public class CambiosDesde<T> {
+
+    /** Cantidad máxima de filas modificadas que se leen antes de pedir una relectura completa. */
+    public static final int LIMITE_POR_DEFECTO = 1000;
+
+    private final long tokenDesde;
+    private final long token;
+    private final boolean completo;
+    private final List<T> insertadas;
+    private final List<T> actualizadas;
+    private final List<Integer> eliminadas;
+
+    CambiosDesde(long tokenDesde, long token, List<T> insertadas, List<T> actualizadas, List<Integer> eliminadas) {
+        this(tokenDesde, token, true, insertadas, actualizadas, eliminadas);
+    }
+
+    private CambiosDesde(long tokenDesde, long token, boolean completo,
+                         List<T> insertadas, List<T> actualizadas, List<Integer> eliminadas) {
+        this.tokenDesde = tokenDesde;
+        this.token = token;
+        this.completo = completo;
+        this.insertadas = Collections.unmodifiableList(insertadas);
+        this.actualizadas = Collections.unmodifiableList(actualizadas);
+        this.eliminadas = Collections.unmodifiableList(eliminadas);
+    }
+
+    /**
+     * @return resultado sin cambios que conserva el token (por ejemplo, ante un error de lectura).
+     */
+    static <T> CambiosDesde<T> sinCambios(long token) {
+        return new CambiosDesde<>(token, token, Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * @return resultado que obliga a releer la tabla completa.
+     */
+    static <T> CambiosDesde<T> incompleto(long tokenDesde) {
+        return new CambiosDesde<>(tokenDesde, tokenDesde, false,
+                Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+    }
+
+    /** @return token con el que se hizo la lectura. */
+    public long getTokenDesde() { return tokenDesde; }
+
+    /** @return token a usar en la próxima lectura. */
+    public long getToken() { return token; }
+
+    /** @return false si los cambios no pudieron leerse completos y hay que releer la tabla. */
+    public boolean isCompleto() { return completo; }
+
+    /** @return filas nuevas, ordenadas por ID. */
+    public List<T> getInsertadas() { return insertadas; }
+
+    /** @return filas existentes modificadas, con sus datos actuales. */
+    public List<T> getActualizadas() { return actualizadas; }
+
+    /** @return IDs de las filas eliminadas. */
+    public List<Integer> getEliminadas() { return eliminadas; }
+
+    /** @return true si no hubo cambios. */
+    public boolean isVacio() {
+        return insertadas.isEmpty() && actualizadas.isEmpty() && eliminadas.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "CambiosDesde{token=" + tokenDesde + "->" + token + ", completo=" + completo
+                + ", insertadas=" + insertadas.size() + ", actualizadas=" + actualizadas.size()
+                + ", eliminadas=" + eliminadas.size() + '}';
+    }
+}
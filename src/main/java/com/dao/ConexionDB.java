@@ -1,22 +1,124 @@
 package com.dao;
 
+import com.metricas.Metricas;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 
+/**
+ * Punto único de acceso a la base de datos para los DAO.
+ * <p>
+ * Las conexiones se obtienen desde un {@link PoolConexiones} compartido, por lo que
+ * {@link #conectar()} ya no abre una conexión física por cada operación.
+ * Los parámetros del pool pueden ajustarse con propiedades del sistema
+ * ({@code -Dspeedfast.pool.min=2}, {@code -Dspeedfast.pool.max=10}, etc.), y la base de datos
+ * con {@code -Dspeedfast.db.url}, {@code -Dspeedfast.db.usuario} y {@code -Dspeedfast.db.password}
+ * (por ejemplo, para apuntar los benchmarks a una base embebida).
+ * </p>
+ * <p>
+ * El pool se publica por JMX como {@code com.speedfast:type=PoolConexiones,name=principal}.
+ * </p>
+ */
 public class ConexionDB {
 
-    private static final String URL = "jdbc:mysql://localhost:3306/speedfast_db";
-    private static final String USER = "root";
-    private static final String PASSWORD = "Speed2026";
+    // rewriteBatchedStatements permite que los lotes de INSERT viajen como una sola sentencia multi-fila;
+    // useServerPrepStmts prepara las sentencias en el servidor, que las analiza una vez por conexión
+    // (el pool las reutiliza con su caché de sentencias)
+    private static final String URL = System.getProperty("speedfast.db.url",
+            "jdbc:mysql://localhost:3306/speedfast_db?rewriteBatchedStatements=true&useServerPrepStmts=true");
+    private static final String USER = System.getProperty("speedfast.db.usuario", "root");
+    private static final String PASSWORD = System.getProperty("speedfast.db.password", "Speed2026");
 
+    private static final int POOL_MIN = Integer.getInteger("speedfast.pool.min", 2);
+    private static final int POOL_MAX = Integer.getInteger("speedfast.pool.max", 10);
+    private static final long POOL_ESPERA_MS = Long.getLong("speedfast.pool.esperaMs", 5000L);
+    private static final long POOL_OCIOSIDAD_MS = Long.getLong("speedfast.pool.ociosidadMs", 300000L);
+    private static final int POOL_VALIDACION_SEG = Integer.getInteger("speedfast.pool.validacionSeg", 2);
+    private static final int POOL_SENTENCIAS = Integer.getInteger("speedfast.pool.sentencias", 64);
+
+    private static final String NOMBRE_POOL = "principal";
+
+    private static volatile PoolConexiones pool;
+
+    /**
+     * Obtiene una conexión del pool compartido.
+     * Al cerrarla (por ejemplo con try-with-resources) se devuelve al pool.
+     *
+     * @return conexión lista para usar.
+     * @throws SQLException si no es posible obtener una conexión.
+     */
     public static Connection conectar() throws SQLException {
+        return getPool().obtener();
+    }
+
+    /**
+     * Prepara una consulta de solo lectura en modo streaming.
+     * <p>
+     * Con MySQL Connector/J, un {@code fetchSize} de {@link Integer#MIN_VALUE} sobre un
+     * resultado {@code FORWARD_ONLY}/{@code READ_ONLY} hace que las filas se lean fila a fila
+     * desde el socket en lugar de cargarse completas en memoria.
+     * </p>
+     *
+     * @param con conexión sobre la cual preparar la consulta.
+     * @param sql consulta SELECT a ejecutar.
+     * @return sentencia configurada para streaming.
+     * @throws SQLException si la sentencia no puede prepararse.
+     */
+    static PreparedStatement prepararLecturaStreaming(Connection con, String sql) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(Integer.MIN_VALUE);
+        return ps;
+    }
+
+    /**
+     * Abre por adelantado las conexiones mínimas del pool.
+     * Se invoca al iniciar la aplicación para que la primera operación no pague el handshake.
+     */
+    public static void precalentar() {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-        } catch (ClassNotFoundException e) {
-            System.err.println("Error: No se encontró el driver de MySQL.");
+            getPool().precalentar();
+        } catch (SQLException e) {
+            System.err.println("Error al precalentar el pool de conexiones: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cierra el pool compartido y todas sus conexiones ociosas.
+     */
+    public static synchronized void cerrar() {
+        if (pool != null) {
+            pool.cerrar();
+            pool = null;
+            Metricas.retirar("PoolConexiones", NOMBRE_POOL);
         }
+    }
 
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+    /**
+     * Retorna el pool compartido, creándolo en el primer uso.
+     *
+     * @return pool de conexiones de la aplicación.
+     */
+    public static PoolConexiones getPool() {
+        PoolConexiones actual = pool;
+        if (actual == null) {
+            synchronized (ConexionDB.class) {
+                actual = pool;
+                if (actual == null) {
+                    if (URL.startsWith("jdbc:mysql:")) {
+                        try {
+                            Class.forName("com.mysql.cj.jdbc.Driver");
+                        } catch (ClassNotFoundException e) {
+                            System.err.println("Error: No se encontró el driver de MySQL.");
+                        }
+                    }
+                    actual = new PoolConexiones(URL, USER, PASSWORD, POOL_MIN, POOL_MAX,
+                            POOL_ESPERA_MS, POOL_OCIOSIDAD_MS, POOL_VALIDACION_SEG, POOL_SENTENCIAS);
+                    pool = actual;
+                    Metricas.publicar("PoolConexiones", NOMBRE_POOL, actual);
+                }
+            }
+        }
+        return actual;
     }
-}
\ No newline at end of file
+}
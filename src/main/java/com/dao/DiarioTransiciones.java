@@ -0,0 +1,754 @@
+package com.dao;
+
+import com.model.EstadoPedido;
+import com.model.Pedido;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Diario de solo escritura al final (append-only) de las transiciones de estado de los pedidos.
+ * <p>
+ * Cada transición aplicada por {@link Pedido#transicionar} se agrega como un registro
+ * (secuencia, pedido, estado anterior y nuevo, repartidor, marca de tiempo) a un segmento de
+ * archivo mapeado en memoria. Al abrir el diario se reproducen los segmentos y se reconstruye un
+ * índice con la última transición de cada pedido, sin consultar la base de datos.
+ * </p>
+ *
+ * <h2>Funcionamiento</h2>
+ * <ul>
+ *   <li><b>Segmentos:</b> archivos {@code diario-<secuencia>.seg} de tamaño fijo; cuando el
+ *       registro no cabe, el segmento se fuerza a disco y se abre el siguiente.</li>
+ *   <li><b>Commit agrupado:</b> agregar un registro es copiarlo al mapa; un hilo dedicado fuerza a
+ *       disco todo lo agregado desde el último commit con una sola llamada. Si
+ *       {@code esperarDurable} está activo, quien hace la transición espera ese commit, que cubre
+ *       también a los registros de los demás hilos.</li>
+ *   <li><b>Registros verificables:</b> cada registro lleva su largo y un CRC32C; la reproducción se
+ *       detiene en el primer registro incompleto (por ejemplo, tras una caída durante la escritura)
+ *       y el diario continúa desde ahí.</li>
+ *   <li><b>Compactación:</b> los segmentos cerrados se reemplazan por uno solo con la última
+ *       transición de cada pedido ({@link #compactar()}); se ejecuta sola, en un hilo aparte, cuando
+ *       se acumulan {@link #COMPACTAR_DESDE} segmentos cerrados.</li>
+ *   <li><b>Recuperación:</b> al cerrar, si la escritura diferida guardó todo, se anota hasta qué
+ *       secuencia están los estados en la base de datos ({@link #marcarPersistido(long)}). Al abrir,
+ *       {@link #getEstadosSinPersistir()} devuelve, desde el índice, el último estado de los pedidos
+ *       con transiciones posteriores (por ejemplo, tras una caída con la cola sin escribir), para
+ *       volver a encolarlos sin recorrer la tabla de pedidos.</li>
+ * </ul>
+ */
+public class DiarioTransiciones implements Pedido.ObservadorEstado, DiarioTransicionesMXBean {
+
+    /** Tamaño por defecto de cada segmento, en bytes. */
+    public static final int TAMANO_SEGMENTO_POR_DEFECTO = Integer.getInteger("speedfast.diario.segmentoMB", 64) << 20;
+
+    /** Segmentos cerrados que disparan una compactación automática. */
+    public static final int COMPACTAR_DESDE = 4;
+
+    private static final String PREFIJO = "diario-";
+    private static final String EXTENSION = ".seg";
+    private static final String TEMPORAL = ".tmp";
+    private static final String MARCA_PERSISTIDO = "persistido";
+
+    // Formato del registro: largo, CRC32C (del resto del registro), secuencia, marca de tiempo,
+    // ID del pedido, ordinal del estado anterior y del nuevo, largo del repartidor (-1 si no tiene) y su nombre en UTF-8
+    private static final int CABECERA = 32;
+    private static final int POS_CRC = 4;
+    private static final int POS_DATOS = 8;
+
+    private static final EstadoPedido[] ESTADOS = EstadoPedido.values();
+
+    private final Path directorio;
+    private final int tamanoSegmento;
+    private final boolean esperarDurable;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hayPendientes = lock.newCondition();
+    private final Condition hayDurables = lock.newCondition();
+
+    // Protegidos por lock
+    private Segmento activo;
+    private final List<Path> cerrados = new ArrayList<>();
+    private long siguienteSecuencia;
+    private long secuenciaDurable;
+    private boolean cerrando;
+
+    /** Serializa las compactaciones (automáticas y manuales). */
+    private final Object compactando = new Object();
+    private final AtomicBoolean compactacionProgramada = new AtomicBoolean();
+
+    /** Última transición de cada pedido. */
+    private final ConcurrentHashMap<Integer, Transicion> indice = new ConcurrentHashMap<>();
+
+    private final Thread escritor;
+
+    /** Secuencia hasta la que los estados están en la base de datos, según el último cierre limpio. */
+    private volatile long persistidoHasta;
+
+    private final long registrosReproducidos;
+    private final long reproduccionMs;
+    private final LongAdder registrosEscritos = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder compactaciones = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+
+    /**
+     * Abre (o crea) el diario de un directorio con el tamaño de segmento por defecto.
+     *
+     * @param directorio     directorio de los segmentos.
+     * @param esperarDurable true para que cada transición espere a quedar en disco.
+     * @throws IOException si no se puede leer o crear el diario.
+     */
+    public DiarioTransiciones(Path directorio, boolean esperarDurable) throws IOException {
+        this(directorio, TAMANO_SEGMENTO_POR_DEFECTO, esperarDurable);
+    }
+
+    /**
+     * Abre (o crea) el diario de un directorio, reproduce sus segmentos e inicia el hilo de commit.
+     *
+     * @param directorio     directorio de los segmentos (se crea si no existe).
+     * @param tamanoSegmento tamaño de cada segmento, en bytes (al menos 4 KB).
+     * @param esperarDurable true para que cada transición espere a quedar en disco.
+     * @throws IOException si no se puede leer o crear el diario.
+     * @throws IllegalArgumentException si algún parámetro no cumple validación.
+     */
+    public DiarioTransiciones(Path directorio, int tamanoSegmento, boolean esperarDurable) throws IOException {
+        if (directorio == null) throw new IllegalArgumentException("El directorio no puede ser nulo.");
+        if (tamanoSegmento < 4096) throw new IllegalArgumentException("El tamaño de segmento debe ser de al menos 4 KB.");
+
+        this.directorio = directorio;
+        this.tamanoSegmento = tamanoSegmento;
+        this.esperarDurable = esperarDurable;
+
+        Files.createDirectories(directorio);
+        long inicio = System.nanoTime();
+        List<Path> segmentos = listarSegmentos();
+
+        long ultima = 0;
+        long reproducidos = 0;
+        int finActivo = 0;
+        for (int i = 0; i < segmentos.size(); i++) {
+            Lectura lectura = leer(segmentos.get(i), this::indexar);
+            ultima = Math.max(ultima, lectura.ultimaSecuencia);
+            reproducidos += lectura.registros;
+            finActivo = lectura.fin;
+        }
+        this.registrosReproducidos = reproducidos;
+        this.siguienteSecuencia = ultima + 1;
+        this.secuenciaDurable = ultima;
+
+        if (segmentos.isEmpty()) {
+            this.activo = Segmento.crear(rutaSegmento(siguienteSecuencia), tamanoSegmento, 0);
+        } else {
+            // El último segmento sigue siendo el activo: se continúa después de su último registro válido
+            Path ultimo = segmentos.get(segmentos.size() - 1);
+            this.cerrados.addAll(segmentos.subList(0, segmentos.size() - 1));
+            this.activo = Segmento.crear(ultimo, Math.max(tamanoSegmento, (int) Files.size(ultimo)), finActivo);
+        }
+        this.persistidoHasta = leerMarcaPersistido();
+        this.reproduccionMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        this.escritor = new Thread(this::confirmarEscrituras, "speedfast-diario-commit");
+        // Daemon para no retener la JVM; cerrar() fuerza lo pendiente (gancho de apagado)
+        escritor.setDaemon(true);
+        escritor.start();
+        if (cerrados.size() >= COMPACTAR_DESDE) programarCompactacion();
+    }
+
+    /**
+     * Agrega la transición al diario (invocado por {@link Pedido#transicionar}).
+     *
+     * @param pedido   pedido que cambió de estado.
+     * @param anterior estado que tenía el pedido.
+     * @param nuevo    estado alcanzado.
+     */
+    @Override
+    public void estadoCambiado(Pedido pedido, EstadoPedido anterior, EstadoPedido nuevo) {
+        registrar(pedido.getIdPedido(), anterior, nuevo, pedido.getRepartidor(), System.currentTimeMillis());
+    }
+
+    /**
+     * Agrega una transición al diario y la refleja en el índice.
+     *
+     * @param idPedido    ID del pedido.
+     * @param desde       estado anterior.
+     * @param hacia       estado nuevo.
+     * @param repartidor  nombre del repartidor (puede ser null).
+     * @param marcaTiempo instante de la transición, en milisegundos desde la época.
+     * @return secuencia asignada, o -1 si el diario está cerrado o no se pudo escribir.
+     */
+    public long registrar(int idPedido, EstadoPedido desde, EstadoPedido hacia, String repartidor, long marcaTiempo) {
+        byte[] nombre = repartidor == null ? null : repartidor.getBytes(StandardCharsets.UTF_8);
+        byte[] registro = new byte[CABECERA + (nombre == null ? 0 : nombre.length)];
+        ByteBuffer buffer = ByteBuffer.wrap(registro);
+        buffer.putInt(0, registro.length);
+        buffer.putLong(16, marcaTiempo);
+        buffer.putInt(24, idPedido);
+        buffer.put(28, (byte) desde.ordinal());
+        buffer.put(29, (byte) hacia.ordinal());
+        buffer.putShort(30, (short) (nombre == null ? -1 : nombre.length));
+        if (nombre != null) buffer.put(CABECERA, nombre);
+
+        boolean interrumpido = false;
+        lock.lock();
+        try {
+            if (cerrando) return -1;
+            if (activo.restante() < registro.length && !rotar()) return -1;
+
+            long secuencia = siguienteSecuencia++;
+            buffer.putLong(POS_DATOS, secuencia);
+            CRC32C crc = new CRC32C();
+            crc.update(registro, POS_DATOS, registro.length - POS_DATOS);
+            buffer.putInt(POS_CRC, (int) crc.getValue());
+            activo.agregar(registro);
+
+            indice.put(idPedido, new Transicion(secuencia, idPedido, desde, hacia, repartidor, marcaTiempo));
+            registrosEscritos.increment();
+            hayPendientes.signal();
+
+            while (esperarDurable && secuenciaDurable < secuencia && !cerrando) {
+                try {
+                    hayDurables.await();
+                } catch (InterruptedException e) {
+                    // El registro ya está en el mapa; solo se deja de esperar el commit
+                    interrumpido = true;
+                    break;
+                }
+            }
+            return secuencia;
+        } finally {
+            lock.unlock();
+            if (interrumpido) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param idPedido ID del pedido.
+     * @return última transición registrada del pedido, o null si no tiene.
+     */
+    public Transicion getUltimaTransicion(int idPedido) {
+        return indice.get(idPedido);
+    }
+
+    /**
+     * @return vista de solo lectura del índice: última transición por ID de pedido.
+     */
+    public Map<Integer, Transicion> getIndice() {
+        return Collections.unmodifiableMap(indice);
+    }
+
+    /**
+     * @return último estado de cada pedido con transiciones posteriores a la última
+     *         {@linkplain #marcarPersistido(long) marca de persistencia}, por ID de pedido.
+     */
+    public Map<Integer, EstadoPedido> getEstadosSinPersistir() {
+        long desde = persistidoHasta;
+        Map<Integer, EstadoPedido> estados = new HashMap<>();
+        for (Transicion t : indice.values()) {
+            if (t.secuencia > desde) estados.put(t.idPedido, t.hacia);
+        }
+        return estados;
+    }
+
+    /**
+     * Anota que las transiciones hasta {@code secuencia} ya están en la base de datos; se lee al
+     * abrir el diario para saber qué volver a encolar. El archivo se reemplaza con un movimiento atómico.
+     *
+     * @param secuencia secuencia leída con {@link #getUltimaSecuencia()} antes de vaciar la escritura diferida.
+     * @return true si la marca quedó en disco.
+     */
+    public boolean marcarPersistido(long secuencia) {
+        Path marca = directorio.resolve(MARCA_PERSISTIDO);
+        Path temporal = directorio.resolve(MARCA_PERSISTIDO + TEMPORAL);
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.allocate(Long.BYTES).putLong(0, secuencia));
+            canal.force(true);
+            Files.move(temporal, marca, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            persistidoHasta = secuencia;
+            return true;
+        } catch (IOException e) {
+            errores.increment();
+            System.err.println("Error al anotar la marca de persistencia del diario: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private long leerMarcaPersistido() throws IOException {
+        Path marca = directorio.resolve(MARCA_PERSISTIDO);
+        if (!Files.exists(marca)) return 0;
+        byte[] bytes = Files.readAllBytes(marca);
+        return bytes.length == Long.BYTES ? ByteBuffer.wrap(bytes).getLong() : 0;
+    }
+
+    /**
+     * Reemplaza los segmentos cerrados por uno solo con la última transición de cada pedido.
+     * <p>
+     * El segmento compactado se escribe en un archivo temporal y reemplaza al más antiguo con un
+     * movimiento atómico; luego se borran los demás. Si el proceso se interrumpe a mitad de camino,
+     * los registros quedan repetidos (y la reproducción se queda con la secuencia mayor), nunca perdidos.
+     * </p>
+     *
+     * @return cantidad de registros eliminados, o -1 si ocurre un error.
+     */
+    public long compactar() {
+        synchronized (compactando) {
+            List<Path> aCompactar;
+            lock.lock();
+            try {
+                aCompactar = new ArrayList<>(cerrados);
+            } finally {
+                lock.unlock();
+            }
+            if (aCompactar.size() < 2) return 0;
+
+            try {
+                Map<Integer, byte[]> ultimos = new HashMap<>();
+                Map<Integer, Long> secuencias = new HashMap<>();
+                long total = 0;
+                for (Path segmento : aCompactar) {
+                    total += leerRegistros(segmento, (secuencia, idPedido, registro) -> {
+                        Long previa = secuencias.get(idPedido);
+                        if (previa == null || previa < secuencia) {
+                            secuencias.put(idPedido, secuencia);
+                            ultimos.put(idPedido, registro);
+                        }
+                    });
+                }
+
+                List<Map.Entry<Integer, Long>> orden = new ArrayList<>(secuencias.entrySet());
+                orden.sort(Map.Entry.comparingByValue());
+                long bytes = 0;
+                for (byte[] registro : ultimos.values()) bytes += registro.length;
+
+                Path destino = aCompactar.get(0);
+                Path temporal = destino.resolveSibling(destino.getFileName() + TEMPORAL);
+                try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+                    for (Map.Entry<Integer, Long> e : orden) {
+                        mapa.put(ultimos.get(e.getKey()));
+                    }
+                    mapa.force();
+                }
+                Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                for (Path segmento : aCompactar.subList(1, aCompactar.size())) {
+                    Files.deleteIfExists(segmento);
+                }
+
+                lock.lock();
+                try {
+                    cerrados.removeAll(aCompactar);
+                    cerrados.add(0, destino);
+                } finally {
+                    lock.unlock();
+                }
+                compactaciones.increment();
+                return total - orden.size();
+            } catch (IOException | RuntimeException e) {
+                errores.increment();
+                System.err.println("Error al compactar el diario de transiciones: " + e.getMessage());
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Confirma lo pendiente, detiene el hilo de commit y cierra el segmento activo.
+     * Las transiciones posteriores se ignoran.
+     */
+    public void cerrar() {
+        lock.lock();
+        try {
+            cerrando = true;
+            hayPendientes.signal();
+            hayDurables.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            activo.forzar();
+            activo.cerrar();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar el diario de transiciones: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bucle del hilo de commit: fuerza a disco, de una vez, todo lo agregado desde el commit anterior.
+     */
+    private void confirmarEscrituras() {
+        while (true) {
+            Segmento segmento;
+            int desde;
+            int hasta;
+            long hastaSecuencia;
+            lock.lock();
+            try {
+                while (!cerrando && siguienteSecuencia - 1 == secuenciaDurable) {
+                    hayPendientes.await();
+                }
+                if (cerrando) return; // cerrar() fuerza el segmento activo completo
+                segmento = activo;
+                desde = segmento.forzadoHasta;
+                hasta = segmento.posicion;
+                hastaSecuencia = siguienteSecuencia - 1;
+            } catch (InterruptedException e) {
+                continue;
+            } finally {
+                lock.unlock();
+            }
+
+            if (hasta > desde) {
+                segmento.mapa.force(desde, hasta - desde);
+                commits.increment();
+            }
+            lock.lock();
+            try {
+                segmento.forzadoHasta = Math.max(segmento.forzadoHasta, hasta);
+                secuenciaDurable = Math.max(secuenciaDurable, hastaSecuencia);
+                hayDurables.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Fuerza y cierra el segmento activo y abre el siguiente (con el lock tomado).
+     *
+     * @return false si no se pudo abrir el nuevo segmento.
+     */
+    private boolean rotar() {
+        try {
+            activo.forzar();
+            activo.cerrar();
+            cerrados.add(activo.ruta);
+            secuenciaDurable = siguienteSecuencia - 1;
+            hayDurables.signalAll();
+            activo = Segmento.crear(rutaSegmento(siguienteSecuencia), tamanoSegmento, 0);
+            if (cerrados.size() >= COMPACTAR_DESDE) programarCompactacion();
+            return true;
+        } catch (IOException e) {
+            errores.increment();
+            System.err.println("Error al abrir un nuevo segmento del diario: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Compacta en un hilo aparte, para no demorar los commits; a lo sumo una compactación a la vez.
+     */
+    private void programarCompactacion() {
+        if (!compactacionProgramada.compareAndSet(false, true)) return;
+        Thread hilo = new Thread(() -> {
+            try {
+                compactar();
+            } finally {
+                compactacionProgramada.set(false);
+            }
+        }, "speedfast-diario-compactacion");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    private void indexar(Transicion t) {
+        Transicion previa = indice.get(t.getIdPedido());
+        if (previa == null || previa.getSecuencia() < t.getSecuencia()) {
+            indice.put(t.getIdPedido(), t);
+        }
+    }
+
+    private Path rutaSegmento(long secuenciaInicial) {
+        return directorio.resolve(String.format("%s%020d%s", PREFIJO, secuenciaInicial, EXTENSION));
+    }
+
+    /**
+     * @return segmentos del directorio ordenados por secuencia inicial (borra temporales de compactaciones interrumpidas).
+     */
+    private List<Path> listarSegmentos() throws IOException {
+        List<Path> segmentos = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, PREFIJO + "*")) {
+            for (Path archivo : archivos) {
+                String nombre = archivo.getFileName().toString();
+                if (nombre.endsWith(TEMPORAL)) {
+                    Files.deleteIfExists(archivo);
+                } else if (nombre.endsWith(EXTENSION)) {
+                    segmentos.add(archivo);
+                }
+            }
+        }
+        // El nombre lleva la secuencia con ceros a la izquierda: el orden alfabético es el numérico
+        Collections.sort(segmentos);
+        return segmentos;
+    }
+
+    /**
+     * Reproduce un segmento entregando cada transición válida.
+     */
+    private static Lectura leer(Path segmento, Consumer<Transicion> destino) throws IOException {
+        Lectura lectura = new Lectura();
+        lectura.fin = recorrer(segmento, (buffer, pos, largo) -> {
+            long secuencia = buffer.getLong(pos + POS_DATOS);
+            int largoNombre = buffer.getShort(pos + 30);
+            String repartidor = null;
+            if (largoNombre >= 0) {
+                byte[] nombre = new byte[largoNombre];
+                buffer.get(pos + CABECERA, nombre);
+                repartidor = new String(nombre, StandardCharsets.UTF_8);
+            }
+            destino.accept(new Transicion(secuencia, buffer.getInt(pos + 24),
+                    ESTADOS[buffer.get(pos + 28)], ESTADOS[buffer.get(pos + 29)], repartidor, buffer.getLong(pos + 16)));
+            lectura.registros++;
+            lectura.ultimaSecuencia = Math.max(lectura.ultimaSecuencia, secuencia);
+        });
+        return lectura;
+    }
+
+    /**
+     * Recorre un segmento entregando cada registro válido como arreglo de bytes.
+     *
+     * @return cantidad de registros leídos.
+     */
+    private static long leerRegistros(Path segmento, RegistroCrudo destino) throws IOException {
+        long[] registros = {0};
+        recorrer(segmento, (buffer, pos, largo) -> {
+            byte[] registro = new byte[largo];
+            buffer.get(pos, registro);
+            destino.aceptar(buffer.getLong(pos + POS_DATOS), buffer.getInt(pos + 24), registro);
+            registros[0]++;
+        });
+        return registros[0];
+    }
+
+    /**
+     * Recorre los registros válidos de un segmento hasta el final o el primer registro incompleto.
+     *
+     * @return posición siguiente al último registro válido.
+     */
+    private static int recorrer(Path segmento, VisitanteRegistro visitante) throws IOException {
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ)) {
+            int tamano = (int) canal.size();
+            if (tamano == 0) return 0;
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+            CRC32C crc = new CRC32C();
+            int pos = 0;
+            while (pos + CABECERA <= tamano) {
+                int largo = buffer.getInt(pos);
+                if (largo < CABECERA || largo > tamano - pos) break; // fin del segmento (ceros) o registro truncado
+                int largoNombre = buffer.getShort(pos + 30);
+                if (largo != CABECERA + Math.max(0, largoNombre)) break;
+                int estadoDesde = buffer.get(pos + 28);
+                int estadoHacia = buffer.get(pos + 29);
+                if (estadoDesde < 0 || estadoDesde >= ESTADOS.length || estadoHacia < 0 || estadoHacia >= ESTADOS.length) break;
+
+                crc.reset();
+                crc.update(buffer.slice(pos + POS_DATOS, largo - POS_DATOS));
+                if ((int) crc.getValue() != buffer.getInt(pos + POS_CRC)) break;
+
+                visitante.visitar(buffer, pos, largo);
+                pos += largo;
+            }
+            return pos;
+        }
+    }
+
+    // --- Vista JMX ---
+
+    @Override
+    public int getSegmentos() {
+        lock.lock();
+        try {
+            return cerrados.size() + 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getUltimaSecuencia() {
+        lock.lock();
+        try {
+            return siguienteSecuencia - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getSecuenciaDurable() {
+        lock.lock();
+        try {
+            return secuenciaDurable;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getPersistidoHasta() { return persistidoHasta; }
+
+    @Override
+    public int getPedidosIndexados() { return indice.size(); }
+
+    @Override
+    public long getRegistrosEscritos() { return registrosEscritos.sum(); }
+
+    @Override
+    public long getCommits() { return commits.sum(); }
+
+    @Override
+    public double getRegistrosPorCommit() {
+        long c = commits.sum();
+        return c == 0 ? 0 : (double) registrosEscritos.sum() / c;
+    }
+
+    @Override
+    public long getRegistrosReproducidos() { return registrosReproducidos; }
+
+    @Override
+    public long getReproduccionMs() { return reproduccionMs; }
+
+    @Override
+    public long getCompactaciones() { return compactaciones.sum(); }
+
+    @Override
+    public long getErrores() { return errores.sum(); }
+
+    @FunctionalInterface
+    private interface VisitanteRegistro {
+        void visitar(MappedByteBuffer buffer, int pos, int largo);
+    }
+
+    @FunctionalInterface
+    private interface RegistroCrudo {
+        void aceptar(long secuencia, int idPedido, byte[] registro);
+    }
+
+    /** Resultado de reproducir un segmento. */
+    private static final class Lectura {
+        private long registros;
+        private long ultimaSecuencia;
+        private int fin;
+    }
+
+    /**
+     * Segmento abierto para escritura, mapeado completo en memoria.
+     */
+    private static final class Segmento {
+        private final Path ruta;
+        private final FileChannel canal;
+        private final MappedByteBuffer mapa;
+        private int posicion;
+        private int forzadoHasta;
+
+        private Segmento(Path ruta, FileChannel canal, MappedByteBuffer mapa, int posicion) {
+            this.ruta = ruta;
+            this.canal = canal;
+            this.mapa = mapa;
+            this.posicion = posicion;
+            this.forzadoHasta = posicion;
+        }
+
+        private static Segmento crear(Path ruta, int tamano, int posicion) throws IOException {
+            FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+                return new Segmento(ruta, canal, mapa, posicion);
+            } catch (IOException | RuntimeException e) {
+                canal.close();
+                throw e;
+            }
+        }
+
+        private int restante() { return mapa.capacity() - posicion; }
+
+        private void agregar(byte[] registro) {
+            mapa.put(posicion, registro);
+            posicion += registro.length;
+        }
+
+        private void forzar() {
+            if (posicion > forzadoHasta) {
+                mapa.force(forzadoHasta, posicion - forzadoHasta);
+                forzadoHasta = posicion;
+            }
+        }
+
+        private void cerrar() throws IOException {
+            // El mapa sigue siendo válido después de cerrar el canal
+            canal.close();
+        }
+    }
+
+    /**
+     * Transición registrada en el diario (inmutable).
+     */
+    public static final class Transicion {
+        private final long secuencia;
+        private final int idPedido;
+        private final EstadoPedido desde;
+        private final EstadoPedido hacia;
+        private final String repartidor;
+        private final long marcaTiempo;
+
+        private Transicion(long secuencia, int idPedido, EstadoPedido desde, EstadoPedido hacia, String repartidor, long marcaTiempo) {
+            this.secuencia = secuencia;
+            this.idPedido = idPedido;
+            this.desde = desde;
+            this.hacia = hacia;
+            this.repartidor = repartidor;
+            this.marcaTiempo = marcaTiempo;
+        }
+
+        /** @return posición de la transición en el orden global del diario. */
+        public long getSecuencia() { return secuencia; }
+
+        /** @return ID del pedido. */
+        public int getIdPedido() { return idPedido; }
+
+        /** @return estado anterior. */
+        public EstadoPedido getDesde() { return desde; }
+
+        /** @return estado alcanzado. */
+        public EstadoPedido getHacia() { return hacia; }
+
+        /** @return nombre del repartidor, o null si no tenía. */
+        public String getRepartidor() { return repartidor; }
+
+        /** @return instante de la transición, en milisegundos desde la época. */
+        public long getMarcaTiempo() { return marcaTiempo; }
+
+        @Override
+        public String toString() {
+            return "Transicion{secuencia=" + secuencia + ", idPedido=" + idPedido + ", desde=" + desde + ", hacia=" + hacia
+                    + ", repartidor=" + repartidor + ", marcaTiempo=" + marcaTiempo + '}';
+        }
+    }
+}
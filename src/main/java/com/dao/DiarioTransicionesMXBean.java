@@ -0,0 +1,43 @@
+package com.dao;
+
+/**
+ * Vista JMX del {@link DiarioTransiciones}: segmentos, secuencias, commits agrupados y reproducción al abrir.
+ */
+public interface DiarioTransicionesMXBean {
+
+    /** @return segmentos en disco (cerrados más el activo). */
+    int getSegmentos();
+
+    /** @return secuencia del último registro agregado. */
+    long getUltimaSecuencia();
+
+    /** @return secuencia del último registro forzado a disco. */
+    long getSecuenciaDurable();
+
+    /** @return secuencia hasta la que los estados estaban en la base de datos al último cierre limpio. */
+    long getPersistidoHasta();
+
+    /** @return pedidos con al menos una transición en el índice. */
+    int getPedidosIndexados();
+
+    /** @return registros agregados desde la apertura. */
+    long getRegistrosEscritos();
+
+    /** @return escrituras a disco realizadas por el hilo de commit. */
+    long getCommits();
+
+    /** @return promedio de registros confirmados por cada escritura a disco. */
+    double getRegistrosPorCommit();
+
+    /** @return registros leídos al abrir el diario. */
+    long getRegistrosReproducidos();
+
+    /** @return duración de la reproducción al abrir el diario, en milisegundos. */
+    long getReproduccionMs();
+
+    /** @return compactaciones completadas. */
+    long getCompactaciones();
+
+    /** @return errores de escritura o compactación. */
+    long getErrores();
+}
@@ -1,14 +1,21 @@
 package com.dao;
 
+import com.metricas.Metricas;
+import com.metricas.MetricasOperacion;
 import com.model.Entrega;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Date;
+import java.sql.Statement;
 import java.sql.Time;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * Clase Data Access Object (DAO) para la entidad Entrega.
@@ -16,70 +23,443 @@ import java.util.List;
  */
 public class EntregaDAO {
 
+    /** Cantidad de filas enviadas por lote cuando no se indica otra. */
+    public static final int TAMANO_LOTE_POR_DEFECTO = 1000;
+
+    private static final String SQL_INSERT = "INSERT INTO entregas (id_pedido, id_repartidor, fecha, hora) VALUES (?, ?, ?, ?)";
+    private static final String SQL_SELECT = "SELECT id, id_pedido, id_repartidor, fecha, hora FROM entregas";
+    private static final String SQL_TOMAR_PEDIDO = "UPDATE pedidos SET estado = 'EN_REPARTO' WHERE id = ? AND estado = 'PENDIENTE'";
+    private static final String SQL_BLOQUEAR = SQL_SELECT + " WHERE id = ? FOR UPDATE";
+
+    // Métricas por operación (ver com.metricas.Metricas)
+    private static final MetricasOperacion OP_CREATE = Metricas.operacion("EntregaDAO.create");
+    private static final MetricasOperacion OP_CREATE_ALL = Metricas.operacion("EntregaDAO.createAll");
+    private static final MetricasOperacion OP_ASIGNAR = Metricas.operacion("EntregaDAO.asignarEntregas");
+    private static final MetricasOperacion OP_READ_ALL = Metricas.operacion("EntregaDAO.readAll");
+    private static final MetricasOperacion OP_READ_EACH = Metricas.operacion("EntregaDAO.readEach");
+    private static final MetricasOperacion OP_READ_PAGE = Metricas.operacion("EntregaDAO.readPage");
+    private static final MetricasOperacion OP_COUNT = Metricas.operacion("EntregaDAO.count");
+    private static final MetricasOperacion OP_READ_OFFSET = Metricas.operacion("EntregaDAO.readOffset");
+    private static final MetricasOperacion OP_READ_CHANGE_TOKEN = Metricas.operacion("EntregaDAO.readChangeToken");
+    private static final MetricasOperacion OP_READ_CHANGES = Metricas.operacion("EntregaDAO.readChangesSince");
+    private static final MetricasOperacion OP_UPDATE = Metricas.operacion("EntregaDAO.update");
+    private static final MetricasOperacion OP_DELETE = Metricas.operacion("EntregaDAO.delete");
+
+    /**
+     * Recibe las entregas registradas y eliminadas por este DAO (por ejemplo, para mantener acumulados).
+     * Se invoca en el hilo que hizo la operación, después del commit.
+     */
+    @FunctionalInterface
+    public interface ObservadorEntregas {
+        /**
+         * @param entrega entrega afectada (en una actualización, primero la versión anterior con -1 y luego la nueva con +1).
+         * @param delta   +1 si la entrega se registró, -1 si se eliminó.
+         */
+        void entregaCambiada(Entrega entrega, int delta);
+    }
+
+    private static volatile ObservadorEntregas observador = (entrega, delta) -> { };
+
+    /**
+     * Reemplaza el observador de entregas de todos los DAO.
+     *
+     * @param nuevo observador (no nulo).
+     */
+    public static void setObservadorEntregas(ObservadorEntregas nuevo) {
+        observador = Objects.requireNonNull(nuevo, "observador no puede ser null.");
+    }
+
     /**
      * Crea un nuevo registro de entrega en la base de datos.
      * @param entrega Objeto Entrega con los IDs foráneos y la fecha/hora.
      * @return true si se guardó exitosamente, false en caso contrario.
      */
     public boolean create(Entrega entrega) {
-        String sql = "INSERT INTO entregas (id_pedido, id_repartidor, fecha, hora) VALUES (?, ?, ?, ?)";
+        return createAndGetId(entrega) > 0;
+    }
 
+    /**
+     * Crea un nuevo registro de entrega y recupera el ID autoincremental asignado.
+     * El ID generado también se asigna al objeto recibido.
+     * @param entrega Objeto Entrega con los IDs foráneos y la fecha/hora.
+     * @return ID generado, o -1 si no se pudo guardar.
+     */
+    public int createAndGetId(Entrega entrega) {
+        long inicio = System.nanoTime();
         try (Connection con = ConexionDB.conectar();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
 
-            ps.setInt(1, entrega.getIdPedido());
-            ps.setInt(2, entrega.getIdRepartidor());
-            ps.setDate(3, entrega.getFecha());
-            ps.setTime(4, entrega.getHora());
+            asignarParametrosInsert(ps, entrega);
+            ps.executeUpdate();
 
-            int filasAfectadas = ps.executeUpdate();
-            return filasAfectadas > 0;
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next()) {
+                    int id = rs.getInt(1);
+                    entrega.setId(id);
+                    OP_CREATE.registrar(inicio, 1);
+                    observador.entregaCambiada(entrega, 1);
+                    return id;
+                }
+            }
+            OP_CREATE.registrar(inicio, 0);
+            return -1;
 
         } catch (SQLException e) {
+            OP_CREATE.registrarError(inicio);
             System.err.println("Error al registrar la entrega: " + e.getMessage());
-            return false;
+            return -1;
+        }
+    }
+
+    /**
+     * Registra varias entregas usando lotes JDBC del tamaño por defecto.
+     * @param entregas Lista de entregas a registrar.
+     * @return IDs generados, en el mismo orden de la lista.
+     * @see #createAll(List, int)
+     */
+    public int[] createAll(List<Entrega> entregas) {
+        return createAll(entregas, TAMANO_LOTE_POR_DEFECTO);
+    }
+
+    /**
+     * Registra varias entregas usando lotes JDBC, con un commit por lote.
+     * Si un lote falla, se descarta completo y se retornan solo los IDs de los lotes confirmados.
+     * @param entregas Lista de entregas a registrar.
+     * @param tamanoLote Cantidad de filas por lote (mayor que 0).
+     * @return IDs generados de las entregas confirmadas, en el mismo orden de la lista.
+     */
+    public int[] createAll(List<Entrega> entregas, int tamanoLote) {
+        if (tamanoLote <= 0) throw new IllegalArgumentException("tamanoLote debe ser mayor que 0.");
+        int[] ids = new int[entregas.size()];
+        int confirmados = 0;
+        if (entregas.isEmpty()) return ids;
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = con.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+
+            con.setAutoCommit(false);
+            for (int i = 0; i < entregas.size(); i++) {
+                asignarParametrosInsert(ps, entregas.get(i));
+                ps.addBatch();
+
+                if ((i + 1) % tamanoLote == 0 || i == entregas.size() - 1) {
+                    ps.executeBatch();
+                    int j = confirmados;
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        while (rs.next() && j <= i) {
+                            ids[j] = rs.getInt(1);
+                            entregas.get(j).setId(ids[j]);
+                            j++;
+                        }
+                    }
+                    con.commit();
+                    for (int k = confirmados; k <= i; k++) observador.entregaCambiada(entregas.get(k), 1);
+                    confirmados = i + 1;
+                }
+            }
+            OP_CREATE_ALL.registrar(inicio, confirmados);
+
+        } catch (SQLException e) {
+            OP_CREATE_ALL.registrarError(inicio);
+            // El lote en curso se revierte al devolver la conexión al pool
+            System.err.println("Error al registrar entregas en lote: " + e.getMessage());
+        }
+        return confirmados == ids.length ? ids : Arrays.copyOf(ids, confirmados);
+    }
+
+    /**
+     * Asigna un pedido pendiente a un repartidor en una sola transacción, sobre una sola conexión.
+     * <p>
+     * Primero pasa el pedido a EN_REPARTO con un UPDATE condicional ({@code WHERE estado = 'PENDIENTE'})
+     * y, solo si lo logró, registra la entrega; ambos cambios se confirman con un único commit.
+     * El UPDATE bloquea la fila del pedido, así que si dos despachadores lo asignan a la vez,
+     * solo uno lo encuentra PENDIENTE y el otro no registra nada.
+     * </p>
+     * @param idPedido ID del pedido a asignar.
+     * @param idRepartidor ID del repartidor que lo entregará.
+     * @return Entrega registrada (con su ID, fecha y hora), o null si el pedido no estaba PENDIENTE o hubo un error.
+     */
+    public Entrega asignarEntrega(int idPedido, int idRepartidor) {
+        long ahora = System.currentTimeMillis();
+        Date fecha = new Date(ahora);
+        Time hora = new Time(ahora);
+
+        int id = asignar(new int[]{idPedido}, new int[]{idRepartidor}, fecha, hora)[0];
+        return id > 0 ? new Entrega(id, idPedido, idRepartidor, fecha, hora) : null;
+    }
+
+    /**
+     * Asigna varios pedidos pendientes en una sola transacción (un único commit).
+     * <p>
+     * Los UPDATE condicionales y los INSERT viajan en lotes JDBC. Los pedidos que ya no estaban
+     * PENDIENTE (por ejemplo, asignados por otro despachador) se omiten sin afectar al resto.
+     * Si ocurre un error, no se confirma ninguna asignación.
+     * </p>
+     * @param idsPedido IDs de los pedidos a asignar.
+     * @param idsRepartidor ID del repartidor para cada pedido (misma longitud que {@code idsPedido}).
+     * @return ID de la entrega registrada para cada pedido, en el mismo orden; 0 si el pedido se omitió
+     *         (todos 0 si hubo un error).
+     */
+    public int[] asignarEntregas(int[] idsPedido, int[] idsRepartidor) {
+        long ahora = System.currentTimeMillis();
+        return asignar(idsPedido, idsRepartidor, new Date(ahora), new Time(ahora));
+    }
+
+    private int[] asignar(int[] idsPedido, int[] idsRepartidor, Date fecha, Time hora) {
+        if (idsPedido == null || idsRepartidor == null) throw new IllegalArgumentException("Los IDs no pueden ser nulos.");
+        if (idsPedido.length != idsRepartidor.length) throw new IllegalArgumentException("idsPedido e idsRepartidor deben tener la misma longitud.");
+        int n = idsPedido.length;
+        int[] ids = new int[n];
+        if (n == 0) return ids;
+
+        // Los pedidos se bloquean en orden de ID para que dos lotes concurrentes no caigan en un deadlock
+        Integer[] orden = new Integer[n];
+        for (int i = 0; i < n; i++) orden[i] = i;
+        Arrays.sort(orden, Comparator.comparingInt(i -> idsPedido[i]));
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement tomar = con.prepareStatement(SQL_TOMAR_PEDIDO);
+             PreparedStatement insertar = con.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+
+            con.setAutoCommit(false);
+            for (int i : orden) {
+                tomar.setInt(1, idsPedido[i]);
+                tomar.addBatch();
+            }
+            int[] tomados = tomar.executeBatch();
+
+            int[] asignados = new int[n];
+            int m = 0;
+            for (int k = 0; k < n; k++) {
+                if (tomados[k] <= 0) continue; // ya no estaba PENDIENTE (o no existe)
+                int i = orden[k];
+                asignados[m++] = i;
+                insertar.setInt(1, idsPedido[i]);
+                insertar.setInt(2, idsRepartidor[i]);
+                insertar.setDate(3, fecha);
+                insertar.setTime(4, hora);
+                insertar.addBatch();
+            }
+
+            if (m > 0) {
+                insertar.executeBatch();
+                try (ResultSet rs = insertar.getGeneratedKeys()) {
+                    int k = 0;
+                    while (rs.next() && k < m) {
+                        ids[asignados[k++]] = rs.getInt(1);
+                    }
+                }
+            }
+            con.commit();
+            OP_ASIGNAR.registrar(inicio, m);
+            for (int k = 0; k < m; k++) {
+                int i = asignados[k];
+                if (ids[i] > 0) observador.entregaCambiada(new Entrega(ids[i], idsPedido[i], idsRepartidor[i], fecha, hora), 1);
+            }
+            return ids;
+
+        } catch (SQLException e) {
+            OP_ASIGNAR.registrarError(inicio);
+            // La transacción se revierte al devolver la conexión al pool
+            System.err.println("Error al asignar entregas: " + e.getMessage());
+            return new int[n];
         }
     }
 
     /**
      * Lee todas las entregas registradas en la base de datos.
+     * <p>
+     * Materializa la tabla completa en memoria; para tablas grandes prefiera
+     * {@link #readEach(Consumer)} o {@link #readPage(int, int)}.
+     * </p>
      * @return Lista de objetos Entrega.
      */
     public List<Entrega> readAll() {
         List<Entrega> lista = new ArrayList<>();
-        String sql = "SELECT id, id_pedido, id_repartidor, fecha, hora FROM entregas";
 
+        long inicio = System.nanoTime();
         try (Connection con = ConexionDB.conectar();
-             PreparedStatement ps = con.prepareStatement(sql);
+             PreparedStatement ps = con.prepareStatement(SQL_SELECT);
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
-                int id = rs.getInt("id");
-                int idPedido = rs.getInt("id_pedido");
-                int idRepartidor = rs.getInt("id_repartidor");
-                Date fecha = rs.getDate("fecha");
-                Time hora = rs.getTime("hora");
-
-                lista.add(new Entrega(id, idPedido, idRepartidor, fecha, hora));
+                lista.add(mapearEntrega(rs));
             }
+            OP_READ_ALL.registrar(inicio, lista.size());
 
         } catch (SQLException e) {
+            OP_READ_ALL.registrarError(inicio);
             System.err.println("Error al listar entregas: " + e.getMessage());
         }
         return lista;
     }
 
+    /**
+     * Recorre todas las entregas en modo streaming, entregándolas una a una al consumidor.
+     * El uso de memoria es constante sin importar el tamaño de la tabla.
+     * @param consumidor Acción a ejecutar por cada entrega, en orden de ID.
+     * @return Cantidad de entregas recorridas.
+     */
+    public int readEach(Consumer<? super Entrega> consumidor) {
+        int total = 0;
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = ConexionDB.prepararLecturaStreaming(con, SQL_SELECT + " ORDER BY id");
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                consumidor.accept(mapearEntrega(rs));
+                total++;
+            }
+            OP_READ_EACH.registrar(inicio, total);
+
+        } catch (SQLException e) {
+            OP_READ_EACH.registrarError(inicio);
+            System.err.println("Error al recorrer entregas: " + e.getMessage());
+        }
+        return total;
+    }
+
+    /**
+     * Lee una página de entregas usando paginación por clave (keyset).
+     * @param despuesDeId ID de la última entrega de la página anterior (0 para la primera página).
+     * @param limite Cantidad máxima de entregas a retornar (mayor que 0).
+     * @return Lista de entregas ordenadas por ID; vacía si no hay más páginas.
+     */
+    public List<Entrega> readPage(int despuesDeId, int limite) {
+        if (limite <= 0) throw new IllegalArgumentException("limite debe ser mayor que 0.");
+        List<Entrega> lista = new ArrayList<>(Math.min(limite, 1024));
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = con.prepareStatement(SQL_SELECT + " WHERE id > ? ORDER BY id LIMIT ?")) {
+
+            ps.setInt(1, despuesDeId);
+            ps.setInt(2, limite);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(mapearEntrega(rs));
+                }
+            }
+            OP_READ_PAGE.registrar(inicio, lista.size());
+
+        } catch (SQLException e) {
+            OP_READ_PAGE.registrarError(inicio);
+            System.err.println("Error al leer página de entregas: " + e.getMessage());
+        }
+        return lista;
+    }
+
+    /**
+     * Cuenta las entregas registradas en la base de datos.
+     * @return Cantidad de filas de la tabla entregas, o 0 si ocurre un error.
+     */
+    public int count() {
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = con.prepareStatement("SELECT COUNT(*) FROM entregas");
+             ResultSet rs = ps.executeQuery()) {
+
+            int total = rs.next() ? rs.getInt(1) : 0;
+            OP_COUNT.registrar(inicio, 1);
+            return total;
+
+        } catch (SQLException e) {
+            OP_COUNT.registrarError(inicio);
+            System.err.println("Error al contar entregas: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Lee entregas por posición (OFFSET), ordenadas por ID.
+     * <p>
+     * Se usa solo para saltar a una posición arbitraria; para recorrer páginas consecutivas
+     * prefiera {@link #readPage(int, int)}, cuyo costo no crece con la posición.
+     * </p>
+     * @param desde Posición (base 0) de la primera fila a retornar.
+     * @param limite Cantidad máxima de filas a retornar (mayor que 0).
+     * @return Lista ordenada por ID.
+     */
+    public List<Entrega> readOffset(int desde, int limite) {
+        if (desde < 0) throw new IllegalArgumentException("desde no puede ser negativo.");
+        if (limite <= 0) throw new IllegalArgumentException("limite debe ser mayor que 0.");
+        List<Entrega> lista = new ArrayList<>(Math.min(limite, 1024));
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = con.prepareStatement(SQL_SELECT + " ORDER BY id LIMIT ? OFFSET ?")) {
+
+            ps.setInt(1, limite);
+            ps.setInt(2, desde);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(mapearEntrega(rs));
+                }
+            }
+            OP_READ_OFFSET.registrar(inicio, lista.size());
+
+        } catch (SQLException e) {
+            OP_READ_OFFSET.registrarError(inicio);
+            System.err.println("Error al leer entregas por posición: " + e.getMessage());
+        }
+        return lista;
+    }
+
+    /**
+     * Lee el token de cambios actual, para luego pedir solo lo modificado con {@link #readChangesSince(long)}.
+     * @return Token actual, o -1 si ocurre un error.
+     */
+    public long readChangeToken() {
+        return RegistroCambios.leerToken(OP_READ_CHANGE_TOKEN, "Error al leer el token de cambios de entregas: ");
+    }
+
+    /**
+     * Lee las entregas insertadas, actualizadas o eliminadas después de un token,
+     * hasta {@link CambiosDesde#LIMITE_POR_DEFECTO} filas modificadas.
+     * @param token Token de la última lectura.
+     * @return Cambios agrupados por entrega.
+     * @see #readChangesSince(long, int)
+     */
+    public CambiosDesde<Entrega> readChangesSince(long token) {
+        return readChangesSince(token, CambiosDesde.LIMITE_POR_DEFECTO);
+    }
+
+    /**
+     * Lee las entregas insertadas, actualizadas o eliminadas después de un token.
+     * El costo es proporcional a las entregas modificadas y no al tamaño de la tabla.
+     * @param token Token de la última lectura (de {@link #readChangeToken()} o de un resultado anterior).
+     * @param limite Cantidad máxima de entregas modificadas a leer (mayor que 0).
+     * @return Cambios agrupados por entrega; sin cambios si ocurre un error.
+     */
+    public CambiosDesde<Entrega> readChangesSince(long token, int limite) {
+        return RegistroCambios.leerDesde("entregas", "t.id, t.id_pedido, t.id_repartidor, t.fecha, t.hora", token, limite,
+                this::mapearEntrega, OP_READ_CHANGES, "Error al leer cambios de entregas: ");
+    }
+
     /**
      * Actualiza los datos de una entrega existente (por ejemplo, si se reasignó un repartidor).
+     * La versión anterior se lee bloqueada en la misma transacción para notificarla al observador.
      * @param entrega Objeto Entrega con los datos actualizados.
      * @return true si se actualizó exitosamente, false en caso contrario.
      */
     public boolean update(Entrega entrega) {
         String sql = "UPDATE entregas SET id_pedido = ?, id_repartidor = ?, fecha = ?, hora = ? WHERE id = ?";
 
+        long inicio = System.nanoTime();
         try (Connection con = ConexionDB.conectar();
              PreparedStatement ps = con.prepareStatement(sql)) {
 
+            con.setAutoCommit(false);
+            Entrega anterior = leerBloqueada(con, entrega.getId());
+            if (anterior == null) {
+                OP_UPDATE.registrar(inicio, 0);
+                return false;
+            }
+
             ps.setInt(1, entrega.getIdPedido());
             ps.setInt(2, entrega.getIdRepartidor());
             ps.setDate(3, entrega.getFecha());
@@ -87,9 +467,16 @@ public class EntregaDAO {
             ps.setInt(5, entrega.getId());
 
             int filasAfectadas = ps.executeUpdate();
+            con.commit();
+            OP_UPDATE.registrar(inicio, filasAfectadas);
+            if (filasAfectadas > 0) {
+                observador.entregaCambiada(anterior, -1);
+                observador.entregaCambiada(entrega, 1);
+            }
             return filasAfectadas > 0;
 
         } catch (SQLException e) {
+            OP_UPDATE.registrarError(inicio);
             System.err.println("Error al actualizar la entrega: " + e.getMessage());
             return false;
         }
@@ -97,22 +484,62 @@ public class EntregaDAO {
 
     /**
      * Elimina un registro de entrega de la base de datos.
+     * La fila se lee bloqueada en la misma transacción para notificarla al observador.
      * @param id Identificador de la entrega a eliminar.
      * @return true si se eliminó exitosamente, false en caso contrario.
      */
     public boolean delete(int id) {
         String sql = "DELETE FROM entregas WHERE id = ?";
 
+        long inicio = System.nanoTime();
         try (Connection con = ConexionDB.conectar();
              PreparedStatement ps = con.prepareStatement(sql)) {
 
+            con.setAutoCommit(false);
+            Entrega eliminada = leerBloqueada(con, id);
+            if (eliminada == null) {
+                OP_DELETE.registrar(inicio, 0);
+                return false;
+            }
+
             ps.setInt(1, id);
             int filasAfectadas = ps.executeUpdate();
+            con.commit();
+            OP_DELETE.registrar(inicio, filasAfectadas);
+            if (filasAfectadas > 0) observador.entregaCambiada(eliminada, -1);
             return filasAfectadas > 0;
 
         } catch (SQLException e) {
+            OP_DELETE.registrarError(inicio);
             System.err.println("Error al eliminar la entrega: " + e.getMessage());
             return false;
         }
     }
+
+    // Lee una entrega bloqueando su fila hasta el fin de la transacción; null si no existe
+    private Entrega leerBloqueada(Connection con, int id) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(SQL_BLOQUEAR)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapearEntrega(rs) : null;
+            }
+        }
+    }
+
+    private void asignarParametrosInsert(PreparedStatement ps, Entrega entrega) throws SQLException {
+        ps.setInt(1, entrega.getIdPedido());
+        ps.setInt(2, entrega.getIdRepartidor());
+        ps.setDate(3, entrega.getFecha());
+        ps.setTime(4, entrega.getHora());
+    }
+
+    private Entrega mapearEntrega(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        int idPedido = rs.getInt("id_pedido");
+        int idRepartidor = rs.getInt("id_repartidor");
+        Date fecha = rs.getDate("fecha");
+        Time hora = rs.getTime("hora");
+
+        return new Entrega(id, idPedido, idRepartidor, fecha, hora);
+    }
 }
\ No newline at end of file
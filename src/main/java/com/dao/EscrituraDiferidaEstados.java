@@ -0,0 +1,366 @@
+package com.dao;
+
+import com.model.EstadoPedido;
+import com.model.Pedido;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Persistencia diferida (write-behind) de las transiciones de estado de los pedidos.
+ * <p>
+ * Las transiciones ocurren en memoria ({@link Pedido#despachar()}, {@code Repartidor.run()}) y se
+ * registran aquí como observador de {@link Pedido}. En lugar de un UPDATE por transición, se
+ * acumulan por pedido y un hilo dedicado las escribe en lote con {@link PedidoDAO#updateEstados(Map)}.
+ * </p>
+ *
+ * <h2>Funcionamiento</h2>
+ * <ul>
+ *   <li><b>Coalescencia:</b> se guarda un solo estado pendiente por pedido; si un pedido pasa a
+ *       EN_REPARTO y luego a ENTREGADO antes de la escritura, solo se escribe ENTREGADO. Como los
+ *       estados solo avanzan, se conserva siempre el más avanzado aunque los hilos lleguen desordenados.</li>
+ *   <li><b>Disparo:</b> el lote se escribe al juntar {@code tamanoLote} pedidos o al cumplirse
+ *       {@code intervaloMs} desde la última escritura, lo que ocurra primero.</li>
+ *   <li><b>Contrapresión:</b> con {@code capacidad} pedidos pendientes (contando el lote que se
+ *       está escribiendo), el hilo que hace una transición de un pedido nuevo espera a que ese lote
+ *       quede confirmado. Si la base de datos no responde, los repartidores se frenan en lugar de
+ *       acumular memoria sin límite.</li>
+ *   <li><b>Reintentos:</b> si un lote falla, sus estados vuelven a la cola y se reintentan. Como
+ *       {@link PedidoDAO#updateEstados(Map)} solo avanza estados, reintentar nunca retrocede una fila.</li>
+ *   <li><b>Cierre:</b> {@link #cerrar()} escribe todo lo pendiente antes de retornar; debe invocarse
+ *       antes de cerrar el pool de conexiones.</li>
+ * </ul>
+ */
+public class EscrituraDiferidaEstados implements Pedido.ObservadorEstado, EscrituraDiferidaEstadosMXBean {
+
+    /** Pedidos pendientes por defecto antes de frenar a los productores. */
+    public static final int CAPACIDAD_POR_DEFECTO = Integer.getInteger("speedfast.escritura.capacidad", 10_000);
+
+    /** Pedidos por lote por defecto. */
+    public static final int TAMANO_LOTE_POR_DEFECTO = Integer.getInteger("speedfast.escritura.lote", 500);
+
+    /** Tiempo máximo por defecto entre escrituras, en milisegundos. */
+    public static final long INTERVALO_POR_DEFECTO_MS = Long.getLong("speedfast.escritura.intervaloMs", 200L);
+
+    /** Pausa antes de reintentar un lote fallido, en milisegundos. */
+    private static final long PAUSA_REINTENTO_MS = 1000;
+
+    /** Intentos del último lote durante el cierre antes de darlo por perdido. */
+    private static final int INTENTOS_AL_CERRAR = 3;
+
+    private final PedidoDAO pedidoDAO;
+    private final int capacidad;
+    private final int tamanoLote;
+    private final long intervaloNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hayLote = lock.newCondition();
+    private final Condition hayEspacio = lock.newCondition();
+
+    /** Último estado pendiente de escribir por ID de pedido (protegido por {@link #lock}). */
+    private HashMap<Integer, EstadoPedido> pendientes = new HashMap<>();
+
+    /** Pedidos del lote que se está escribiendo; siguen ocupando capacidad hasta confirmarse (protegido por {@link #lock}). */
+    private int enVuelo;
+    private boolean cerrando;
+
+    /** Algún estado no se pudo escribir durante el cierre. */
+    private volatile boolean perdidos;
+
+    private final Thread escritor;
+
+    private final LongAdder transiciones = new LongAdder();
+    private final LongAdder coalescidas = new LongAdder();
+    private final LongAdder escritas = new LongAdder();
+    private final LongAdder lotes = new LongAdder();
+    private final LongAdder lotesFallidos = new LongAdder();
+    private final LongAdder esperasPorCapacidad = new LongAdder();
+
+    /**
+     * Crea la escritura diferida con la configuración por defecto e inicia su hilo.
+     *
+     * @param pedidoDAO DAO con el que se escriben los lotes.
+     */
+    public EscrituraDiferidaEstados(PedidoDAO pedidoDAO) {
+        this(pedidoDAO, CAPACIDAD_POR_DEFECTO, TAMANO_LOTE_POR_DEFECTO, INTERVALO_POR_DEFECTO_MS);
+    }
+
+    /**
+     * Crea la escritura diferida e inicia su hilo.
+     *
+     * @param pedidoDAO   DAO con el que se escriben los lotes (no nulo).
+     * @param capacidad   pedidos pendientes antes de frenar a los productores (mayor que 0).
+     * @param tamanoLote  pedidos pendientes que disparan una escritura (entre 1 y la capacidad).
+     * @param intervaloMs tiempo máximo entre escrituras, en milisegundos (mayor que 0).
+     * @throws IllegalArgumentException si algún parámetro no cumple validación.
+     */
+    public EscrituraDiferidaEstados(PedidoDAO pedidoDAO, int capacidad, int tamanoLote, long intervaloMs) {
+        if (pedidoDAO == null) throw new IllegalArgumentException("pedidoDAO no puede ser nulo.");
+        if (capacidad <= 0) throw new IllegalArgumentException("La capacidad debe ser mayor que 0.");
+        if (tamanoLote <= 0 || tamanoLote > capacidad) throw new IllegalArgumentException("El tamaño de lote debe estar entre 1 y la capacidad.");
+        if (intervaloMs <= 0) throw new IllegalArgumentException("El intervalo debe ser mayor que 0.");
+
+        this.pedidoDAO = pedidoDAO;
+        this.capacidad = capacidad;
+        this.tamanoLote = tamanoLote;
+        this.intervaloNanos = TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+
+        this.escritor = new Thread(this::escribirLotes, "speedfast-escritura-estados");
+        // Daemon para no retener la JVM; lo pendiente se escribe en cerrar() (gancho de apagado)
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Encola la transición de un pedido (invocado por {@link Pedido#transicionar}).
+     * <p>
+     * Si el pedido ya tiene un estado pendiente, se reemplaza por el más avanzado sin ocupar lugar
+     * en la cola. Si la cola está llena, espera a que se libere espacio. Tras {@link #cerrar()},
+     * la transición se escribe en el momento.
+     * </p>
+     *
+     * @param pedido   pedido que cambió de estado.
+     * @param anterior estado que tenía el pedido.
+     * @param nuevo    estado alcanzado.
+     */
+    @Override
+    public void estadoCambiado(Pedido pedido, EstadoPedido anterior, EstadoPedido nuevo) {
+        transiciones.increment();
+        encolar(pedido.getIdPedido(), nuevo);
+    }
+
+    /**
+     * Encola el estado de un pedido sin una transición en memoria (por ejemplo, uno recuperado del
+     * {@link DiarioTransiciones} al iniciar), con la misma coalescencia y contrapresión.
+     *
+     * @param idPedido ID del pedido.
+     * @param nuevo    estado a escribir.
+     */
+    public void encolar(int idPedido, EstadoPedido nuevo) {
+        Integer id = idPedido;
+        boolean interrumpido = false;
+        lock.lock();
+        try {
+            while (!cerrando && pendientes.size() + enVuelo >= capacidad && !pendientes.containsKey(id)) {
+                esperasPorCapacidad.increment();
+                hayLote.signal();
+                try {
+                    hayEspacio.await();
+                } catch (InterruptedException e) {
+                    // No se descarta la transición: se encola por sobre la capacidad
+                    interrumpido = true;
+                    break;
+                }
+            }
+            if (!cerrando) {
+                EstadoPedido pendiente = pendientes.get(id);
+                if (pendiente != null) {
+                    pendientes.put(id, masAvanzado(pendiente, nuevo));
+                    coalescidas.increment();
+                } else {
+                    pendientes.put(id, nuevo);
+                    // El primer pendiente inicia el plazo del lote; el lote completo lo dispara
+                    if (pendientes.size() == 1 || pendientes.size() >= tamanoLote) hayLote.signal();
+                }
+                return;
+            }
+        } finally {
+            lock.unlock();
+            if (interrumpido) Thread.currentThread().interrupt();
+        }
+        escribirAhora(id, nuevo);
+    }
+
+    /**
+     * Escribe lo pendiente, detiene el hilo de escritura y espera a que termine.
+     * Las transiciones posteriores se escriben una a una en el momento.
+     *
+     * @return true si todo lo encolado hasta ahora quedó escrito; false si algún estado se perdió.
+     */
+    public boolean cerrar() {
+        lock.lock();
+        try {
+            cerrando = true;
+            hayLote.signal();
+            hayEspacio.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        esperarEscritor();
+        return !perdidos;
+    }
+
+    private void esperarEscritor() {
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Bucle del hilo de escritura: espera un disparo, toma todo lo pendiente y lo escribe.
+     */
+    private void escribirLotes() {
+        long ultimaEscritura = System.nanoTime();
+        while (true) {
+            HashMap<Integer, EstadoPedido> lote;
+            boolean ultimo;
+            lock.lock();
+            try {
+                long restante = intervaloNanos - (System.nanoTime() - ultimaEscritura);
+                while (!cerrando && pendientes.size() < tamanoLote && (restante > 0 || pendientes.isEmpty())) {
+                    if (pendientes.isEmpty()) {
+                        hayLote.await();
+                        restante = intervaloNanos;
+                        ultimaEscritura = System.nanoTime();
+                    } else {
+                        restante = hayLote.awaitNanos(restante);
+                    }
+                }
+                lote = pendientes;
+                pendientes = new HashMap<>();
+                enVuelo = lote.size();
+                ultimo = cerrando;
+            } catch (InterruptedException e) {
+                // El hilo de escritura solo se detiene con cerrar()
+                continue;
+            } finally {
+                lock.unlock();
+            }
+
+            ultimaEscritura = System.nanoTime();
+            if (ultimo) {
+                escribirAlCerrar(lote);
+                return;
+            }
+            if (lote.isEmpty() || escribir(lote)) {
+                liberar();
+            } else {
+                devolver(lote);
+                dormir(PAUSA_REINTENTO_MS);
+            }
+        }
+    }
+
+    /**
+     * Libera la capacidad del lote recién confirmado.
+     */
+    private void liberar() {
+        lock.lock();
+        try {
+            enVuelo = 0;
+            hayEspacio.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Escribe un lote ordenado por ID (las filas se bloquean siempre en el mismo orden).
+     *
+     * @return true si el lote quedó confirmado.
+     */
+    private boolean escribir(Map<Integer, EstadoPedido> lote) {
+        int filas;
+        try {
+            filas = pedidoDAO.updateEstados(new TreeMap<>(lote));
+        } catch (RuntimeException e) {
+            // Un error inesperado no debe terminar el hilo de escritura: el lote se reintenta
+            System.err.println("Error inesperado al escribir estados de pedidos: " + e);
+            filas = -1;
+        }
+        if (filas < 0) {
+            lotesFallidos.increment();
+            return false;
+        }
+        lotes.increment();
+        escritas.add(lote.size());
+        return true;
+    }
+
+    /**
+     * Devuelve a la cola un lote fallido, sin pisar estados más nuevos llegados mientras tanto.
+     * Como el lote siguió contando contra la capacidad, la cola no supera la capacidad al reincorporarlo.
+     */
+    private void devolver(Map<Integer, EstadoPedido> lote) {
+        lock.lock();
+        try {
+            lote.forEach((id, estado) -> pendientes.merge(id, estado, EscrituraDiferidaEstados::masAvanzado));
+            enVuelo = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void escribirAlCerrar(Map<Integer, EstadoPedido> lote) {
+        for (int intento = 1; intento <= INTENTOS_AL_CERRAR && !lote.isEmpty(); intento++) {
+            if (escribir(lote)) return;
+            if (intento < INTENTOS_AL_CERRAR) dormir(PAUSA_REINTENTO_MS);
+        }
+        if (!lote.isEmpty()) {
+            perdidos = true;
+            System.err.println("No se pudieron guardar los estados de " + lote.size() + " pedidos al cerrar: " + new TreeMap<>(lote));
+        }
+    }
+
+    private void escribirAhora(Integer id, EstadoPedido estado) {
+        // El último lote debe quedar escrito antes, para no pisar un estado más nuevo con uno anterior
+        esperarEscritor();
+        Map<Integer, EstadoPedido> lote = new HashMap<>();
+        lote.put(id, estado);
+        if (!escribir(lote)) {
+            perdidos = true;
+            System.err.println("No se pudo guardar el estado " + estado + " del pedido #" + id + ".");
+        }
+    }
+
+    private static EstadoPedido masAvanzado(EstadoPedido a, EstadoPedido b) {
+        return a.ordinal() >= b.ordinal() ? a : b;
+    }
+
+    private static void dormir(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Vista JMX ---
+
+    @Override
+    public int getPendientes() {
+        lock.lock();
+        try {
+            return pendientes.size() + enVuelo;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getCapacidad() { return capacidad; }
+
+    @Override
+    public long getTransiciones() { return transiciones.sum(); }
+
+    @Override
+    public long getTransicionesCoalescidas() { return coalescidas.sum(); }
+
+    @Override
+    public long getEstadosEscritos() { return escritas.sum(); }
+
+    @Override
+    public long getLotesEscritos() { return lotes.sum(); }
+
+    @Override
+    public long getLotesFallidos() { return lotesFallidos.sum(); }
+
+    @Override
+    public long getEsperasPorCapacidad() { return esperasPorCapacidad.sum(); }
+}
@@ -0,0 +1,31 @@
+package com.dao;
+
+/**
+ * Vista JMX de la {@link EscrituraDiferidaEstados}: ocupación de la cola y contadores acumulados.
+ */
+public interface EscrituraDiferidaEstadosMXBean {
+
+    /** @return pedidos con un estado pendiente de escribir. */
+    int getPendientes();
+
+    /** @return pedidos pendientes a partir de los cuales se frena a los productores. */
+    int getCapacidad();
+
+    /** @return transiciones recibidas desde el inicio. */
+    long getTransiciones();
+
+    /** @return transiciones absorbidas por un estado pendiente del mismo pedido (sin escritura propia). */
+    long getTransicionesCoalescidas();
+
+    /** @return estados escritos en la base de datos. */
+    long getEstadosEscritos();
+
+    /** @return lotes confirmados. */
+    long getLotesEscritos();
+
+    /** @return lotes fallidos (se reintentan). */
+    long getLotesFallidos();
+
+    /** @return veces que un productor esperó por tener la cola llena. */
+    long getEsperasPorCapacidad();
+}
@@ -0,0 +1,376 @@
+package com.dao;
+
+import com.model.EstadoPedido;
+import com.model.Pedido;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Importación masiva de pedidos desde archivos CSV de los socios.
+ * <p>
+ * El archivo se divide en bloques de {@code tamanoBloque} bytes, cortados en fin de línea, y cada
+ * bloque se procesa en un hilo: se lee mapeado en memoria (NIO), se valida cada fila y las filas
+ * válidas se insertan con {@link PedidoDAO#createAll(List, int)} (lotes reescritos como INSERT
+ * multi-fila) sobre una conexión propia del pool. Como a lo sumo hay {@code 2 × hilos} bloques en
+ * curso, la memoria usada no depende del tamaño del archivo.
+ * </p>
+ *
+ * <h2>Formato</h2>
+ * <ul>
+ *   <li>UTF-8, una fila por línea: {@code direccion,tipo,distancia_km}. La primera línea puede ser
+ *       ese encabezado.</li>
+ *   <li>Los campos pueden ir entre comillas dobles (para incluir comas; {@code ""} es una comilla),
+ *       pero no pueden contener saltos de línea.</li>
+ *   <li>{@code tipo} es COMIDA, ENCOMIENDA o EXPRESS (sin distinguir mayúsculas); los pedidos se
+ *       crean PENDIENTES.</li>
+ *   <li>{@code distancia_km} se valida (número finito, con las reglas de {@link Pedido}) pero no se
+ *       guarda: la tabla {@code pedidos} no tiene columna de distancia.</li>
+ * </ul>
+ *
+ * <h2>Rechazos</h2>
+ * <p>
+ * Las filas se validan con las mismas reglas que el constructor de {@link Pedido} (se construye el
+ * pedido). Las que no las cumplen, y las que la base de datos no confirmó, se escriben en el archivo
+ * de rechazos ({@code linea,motivo,registro}) para corregirlas y reintentarlas.
+ * </p>
+ */
+public class ImportadorCsvPedidos {
+
+    /** Tamaño de bloque por defecto, en bytes. */
+    public static final int TAMANO_BLOQUE_POR_DEFECTO = 1 << 20;
+
+    private static final int COLUMNAS = 3;
+    private static final String ENCABEZADO = "direccion";
+
+    private final PedidoDAO pedidoDAO;
+    private final int hilos;
+    private final int tamanoBloque;
+
+    /**
+     * Crea un importador con un hilo por procesador (acotado por las conexiones del pool) y el
+     * tamaño de bloque por defecto.
+     *
+     * @param pedidoDAO DAO con el que se insertan los pedidos.
+     */
+    public ImportadorCsvPedidos(PedidoDAO pedidoDAO) {
+        this(pedidoDAO, Math.min(Runtime.getRuntime().availableProcessors(), Integer.getInteger("speedfast.pool.max", 10)),
+                TAMANO_BLOQUE_POR_DEFECTO);
+    }
+
+    /**
+     * Crea un importador.
+     *
+     * @param pedidoDAO    DAO con el que se insertan los pedidos (no nulo).
+     * @param hilos        bloques procesados en paralelo (mayor que 0).
+     * @param tamanoBloque tamaño aproximado de cada bloque, en bytes (al menos 4 KB).
+     * @throws IllegalArgumentException si algún parámetro no cumple validación.
+     */
+    public ImportadorCsvPedidos(PedidoDAO pedidoDAO, int hilos, int tamanoBloque) {
+        if (pedidoDAO == null) throw new IllegalArgumentException("pedidoDAO no puede ser nulo.");
+        if (hilos <= 0) throw new IllegalArgumentException("hilos debe ser mayor que 0.");
+        if (tamanoBloque < 4096) throw new IllegalArgumentException("El tamaño de bloque debe ser de al menos 4 KB.");
+        this.pedidoDAO = pedidoDAO;
+        this.hilos = hilos;
+        this.tamanoBloque = tamanoBloque;
+    }
+
+    /**
+     * Importa un archivo CSV de pedidos.
+     *
+     * @param csv       archivo a importar.
+     * @param rechazos  archivo donde se escriben las filas rechazadas (solo se crea si hay rechazos).
+     * @return cantidades de filas leídas, importadas y rechazadas.
+     * @throws IOException si no se puede leer el CSV o escribir los rechazos.
+     */
+    public Resultado importar(Path csv, Path rechazos) throws IOException {
+        long inicio = System.nanoTime();
+        Resultado resultado = new Resultado();
+        AtomicInteger contador = new AtomicInteger();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, "speedfast-importacion-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        BufferedWriter salidaRechazos = null;
+        try (FileChannel canal = FileChannel.open(csv, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            long desde = saltarBom(canal);
+            ArrayDeque<Future<ResultadoBloque>> enCurso = new ArrayDeque<>();
+            long lineasPrevias = 0;
+            boolean primero = true;
+
+            while (desde < tamano || !enCurso.isEmpty()) {
+                // Se encolan bloques hasta llenar la ventana; luego se consume el más antiguo (en orden)
+                while (desde < tamano && enCurso.size() < 2 * hilos) {
+                    long hasta = finDeBloque(canal, desde, tamano);
+                    MappedByteBuffer bloque = canal.map(FileChannel.MapMode.READ_ONLY, desde, hasta - desde);
+                    boolean conEncabezado = primero;
+                    enCurso.add(ejecutor.submit(() -> procesar(bloque, conEncabezado)));
+                    primero = false;
+                    desde = hasta;
+                }
+
+                ResultadoBloque bloque = esperar(enCurso.poll());
+                resultado.lineas += bloque.lineas;
+                resultado.importados += bloque.importados;
+                resultado.rechazados += bloque.rechazos.size();
+                if (!bloque.rechazos.isEmpty()) {
+                    if (salidaRechazos == null) {
+                        salidaRechazos = Files.newBufferedWriter(rechazos, StandardCharsets.UTF_8);
+                        salidaRechazos.write("linea,motivo,registro\n");
+                    }
+                    for (Rechazo r : bloque.rechazos) {
+                        salidaRechazos.write(Long.toString(lineasPrevias + r.linea));
+                        salidaRechazos.write(',');
+                        salidaRechazos.write(entrecomillar(r.motivo));
+                        salidaRechazos.write(',');
+                        salidaRechazos.write(entrecomillar(r.registro));
+                        salidaRechazos.write('\n');
+                    }
+                }
+                lineasPrevias += bloque.lineas;
+            }
+        } finally {
+            ejecutor.shutdownNow();
+            if (salidaRechazos != null) salidaRechazos.close();
+        }
+        resultado.milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+        return resultado;
+    }
+
+    /**
+     * Valida e inserta las filas de un bloque (se ejecuta en un hilo del importador).
+     */
+    private ResultadoBloque procesar(ByteBuffer bloque, boolean conEncabezado) {
+        ResultadoBloque resultado = new ResultadoBloque();
+        List<Pedido> validos = new ArrayList<>();
+        List<int[]> posiciones = new ArrayList<>(); // inicio y fin en el bloque de cada fila válida
+        int[] lineasValidas = new int[64];
+
+        int limite = bloque.limit();
+        int pos = 0;
+        while (pos < limite) {
+            int fin = pos;
+            while (fin < limite && bloque.get(fin) != '\n') fin++;
+            int finContenido = (fin > pos && bloque.get(fin - 1) == '\r') ? fin - 1 : fin;
+            resultado.lineas++;
+
+            String linea = texto(bloque, pos, finContenido);
+            boolean encabezado = conEncabezado && resultado.lineas == 1
+                    && linea.regionMatches(true, 0, ENCABEZADO, 0, ENCABEZADO.length());
+            if (!encabezado && !linea.trim().isEmpty()) {
+                try {
+                    validos.add(convertir(linea));
+                    if (posiciones.size() == lineasValidas.length) {
+                        lineasValidas = Arrays.copyOf(lineasValidas, lineasValidas.length * 2);
+                    }
+                    lineasValidas[posiciones.size()] = resultado.lineas;
+                    posiciones.add(new int[]{pos, finContenido});
+                } catch (IllegalArgumentException e) {
+                    resultado.rechazos.add(new Rechazo(resultado.lineas, e.getMessage(), linea));
+                }
+            }
+            pos = fin + 1;
+        }
+
+        if (!validos.isEmpty()) {
+            int confirmados = pedidoDAO.createAll(validos, PedidoDAO.TAMANO_LOTE_POR_DEFECTO).length;
+            resultado.importados = confirmados;
+            // Los lotes que la base de datos no confirmó se rechazan para poder reintentarlos
+            for (int i = confirmados; i < validos.size(); i++) {
+                int[] p = posiciones.get(i);
+                resultado.rechazos.add(new Rechazo(lineasValidas[i], "No se pudo guardar en la base de datos.",
+                        texto(bloque, p[0], p[1])));
+            }
+            resultado.rechazos.sort((a, b) -> Integer.compare(a.linea, b.linea));
+        }
+        return resultado;
+    }
+
+    /**
+     * Convierte una fila en un pedido PENDIENTE, con las validaciones del constructor de {@link Pedido}.
+     *
+     * @throws IllegalArgumentException con el motivo si la fila no es válida.
+     */
+    static Pedido convertir(String linea) {
+        List<String> campos = separarCampos(linea);
+        if (campos.size() != COLUMNAS) {
+            throw new IllegalArgumentException("Se esperaban " + COLUMNAS + " columnas (direccion,tipo,distancia_km) y hay " + campos.size() + ".");
+        }
+        Pedido.TipoPedido tipo;
+        try {
+            tipo = Pedido.TipoPedido.valueOf(campos.get(1).trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tipo de pedido desconocido: '" + campos.get(1) + "'.");
+        }
+        double distancia;
+        try {
+            distancia = Double.parseDouble(campos.get(2).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("distancia_km no es un número: '" + campos.get(2) + "'.");
+        }
+        if (Double.isNaN(distancia) || Double.isInfinite(distancia)) {
+            throw new IllegalArgumentException("distancia_km no es un número finito.");
+        }
+        // El ID definitivo lo asigna la base de datos; 1 cumple la validación del constructor
+        return PedidoDAO.construir(1, campos.get(0), distancia, tipo, EstadoPedido.PENDIENTE);
+    }
+
+    /**
+     * Separa los campos de una línea CSV, respetando comillas dobles.
+     *
+     * @throws IllegalArgumentException si hay comillas sin cerrar o texto tras una comilla de cierre.
+     */
+    static List<String> separarCampos(String linea) {
+        List<String> campos = new ArrayList<>(COLUMNAS);
+        StringBuilder actual = new StringBuilder();
+        int i = 0;
+        int n = linea.length();
+        while (true) {
+            if (i < n && linea.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= n) throw new IllegalArgumentException("Comillas sin cerrar.");
+                    char c = linea.charAt(i++);
+                    if (c == '"') {
+                        if (i < n && linea.charAt(i) == '"') {
+                            actual.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        actual.append(c);
+                    }
+                }
+                if (i < n && linea.charAt(i) != ',') throw new IllegalArgumentException("Texto después de cerrar comillas.");
+            } else {
+                while (i < n && linea.charAt(i) != ',') actual.append(linea.charAt(i++));
+            }
+            campos.add(actual.toString());
+            actual.setLength(0);
+            if (i >= n) return campos;
+            i++; // coma
+        }
+    }
+
+    private static String entrecomillar(String valor) {
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    private static String texto(ByteBuffer bloque, int desde, int hasta) {
+        byte[] bytes = new byte[hasta - desde];
+        bloque.get(desde, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** @return posición del primer byte después de la marca BOM de UTF-8, si la hay. */
+    private static long saltarBom(FileChannel canal) throws IOException {
+        ByteBuffer inicio = ByteBuffer.allocate(3);
+        canal.read(inicio, 0);
+        return inicio.position() == 3 && (inicio.get(0) & 0xFF) == 0xEF && (inicio.get(1) & 0xFF) == 0xBB
+                && (inicio.get(2) & 0xFF) == 0xBF ? 3 : 0;
+    }
+
+    /** @return posición siguiente al primer salto de línea desde {@code desde + tamanoBloque}, o el fin del archivo. */
+    private long finDeBloque(FileChannel canal, long desde, long tamano) throws IOException {
+        long pos = desde + tamanoBloque;
+        if (pos >= tamano) return tamano;
+        ByteBuffer lectura = ByteBuffer.allocate(8192);
+        while (pos < tamano) {
+            lectura.clear();
+            int leidos = canal.read(lectura, pos);
+            if (leidos <= 0) break;
+            for (int i = 0; i < leidos; i++) {
+                if (lectura.get(i) == '\n') return pos + i + 1;
+            }
+            pos += leidos;
+        }
+        return tamano;
+    }
+
+    private static ResultadoBloque esperar(Future<ResultadoBloque> futuro) throws IOException {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importación interrumpida.", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof UncheckedIOException) throw ((UncheckedIOException) causa).getCause();
+            if (causa instanceof RuntimeException) throw (RuntimeException) causa;
+            throw new IOException(causa);
+        }
+    }
+
+    /** Fila rechazada de un bloque (línea relativa al bloque). */
+    private static final class Rechazo {
+        private final int linea;
+        private final String motivo;
+        private final String registro;
+
+        private Rechazo(int linea, String motivo, String registro) {
+            this.linea = linea;
+            this.motivo = motivo;
+            this.registro = registro;
+        }
+    }
+
+    private static final class ResultadoBloque {
+        private int lineas;
+        private int importados;
+        private final List<Rechazo> rechazos = new ArrayList<>();
+    }
+
+    /**
+     * Resultado de una importación.
+     */
+    public static final class Resultado {
+        private long lineas;
+        private long importados;
+        private long rechazados;
+        private long milisegundos;
+
+        /** @return líneas leídas (incluye encabezado y líneas vacías). */
+        public long getLineas() { return lineas; }
+
+        /** @return pedidos guardados en la base de datos. */
+        public long getImportados() { return importados; }
+
+        /** @return filas escritas en el archivo de rechazos. */
+        public long getRechazados() { return rechazados; }
+
+        /** @return duración de la importación, en milisegundos. */
+        public long getMilisegundos() { return milisegundos; }
+
+        /** @return pedidos importados por minuto. */
+        public double getPedidosPorMinuto() {
+            return milisegundos == 0 ? importados * 60_000.0 : importados * 60_000.0 / milisegundos;
+        }
+
+        @Override
+        public String toString() {
+            return "Resultado{lineas=" + lineas + ", importados=" + importados + ", rechazados=" + rechazados
+                    + ", milisegundos=" + milisegundos + String.format(Locale.ROOT, ", pedidosPorMinuto=%.0f}", getPedidosPorMinuto());
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package com.dao;
 
+import com.metricas.Metricas;
+import com.metricas.MetricasOperacion;
 import com.model.*;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Clase Data Access Object (DAO) para la entidad Pedido.
@@ -14,80 +21,490 @@ import java.util.List;
  */
 public class PedidoDAO {
 
+    /** Cantidad de filas enviadas por lote cuando no se indica otra. */
+    public static final int TAMANO_LOTE_POR_DEFECTO = 1000;
+
+    private static final String SQL_INSERT = "INSERT INTO pedidos (direccion, tipo, estado) VALUES (?, ?, ?)";
+    private static final String SQL_SELECT = "SELECT id, direccion, tipo, estado FROM pedidos";
+
+    /**
+     * Solo avanza el estado: {@code FIELD} da la posición (desde 1) del estado actual en el orden del
+     * ciclo de vida, y la fila se actualiza si es anterior a la del estado nuevo.
+     */
+    private static final String SQL_UPDATE_ESTADO_AVANCE = "UPDATE pedidos SET estado = ? WHERE id = ? AND FIELD(estado, "
+            + Arrays.stream(EstadoPedido.values()).map(e -> "'" + e.name() + "'").collect(Collectors.joining(", "))
+            + ") < ?";
+
+    // Métricas por operación (ver com.metricas.Metricas)
+    private static final MetricasOperacion OP_CREATE = Metricas.operacion("PedidoDAO.create");
+    private static final MetricasOperacion OP_CREATE_ALL = Metricas.operacion("PedidoDAO.createAll");
+    private static final MetricasOperacion OP_READ_ALL = Metricas.operacion("PedidoDAO.readAll");
+    private static final MetricasOperacion OP_READ_EACH = Metricas.operacion("PedidoDAO.readEach");
+    private static final MetricasOperacion OP_READ_SNAPSHOT = Metricas.operacion("PedidoDAO.readSnapshot");
+    private static final MetricasOperacion OP_READ_PAGE = Metricas.operacion("PedidoDAO.readPage");
+    private static final MetricasOperacion OP_READ_BY_ID = Metricas.operacion("PedidoDAO.readById");
+    private static final MetricasOperacion OP_FIND_BY_ESTADO = Metricas.operacion("PedidoDAO.findByEstado");
+    private static final MetricasOperacion OP_FIND_BY_TIPO_ESTADO = Metricas.operacion("PedidoDAO.findByTipoAndEstado");
+    private static final MetricasOperacion OP_FIND_PAGE_BY_ESTADO = Metricas.operacion("PedidoDAO.findPageByEstado");
+    private static final MetricasOperacion OP_FIND_PAGE_BY_TIPO_ESTADO = Metricas.operacion("PedidoDAO.findPageByTipoAndEstado");
+    private static final MetricasOperacion OP_COUNT = Metricas.operacion("PedidoDAO.count");
+    private static final MetricasOperacion OP_READ_OFFSET = Metricas.operacion("PedidoDAO.readOffset");
+    private static final MetricasOperacion OP_READ_CHANGE_TOKEN = Metricas.operacion("PedidoDAO.readChangeToken");
+    private static final MetricasOperacion OP_READ_CHANGES = Metricas.operacion("PedidoDAO.readChangesSince");
+    private static final MetricasOperacion OP_UPDATE = Metricas.operacion("PedidoDAO.update");
+    private static final MetricasOperacion OP_UPDATE_SI_ESTADO = Metricas.operacion("PedidoDAO.updateIfEstado");
+    private static final MetricasOperacion OP_UPDATE_ESTADOS = Metricas.operacion("PedidoDAO.updateEstados");
+    private static final MetricasOperacion OP_DELETE = Metricas.operacion("PedidoDAO.delete");
+
     /**
      * Crea un nuevo pedido en la base de datos.
      * @param pedido Objeto Pedido (puede ser Comida, Encomienda o Express).
      * @return true si se guardó exitosamente, false en caso contrario.
      */
     public boolean create(Pedido pedido) {
-        // La tabla tiene id (auto_increment), direccion, tipo y estado
-        String sql = "INSERT INTO pedidos (direccion, tipo, estado) VALUES (?, ?, ?)";
+        return createAndGetId(pedido) > 0;
+    }
 
+    /**
+     * Crea un nuevo pedido y recupera el ID autoincremental asignado por la base de datos.
+     * El ID generado también se asigna al objeto recibido.
+     * @param pedido Objeto Pedido (puede ser Comida, Encomienda o Express).
+     * @return ID generado, o -1 si no se pudo guardar.
+     */
+    public int createAndGetId(Pedido pedido) {
+        // La tabla tiene id (auto_increment), direccion, tipo y estado
+        long inicio = System.nanoTime();
         try (Connection con = ConexionDB.conectar();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
 
-            ps.setString(1, pedido.getDireccionEntrega());
-            // Usamos .name() para obtener el String exacto del Enum ("COMIDA", "PENDIENTE", etc.)
-            ps.setString(2, pedido.getTipoPedido().name());
-            ps.setString(3, pedido.getEstado().name());
+            asignarParametrosInsert(ps, pedido);
+            ps.executeUpdate();
 
-            int filasAfectadas = ps.executeUpdate();
-            return filasAfectadas > 0;
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next()) {
+                    int id = rs.getInt(1);
+                    pedido.setIdPedido(id);
+                    OP_CREATE.registrar(inicio, 1);
+                    return id;
+                }
+            }
+            OP_CREATE.registrar(inicio, 0);
+            return -1;
 
         } catch (SQLException e) {
+            OP_CREATE.registrarError(inicio);
             System.err.println("Error al registrar el pedido: " + e.getMessage());
-            return false;
+            return -1;
         }
     }
 
+    /**
+     * Registra varios pedidos usando lotes JDBC del tamaño por defecto.
+     * @param pedidos Lista de pedidos a registrar.
+     * @return IDs generados, en el mismo orden de la lista.
+     * @see #createAll(List, int)
+     */
+    public int[] createAll(List<? extends Pedido> pedidos) {
+        return createAll(pedidos, TAMANO_LOTE_POR_DEFECTO);
+    }
+
+    /**
+     * Registra varios pedidos usando lotes JDBC, con un commit por lote.
+     * <p>
+     * Cada lote viaja en un solo round trip (el driver reescribe el lote como un INSERT
+     * multi-fila). Los IDs generados se asignan a cada objeto y se retornan en el mismo orden.
+     * Si un lote falla, se descarta completo y se retornan solo los IDs de los lotes confirmados.
+     * </p>
+     * @param pedidos Lista de pedidos a registrar.
+     * @param tamanoLote Cantidad de filas por lote (mayor que 0).
+     * @return IDs generados de los pedidos confirmados, en el mismo orden de la lista.
+     */
+    public int[] createAll(List<? extends Pedido> pedidos, int tamanoLote) {
+        if (tamanoLote <= 0) throw new IllegalArgumentException("tamanoLote debe ser mayor que 0.");
+        int[] ids = new int[pedidos.size()];
+        int confirmados = 0;
+        if (pedidos.isEmpty()) return ids;
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = con.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+
+            con.setAutoCommit(false);
+            for (int i = 0; i < pedidos.size(); i++) {
+                asignarParametrosInsert(ps, pedidos.get(i));
+                ps.addBatch();
+
+                if ((i + 1) % tamanoLote == 0 || i == pedidos.size() - 1) {
+                    ps.executeBatch();
+                    int j = confirmados;
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        while (rs.next() && j <= i) {
+                            ids[j] = rs.getInt(1);
+                            pedidos.get(j).setIdPedido(ids[j]);
+                            j++;
+                        }
+                    }
+                    con.commit();
+                    confirmados = i + 1;
+                }
+            }
+            OP_CREATE_ALL.registrar(inicio, confirmados);
+
+        } catch (SQLException e) {
+            OP_CREATE_ALL.registrarError(inicio);
+            // El lote en curso se revierte al devolver la conexión al pool
+            System.err.println("Error al registrar pedidos en lote: " + e.getMessage());
+        }
+        return confirmados == ids.length ? ids : Arrays.copyOf(ids, confirmados);
+    }
+
     /**
      * Lee todos los pedidos de la base de datos y reconstruye los objetos según su tipo.
+     * <p>
+     * Materializa la tabla completa en memoria; para tablas grandes prefiera
+     * {@link #readEach(Consumer)} o {@link #readPage(int, int)}.
+     * </p>
      * @return Lista de objetos Pedido polimórficos.
      */
     public List<Pedido> readAll() {
         List<Pedido> lista = new ArrayList<>();
-        String sql = "SELECT id, direccion, tipo, estado FROM pedidos";
 
+        long inicio = System.nanoTime();
         try (Connection con = ConexionDB.conectar();
-             PreparedStatement ps = con.prepareStatement(sql);
+             PreparedStatement ps = con.prepareStatement(SQL_SELECT);
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
-                int id = rs.getInt("id");
-                String direccion = rs.getString("direccion");
-                String tipo = rs.getString("tipo");
-                String estadoStr = rs.getString("estado");
-
-                Pedido pedido = null;
-                // La BD no guarda distancia, usamos 0.0 por defecto para cumplir con el constructor
-                double distanciaPorDefecto = 0.0;
-
-                // Instanciamos la clase hija correspondiente según el tipo en la BD
-                switch (tipo) {
-                    case "COMIDA":
-                        pedido = new PedidoComida(id, direccion, distanciaPorDefecto);
-                        break;
-                    case "ENCOMIENDA":
-                        pedido = new PedidoEncomienda(id, direccion, distanciaPorDefecto);
-                        break;
-                    case "EXPRESS":
-                        pedido = new PedidoCompraXpress(id, direccion, distanciaPorDefecto);
-                        break;
-                }
-
+                Pedido pedido = mapearPedido(rs);
                 if (pedido != null) {
-                    // Reconstruimos el estado usando el Enum
-                    pedido.setEstado(EstadoPedido.valueOf(estadoStr));
                     lista.add(pedido);
                 }
             }
+            OP_READ_ALL.registrar(inicio, lista.size());
 
         } catch (SQLException e) {
+            OP_READ_ALL.registrarError(inicio);
             System.err.println("Error al listar pedidos: " + e.getMessage());
         }
         return lista;
     }
 
+    /**
+     * Recorre todos los pedidos en modo streaming, entregándolos uno a uno al consumidor.
+     * <p>
+     * El driver no almacena el resultado completo: las filas llegan desde el servidor a medida
+     * que se consumen, por lo que el uso de memoria es constante sin importar el tamaño de la tabla.
+     * La conexión queda ocupada mientras dure el recorrido, así que el consumidor no debe
+     * ejecutar otras consultas sobre ella.
+     * </p>
+     * @param consumidor Acción a ejecutar por cada pedido, en orden de ID.
+     * @return Cantidad de pedidos recorridos.
+     */
+    public int readEach(Consumer<? super Pedido> consumidor) {
+        int total = 0;
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = ConexionDB.prepararLecturaStreaming(con, SQL_SELECT + " ORDER BY id");
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                Pedido pedido = mapearPedido(rs);
+                if (pedido != null) {
+                    consumidor.accept(pedido);
+                    total++;
+                }
+            }
+            OP_READ_EACH.registrar(inicio, total);
+
+        } catch (SQLException e) {
+            OP_READ_EACH.registrarError(inicio);
+            System.err.println("Error al recorrer pedidos: " + e.getMessage());
+        }
+        return total;
+    }
+
+    /**
+     * Lee todos los pedidos en una instantánea columnar, para cálculos en lote (tiempos totales,
+     * conteos por tipo o estado, histogramas).
+     * <p>
+     * Recorre la tabla en modo streaming y copia cada fila directo a arreglos primitivos,
+     * sin crear un objeto Pedido por fila. La BD no guarda distancia, por lo que se usa 0.0.
+     * </p>
+     * @return Instantánea de los pedidos (vacía si ocurre un error).
+     */
+    public InstantaneaPedidos readSnapshot() {
+        InstantaneaPedidos.Acumulador acumulador = new InstantaneaPedidos.Acumulador();
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = ConexionDB.prepararLecturaStreaming(con, "SELECT id, tipo, estado FROM pedidos ORDER BY id");
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                Pedido.TipoPedido tipo = tipoDe(rs.getString("tipo"));
+                if (tipo != null) {
+                    acumulador.agregar(rs.getInt("id"), tipo, EstadoPedido.valueOf(rs.getString("estado")), 0.0);
+                }
+            }
+            OP_READ_SNAPSHOT.registrar(inicio, acumulador.getCantidad());
+
+        } catch (SQLException e) {
+            OP_READ_SNAPSHOT.registrarError(inicio);
+            System.err.println("Error al leer la instantánea de pedidos: " + e.getMessage());
+            return new InstantaneaPedidos.Acumulador(0).construir();
+        }
+        return acumulador.construir();
+    }
+
+    /**
+     * Lee una página de pedidos usando paginación por clave (keyset).
+     * <p>
+     * A diferencia de {@code OFFSET}, el costo no crece con el número de página:
+     * la consulta salta directamente al primer ID mayor que {@code despuesDeId} usando la clave primaria.
+     * Para obtener la página siguiente se pasa el ID del último pedido recibido.
+     * </p>
+     * @param despuesDeId ID del último pedido de la página anterior (0 para la primera página).
+     * @param limite Cantidad máxima de pedidos a retornar (mayor que 0).
+     * @return Lista de pedidos ordenados por ID; vacía si no hay más páginas.
+     */
+    public List<Pedido> readPage(int despuesDeId, int limite) {
+        if (limite <= 0) throw new IllegalArgumentException("limite debe ser mayor que 0.");
+        List<Pedido> lista = new ArrayList<>(Math.min(limite, 1024));
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = con.prepareStatement(SQL_SELECT + " WHERE id > ? ORDER BY id LIMIT ?")) {
+
+            ps.setInt(1, despuesDeId);
+            ps.setInt(2, limite);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Pedido pedido = mapearPedido(rs);
+                    if (pedido != null) {
+                        lista.add(pedido);
+                    }
+                }
+            }
+            OP_READ_PAGE.registrar(inicio, lista.size());
+
+        } catch (SQLException e) {
+            OP_READ_PAGE.registrarError(inicio);
+            System.err.println("Error al leer página de pedidos: " + e.getMessage());
+        }
+        return lista;
+    }
+
+    /**
+     * Lee un pedido según su ID.
+     * @param id Identificador del pedido.
+     * @return Pedido encontrado, o null si no existe.
+     */
+    public Pedido readById(int id) {
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = con.prepareStatement(SQL_SELECT + " WHERE id = ?")) {
+
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    Pedido pedido = mapearPedido(rs);
+                    OP_READ_BY_ID.registrar(inicio, 1);
+                    return pedido;
+                }
+            }
+            OP_READ_BY_ID.registrar(inicio, 0);
+
+        } catch (SQLException e) {
+            OP_READ_BY_ID.registrarError(inicio);
+            System.err.println("Error al buscar pedido: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Lee los pedidos que se encuentran en un estado determinado, ordenados por ID ascendente.
+     * @param estado Estado a filtrar (no nulo).
+     * @return Lista de pedidos en ese estado.
+     * @see #findByEstado(EstadoPedido, int, boolean)
+     */
+    public List<Pedido> findByEstado(EstadoPedido estado) {
+        return findByEstado(estado, 0, true);
+    }
+
+    /**
+     * Lee los pedidos que se encuentran en un estado determinado.
+     * <p>
+     * El filtro se resuelve en SQL apoyado en el índice {@code idx_pedidos_estado_id},
+     * por lo que el costo es proporcional a los pedidos en ese estado y no al historial completo.
+     * </p>
+     * @param estado Estado a filtrar (no nulo).
+     * @param limite Cantidad máxima de pedidos a retornar (0 o negativo para no limitar).
+     * @param ascendente true para ordenar por ID ascendente (más antiguos primero), false para descendente.
+     * @return Lista de pedidos en ese estado.
+     */
+    public List<Pedido> findByEstado(EstadoPedido estado, int limite, boolean ascendente) {
+        if (estado == null) throw new IllegalArgumentException("estado no puede ser nulo.");
+        String sql = SQL_SELECT + " WHERE estado = ?" + ordenYLimite(limite, ascendente);
+        return buscar(sql, limite, OP_FIND_BY_ESTADO, "Error al buscar pedidos por estado: ", estado.name());
+    }
+
+    /**
+     * Lee los pedidos de un tipo que se encuentran en un estado determinado, ordenados por ID ascendente.
+     * @param tipo Tipo de pedido a filtrar (no nulo).
+     * @param estado Estado a filtrar (no nulo).
+     * @return Lista de pedidos que cumplen ambos filtros.
+     * @see #findByTipoAndEstado(Pedido.TipoPedido, EstadoPedido, int, boolean)
+     */
+    public List<Pedido> findByTipoAndEstado(Pedido.TipoPedido tipo, EstadoPedido estado) {
+        return findByTipoAndEstado(tipo, estado, 0, true);
+    }
+
+    /**
+     * Lee los pedidos de un tipo que se encuentran en un estado determinado.
+     * El filtro se resuelve en SQL apoyado en el índice {@code idx_pedidos_tipo_estado_id}.
+     * @param tipo Tipo de pedido a filtrar (no nulo).
+     * @param estado Estado a filtrar (no nulo).
+     * @param limite Cantidad máxima de pedidos a retornar (0 o negativo para no limitar).
+     * @param ascendente true para ordenar por ID ascendente, false para descendente.
+     * @return Lista de pedidos que cumplen ambos filtros.
+     */
+    public List<Pedido> findByTipoAndEstado(Pedido.TipoPedido tipo, EstadoPedido estado, int limite, boolean ascendente) {
+        if (tipo == null) throw new IllegalArgumentException("tipo no puede ser nulo.");
+        if (estado == null) throw new IllegalArgumentException("estado no puede ser nulo.");
+        String sql = SQL_SELECT + " WHERE tipo = ? AND estado = ?" + ordenYLimite(limite, ascendente);
+        return buscar(sql, limite, OP_FIND_BY_TIPO_ESTADO, "Error al buscar pedidos por tipo y estado: ", tipo.name(), estado.name());
+    }
+
+    /**
+     * Lee una página de los pedidos en un estado, por clave: los de ID mayor a {@code despuesDeId},
+     * ordenados por ID. Como {@link #readPage(int, int)}, el costo no crece con la página, ya que
+     * {@code idx_pedidos_estado_id} lleva directo al primer ID de la página.
+     * @param estado Estado a filtrar (no nulo).
+     * @param despuesDeId ID del último pedido de la página anterior (0 para la primera).
+     * @param limite Cantidad máxima de pedidos a retornar (mayor que 0).
+     * @return Lista ordenada por ID.
+     */
+    public List<Pedido> findPageByEstado(EstadoPedido estado, int despuesDeId, int limite) {
+        if (estado == null) throw new IllegalArgumentException("estado no puede ser nulo.");
+        if (limite <= 0) throw new IllegalArgumentException("limite debe ser mayor que 0.");
+        String sql = SQL_SELECT + " WHERE estado = ? AND id > ?" + ordenYLimite(limite, true);
+        return buscar(sql, limite, OP_FIND_PAGE_BY_ESTADO, "Error al leer una página de pedidos por estado: ", estado.name(), despuesDeId);
+    }
+
+    /**
+     * Lee una página de los pedidos de un tipo en un estado, por clave (ver {@link #findPageByEstado}),
+     * apoyada en {@code idx_pedidos_tipo_estado_id}.
+     * @param tipo Tipo de pedido a filtrar (no nulo).
+     * @param estado Estado a filtrar (no nulo).
+     * @param despuesDeId ID del último pedido de la página anterior (0 para la primera).
+     * @param limite Cantidad máxima de pedidos a retornar (mayor que 0).
+     * @return Lista ordenada por ID.
+     */
+    public List<Pedido> findPageByTipoAndEstado(Pedido.TipoPedido tipo, EstadoPedido estado, int despuesDeId, int limite) {
+        if (tipo == null) throw new IllegalArgumentException("tipo no puede ser nulo.");
+        if (estado == null) throw new IllegalArgumentException("estado no puede ser nulo.");
+        if (limite <= 0) throw new IllegalArgumentException("limite debe ser mayor que 0.");
+        String sql = SQL_SELECT + " WHERE tipo = ? AND estado = ? AND id > ?" + ordenYLimite(limite, true);
+        return buscar(sql, limite, OP_FIND_PAGE_BY_TIPO_ESTADO, "Error al leer una página de pedidos por tipo y estado: ",
+                tipo.name(), estado.name(), despuesDeId);
+    }
+
+    /**
+     * Cuenta los pedidos registrados en la base de datos.
+     * @return Cantidad de filas de la tabla pedidos, o 0 si ocurre un error.
+     */
+    public int count() {
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = con.prepareStatement("SELECT COUNT(*) FROM pedidos");
+             ResultSet rs = ps.executeQuery()) {
+
+            int total = rs.next() ? rs.getInt(1) : 0;
+            OP_COUNT.registrar(inicio, 1);
+            return total;
+
+        } catch (SQLException e) {
+            OP_COUNT.registrarError(inicio);
+            System.err.println("Error al contar pedidos: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Lee pedidos por posición (OFFSET), ordenados por ID.
+     * <p>
+     * Se usa solo para saltar a una posición arbitraria; para recorrer páginas consecutivas
+     * prefiera {@link #readPage(int, int)}, cuyo costo no crece con la posición.
+     * </p>
+     * @param desde Posición (base 0) de la primera fila a retornar.
+     * @param limite Cantidad máxima de filas a retornar (mayor que 0).
+     * @return Lista ordenada por ID.
+     */
+    public List<Pedido> readOffset(int desde, int limite) {
+        if (desde < 0) throw new IllegalArgumentException("desde no puede ser negativo.");
+        if (limite <= 0) throw new IllegalArgumentException("limite debe ser mayor que 0.");
+        List<Pedido> lista = new ArrayList<>(Math.min(limite, 1024));
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = con.prepareStatement(SQL_SELECT + " ORDER BY id LIMIT ? OFFSET ?")) {
+
+            ps.setInt(1, limite);
+            ps.setInt(2, desde);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Pedido pedido = mapearPedido(rs);
+                    if (pedido != null) {
+                        lista.add(pedido);
+                    }
+                }
+            }
+            OP_READ_OFFSET.registrar(inicio, lista.size());
+
+        } catch (SQLException e) {
+            OP_READ_OFFSET.registrarError(inicio);
+            System.err.println("Error al leer pedidos por posición: " + e.getMessage());
+        }
+        return lista;
+    }
+
+    /**
+     * Lee el token de cambios actual, para luego pedir solo lo modificado con {@link #readChangesSince(long)}.
+     * Debe leerse antes de la carga completa que se quiere mantener al día.
+     * @return Token actual, o -1 si ocurre un error.
+     */
+    public long readChangeToken() {
+        return RegistroCambios.leerToken(OP_READ_CHANGE_TOKEN, "Error al leer el token de cambios de pedidos: ");
+    }
+
+    /**
+     * Lee los pedidos insertados, actualizados o eliminados después de un token,
+     * hasta {@link CambiosDesde#LIMITE_POR_DEFECTO} filas modificadas.
+     * @param token Token de la última lectura.
+     * @return Cambios agrupados por pedido.
+     * @see #readChangesSince(long, int)
+     */
+    public CambiosDesde<Pedido> readChangesSince(long token) {
+        return readChangesSince(token, CambiosDesde.LIMITE_POR_DEFECTO);
+    }
+
+    /**
+     * Lee los pedidos insertados, actualizados o eliminados después de un token.
+     * <p>
+     * Se apoya en el registro {@code cambios} que alimentan los triggers de {@code sql/cambios.sql},
+     * por lo que el costo es proporcional a los pedidos modificados y no al tamaño de la tabla.
+     * Si hay más de {@code limite} pedidos modificados, el resultado no es completo y conviene releer.
+     * </p>
+     * @param token Token de la última lectura (de {@link #readChangeToken()} o de un resultado anterior).
+     * @param limite Cantidad máxima de pedidos modificados a leer (mayor que 0).
+     * @return Cambios agrupados por pedido; sin cambios si ocurre un error.
+     */
+    public CambiosDesde<Pedido> readChangesSince(long token, int limite) {
+        return RegistroCambios.leerDesde("pedidos", "t.id, t.direccion, t.tipo, t.estado", token, limite,
+                this::mapearPedido, OP_READ_CHANGES, "Error al leer cambios de pedidos: ");
+    }
+
     /**
      * Actualiza la dirección, el tipo y el estado de un pedido existente.
      * @param pedido Objeto Pedido con los datos actualizados.
@@ -96,6 +513,7 @@ public class PedidoDAO {
     public boolean update(Pedido pedido) {
         String sql = "UPDATE pedidos SET direccion = ?, tipo = ?, estado = ? WHERE id = ?";
 
+        long inicio = System.nanoTime();
         try (Connection con = ConexionDB.conectar();
              PreparedStatement ps = con.prepareStatement(sql)) {
 
@@ -105,14 +523,92 @@ public class PedidoDAO {
             ps.setInt(4, pedido.getIdPedido());
 
             int filasAfectadas = ps.executeUpdate();
+            OP_UPDATE.registrar(inicio, filasAfectadas);
             return filasAfectadas > 0;
 
         } catch (SQLException e) {
+            OP_UPDATE.registrarError(inicio);
             System.err.println("Error al actualizar el pedido: " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Actualiza la dirección, el tipo y el estado de un pedido solo si su estado guardado sigue siendo
+     * {@code esperado}. Así, entre varias solicitudes concurrentes, solo una aplica cada transición.
+     * @param pedido   Objeto Pedido con los datos actualizados (incluido el estado nuevo).
+     * @param esperado Estado que debe tener la fila para actualizarse.
+     * @return true si se actualizó; false si el pedido no existe, su estado cambió o ocurre un error.
+     */
+    public boolean updateIfEstado(Pedido pedido, EstadoPedido esperado) {
+        String sql = "UPDATE pedidos SET direccion = ?, tipo = ?, estado = ? WHERE id = ? AND estado = ?";
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+
+            ps.setString(1, pedido.getDireccionEntrega());
+            ps.setString(2, pedido.getTipoPedido().name());
+            ps.setString(3, pedido.getEstado().name());
+            ps.setInt(4, pedido.getIdPedido());
+            ps.setString(5, esperado.name());
+
+            int filasAfectadas = ps.executeUpdate();
+            OP_UPDATE_SI_ESTADO.registrar(inicio, filasAfectadas);
+            return filasAfectadas > 0;
+
+        } catch (SQLException e) {
+            OP_UPDATE_SI_ESTADO.registrarError(inicio);
+            System.err.println("Error al actualizar el pedido: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Actualiza el estado de varios pedidos en un solo lote JDBC y una sola transacción.
+     * <p>
+     * Las filas se actualizan en el orden de iteración del mapa; conviene pasar un mapa ordenado
+     * por ID para que escrituras concurrentes bloqueen las filas en el mismo orden.
+     * Si el lote falla, no se aplica ninguna actualización.
+     * </p>
+     * <p>
+     * Los estados solo avanzan: una fila que ya está en el estado indicado o en uno posterior
+     * (por ejemplo, escrito por otra instancia) no se modifica.
+     * </p>
+     * @param estados Estado nuevo por ID de pedido.
+     * @return Cantidad de filas actualizadas, o -1 si ocurre un error.
+     */
+    public int updateEstados(Map<Integer, EstadoPedido> estados) {
+        if (estados.isEmpty()) return 0;
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = con.prepareStatement(SQL_UPDATE_ESTADO_AVANCE)) {
+
+            con.setAutoCommit(false);
+            for (Map.Entry<Integer, EstadoPedido> e : estados.entrySet()) {
+                ps.setString(1, e.getValue().name());
+                ps.setInt(2, e.getKey());
+                ps.setInt(3, e.getValue().ordinal() + 1);
+                ps.addBatch();
+            }
+            int filas = 0;
+            for (int n : ps.executeBatch()) {
+                // SUCCESS_NO_INFO (-2): el driver no informa filas por sentencia en lotes reescritos
+                filas += n == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, n);
+            }
+            con.commit();
+            OP_UPDATE_ESTADOS.registrar(inicio, filas);
+            return filas;
+
+        } catch (SQLException e) {
+            OP_UPDATE_ESTADOS.registrarError(inicio);
+            // El lote se revierte al devolver la conexión al pool
+            System.err.println("Error al actualizar estados de pedidos en lote: " + e.getMessage());
+            return -1;
+        }
+    }
+
     /**
      * Elimina un pedido de la base de datos según su ID.
      * @param id Identificador del pedido a eliminar.
@@ -121,16 +617,125 @@ public class PedidoDAO {
     public boolean delete(int id) {
         String sql = "DELETE FROM pedidos WHERE id = ?";
 
+        long inicio = System.nanoTime();
         try (Connection con = ConexionDB.conectar();
              PreparedStatement ps = con.prepareStatement(sql)) {
 
             ps.setInt(1, id);
             int filasAfectadas = ps.executeUpdate();
+            OP_DELETE.registrar(inicio, filasAfectadas);
             return filasAfectadas > 0;
 
         } catch (SQLException e) {
+            OP_DELETE.registrarError(inicio);
             System.err.println("Error al eliminar el pedido: " + e.getMessage());
             return false;
         }
     }
+
+    private void asignarParametrosInsert(PreparedStatement ps, Pedido pedido) throws SQLException {
+        ps.setString(1, pedido.getDireccionEntrega());
+        // Usamos .name() para obtener el String exacto del Enum ("COMIDA", "PENDIENTE", etc.)
+        ps.setString(2, pedido.getTipoPedido().name());
+        ps.setString(3, pedido.getEstado().name());
+    }
+
+    /**
+     * Reconstruye un pedido a partir de la fila actual, instanciando la clase hija según su tipo.
+     * @return Pedido polimórfico, o null si el tipo almacenado no es reconocido.
+     */
+    private Pedido mapearPedido(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        String direccion = rs.getString("direccion");
+        String tipo = rs.getString("tipo");
+        String estadoStr = rs.getString("estado");
+
+        Pedido.TipoPedido tipoPedido = tipoDe(tipo);
+        return tipoPedido == null ? null : construir(id, direccion, tipoPedido, EstadoPedido.valueOf(estadoStr));
+    }
+
+    /**
+     * Instancia la clase hija correspondiente al tipo, con el estado indicado.
+     * La BD no guarda distancia, por lo que se usa 0.0 para cumplir con el constructor.
+     */
+    static Pedido construir(int id, String direccion, Pedido.TipoPedido tipo, EstadoPedido estado) {
+        return construir(id, direccion, 0.0, tipo, estado);
+    }
+
+    /**
+     * Instancia la clase hija correspondiente al tipo, con el estado indicado.
+     * @throws IllegalArgumentException si los datos no cumplen las validaciones del constructor de {@link Pedido}.
+     */
+    static Pedido construir(int id, String direccion, double distanciaKm, Pedido.TipoPedido tipo, EstadoPedido estado) {
+        Pedido pedido;
+        switch (tipo) {
+            case COMIDA:
+                pedido = new PedidoComida(id, direccion, distanciaKm);
+                break;
+            case ENCOMIENDA:
+                pedido = new PedidoEncomienda(id, direccion, distanciaKm);
+                break;
+            default:
+                pedido = new PedidoCompraXpress(id, direccion, distanciaKm);
+                break;
+        }
+        // Reconstruimos el estado usando el Enum
+        pedido.setEstado(estado);
+        return pedido;
+    }
+
+    /**
+     * @return tipo correspondiente al texto almacenado, o null si no es reconocido.
+     */
+    private Pedido.TipoPedido tipoDe(String tipo) {
+        switch (tipo) {
+            case "COMIDA": return Pedido.TipoPedido.COMIDA;
+            case "ENCOMIENDA": return Pedido.TipoPedido.ENCOMIENDA;
+            case "EXPRESS": return Pedido.TipoPedido.EXPRESS;
+            default: return null;
+        }
+    }
+
+    /**
+     * El límite viaja como parámetro ({@code LIMIT ?}) para que cada filtro use un único SQL por
+     * orden y su sentencia preparada se reutilice desde la caché del pool.
+     */
+    private String ordenYLimite(int limite, boolean ascendente) {
+        String orden = ascendente ? " ORDER BY id ASC" : " ORDER BY id DESC";
+        return limite > 0 ? orden + " LIMIT ?" : orden;
+    }
+
+    /**
+     * Ejecuta una consulta filtrada (parámetros de texto o enteros) y mapea los pedidos resultantes.
+     * Si {@code limite} es positivo, se enlaza como último parámetro (ver {@link #ordenYLimite}).
+     */
+    private List<Pedido> buscar(String sql, int limite, MetricasOperacion operacion, String mensajeError, Object... parametros) {
+        List<Pedido> lista = new ArrayList<>();
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+
+            for (int i = 0; i < parametros.length; i++) {
+                ps.setObject(i + 1, parametros[i]);
+            }
+            if (limite > 0) {
+                ps.setInt(parametros.length + 1, limite);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Pedido pedido = mapearPedido(rs);
+                    if (pedido != null) {
+                        lista.add(pedido);
+                    }
+                }
+            }
+            operacion.registrar(inicio, lista.size());
+
+        } catch (SQLException e) {
+            operacion.registrarError(inicio);
+            System.err.println(mensajeError + e.getMessage());
+        }
+        return lista;
+    }
 }
\ No newline at end of file
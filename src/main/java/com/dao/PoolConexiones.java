@@ -0,0 +1,441 @@
+package com.dao;
+
+import com.metricas.EventoSentenciaDAO;
+import com.metricas.HistogramaLatencia;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool de conexiones JDBC reutilizables para los DAO del sistema SpeedFast.
+ * <p>
+ * Evita abrir una conexión física (handshake TCP + autenticación) por cada operación CRUD.
+ * Las conexiones prestadas se entregan envueltas en un proxy: al invocar {@code close()}
+ * la conexión vuelve al pool en lugar de cerrarse, por lo que los DAO pueden seguir
+ * usando {@code try-with-resources} sin cambios.
+ * </p>
+ *
+ * <h2>Características</h2>
+ * <ul>
+ *   <li>Tamaño mínimo y máximo configurables.</li>
+ *   <li>Precalentamiento: se abren {@code minimo} conexiones al iniciar.</li>
+ *   <li>Validación al préstamo mediante {@link Connection#isValid(int)}.</li>
+ *   <li>Tiempo máximo de espera al pedir una conexión cuando el pool está agotado.</li>
+ *   <li>Desalojo periódico de conexiones ociosas por sobre el mínimo.</li>
+ *   <li>Métricas de espera y de uso de las conexiones ({@link PoolConexionesMXBean}).</li>
+ *   <li>Caché LRU de sentencias preparadas por conexión física ({@link CacheSentencias}).</li>
+ *   <li>Eventos JFR por sentencia ({@link EventoSentenciaDAO}) mientras haya una grabación que los habilite.</li>
+ * </ul>
+ */
+public class PoolConexiones implements PoolConexionesMXBean {
+
+    private static final double NANOS_POR_MICRO = 1000.0;
+
+    private final String url;
+    private final String usuario;
+    private final String password;
+
+    private final int minimo;
+    private final int maximo;
+    private final long esperaMaximaMs;
+    private final long ociosidadMaximaMs;
+    private final int timeoutValidacionSeg;
+    private final int sentenciasPorConexion;
+
+    /** Conexiones físicas disponibles. Se usa como pila (LIFO) para mantener calientes las más recientes. */
+    private final LinkedBlockingDeque<ConexionFisica> disponibles = new LinkedBlockingDeque<>();
+
+    /** Permisos de préstamo: limita el total de conexiones en uso al máximo configurado. */
+    private final Semaphore permisos;
+
+    /** Total de conexiones físicas abiertas (prestadas + disponibles). */
+    private final AtomicInteger abiertas = new AtomicInteger();
+
+    private final HistogramaLatencia esperas = new HistogramaLatencia();
+    private final HistogramaLatencia usos = new HistogramaLatencia();
+    private final LongAdder esperasAgotadas = new LongAdder();
+    private final LongAdder creadas = new LongAdder();
+    private final LongAdder descartadas = new LongAdder();
+    private final LongAdder aciertosSentencias = new LongAdder();
+    private final LongAdder fallosSentencias = new LongAdder();
+    private final LongAdder sentenciasDesalojadas = new LongAdder();
+
+    private final ScheduledExecutorService desalojador;
+    private volatile boolean cerrado;
+
+    /**
+     * Crea un pool de conexiones.
+     *
+     * @param url                  URL JDBC de la base de datos.
+     * @param usuario              usuario de la base de datos.
+     * @param password             contraseña del usuario.
+     * @param minimo               cantidad de conexiones que se mantienen abiertas (mayor o igual a 0).
+     * @param maximo               cantidad máxima de conexiones simultáneas (mayor que 0).
+     * @param esperaMaximaMs       tiempo máximo de espera por una conexión libre, en milisegundos.
+     * @param ociosidadMaximaMs    tiempo que una conexión puede estar ociosa antes de ser desalojada.
+     * @param timeoutValidacionSeg tiempo máximo de validación al préstamo, en segundos.
+     * @throws IllegalArgumentException si algún parámetro no cumple validación.
+     */
+    public PoolConexiones(String url, String usuario, String password,
+                          int minimo, int maximo,
+                          long esperaMaximaMs, long ociosidadMaximaMs, int timeoutValidacionSeg) {
+        this(url, usuario, password, minimo, maximo, esperaMaximaMs, ociosidadMaximaMs, timeoutValidacionSeg, 0);
+    }
+
+    /**
+     * Crea un pool de conexiones con caché de sentencias preparadas.
+     *
+     * @param url                   URL JDBC de la base de datos.
+     * @param usuario               usuario de la base de datos.
+     * @param password              contraseña del usuario.
+     * @param minimo                cantidad de conexiones que se mantienen abiertas (mayor o igual a 0).
+     * @param maximo                cantidad máxima de conexiones simultáneas (mayor que 0).
+     * @param esperaMaximaMs        tiempo máximo de espera por una conexión libre, en milisegundos.
+     * @param ociosidadMaximaMs     tiempo que una conexión puede estar ociosa antes de ser desalojada.
+     * @param timeoutValidacionSeg  tiempo máximo de validación al préstamo, en segundos.
+     * @param sentenciasPorConexion sentencias preparadas que guarda cada conexión física (0 para no guardar).
+     * @throws IllegalArgumentException si algún parámetro no cumple validación.
+     */
+    public PoolConexiones(String url, String usuario, String password,
+                          int minimo, int maximo,
+                          long esperaMaximaMs, long ociosidadMaximaMs, int timeoutValidacionSeg,
+                          int sentenciasPorConexion) {
+        if (url == null || url.trim().isEmpty()) throw new IllegalArgumentException("La URL no puede ser nula o vacía.");
+        if (minimo < 0) throw new IllegalArgumentException("El mínimo no puede ser negativo.");
+        if (maximo <= 0 || maximo < minimo) throw new IllegalArgumentException("El máximo debe ser mayor que 0 y mayor o igual al mínimo.");
+        if (esperaMaximaMs < 0) throw new IllegalArgumentException("La espera máxima no puede ser negativa.");
+        if (sentenciasPorConexion < 0) throw new IllegalArgumentException("Las sentencias por conexión no pueden ser negativas.");
+
+        this.url = url;
+        this.usuario = usuario;
+        this.password = password;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.ociosidadMaximaMs = ociosidadMaximaMs;
+        this.timeoutValidacionSeg = timeoutValidacionSeg;
+        this.sentenciasPorConexion = sentenciasPorConexion;
+        this.permisos = new Semaphore(maximo, true);
+
+        this.desalojador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "speedfast-pool-desalojo");
+            t.setDaemon(true);
+            return t;
+        });
+        long periodo = Math.max(1000, ociosidadMaximaMs / 2);
+        desalojador.scheduleWithFixedDelay(this::desalojarOciosas, periodo, periodo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Abre por adelantado las conexiones mínimas configuradas.
+     *
+     * @throws SQLException si no es posible abrir alguna conexión.
+     */
+    public void precalentar() throws SQLException {
+        while (abiertas.get() < minimo) {
+            disponibles.offerFirst(abrirFisica());
+        }
+    }
+
+    /**
+     * Presta una conexión del pool, esperando como máximo el tiempo configurado.
+     *
+     * @return conexión lista para usar; su {@code close()} la devuelve al pool.
+     * @throws SQLException si el pool está cerrado, se agota la espera o falla la conexión.
+     */
+    public Connection obtener() throws SQLException {
+        if (cerrado) throw new SQLException("El pool de conexiones está cerrado.");
+
+        long inicio = System.nanoTime();
+        try {
+            if (!permisos.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                esperasAgotadas.increment();
+                throw new SQLException("Tiempo de espera agotado (" + esperaMaximaMs + " ms) al obtener una conexión del pool.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido mientras se esperaba una conexión del pool.", e);
+        }
+
+        try {
+            ConexionFisica fisica;
+            while ((fisica = disponibles.pollFirst()) != null) {
+                if (esValida(fisica.conexion)) {
+                    return envolver(fisica, inicio);
+                }
+                descartar(fisica);
+            }
+            return envolver(abrirFisica(), inicio);
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Cierra todas las conexiones disponibles y rechaza nuevos préstamos.
+     * Las conexiones prestadas se cierran al ser devueltas.
+     */
+    public void cerrar() {
+        cerrado = true;
+        desalojador.shutdownNow();
+        ConexionFisica fisica;
+        while ((fisica = disponibles.pollFirst()) != null) {
+            descartar(fisica);
+        }
+    }
+
+    @Override
+    public int getAbiertas() { return abiertas.get(); }
+
+    @Override
+    public int getDisponibles() { return disponibles.size(); }
+
+    @Override
+    public int getEnUso() { return maximo - permisos.availablePermits(); }
+
+    @Override
+    public int getMaximo() { return maximo; }
+
+    @Override
+    public long getPrestamos() { return esperas.getCantidad(); }
+
+    @Override
+    public long getEsperasAgotadas() { return esperasAgotadas.sum(); }
+
+    @Override
+    public long getConexionesCreadas() { return creadas.sum(); }
+
+    @Override
+    public long getConexionesDescartadas() { return descartadas.sum(); }
+
+    @Override
+    public double getEsperaP50Micros() { return esperas.percentilNanos(50) / NANOS_POR_MICRO; }
+
+    @Override
+    public double getEsperaP99Micros() { return esperas.percentilNanos(99) / NANOS_POR_MICRO; }
+
+    @Override
+    public double getEsperaP999Micros() { return esperas.percentilNanos(99.9) / NANOS_POR_MICRO; }
+
+    @Override
+    public double getEsperaMaximaMicros() { return esperas.getMaximoNanos() / NANOS_POR_MICRO; }
+
+    @Override
+    public double getUsoP50Micros() { return usos.percentilNanos(50) / NANOS_POR_MICRO; }
+
+    @Override
+    public double getUsoP99Micros() { return usos.percentilNanos(99) / NANOS_POR_MICRO; }
+
+    @Override
+    public double getUsoP999Micros() { return usos.percentilNanos(99.9) / NANOS_POR_MICRO; }
+
+    @Override
+    public double getUsoMaximoMicros() { return usos.getMaximoNanos() / NANOS_POR_MICRO; }
+
+    @Override
+    public int getSentenciasPorConexion() { return sentenciasPorConexion; }
+
+    @Override
+    public long getSentenciasAciertos() { return aciertosSentencias.sum(); }
+
+    @Override
+    public long getSentenciasFallos() { return fallosSentencias.sum(); }
+
+    @Override
+    public long getSentenciasDesalojadas() { return sentenciasDesalojadas.sum(); }
+
+    @Override
+    public double getTasaAciertoSentencias() {
+        long aciertos = aciertosSentencias.sum();
+        long total = aciertos + fallosSentencias.sum();
+        return total == 0 ? 0 : (double) aciertos / total;
+    }
+
+    private ConexionFisica abrirFisica() throws SQLException {
+        Connection con = DriverManager.getConnection(url, usuario, password);
+        int aislamiento;
+        boolean soloLectura;
+        try {
+            aislamiento = con.getTransactionIsolation();
+            soloLectura = con.isReadOnly();
+        } catch (SQLException e) {
+            con.close();
+            throw e;
+        }
+        abiertas.incrementAndGet();
+        creadas.increment();
+        CacheSentencias sentencias = sentenciasPorConexion == 0 ? null
+                : new CacheSentencias(sentenciasPorConexion, aciertosSentencias, fallosSentencias, sentenciasDesalojadas);
+        return new ConexionFisica(con, sentencias, aislamiento, soloLectura);
+    }
+
+    private boolean esValida(Connection con) {
+        try {
+            return !con.isClosed() && con.isValid(timeoutValidacionSeg);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void descartar(ConexionFisica fisica) {
+        abiertas.decrementAndGet();
+        descartadas.increment();
+        try {
+            fisica.conexion.close();
+        } catch (SQLException e) {
+            System.err.println("Error al cerrar conexión descartada: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Devuelve una conexión física al pool, restaurando el estado que un DAO pudo modificar.
+     */
+    private void devolver(ConexionFisica fisica) {
+        try {
+            if (cerrado || fisica.conexion.isClosed()) {
+                descartar(fisica);
+                return;
+            }
+            if (!fisica.conexion.getAutoCommit()) {
+                fisica.conexion.rollback();
+                fisica.conexion.setAutoCommit(true);
+            }
+            if (fisica.configuracionModificada) {
+                fisica.conexion.setTransactionIsolation(fisica.aislamientoInicial);
+                fisica.conexion.setReadOnly(fisica.soloLecturaInicial);
+                fisica.configuracionModificada = false;
+            }
+            fisica.ultimoUso = System.currentTimeMillis();
+            disponibles.offerFirst(fisica);
+        } catch (SQLException e) {
+            descartar(fisica);
+        } finally {
+            permisos.release();
+        }
+    }
+
+    /**
+     * Cierra las conexiones ociosas más antiguas mientras se mantenga el mínimo configurado.
+     */
+    private void desalojarOciosas() {
+        long limite = System.currentTimeMillis() - ociosidadMaximaMs;
+        ConexionFisica fisica;
+        while (abiertas.get() > minimo && (fisica = disponibles.pollLast()) != null) {
+            if (fisica.ultimoUso > limite) {
+                disponibles.offerLast(fisica);
+                break;
+            }
+            descartar(fisica);
+        }
+    }
+
+    /**
+     * Entrega la conexión al DAO y registra cuánto esperó desde {@code inicioEspera}.
+     */
+    private Connection envolver(ConexionFisica fisica, long inicioEspera) {
+        long prestadaEn = System.nanoTime();
+        esperas.registrar(prestadaEn - inicioEspera);
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConexionPrestada(fisica, prestadaEn));
+    }
+
+    /**
+     * Conexión física abierta junto con el instante de su último uso y sus sentencias preparadas
+     * (que se cierran junto con la conexión).
+     */
+    private static final class ConexionFisica {
+        private final Connection conexion;
+        private final CacheSentencias sentencias;
+        /** Aislamiento y solo lectura con que se abrió la conexión; se restauran al devolverla. */
+        private final int aislamientoInicial;
+        private final boolean soloLecturaInicial;
+        /** Un DAO cambió el aislamiento o el modo solo lectura durante el préstamo. */
+        private boolean configuracionModificada;
+        private volatile long ultimoUso;
+
+        private ConexionFisica(Connection conexion, CacheSentencias sentencias, int aislamientoInicial, boolean soloLecturaInicial) {
+            this.conexion = conexion;
+            this.sentencias = sentencias;
+            this.aislamientoInicial = aislamientoInicial;
+            this.soloLecturaInicial = soloLecturaInicial;
+            this.ultimoUso = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Manejador del proxy entregado a los DAO: intercepta {@code close()} para devolver
+     * la conexión al pool y bloquea su uso posterior.
+     */
+    private final class ConexionPrestada implements InvocationHandler {
+        private ConexionFisica fisica;
+        private final long prestadaEn;
+
+        private ConexionPrestada(ConexionFisica fisica, long prestadaEn) {
+            this.fisica = fisica;
+            this.prestadaEn = prestadaEn;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nombre = method.getName();
+            switch (nombre) {
+                case "close":
+                    if (fisica != null) {
+                        ConexionFisica devuelta = fisica;
+                        fisica = null;
+                        usos.registrar(System.nanoTime() - prestadaEn);
+                        if (devuelta.sentencias != null) devuelta.sentencias.liberarTodas();
+                        devolver(devuelta);
+                    }
+                    return null;
+                case "isClosed":
+                    return fisica == null || fisica.conexion.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConexionPrestada[" + (fisica == null ? "devuelta" : fisica.conexion) + "]";
+                default:
+                    break;
+            }
+            if (fisica == null) {
+                throw new SQLException("La conexión ya fue devuelta al pool.");
+            }
+            if ("setTransactionIsolation".equals(nombre) || "setReadOnly".equals(nombre)) {
+                fisica.configuracionModificada = true;
+            }
+            Object resultado;
+            if (fisica.sentencias != null && "prepareStatement".equals(nombre)) {
+                resultado = fisica.sentencias.preparar(fisica.conexion, method, args);
+            } else {
+                try {
+                    resultado = method.invoke(fisica.conexion, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            // Las sentencias se instrumentan solo si hay una grabación JFR que lo pida
+            if (resultado instanceof Statement && EventoSentenciaDAO.habilitado()) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return SentenciaInstrumentada.envolver((Statement) resultado, sql);
+            }
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.dao;
+
+/**
+ * Vista JMX del {@link PoolConexiones}: ocupación actual, contadores acumulados y
+ * latencias de préstamo y de uso de las conexiones (en microsegundos).
+ */
+public interface PoolConexionesMXBean {
+
+    /** @return cantidad de conexiones físicas abiertas. */
+    int getAbiertas();
+
+    /** @return cantidad de conexiones ociosas en el pool. */
+    int getDisponibles();
+
+    /** @return cantidad de conexiones prestadas en este momento. */
+    int getEnUso();
+
+    /** @return cantidad máxima de conexiones simultáneas. */
+    int getMaximo();
+
+    /** @return cantidad de préstamos concedidos. */
+    long getPrestamos();
+
+    /** @return cantidad de préstamos rechazados por agotarse la espera. */
+    long getEsperasAgotadas();
+
+    /** @return cantidad de conexiones físicas abiertas desde el inicio. */
+    long getConexionesCreadas();
+
+    /** @return cantidad de conexiones físicas cerradas (inválidas, ociosas o al cerrar el pool). */
+    long getConexionesDescartadas();
+
+    /** @return percentil 50 del tiempo de espera por una conexión, en microsegundos. */
+    double getEsperaP50Micros();
+
+    /** @return percentil 99 del tiempo de espera por una conexión, en microsegundos. */
+    double getEsperaP99Micros();
+
+    /** @return percentil 99.9 del tiempo de espera por una conexión, en microsegundos. */
+    double getEsperaP999Micros();
+
+    /** @return mayor tiempo de espera por una conexión, en microsegundos. */
+    double getEsperaMaximaMicros();
+
+    /** @return percentil 50 del tiempo que un DAO retiene la conexión, en microsegundos. */
+    double getUsoP50Micros();
+
+    /** @return percentil 99 del tiempo que un DAO retiene la conexión, en microsegundos. */
+    double getUsoP99Micros();
+
+    /** @return percentil 99.9 del tiempo que un DAO retiene la conexión, en microsegundos. */
+    double getUsoP999Micros();
+
+    /** @return mayor tiempo que un DAO retuvo una conexión, en microsegundos. */
+    double getUsoMaximoMicros();
+
+    /** @return capacidad de la caché de sentencias preparadas de cada conexión (0 si está deshabilitada). */
+    int getSentenciasPorConexion();
+
+    /** @return veces que {@code prepareStatement} reutilizó una sentencia de la caché. */
+    long getSentenciasAciertos();
+
+    /** @return veces que {@code prepareStatement} tuvo que preparar una sentencia nueva. */
+    long getSentenciasFallos();
+
+    /** @return sentencias cerradas por superar la capacidad de la caché. */
+    long getSentenciasDesalojadas();
+
+    /** @return proporción de aciertos de la caché de sentencias, entre 0 y 1. */
+    double getTasaAciertoSentencias();
+}
@@ -0,0 +1,223 @@
+package com.dao;
+
+import com.metricas.MetricasOperacion;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecturas sobre la tabla {@code cambios} (ver {@code sql/cambios.sql}), compartidas por los DAO.
+ * <p>
+ * Los cambios posteriores a un token se agrupan por fila: una sola consulta devuelve, para cada
+ * fila modificada, la primera operación del intervalo y los datos actuales de la fila (vía
+ * {@code LEFT JOIN}), de modo que el costo depende de cuántas filas cambiaron y no del tamaño
+ * de la tabla.
+ * </p>
+ * <p>
+ * El token no es el {@code id} autoincremental, que se asigna al insertar y no al confirmar: una
+ * transacción abierta con un {@code id} menor podría confirmarse después de que un lector avanzó más
+ * allá, y ese cambio se perdería. Por eso cada cambio recibe además una {@code secuencia} recién
+ * cuando ya está confirmado ({@link #sellar(Connection, boolean)}), bajo el bloqueo de la fila de
+ * {@code cambios_secuencia}; así las secuencias se hacen visibles en orden y el token es la mayor
+ * secuencia leída. La misma fila guarda hasta qué secuencia se purgó el registro.
+ * </p>
+ */
+final class RegistroCambios {
+
+    /**
+     * Construye un objeto a partir de la fila actual de un {@link ResultSet}.
+     *
+     * @param <T> tipo del objeto.
+     */
+    @FunctionalInterface
+    interface MapeadorFila<T> {
+        T mapear(ResultSet rs) throws SQLException;
+    }
+
+    /** Cambios que se sellan por transacción; los demás quedan para la siguiente vuelta. */
+    private static final int SELLADO_POR_LOTE = 5000;
+
+    private RegistroCambios() {
+    }
+
+    /**
+     * Lee el token actual: la secuencia del último cambio sellado.
+     * <p>
+     * Antes sella los cambios ya confirmados, esperando a otro cliente que esté sellando: así todo
+     * cambio visible para una lectura posterior (por ejemplo, el conteo de una carga completa) o queda
+     * cubierto por el token o, si se confirmó después, recibe una secuencia mayor y hace variar el
+     * siguiente token leído.
+     * </p>
+     *
+     * @param operacion    métricas donde registrar la lectura.
+     * @param mensajeError prefijo del mensaje en caso de error.
+     * @return token actual (0 si no hay cambios), o -1 si ocurre un error.
+     */
+    static long leerToken(MetricasOperacion operacion, String mensajeError) {
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar()) {
+
+            sellar(con, true);
+
+            try (PreparedStatement ps = con.prepareStatement("SELECT ultima FROM cambios_secuencia WHERE id = 1");
+                 ResultSet rs = ps.executeQuery()) {
+                long token = rs.next() ? rs.getLong(1) : 0;
+                operacion.registrar(inicio, 1);
+                return token;
+            }
+
+        } catch (SQLException e) {
+            operacion.registrarError(inicio);
+            System.err.println(mensajeError + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Lee los cambios de una tabla posteriores a un token.
+     *
+     * @param tabla        nombre de la tabla (tal como la registran los triggers).
+     * @param columnas     columnas a leer de la tabla, con prefijo {@code t.} (por ejemplo, {@code "t.id, t.nombre"}).
+     * @param token        token de la última lectura (0 para leer desde el inicio del registro).
+     * @param limite       cantidad máxima de filas modificadas a leer (mayor que 0).
+     * @param mapeador     construye el objeto a partir de las columnas leídas.
+     * @param operacion    métricas donde registrar la lectura.
+     * @param mensajeError prefijo del mensaje en caso de error.
+     * @param <T>          tipo de las filas.
+     * @return cambios agrupados por fila; sin cambios si ocurre un error.
+     */
+    static <T> CambiosDesde<T> leerDesde(String tabla, String columnas, long token, int limite,
+                                         MapeadorFila<T> mapeador, MetricasOperacion operacion,
+                                         String mensajeError) {
+        if (token < 0) throw new IllegalArgumentException("token no puede ser negativo.");
+        if (limite <= 0) throw new IllegalArgumentException("limite debe ser mayor que 0.");
+
+        String sql = "SELECT x.id_fila, x.version, f.operacion AS primera_operacion, " + columnas
+                + " FROM (SELECT id_fila, MIN(id) AS primera, MAX(secuencia) AS version FROM cambios"
+                + " WHERE tabla = ? AND secuencia > ? GROUP BY id_fila LIMIT ?) x"
+                + " JOIN cambios f ON f.id = x.primera"
+                + " LEFT JOIN " + tabla + " t ON t.id = x.id_fila"
+                + " ORDER BY x.id_fila";
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar()) {
+
+            sellar(con, false);
+
+            // Si el registro se purgó más allá del token, los cambios intermedios ya no se pueden reconstruir
+            try (PreparedStatement ps = con.prepareStatement("SELECT purgada FROM cambios_secuencia WHERE id = 1");
+                 ResultSet rs = ps.executeQuery()) {
+                if (rs.next() && rs.getLong(1) > token) {
+                    operacion.registrar(inicio, 0);
+                    return CambiosDesde.incompleto(token);
+                }
+            }
+
+            List<T> insertadas = new ArrayList<>();
+            List<T> actualizadas = new ArrayList<>();
+            List<Integer> eliminadas = new ArrayList<>();
+            long nuevoToken = token;
+            int filas = 0;
+
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                ps.setString(1, tabla);
+                ps.setLong(2, token);
+                ps.setInt(3, limite + 1);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        if (++filas > limite) {
+                            // Con tantos cambios, releer la tabla sale más barato que aplicarlos uno a uno
+                            operacion.registrar(inicio, filas);
+                            return CambiosDesde.incompleto(token);
+                        }
+                        nuevoToken = Math.max(nuevoToken, rs.getLong("version"));
+                        boolean nueva = "I".equals(rs.getString("primera_operacion"));
+                        rs.getObject("id");
+                        boolean existe = !rs.wasNull();
+
+                        if (!existe) {
+                            if (!nueva) eliminadas.add(rs.getInt("id_fila"));
+                            continue; // creada y eliminada dentro del intervalo: no hay nada que aplicar
+                        }
+                        T fila = mapeador.mapear(rs);
+                        if (fila == null) continue;
+                        (nueva ? insertadas : actualizadas).add(fila);
+                    }
+                }
+            }
+            operacion.registrar(inicio, filas);
+            return new CambiosDesde<>(token, nuevoToken, insertadas, actualizadas, eliminadas);
+
+        } catch (SQLException e) {
+            operacion.registrarError(inicio);
+            System.err.println(mensajeError + e.getMessage());
+            return CambiosDesde.sinCambios(token);
+        }
+    }
+
+    /**
+     * Asigna secuencia a los cambios ya confirmados que aún no la tienen, en orden de {@code id}.
+     * <p>
+     * Los cambios de transacciones abiertas están bloqueados por quien los insertó y se saltan
+     * ({@code SKIP LOCKED}): se sellan en una llamada posterior, con una secuencia mayor que todas las
+     * visibles hasta entonces. Cada lote se confirma con la última secuencia asignada. Se usa
+     * {@code READ COMMITTED} para no tomar bloqueos de rango que frenen a quienes insertan cambios.
+     * </p>
+     *
+     * @param esperar si otro cliente está sellando, true lo espera y sella lo que quede; false no hace nada.
+     */
+    private static void sellar(Connection con, boolean esperar) throws SQLException {
+        try (PreparedStatement pendiente = con.prepareStatement("SELECT 1 FROM cambios WHERE secuencia IS NULL LIMIT 1");
+             ResultSet rs = pendiente.executeQuery()) {
+            if (!rs.next()) return;
+        }
+
+        int aislamiento = con.getTransactionIsolation();
+        con.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        con.setAutoCommit(false);
+        try (PreparedStatement contador = con.prepareStatement(
+                     "SELECT ultima FROM cambios_secuencia WHERE id = 1 FOR UPDATE" + (esperar ? "" : " SKIP LOCKED"));
+             PreparedStatement confirmados = con.prepareStatement(
+                     "SELECT id FROM cambios WHERE secuencia IS NULL ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED");
+             PreparedStatement asignar = con.prepareStatement("UPDATE cambios SET secuencia = ? WHERE id = ?");
+             PreparedStatement avanzar = con.prepareStatement("UPDATE cambios_secuencia SET ultima = ? WHERE id = 1")) {
+
+            confirmados.setInt(1, SELLADO_POR_LOTE);
+            int sellados;
+            do {
+                long ultima;
+                try (ResultSet rs = contador.executeQuery()) {
+                    if (!rs.next()) { // otro cliente está sellando
+                        con.rollback();
+                        return;
+                    }
+                    ultima = rs.getLong(1);
+                }
+                sellados = 0;
+                try (ResultSet rs = confirmados.executeQuery()) {
+                    while (rs.next()) {
+                        asignar.setLong(1, ++ultima);
+                        asignar.setLong(2, rs.getLong(1));
+                        asignar.addBatch();
+                        sellados++;
+                    }
+                }
+                if (sellados > 0) {
+                    asignar.executeBatch();
+                    avanzar.setLong(1, ultima);
+                    avanzar.executeUpdate();
+                }
+                con.commit();
+            } while (sellados == SELLADO_POR_LOTE);
+        } catch (SQLException e) {
+            con.rollback(); // que setAutoCommit(true) no confirme un lote a medias
+            throw e;
+        } finally {
+            con.setAutoCommit(true);
+            con.setTransactionIsolation(aislamiento);
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.dao;
 
+import com.metricas.Metricas;
+import com.metricas.MetricasOperacion;
 import com.model.Repartidor;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Clase Data Access Object (DAO) para la entidad Repartidor.
@@ -14,24 +18,61 @@ import java.util.List;
  */
 public class RepartidorDAO {
 
+    private static final String SQL_SELECT = "SELECT id, nombre FROM repartidores";
+
+    // Métricas por operación (ver com.metricas.Metricas)
+    private static final MetricasOperacion OP_CREATE = Metricas.operacion("RepartidorDAO.create");
+    private static final MetricasOperacion OP_READ_ALL = Metricas.operacion("RepartidorDAO.readAll");
+    private static final MetricasOperacion OP_READ_BY_ID = Metricas.operacion("RepartidorDAO.readById");
+    private static final MetricasOperacion OP_READ_EACH = Metricas.operacion("RepartidorDAO.readEach");
+    private static final MetricasOperacion OP_READ_PAGE = Metricas.operacion("RepartidorDAO.readPage");
+    private static final MetricasOperacion OP_COUNT = Metricas.operacion("RepartidorDAO.count");
+    private static final MetricasOperacion OP_READ_OFFSET = Metricas.operacion("RepartidorDAO.readOffset");
+    private static final MetricasOperacion OP_READ_CHANGE_TOKEN = Metricas.operacion("RepartidorDAO.readChangeToken");
+    private static final MetricasOperacion OP_READ_CHANGES = Metricas.operacion("RepartidorDAO.readChangesSince");
+    private static final MetricasOperacion OP_UPDATE = Metricas.operacion("RepartidorDAO.update");
+    private static final MetricasOperacion OP_DELETE = Metricas.operacion("RepartidorDAO.delete");
+
     /**
      * Crea (Registra) un nuevo repartidor en la base de datos.
      * * @param repartidor Objeto Repartidor con los datos a guardar.
      * @return true si se guardó exitosamente, false en caso contrario.
      */
     public boolean create(Repartidor repartidor) {
+        return createAndGetId(repartidor) > 0;
+    }
+
+    /**
+     * Crea un nuevo repartidor y recupera el ID autoincremental asignado por la base de datos.
+     * El ID generado también se asigna al objeto recibido.
+     * @param repartidor Objeto Repartidor con los datos a guardar.
+     * @return ID generado, o -1 si no se pudo guardar.
+     */
+    public int createAndGetId(Repartidor repartidor) {
         String sql = "INSERT INTO repartidores (nombre) VALUES (?)";
 
+        long inicio = System.nanoTime();
         try (Connection con = ConexionDB.conectar();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             ps.setString(1, repartidor.getNombre());
-            int filasAfectadas = ps.executeUpdate();
-            return filasAfectadas > 0;
+            ps.executeUpdate();
+
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next()) {
+                    int id = rs.getInt(1);
+                    repartidor.setId(id);
+                    OP_CREATE.registrar(inicio, 1);
+                    return id;
+                }
+            }
+            OP_CREATE.registrar(inicio, 0);
+            return -1;
 
         } catch (SQLException e) {
+            OP_CREATE.registrarError(inicio);
             System.err.println("Error al registrar repartidor: " + e.getMessage());
-            return false;
+            return -1;
         }
     }
 
@@ -41,25 +82,193 @@ public class RepartidorDAO {
      */
     public List<Repartidor> readAll() {
         List<Repartidor> lista = new ArrayList<>();
-        String sql = "SELECT id, nombre FROM repartidores";
 
+        long inicio = System.nanoTime();
         try (Connection con = ConexionDB.conectar();
-             PreparedStatement ps = con.prepareStatement(sql);
+             PreparedStatement ps = con.prepareStatement(SQL_SELECT);
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
-                int id = rs.getInt("id");
-                String nombre = rs.getString("nombre");
-                // Usamos el nuevo constructor que armamos para la vista
-                lista.add(new Repartidor(id, nombre));
+                lista.add(mapearRepartidor(rs));
             }
+            OP_READ_ALL.registrar(inicio, lista.size());
 
         } catch (SQLException e) {
+            OP_READ_ALL.registrarError(inicio);
             System.err.println("Error al listar repartidores: " + e.getMessage());
         }
         return lista;
     }
 
+    /**
+     * Lee un repartidor según su ID.
+     * * @param id Identificador del repartidor.
+     * @return Repartidor encontrado, o null si no existe.
+     */
+    public Repartidor readById(int id) {
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = con.prepareStatement(SQL_SELECT + " WHERE id = ?")) {
+
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    Repartidor repartidor = mapearRepartidor(rs);
+                    OP_READ_BY_ID.registrar(inicio, 1);
+                    return repartidor;
+                }
+            }
+            OP_READ_BY_ID.registrar(inicio, 0);
+
+        } catch (SQLException e) {
+            OP_READ_BY_ID.registrarError(inicio);
+            System.err.println("Error al buscar repartidor: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Recorre todos los repartidores en modo streaming, entregándolos uno a uno al consumidor.
+     * * @param consumidor Acción a ejecutar por cada repartidor, en orden de ID.
+     * @return Cantidad de repartidores recorridos.
+     */
+    public int readEach(Consumer<? super Repartidor> consumidor) {
+        int total = 0;
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = ConexionDB.prepararLecturaStreaming(con, SQL_SELECT + " ORDER BY id");
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                consumidor.accept(mapearRepartidor(rs));
+                total++;
+            }
+            OP_READ_EACH.registrar(inicio, total);
+
+        } catch (SQLException e) {
+            OP_READ_EACH.registrarError(inicio);
+            System.err.println("Error al recorrer repartidores: " + e.getMessage());
+        }
+        return total;
+    }
+
+    /**
+     * Lee una página de repartidores usando paginación por clave (keyset).
+     * * @param despuesDeId ID del último repartidor de la página anterior (0 para la primera página).
+     * @param limite Cantidad máxima de repartidores a retornar (mayor que 0).
+     * @return Lista de repartidores ordenados por ID; vacía si no hay más páginas.
+     */
+    public List<Repartidor> readPage(int despuesDeId, int limite) {
+        if (limite <= 0) throw new IllegalArgumentException("limite debe ser mayor que 0.");
+        List<Repartidor> lista = new ArrayList<>(Math.min(limite, 1024));
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = con.prepareStatement(SQL_SELECT + " WHERE id > ? ORDER BY id LIMIT ?")) {
+
+            ps.setInt(1, despuesDeId);
+            ps.setInt(2, limite);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(mapearRepartidor(rs));
+                }
+            }
+            OP_READ_PAGE.registrar(inicio, lista.size());
+
+        } catch (SQLException e) {
+            OP_READ_PAGE.registrarError(inicio);
+            System.err.println("Error al leer página de repartidores: " + e.getMessage());
+        }
+        return lista;
+    }
+
+    /**
+     * Cuenta los repartidores registrados en la base de datos.
+     * * @return Cantidad de filas de la tabla repartidores, o 0 si ocurre un error.
+     */
+    public int count() {
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = con.prepareStatement("SELECT COUNT(*) FROM repartidores");
+             ResultSet rs = ps.executeQuery()) {
+
+            int total = rs.next() ? rs.getInt(1) : 0;
+            OP_COUNT.registrar(inicio, 1);
+            return total;
+
+        } catch (SQLException e) {
+            OP_COUNT.registrarError(inicio);
+            System.err.println("Error al contar repartidores: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Lee repartidores por posición (OFFSET), ordenados por ID.
+     * <p>
+     * Se usa solo para saltar a una posición arbitraria; para recorrer páginas consecutivas
+     * prefiera {@link #readPage(int, int)}, cuyo costo no crece con la posición.
+     * </p>
+     * * @param desde Posición (base 0) de la primera fila a retornar.
+     * @param limite Cantidad máxima de filas a retornar (mayor que 0).
+     * @return Lista ordenada por ID.
+     */
+    public List<Repartidor> readOffset(int desde, int limite) {
+        if (desde < 0) throw new IllegalArgumentException("desde no puede ser negativo.");
+        if (limite <= 0) throw new IllegalArgumentException("limite debe ser mayor que 0.");
+        List<Repartidor> lista = new ArrayList<>(Math.min(limite, 1024));
+
+        long inicio = System.nanoTime();
+        try (Connection con = ConexionDB.conectar();
+             PreparedStatement ps = con.prepareStatement(SQL_SELECT + " ORDER BY id LIMIT ? OFFSET ?")) {
+
+            ps.setInt(1, limite);
+            ps.setInt(2, desde);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lista.add(mapearRepartidor(rs));
+                }
+            }
+            OP_READ_OFFSET.registrar(inicio, lista.size());
+
+        } catch (SQLException e) {
+            OP_READ_OFFSET.registrarError(inicio);
+            System.err.println("Error al leer repartidores por posición: " + e.getMessage());
+        }
+        return lista;
+    }
+
+    /**
+     * Lee el token de cambios actual, para luego pedir solo lo modificado con {@link #readChangesSince(long)}.
+     * * @return Token actual, o -1 si ocurre un error.
+     */
+    public long readChangeToken() {
+        return RegistroCambios.leerToken(OP_READ_CHANGE_TOKEN, "Error al leer el token de cambios de repartidores: ");
+    }
+
+    /**
+     * Lee los repartidores insertados, actualizados o eliminados después de un token,
+     * hasta {@link CambiosDesde#LIMITE_POR_DEFECTO} filas modificadas.
+     * * @param token Token de la última lectura.
+     * @return Cambios agrupados por repartidor.
+     */
+    public CambiosDesde<Repartidor> readChangesSince(long token) {
+        return readChangesSince(token, CambiosDesde.LIMITE_POR_DEFECTO);
+    }
+
+    /**
+     * Lee los repartidores insertados, actualizados o eliminados después de un token.
+     * El costo es proporcional a los repartidores modificados y no al tamaño de la tabla.
+     * * @param token Token de la última lectura (de {@link #readChangeToken()} o de un resultado anterior).
+     * @param limite Cantidad máxima de repartidores modificados a leer (mayor que 0).
+     * @return Cambios agrupados por repartidor; sin cambios si ocurre un error.
+     */
+    public CambiosDesde<Repartidor> readChangesSince(long token, int limite) {
+        return RegistroCambios.leerDesde("repartidores", "t.id, t.nombre", token, limite,
+                this::mapearRepartidor, OP_READ_CHANGES, "Error al leer cambios de repartidores: ");
+    }
+
     /**
      * Actualiza (Edita) los datos de un repartidor existente.
      * * @param repartidor Objeto Repartidor con los datos actualizados y su ID original.
@@ -68,6 +277,7 @@ public class RepartidorDAO {
     public boolean update(Repartidor repartidor) {
         String sql = "UPDATE repartidores SET nombre = ? WHERE id = ?";
 
+        long inicio = System.nanoTime();
         try (Connection con = ConexionDB.conectar();
              PreparedStatement ps = con.prepareStatement(sql)) {
 
@@ -75,9 +285,11 @@ public class RepartidorDAO {
             ps.setInt(2, repartidor.getId());
 
             int filasAfectadas = ps.executeUpdate();
+            OP_UPDATE.registrar(inicio, filasAfectadas);
             return filasAfectadas > 0;
 
         } catch (SQLException e) {
+            OP_UPDATE.registrarError(inicio);
             System.err.println("Error al actualizar repartidor: " + e.getMessage());
             return false;
         }
@@ -91,16 +303,26 @@ public class RepartidorDAO {
     public boolean delete(int id) {
         String sql = "DELETE FROM repartidores WHERE id = ?";
 
+        long inicio = System.nanoTime();
         try (Connection con = ConexionDB.conectar();
              PreparedStatement ps = con.prepareStatement(sql)) {
 
             ps.setInt(1, id);
             int filasAfectadas = ps.executeUpdate();
+            OP_DELETE.registrar(inicio, filasAfectadas);
             return filasAfectadas > 0;
 
         } catch (SQLException e) {
+            OP_DELETE.registrarError(inicio);
             System.err.println("Error al eliminar repartidor: " + e.getMessage());
             return false;
         }
     }
+
+    private Repartidor mapearRepartidor(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        String nombre = rs.getString("nombre");
+        // Usamos el nuevo constructor que armamos para la vista
+        return new Repartidor(id, nombre);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,229 @@
+package com.dao;
+
+import com.metricas.MetricasOperacion;
+import com.model.Repartidor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché de lectura (read-through) delante de {@link RepartidorDAO}.
+ * <p>
+ * La lista de repartidores cambia muy poco, pero las ventanas la consultan en cada refresco.
+ * Esta clase mantiene en memoria una instantánea de la lista completa y un mapa por ID,
+ * ambos con tiempo de vida (TTL) acotado. Las escrituras ({@code create}, {@code update},
+ * {@code delete}) se envían directo a la base de datos e invalidan la caché.
+ * </p>
+ *
+ * <h2>Uso</h2>
+ * <p>
+ * Extiende {@link RepartidorDAO}, por lo que puede usarse en su lugar sin cambiar a los llamadores.
+ * La instancia compartida se obtiene con {@link #getInstancia()}, de modo que una escritura
+ * hecha desde una ventana invalida la caché que ven las demás.
+ * </p>
+ * <p>
+ * {@link Repartidor} es modificable, así que cada lectura entrega copias: lo que un llamador cambie
+ * no altera lo que ven los demás. Una lectura que falla (la base de datos no respondió) no se guarda,
+ * para no ocultar a los repartidores durante todo el TTL.
+ * </p>
+ */
+public class RepartidorDAOCache extends RepartidorDAO {
+
+    private static final int MAXIMO_ENTRADAS_POR_DEFECTO = 1000;
+    private static final long TTL_POR_DEFECTO_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final RepartidorDAOCache INSTANCIA =
+            new RepartidorDAOCache(MAXIMO_ENTRADAS_POR_DEFECTO, TTL_POR_DEFECTO_MS);
+
+    private final int maximoEntradas;
+    private final long ttlMs;
+
+    /** Repartidores por ID, en orden de acceso (LRU). Protegido por {@code this}. */
+    private final LinkedHashMap<Integer, Entrada<Repartidor>> porId;
+
+    /** Instantánea inmodificable de la lista completa, o null si no está cargada. */
+    private volatile Entrada<List<Repartidor>> lista;
+
+    /** Se incrementa en cada invalidación para descartar cargas que empezaron antes de ella. */
+    private volatile long version;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    /**
+     * Crea una caché con límites propios.
+     *
+     * @param maximoEntradas cantidad máxima de repartidores guardados por ID (mayor que 0).
+     * @param ttlMs          tiempo de vida de cada entrada, en milisegundos (mayor que 0).
+     * @throws IllegalArgumentException si algún parámetro no cumple validación.
+     */
+    public RepartidorDAOCache(int maximoEntradas, long ttlMs) {
+        if (maximoEntradas <= 0) throw new IllegalArgumentException("maximoEntradas debe ser mayor que 0.");
+        if (ttlMs <= 0) throw new IllegalArgumentException("ttlMs debe ser mayor que 0.");
+        this.maximoEntradas = maximoEntradas;
+        this.ttlMs = ttlMs;
+        this.porId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entrada<Repartidor>> eldest) {
+                return size() > RepartidorDAOCache.this.maximoEntradas;
+            }
+        };
+    }
+
+    /**
+     * @return caché compartida por toda la aplicación.
+     */
+    public static RepartidorDAOCache getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Retorna la lista completa de repartidores desde la caché, leyéndola de la base de datos
+     * solo si no está cargada o expiró.
+     *
+     * @return lista inmodificable con copias de los repartidores.
+     */
+    @Override
+    public List<Repartidor> readAll() {
+        Entrada<List<Repartidor>> actual = lista;
+        if (actual != null && !actual.expirada()) {
+            aciertos.increment();
+            return copiar(actual.valor);
+        }
+        fallos.increment();
+
+        long versionInicial = version;
+        long erroresAntes = MetricasOperacion.getErroresDelHilo();
+        List<Repartidor> leidos = Collections.unmodifiableList(new ArrayList<>(super.readAll()));
+        if (MetricasOperacion.getErroresDelHilo() != erroresAntes) return leidos; // lista vacía por error: no se guarda
+        synchronized (this) {
+            if (versionInicial == version) {
+                lista = new Entrada<>(leidos, System.currentTimeMillis() + ttlMs);
+                for (Repartidor r : leidos) {
+                    porId.put(r.getId(), new Entrada<>(r, System.currentTimeMillis() + ttlMs));
+                }
+            }
+        }
+        return copiar(leidos);
+    }
+
+    /**
+     * Busca un repartidor por ID en la caché, consultando la base de datos solo ante un fallo.
+     *
+     * @param id identificador del repartidor.
+     * @return copia del repartidor encontrado, o null si no existe.
+     */
+    @Override
+    public Repartidor readById(int id) {
+        synchronized (this) {
+            Entrada<Repartidor> entrada = porId.get(id);
+            if (entrada != null) {
+                if (!entrada.expirada()) {
+                    aciertos.increment();
+                    return copiar(entrada.valor);
+                }
+                porId.remove(id);
+            }
+        }
+        fallos.increment();
+
+        long versionInicial = version;
+        Repartidor leido = super.readById(id);
+        if (leido != null) {
+            synchronized (this) {
+                if (versionInicial == version) {
+                    porId.put(id, new Entrada<>(leido, System.currentTimeMillis() + ttlMs));
+                }
+            }
+        }
+        return copiar(leido);
+    }
+
+    @Override
+    public boolean create(Repartidor repartidor) {
+        boolean ok = super.create(repartidor);
+        if (ok) invalidar();
+        return ok;
+    }
+
+    @Override
+    public boolean update(Repartidor repartidor) {
+        boolean ok = super.update(repartidor);
+        if (ok) invalidar();
+        return ok;
+    }
+
+    @Override
+    public boolean delete(int id) {
+        boolean ok = super.delete(id);
+        if (ok) invalidar();
+        return ok;
+    }
+
+    /**
+     * Lee los cambios desde la base de datos e invalida la caché si hubo alguno (por ejemplo, de otro cliente).
+     *
+     * @param token  token de la última lectura.
+     * @param limite cantidad máxima de repartidores modificados a leer.
+     * @return cambios agrupados por repartidor.
+     */
+    @Override
+    public CambiosDesde<Repartidor> readChangesSince(long token, int limite) {
+        CambiosDesde<Repartidor> cambios = super.readChangesSince(token, limite);
+        if (!cambios.isCompleto() || !cambios.isVacio()) invalidar();
+        return cambios;
+    }
+
+    /**
+     * Descarta todo el contenido de la caché. La próxima lectura irá a la base de datos.
+     */
+    public synchronized void invalidar() {
+        version++;
+        lista = null;
+        porId.clear();
+    }
+
+    private static Repartidor copiar(Repartidor repartidor) {
+        return repartidor == null ? null : new Repartidor(repartidor.getId(), repartidor.getNombre());
+    }
+
+    private static List<Repartidor> copiar(List<Repartidor> repartidores) {
+        List<Repartidor> copias = new ArrayList<>(repartidores.size());
+        for (Repartidor r : repartidores) copias.add(copiar(r));
+        return Collections.unmodifiableList(copias);
+    }
+
+    /** @return cantidad de lecturas resueltas desde memoria. */
+    public long getAciertos() { return aciertos.sum(); }
+
+    /** @return cantidad de lecturas que tuvieron que ir a la base de datos. */
+    public long getFallos() { return fallos.sum(); }
+
+    /** @return proporción de aciertos entre 0 y 1 (0 si aún no hay lecturas). */
+    public double getTasaAciertos() {
+        long a = aciertos.sum();
+        long total = a + fallos.sum();
+        return total == 0 ? 0.0 : (double) a / total;
+    }
+
+    /**
+     * Valor en caché junto con su instante de expiración.
+     */
+    private static final class Entrada<T> {
+        private final T valor;
+        private final long expiraEn;
+
+        private Entrada(T valor, long expiraEn) {
+            this.valor = valor;
+            this.expiraEn = expiraEn;
+        }
+
+        private boolean expirada() {
+            return System.currentTimeMillis() >= expiraEn;
+        }
+    }
+}
@@ -0,0 +1,469 @@
+package com.dao;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.metricas.MetricasOperacion;
+import com.model.Entrega;
+import com.model.EstadoPedido;
+import com.model.Pedido;
+import com.model.Repartidor;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exportación e importación de pedidos, repartidores y entregas en formato binario Protocol Buffers.
+ * <p>
+ * El respaldo es una secuencia de mensajes {@code Registro} delimitados por su largo, según el
+ * esquema {@code src/main/proto/respaldo.proto}. Los mensajes se codifican directamente con
+ * {@link CodedOutputStream} y {@link CodedInputStream}, sin clases generadas.
+ * </p>
+ *
+ * <h2>Memoria constante</h2>
+ * <ul>
+ *   <li>La exportación recorre cada tabla con {@code readEach} (streaming) y escribe cada fila
+ *       apenas llega, sin materializar la tabla.</li>
+ *   <li>La importación lee registro a registro y los inserta con {@code createAll} en lotes de
+ *       {@link #TAMANO_LOTE} filas. Solo conserva la correspondencia entre IDs de origen y los
+ *       asignados en destino (8 bytes por pedido), necesaria para enlazar las entregas.</li>
+ * </ul>
+ * <p>
+ * Los IDs no se conservan: la base de destino asigna los suyos y las entregas se remapean.
+ * Las entregas cuyo pedido o repartidor no se pudo importar se omiten.
+ * </p>
+ */
+public class RespaldoProtobuf {
+
+    /** Versión del formato escrita en la cabecera. */
+    public static final int VERSION = 1;
+
+    /** Filas por lote al importar. */
+    public static final int TAMANO_LOTE = 1000;
+
+    // Campos de Registro (oneof contenido)
+    private static final int REGISTRO_CABECERA = 1;
+    private static final int REGISTRO_REPARTIDOR = 2;
+    private static final int REGISTRO_PEDIDO = 3;
+    private static final int REGISTRO_ENTREGA = 4;
+
+    private static final int BUFFER = 64 * 1024;
+
+    private static final Pedido.TipoPedido[] TIPOS = Pedido.TipoPedido.values();
+    private static final EstadoPedido[] ESTADOS = EstadoPedido.values();
+
+    private final PedidoDAO pedidoDAO;
+    private final RepartidorDAO repartidorDAO;
+    private final EntregaDAO entregaDAO;
+
+    public RespaldoProtobuf() {
+        this(new PedidoDAO(), new RepartidorDAO(), new EntregaDAO());
+    }
+
+    public RespaldoProtobuf(PedidoDAO pedidoDAO, RepartidorDAO repartidorDAO, EntregaDAO entregaDAO) {
+        if (pedidoDAO == null || repartidorDAO == null || entregaDAO == null) {
+            throw new IllegalArgumentException("Los DAO no pueden ser nulos.");
+        }
+        this.pedidoDAO = pedidoDAO;
+        this.repartidorDAO = repartidorDAO;
+        this.entregaDAO = entregaDAO;
+    }
+
+    /**
+     * Escribe un respaldo completo: cabecera, repartidores, pedidos y entregas.
+     * El flujo no se cierra.
+     *
+     * @param salida flujo de destino (conviene que no tenga buffer propio; se usa uno interno).
+     * @return cantidades exportadas.
+     * @throws IOException si falla la escritura o la lectura de alguna tabla (el respaldo quedaría incompleto).
+     */
+    public Resumen exportar(OutputStream salida) throws IOException {
+        CodedOutputStream out = CodedOutputStream.newInstance(salida, BUFFER);
+        Resumen resumen = new Resumen();
+        escribirCabecera(out, System.currentTimeMillis());
+        try {
+            // readEach informa sus errores de SQL por consola y retorna lo recorrido: se detectan por el contador del hilo
+            long errores = MetricasOperacion.getErroresDelHilo();
+            resumen.repartidores = repartidorDAO.readEach(r -> escribir(() -> escribirRepartidor(out, r)));
+            verificarLectura(errores, "todos los repartidores");
+            resumen.pedidos = pedidoDAO.readEach(p -> escribir(() -> escribirPedido(out, p)));
+            verificarLectura(errores, "todos los pedidos");
+            resumen.entregas = entregaDAO.readEach(e -> escribir(() -> escribirEntrega(out, e)));
+            verificarLectura(errores, "todas las entregas");
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+        return resumen;
+    }
+
+    private static void verificarLectura(long erroresAntes, String lectura) throws IOException {
+        if (MetricasOperacion.getErroresDelHilo() != erroresAntes) {
+            throw new IOException("No se pudieron leer " + lectura + "; el respaldo quedó incompleto.");
+        }
+    }
+
+    /**
+     * Lee un respaldo e inserta su contenido con los inserts por lote de los DAO.
+     * El flujo no se cierra.
+     *
+     * @param entrada flujo de origen.
+     * @return cantidades importadas y omitidas.
+     * @throws IOException si el flujo no se puede leer o no es un respaldo válido.
+     */
+    public Resumen importar(InputStream entrada) throws IOException {
+        CodedInputStream in = CodedInputStream.newInstance(entrada, BUFFER);
+        Importacion importacion = new Importacion();
+
+        boolean cabecera = false;
+        while (!in.isAtEnd()) {
+            // El contador de bytes del CodedInputStream es por registro: respaldos de más de 2 GB son válidos
+            in.resetSizeCounter();
+            int limite = in.pushLimit(in.readRawVarint32());
+            int tag = in.readTag();
+            int campo = WireFormat.getTagFieldNumber(tag);
+            if (!cabecera && campo != REGISTRO_CABECERA) {
+                throw new IOException("El flujo no comienza con la cabecera de un respaldo.");
+            }
+            if (WireFormat.getTagWireType(tag) != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                throw new IOException("Registro mal formado (tag " + tag + ").");
+            }
+
+            int limiteMensaje = in.pushLimit(in.readRawVarint32());
+            switch (campo) {
+                case REGISTRO_CABECERA:
+                    leerCabecera(in);
+                    cabecera = true;
+                    break;
+                case REGISTRO_REPARTIDOR:
+                    importacion.repartidor(leerRepartidor(in));
+                    break;
+                case REGISTRO_PEDIDO:
+                    importacion.pedido(leerPedido(in));
+                    break;
+                case REGISTRO_ENTREGA:
+                    importacion.entrega(leerEntrega(in));
+                    break;
+                default:
+                    // Tipo de registro de una versión posterior: se ignora
+                    break;
+            }
+            in.skipRawBytes(in.getBytesUntilLimit());
+            in.popLimit(limiteMensaje);
+            in.skipRawBytes(in.getBytesUntilLimit());
+            in.popLimit(limite);
+        }
+        importacion.terminar();
+        return importacion.resumen;
+    }
+
+    // --- Escritura ---
+
+    /** Escritura de un registro; las excepciones de E/S se propagan como {@link UncheckedIOException} desde los consumidores. */
+    @FunctionalInterface
+    private interface Escritura {
+        void escribir() throws IOException;
+    }
+
+    private static void escribir(Escritura escritura) {
+        try {
+            escritura.escribir();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Escribe el largo del Registro y el encabezado del campo {@code contenido}, dado el tamaño del mensaje interno. */
+    private static void abrirRegistro(CodedOutputStream out, int campo, int tamanoMensaje) throws IOException {
+        int tamanoRegistro = CodedOutputStream.computeTagSize(campo)
+                + CodedOutputStream.computeUInt32SizeNoTag(tamanoMensaje) + tamanoMensaje;
+        out.writeUInt32NoTag(tamanoRegistro);
+        out.writeTag(campo, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        out.writeUInt32NoTag(tamanoMensaje);
+    }
+
+    private static void escribirCabecera(CodedOutputStream out, long creadoEnMs) throws IOException {
+        int tamano = CodedOutputStream.computeUInt32Size(1, VERSION) + CodedOutputStream.computeInt64Size(2, creadoEnMs);
+        abrirRegistro(out, REGISTRO_CABECERA, tamano);
+        out.writeUInt32(1, VERSION);
+        out.writeInt64(2, creadoEnMs);
+    }
+
+    private static void escribirRepartidor(CodedOutputStream out, Repartidor r) throws IOException {
+        String nombre = r.getNombre();
+        int tamano = tamanoInt32(1, r.getId()) + tamanoString(2, nombre);
+        abrirRegistro(out, REGISTRO_REPARTIDOR, tamano);
+        escribirInt32(out, 1, r.getId());
+        escribirString(out, 2, nombre);
+    }
+
+    private static void escribirPedido(CodedOutputStream out, Pedido p) throws IOException {
+        // Los enum del esquema reservan el 0 para "desconocido": se escribe el ordinal + 1
+        int tipo = p.getTipoPedido().ordinal() + 1;
+        int estado = p.getEstado().ordinal() + 1;
+        String direccion = p.getDireccionEntrega();
+        int tamano = tamanoInt32(1, p.getIdPedido()) + tamanoString(2, direccion)
+                + CodedOutputStream.computeEnumSize(3, tipo) + CodedOutputStream.computeEnumSize(4, estado);
+        abrirRegistro(out, REGISTRO_PEDIDO, tamano);
+        escribirInt32(out, 1, p.getIdPedido());
+        escribirString(out, 2, direccion);
+        out.writeEnum(3, tipo);
+        out.writeEnum(4, estado);
+    }
+
+    private static void escribirEntrega(CodedOutputStream out, Entrega e) throws IOException {
+        Date fecha = e.getFecha();
+        Time hora = e.getHora();
+        int dias = fecha == null ? 0 : (int) fecha.toLocalDate().toEpochDay();
+        int segundos = hora == null ? 0 : hora.toLocalTime().toSecondOfDay();
+        int tamano = tamanoInt32(1, e.getId()) + tamanoInt32(2, e.getIdPedido()) + tamanoInt32(3, e.getIdRepartidor())
+                + (fecha == null ? 0 : CodedOutputStream.computeInt32Size(4, dias))
+                + (hora == null ? 0 : CodedOutputStream.computeInt32Size(5, segundos));
+        abrirRegistro(out, REGISTRO_ENTREGA, tamano);
+        escribirInt32(out, 1, e.getId());
+        escribirInt32(out, 2, e.getIdPedido());
+        escribirInt32(out, 3, e.getIdRepartidor());
+        // Campos optional: se escriben si existen, aunque valgan 0
+        if (fecha != null) out.writeInt32(4, dias);
+        if (hora != null) out.writeInt32(5, segundos);
+    }
+
+    // proto3 omite los campos con su valor por defecto (0 o texto vacío)
+
+    private static int tamanoInt32(int campo, int valor) {
+        return valor == 0 ? 0 : CodedOutputStream.computeInt32Size(campo, valor);
+    }
+
+    private static int tamanoString(int campo, String valor) {
+        return valor == null || valor.isEmpty() ? 0 : CodedOutputStream.computeStringSize(campo, valor);
+    }
+
+    private static void escribirInt32(CodedOutputStream out, int campo, int valor) throws IOException {
+        if (valor != 0) out.writeInt32(campo, valor);
+    }
+
+    private static void escribirString(CodedOutputStream out, int campo, String valor) throws IOException {
+        if (valor != null && !valor.isEmpty()) out.writeString(campo, valor);
+    }
+
+    // --- Lectura ---
+
+    private static void leerCabecera(CodedInputStream in) throws IOException {
+        int version = 0;
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            if (WireFormat.getTagFieldNumber(tag) == 1) {
+                version = in.readUInt32();
+            } else {
+                in.skipField(tag);
+            }
+        }
+        if (version > VERSION) {
+            throw new IOException("Versión de respaldo no soportada: " + version + ".");
+        }
+    }
+
+    private static Repartidor leerRepartidor(CodedInputStream in) throws IOException {
+        int id = 0;
+        String nombre = "";
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1: id = in.readInt32(); break;
+                case 2: nombre = in.readStringRequireUtf8(); break;
+                default: in.skipField(tag); break;
+            }
+        }
+        return new Repartidor(id, nombre);
+    }
+
+    /** @return pedido leído, o null si su tipo, estado o dirección no son válidos. */
+    private static Pedido leerPedido(CodedInputStream in) throws IOException {
+        int id = 0;
+        String direccion = "";
+        int tipo = 0;
+        int estado = 0;
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1: id = in.readInt32(); break;
+                case 2: direccion = in.readStringRequireUtf8(); break;
+                case 3: tipo = in.readEnum(); break;
+                case 4: estado = in.readEnum(); break;
+                default: in.skipField(tag); break;
+            }
+        }
+        if (id <= 0 || direccion.trim().isEmpty() || tipo < 1 || tipo > TIPOS.length || estado < 1 || estado > ESTADOS.length) {
+            return null;
+        }
+        return PedidoDAO.construir(id, direccion, TIPOS[tipo - 1], ESTADOS[estado - 1]);
+    }
+
+    private static Entrega leerEntrega(CodedInputStream in) throws IOException {
+        int id = 0;
+        int idPedido = 0;
+        int idRepartidor = 0;
+        Date fecha = null;
+        Time hora = null;
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1: id = in.readInt32(); break;
+                case 2: idPedido = in.readInt32(); break;
+                case 3: idRepartidor = in.readInt32(); break;
+                case 4: fecha = Date.valueOf(LocalDate.ofEpochDay(in.readInt32())); break;
+                case 5: hora = Time.valueOf(LocalTime.ofSecondOfDay(in.readInt32())); break;
+                default: in.skipField(tag); break;
+            }
+        }
+        return new Entrega(id, idPedido, idRepartidor, fecha, hora);
+    }
+
+    /**
+     * Estado de una importación en curso: lotes pendientes y correspondencia de IDs.
+     */
+    private final class Importacion {
+        private final Resumen resumen = new Resumen();
+
+        /** ID de origen → ID de destino de los repartidores importados. */
+        private final Map<Integer, Integer> repartidores = new HashMap<>();
+
+        /** IDs de origen (crecientes, como los exporta readEach) y de destino de los pedidos importados. */
+        private int[] pedidosOrigen = new int[TAMANO_LOTE];
+        private int[] pedidosDestino = new int[TAMANO_LOTE];
+        private int pedidosMapeados;
+
+        private final List<Pedido> lotePedidos = new ArrayList<>(TAMANO_LOTE);
+        private final int[] idsOrigenLote = new int[TAMANO_LOTE];
+        private final List<Entrega> loteEntregas = new ArrayList<>(TAMANO_LOTE);
+
+        private void repartidor(Repartidor r) {
+            int origen = r.getId();
+            int destino = repartidorDAO.createAndGetId(r);
+            if (destino > 0) {
+                repartidores.put(origen, destino);
+                resumen.repartidores++;
+            } else {
+                resumen.omitidos++;
+            }
+        }
+
+        private void pedido(Pedido p) {
+            if (p == null) {
+                resumen.omitidos++;
+                return;
+            }
+            if (!loteEntregas.isEmpty()) guardarEntregas();
+            idsOrigenLote[lotePedidos.size()] = p.getIdPedido();
+            lotePedidos.add(p);
+            if (lotePedidos.size() == TAMANO_LOTE) guardarPedidos();
+        }
+
+        private void entrega(Entrega e) {
+            // Las entregas necesitan los IDs de destino de todos los pedidos anteriores
+            if (!lotePedidos.isEmpty()) guardarPedidos();
+            Integer repartidor = repartidores.get(e.getIdRepartidor());
+            int pedido = idPedidoDestino(e.getIdPedido());
+            if (repartidor == null || pedido <= 0) {
+                resumen.omitidos++;
+                return;
+            }
+            e.setIdPedido(pedido);
+            e.setIdRepartidor(repartidor);
+            loteEntregas.add(e);
+            if (loteEntregas.size() == TAMANO_LOTE) guardarEntregas();
+        }
+
+        private void terminar() {
+            if (!lotePedidos.isEmpty()) guardarPedidos();
+            if (!loteEntregas.isEmpty()) guardarEntregas();
+        }
+
+        private void guardarPedidos() {
+            // createAll asigna los IDs nuevos a los objetos: se conservan antes los de origen
+            int[] destino = pedidoDAO.createAll(lotePedidos, TAMANO_LOTE);
+            for (int i = 0; i < destino.length; i++) {
+                mapearPedido(idsOrigenLote[i], destino[i]);
+            }
+            resumen.pedidos += destino.length;
+            resumen.omitidos += lotePedidos.size() - destino.length;
+            lotePedidos.clear();
+        }
+
+        private void guardarEntregas() {
+            int[] ids = entregaDAO.createAll(loteEntregas, TAMANO_LOTE);
+            resumen.entregas += ids.length;
+            resumen.omitidos += loteEntregas.size() - ids.length;
+            loteEntregas.clear();
+        }
+
+        private void mapearPedido(int origen, int destino) {
+            if (pedidosMapeados > 0 && origen <= pedidosOrigen[pedidosMapeados - 1]) {
+                // Respaldo no ordenado por ID: se mantiene el orden para la búsqueda binaria
+                int pos = -(Arrays.binarySearch(pedidosOrigen, 0, pedidosMapeados, origen) + 1);
+                if (pos < 0) return; // ID repetido en el respaldo: se conserva el primero
+                asegurarCapacidad();
+                System.arraycopy(pedidosOrigen, pos, pedidosOrigen, pos + 1, pedidosMapeados - pos);
+                System.arraycopy(pedidosDestino, pos, pedidosDestino, pos + 1, pedidosMapeados - pos);
+                pedidosOrigen[pos] = origen;
+                pedidosDestino[pos] = destino;
+            } else {
+                asegurarCapacidad();
+                pedidosOrigen[pedidosMapeados] = origen;
+                pedidosDestino[pedidosMapeados] = destino;
+            }
+            pedidosMapeados++;
+        }
+
+        private void asegurarCapacidad() {
+            if (pedidosMapeados == pedidosOrigen.length) {
+                pedidosOrigen = Arrays.copyOf(pedidosOrigen, pedidosMapeados * 2);
+                pedidosDestino = Arrays.copyOf(pedidosDestino, pedidosMapeados * 2);
+            }
+        }
+
+        /** @return ID de destino del pedido, o -1 si no fue importado. */
+        private int idPedidoDestino(int origen) {
+            int pos = Arrays.binarySearch(pedidosOrigen, 0, pedidosMapeados, origen);
+            return pos >= 0 ? pedidosDestino[pos] : -1;
+        }
+    }
+
+    /**
+     * Cantidades de filas exportadas o importadas.
+     */
+    public static final class Resumen {
+        private int repartidores;
+        private int pedidos;
+        private int entregas;
+        private int omitidos;
+
+        /** @return repartidores exportados o importados. */
+        public int getRepartidores() { return repartidores; }
+
+        /** @return pedidos exportados o importados. */
+        public int getPedidos() { return pedidos; }
+
+        /** @return entregas exportadas o importadas. */
+        public int getEntregas() { return entregas; }
+
+        /** @return registros no importados (inválidos, con referencias faltantes o rechazados por la BD). */
+        public int getOmitidos() { return omitidos; }
+
+        @Override
+        public String toString() {
+            return "Resumen{repartidores=" + repartidores + ", pedidos=" + pedidos + ", entregas=" + entregas
+                    + ", omitidos=" + omitidos + '}';
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.dao;
+
+import com.metricas.EventoSentenciaDAO;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Proxy de una sentencia JDBC que emite un {@link EventoSentenciaDAO} por cada ejecución.
+ * <p>
+ * {@link PoolConexiones} solo envuelve las sentencias mientras hay una grabación JFR con el
+ * evento habilitado; el resto del tiempo los DAO reciben la sentencia del driver sin
+ * intermediarios. En consultas, el resultado también se envuelve para contar las filas
+ * recorridas, y el evento se emite al cerrarlo.
+ * </p>
+ */
+final class SentenciaInstrumentada implements InvocationHandler {
+
+    private static final String QUERY = "QUERY";
+    private static final String UPDATE = "UPDATE";
+    private static final String BATCH = "BATCH";
+
+    private final Statement sentencia;
+    private final String sql;
+
+    /** Resultado abierto por la última consulta, que se cierra junto con la sentencia. */
+    private ResultadoInstrumentado abierto;
+
+    private SentenciaInstrumentada(Statement sentencia, String sql) {
+        this.sentencia = sentencia;
+        this.sql = sql;
+    }
+
+    /**
+     * Envuelve una sentencia recién creada por la conexión.
+     *
+     * @param sentencia sentencia del driver.
+     * @param sql       plantilla SQL (null para {@code createStatement}, que la recibe al ejecutar).
+     * @return proxy con la misma interfaz JDBC que la sentencia.
+     */
+    static Statement envolver(Statement sentencia, String sql) {
+        Class<?> interfaz = sentencia instanceof CallableStatement ? CallableStatement.class
+                : sentencia instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[]{interfaz},
+                new SentenciaInstrumentada(sentencia, sql));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String nombre = method.getName();
+        switch (nombre) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "close":
+                cerrarAbierto();
+                return invocar(method, args);
+            case "executeQuery":
+                return ejecutarConsulta(method, args);
+            case "executeUpdate":
+            case "executeLargeUpdate":
+            case "execute":
+                return ejecutarActualizacion(method, args);
+            case "executeBatch":
+            case "executeLargeBatch":
+                return ejecutarLote(method, args);
+            default:
+                return invocar(method, args);
+        }
+    }
+
+    private Object ejecutarConsulta(Method method, Object[] args) throws Throwable {
+        EventoSentenciaDAO evento = iniciarEvento();
+        ResultSet rs;
+        try {
+            rs = (ResultSet) invocar(method, args);
+        } catch (Throwable e) {
+            emitir(evento, args, QUERY, 0, false);
+            throw e;
+        }
+        cerrarAbierto();
+        if (evento == null) return rs;
+        abierto = new ResultadoInstrumentado(rs, evento, plantilla(args));
+        return Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                abierto);
+    }
+
+    private Object ejecutarActualizacion(Method method, Object[] args) throws Throwable {
+        EventoSentenciaDAO evento = iniciarEvento();
+        try {
+            Object resultado = invocar(method, args);
+            if (evento != null) {
+                long filas = resultado instanceof Number ? ((Number) resultado).longValue() : sentencia.getUpdateCount();
+                emitir(evento, args, UPDATE, Math.max(0, filas), true);
+            }
+            return resultado;
+        } catch (Throwable e) {
+            emitir(evento, args, UPDATE, 0, false);
+            throw e;
+        }
+    }
+
+    private Object ejecutarLote(Method method, Object[] args) throws Throwable {
+        EventoSentenciaDAO evento = iniciarEvento();
+        try {
+            Object resultado = invocar(method, args);
+            if (evento == null) return resultado;
+            long filas = 0;
+            if (resultado instanceof int[]) {
+                for (int n : (int[]) resultado) filas += Math.max(0, n);
+            } else if (resultado instanceof long[]) {
+                for (long n : (long[]) resultado) filas += Math.max(0, n);
+            }
+            emitir(evento, args, BATCH, filas, true);
+            return resultado;
+        } catch (Throwable e) {
+            emitir(evento, args, BATCH, 0, false);
+            throw e;
+        }
+    }
+
+    /**
+     * Inicia el evento de una ejecución, o retorna null si ya ninguna grabación lo tiene habilitado
+     * (la sentencia pudo envolverse mientras había una).
+     */
+    private static EventoSentenciaDAO iniciarEvento() {
+        if (!EventoSentenciaDAO.habilitado()) return null;
+        EventoSentenciaDAO evento = new EventoSentenciaDAO();
+        evento.begin();
+        return evento;
+    }
+
+    private void emitir(EventoSentenciaDAO evento, Object[] args, String tipo, long filas, boolean exitosa) {
+        if (evento != null) evento.emitir(plantilla(args), tipo, filas, exitosa);
+    }
+
+    /** Las ejecuciones de {@code Statement} traen el SQL como primer argumento. */
+    private String plantilla(Object[] args) {
+        if (sql != null) return sql;
+        return args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : "";
+    }
+
+    private void cerrarAbierto() {
+        if (abierto != null) {
+            abierto.emitir();
+            abierto = null;
+        }
+    }
+
+    private Object invocar(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(sentencia, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Resultado de una consulta: cuenta las filas recorridas y emite el evento al cerrarse.
+     */
+    private static final class ResultadoInstrumentado implements InvocationHandler {
+        private final ResultSet rs;
+        private final String sql;
+        private EventoSentenciaDAO evento;
+        private long filas;
+
+        private ResultadoInstrumentado(ResultSet rs, EventoSentenciaDAO evento, String sql) {
+            this.rs = rs;
+            this.evento = evento;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nombre = method.getName();
+            switch (nombre) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    emitir();
+                    break;
+                default:
+                    break;
+            }
+            try {
+                Object resultado = method.invoke(rs, args);
+                if ("next".equals(nombre) && Boolean.TRUE.equals(resultado)) {
+                    filas++;
+                }
+                return resultado;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /** Emite el evento una sola vez (al cerrar el resultado o la sentencia). */
+        private void emitir() {
+            if (evento != null) {
+                evento.emitir(sql, QUERY, filas, true);
+                evento = null;
+            }
+        }
+    }
+}
@@ -15,6 +15,9 @@ public interface Despachable {
      * La implementación concreta define las validaciones y acciones necesarias
      * para completar el despacho.
      * </p>
+     *
+     * @return true si este llamado despachó el pedido; false si no pudo despacharse
+     *         (por ejemplo, porque otro hilo ya lo despachó).
      */
-    void despachar();
+    boolean despachar();
 }
@@ -0,0 +1,57 @@
+package com.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: intento de cancelación de un pedido ({@code Pedido.cancelar()}), con su resultado
+ * y los reintentos de compare-and-set que necesitó.
+ */
+@Name("com.speedfast.PedidoCancelado")
+@Label("Pedido cancelado")
+@Category({"SpeedFast", "Pedidos"})
+@Description("Intento de cancelar un pedido.")
+public final class EventoPedidoCancelado extends Event {
+
+    /** El pedido quedó cancelado. */
+    public static final String CANCELADO = "CANCELADO";
+    /** El pedido ya estaba cancelado. */
+    public static final String YA_CANCELADO = "YA_CANCELADO";
+    /** El pedido ya fue entregado y no puede cancelarse. */
+    public static final String YA_ENTREGADO = "YA_ENTREGADO";
+
+    @Label("ID del pedido")
+    int idPedido;
+
+    @Label("Estado al cancelar")
+    String estado;
+
+    @Label("Resultado")
+    String resultado;
+
+    @Label("Reintentos")
+    @Description("Reintentos de compare-and-set por contención con otros hilos.")
+    int reintentos;
+
+    /**
+     * Termina el evento y lo emite si hay una grabación que lo tenga habilitado.
+     *
+     * @param idPedido   ID del pedido.
+     * @param estado     estado del pedido al momento del intento (su nombre solo se lee si el evento se emite).
+     * @param resultado  una de las constantes de esta clase.
+     * @param reintentos reintentos de compare-and-set.
+     */
+    public void emitir(int idPedido, Enum<?> estado, String resultado, int reintentos) {
+        end();
+        if (shouldCommit()) {
+            this.idPedido = idPedido;
+            this.estado = estado.name();
+            this.resultado = resultado;
+            this.reintentos = reintentos;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR: se construyó un pedido.
+ * <p>
+ * Viene deshabilitado por defecto porque los DAO construyen un pedido por cada fila leída
+ * (una lectura completa generaría millones de eventos); se habilita en {@code jfr/speedfast.jfc}
+ * para investigaciones puntuales.
+ * </p>
+ */
+@Name("com.speedfast.PedidoCreado")
+@Label("Pedido creado")
+@Category({"SpeedFast", "Pedidos"})
+@Description("Construcción de un pedido (en la interfaz o al mapear una fila de la BD).")
+@Enabled(false)
+@StackTrace(false)
+public final class EventoPedidoCreado extends Event {
+
+    @Label("ID del pedido")
+    int idPedido;
+
+    @Label("Tipo")
+    String tipo;
+
+    @Label("Distancia (km)")
+    double distanciaKm;
+
+    /**
+     * Emite el evento si hay una grabación que lo tenga habilitado; si no, no hace nada.
+     *
+     * @param idPedido    ID del pedido.
+     * @param tipo        tipo del pedido.
+     * @param distanciaKm distancia del reparto.
+     */
+    public static void registrar(int idPedido, String tipo, double distanciaKm) {
+        EventoPedidoCreado evento = new EventoPedidoCreado();
+        if (evento.shouldCommit()) {
+            evento.idPedido = idPedido;
+            evento.tipo = tipo;
+            evento.distanciaKm = distanciaKm;
+            evento.commit();
+        }
+    }
+}
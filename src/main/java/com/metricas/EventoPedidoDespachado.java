@@ -0,0 +1,60 @@
+package com.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: intento de despacho de un pedido ({@code Pedido.despachar()}), con su resultado.
+ * <p>
+ * Se crea con {@link #begin()} al comenzar el intento y se cierra con {@link #emitir}.
+ * </p>
+ */
+@Name("com.speedfast.PedidoDespachado")
+@Label("Pedido despachado")
+@Category({"SpeedFast", "Pedidos"})
+@Description("Intento de pasar un pedido de PENDIENTE a EN_REPARTO.")
+public final class EventoPedidoDespachado extends Event {
+
+    /** El pedido quedó EN_REPARTO. */
+    public static final String DESPACHADO = "DESPACHADO";
+    /** El pedido estaba cancelado. */
+    public static final String CANCELADO = "CANCELADO";
+    /** El pedido no tenía repartidor asignado. */
+    public static final String SIN_REPARTIDOR = "SIN_REPARTIDOR";
+    /** El pedido no estaba PENDIENTE (u otro hilo lo movió antes). */
+    public static final String ESTADO_INVALIDO = "ESTADO_INVALIDO";
+
+    @Label("ID del pedido")
+    int idPedido;
+
+    @Label("Tipo")
+    String tipo;
+
+    @Label("Repartidor")
+    String repartidor;
+
+    @Label("Resultado")
+    String resultado;
+
+    /**
+     * Termina el evento y lo emite si hay una grabación que lo tenga habilitado.
+     *
+     * @param idPedido   ID del pedido.
+     * @param tipo       tipo del pedido.
+     * @param repartidor repartidor asignado (puede ser null).
+     * @param resultado  una de las constantes de esta clase.
+     */
+    public void emitir(int idPedido, String tipo, String repartidor, String resultado) {
+        end();
+        if (shouldCommit()) {
+            this.idPedido = idPedido;
+            this.tipo = tipo;
+            this.repartidor = repartidor;
+            this.resultado = resultado;
+            commit();
+        }
+    }
+}
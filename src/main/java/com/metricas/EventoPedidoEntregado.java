@@ -0,0 +1,44 @@
+package com.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: un repartidor marcó un pedido como ENTREGADO ({@code Repartidor.run()}).
+ * La duración del evento es el tramo del reparto: desde el despacho hasta la entrega.
+ */
+@Name("com.speedfast.PedidoEntregado")
+@Label("Pedido entregado")
+@Category({"SpeedFast", "Pedidos"})
+@Description("Transición EN_REPARTO → ENTREGADO en la ruta de un repartidor.")
+public final class EventoPedidoEntregado extends Event {
+
+    @Label("ID del pedido")
+    int idPedido;
+
+    @Label("Tipo")
+    String tipo;
+
+    @Label("Repartidor")
+    String repartidor;
+
+    /**
+     * Termina el evento y lo emite si hay una grabación que lo tenga habilitado.
+     *
+     * @param idPedido   ID del pedido.
+     * @param tipo       tipo del pedido.
+     * @param repartidor nombre del repartidor.
+     */
+    public void emitir(int idPedido, String tipo, String repartidor) {
+        end();
+        if (shouldCommit()) {
+            this.idPedido = idPedido;
+            this.tipo = tipo;
+            this.repartidor = repartidor;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento JFR: ejecución de una sentencia SQL de los DAO.
+ * <p>
+ * Lo emite el pool de conexiones ({@code com.dao.PoolConexiones}) solo mientras alguna grabación
+ * lo tenga habilitado. En consultas, la duración va desde la ejecución hasta el cierre del
+ * resultado, por lo que incluye el mapeo de las filas. La traza de pila identifica el método
+ * del DAO que ejecutó la sentencia.
+ * </p>
+ */
+@Name("com.speedfast.SentenciaDAO")
+@Label("Sentencia DAO")
+@Category({"SpeedFast", "Base de datos"})
+@Description("Sentencia SQL ejecutada por un DAO, con sus filas y su duración.")
+@Threshold("1 ms")
+public final class EventoSentenciaDAO extends Event {
+
+    private static final EventType TIPO = EventType.getEventType(EventoSentenciaDAO.class);
+
+    @Label("SQL")
+    @Description("Plantilla de la sentencia, con los parámetros como '?'.")
+    String sql;
+
+    @Label("Tipo")
+    @Description("QUERY, UPDATE o BATCH.")
+    String tipo;
+
+    @Label("Filas")
+    @Description("Filas leídas (consultas) o afectadas (actualizaciones y lotes).")
+    long filas;
+
+    @Label("Exitosa")
+    boolean exitosa;
+
+    /**
+     * Consulta el tipo del evento, sin crear una instancia; conviene llamarlo antes de construir el evento.
+     *
+     * @return true si alguna grabación en curso tiene habilitado este evento.
+     */
+    public static boolean habilitado() {
+        return TIPO.isEnabled();
+    }
+
+    /**
+     * Termina el evento y lo emite si supera el umbral de la grabación.
+     *
+     * @param sql     plantilla SQL.
+     * @param tipo    QUERY, UPDATE o BATCH.
+     * @param filas   filas leídas o afectadas.
+     * @param exitosa false si la sentencia lanzó una excepción.
+     */
+    public void emitir(String sql, String tipo, long filas, boolean exitosa) {
+        end();
+        if (shouldCommit()) {
+            this.sql = sql;
+            this.tipo = tipo;
+            this.filas = filas;
+            this.exitosa = exitosa;
+            commit();
+        }
+    }
+}
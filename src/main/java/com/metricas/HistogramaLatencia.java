@@ -0,0 +1,106 @@
+package com.metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias sin locks, con error relativo acotado (alrededor de 3%).
+ * <p>
+ * Los valores se agrupan en cubetas log-lineales: cada potencia de dos se divide en
+ * {@value #SUBCUBETAS} cubetas iguales, lo que cubre desde 1 ns hasta siglos con menos de
+ * 2.000 contadores (unos 15 KB) y sin asignar memoria al registrar. Registrar un valor son
+ * unas pocas operaciones de bits y un incremento atómico, por lo que puede usarse en cada
+ * llamada a la base de datos. Los percentiles se calculan al leerlos, recorriendo las cubetas.
+ * </p>
+ * <p>
+ * Los valores se acumulan desde la creación del histograma; quien lo consulte periódicamente
+ * puede restar cantidades entre dos lecturas para obtener tasas.
+ * </p>
+ */
+public final class HistogramaLatencia {
+
+    private static final int BITS_SUBCUBETA = 5;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int CUBETAS = (63 - BITS_SUBCUBETA + 1) * SUBCUBETAS;
+
+    private final AtomicLongArray conteos = new AtomicLongArray(CUBETAS);
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Registra una duración.
+     *
+     * @param nanos duración en nanosegundos (los valores negativos se registran como 0).
+     */
+    public void registrar(long nanos) {
+        long valor = Math.max(0, nanos);
+        conteos.incrementAndGet(indice(valor));
+        cantidad.increment();
+        suma.add(valor);
+        long actual = maximo.get();
+        while (valor > actual && !maximo.compareAndSet(actual, valor)) {
+            actual = maximo.get();
+        }
+    }
+
+    /** @return cantidad de valores registrados. */
+    public long getCantidad() { return cantidad.sum(); }
+
+    /** @return mayor valor registrado, en nanosegundos (0 si no hay valores). */
+    public long getMaximoNanos() { return maximo.get(); }
+
+    /** @return promedio de los valores registrados, en nanosegundos (0 si no hay valores). */
+    public double getMediaNanos() {
+        long n = cantidad.sum();
+        return n == 0 ? 0 : (double) suma.sum() / n;
+    }
+
+    /**
+     * Calcula un percentil a partir de las cubetas.
+     *
+     * @param percentil percentil entre 0 y 100 (por ejemplo, 99.9).
+     * @return límite superior de la cubeta que contiene el percentil, en nanosegundos
+     *         (nunca mayor que el máximo registrado; 0 si no hay valores).
+     * @throws IllegalArgumentException si el percentil está fuera de rango.
+     */
+    public long percentilNanos(double percentil) {
+        if (!(percentil >= 0 && percentil <= 100)) {
+            throw new IllegalArgumentException("percentil debe estar entre 0 y 100.");
+        }
+        long[] copia = new long[CUBETAS];
+        long total = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = conteos.get(i);
+            total += copia[i];
+        }
+        if (total == 0) return 0;
+
+        long rango = Math.max(1, (long) Math.ceil(percentil / 100.0 * total));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= rango) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    /** Cubeta de un valor: los menores que {@value #SUBCUBETAS} tienen cubeta propia; el resto, una por subdivisión de su potencia de dos. */
+    static int indice(long valor) {
+        if (valor < SUBCUBETAS) return (int) valor;
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int desplazamiento = exponente - BITS_SUBCUBETA;
+        return ((desplazamiento + 1) << BITS_SUBCUBETA) + (int) ((valor >>> desplazamiento) & (SUBCUBETAS - 1));
+    }
+
+    /** Mayor valor que cae en la cubeta indicada. */
+    static long limiteSuperior(int indice) {
+        if (indice < SUBCUBETAS) return indice;
+        int desplazamiento = (indice >>> BITS_SUBCUBETA) - 1;
+        long inferior = (long) (SUBCUBETAS + (indice & (SUBCUBETAS - 1))) << desplazamiento;
+        return inferior + (1L << desplazamiento) - 1;
+    }
+}
@@ -0,0 +1,115 @@
+package com.metricas;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registro central de métricas de la aplicación, publicado por JMX.
+ * <p>
+ * Cada operación instrumentada queda registrada como MXBean bajo el dominio
+ * {@value #DOMINIO} (por ejemplo {@code com.speedfast:type=Operacion,name=PedidoDAO.readAll}),
+ * por lo que puede consultarse con JConsole, VisualVM o un exportador JMX sin reiniciar la
+ * aplicación. Si JMX no está disponible, las métricas se siguen acumulando en memoria.
+ * </p>
+ */
+public final class Metricas {
+
+    /** Dominio JMX de las métricas de SpeedFast. */
+    public static final String DOMINIO = "com.speedfast";
+
+    private static final ConcurrentMap<String, MetricasOperacion> OPERACIONES = new ConcurrentHashMap<>();
+
+    private Metricas() {
+    }
+
+    /**
+     * Retorna las métricas de una operación, creándolas y publicándolas la primera vez.
+     * Conviene guardar el resultado en una constante de la clase instrumentada.
+     *
+     * @param nombre nombre de la operación, con la forma {@code Clase.metodo}.
+     * @return métricas de la operación (siempre la misma instancia para un nombre).
+     * @throws IllegalArgumentException si el nombre es nulo o vacío.
+     */
+    public static MetricasOperacion operacion(String nombre) {
+        if (nombre == null || nombre.trim().isEmpty()) throw new IllegalArgumentException("El nombre no puede ser nulo o vacío.");
+        MetricasOperacion existente = OPERACIONES.get(nombre);
+        if (existente != null) return existente;
+        return OPERACIONES.computeIfAbsent(nombre, n -> {
+            MetricasOperacion nueva = new MetricasOperacion(n);
+            publicar("Operacion", n, nueva);
+            return nueva;
+        });
+    }
+
+    /**
+     * @return métricas de todas las operaciones registradas, ordenadas por nombre.
+     */
+    public static List<MetricasOperacion> getOperaciones() {
+        List<MetricasOperacion> lista = new ArrayList<>(OPERACIONES.values());
+        lista.sort(Comparator.comparing(MetricasOperacion::getNombre));
+        return lista;
+    }
+
+    /**
+     * Publica un MBean bajo {@code com.speedfast:type=<tipo>,name=<nombre>}, reemplazando
+     * el anterior con el mismo nombre.
+     *
+     * @param tipo   tipo de componente (por ejemplo, {@code PoolConexiones}).
+     * @param nombre nombre de la instancia.
+     * @param mbean  objeto que implementa una interfaz MXBean.
+     * @return true si quedó publicado, false si JMX no lo aceptó.
+     */
+    public static boolean publicar(String tipo, String nombre, Object mbean) {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objeto = nombreObjeto(tipo, nombre);
+            if (servidor.isRegistered(objeto)) {
+                servidor.unregisterMBean(objeto);
+            }
+            servidor.registerMBean(mbean, objeto);
+            return true;
+        } catch (JMException | RuntimeException e) {
+            System.err.println("Error al publicar métricas " + tipo + "/" + nombre + " por JMX: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Retira un MBean publicado con {@link #publicar(String, String, Object)}.
+     *
+     * @param tipo   tipo de componente.
+     * @param nombre nombre de la instancia.
+     */
+    public static void retirar(String tipo, String nombre) {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objeto = nombreObjeto(tipo, nombre);
+            if (servidor.isRegistered(objeto)) {
+                servidor.unregisterMBean(objeto);
+            }
+        } catch (JMException | RuntimeException e) {
+            System.err.println("Error al retirar métricas " + tipo + "/" + nombre + " de JMX: " + e.getMessage());
+        }
+    }
+
+    private static ObjectName nombreObjeto(String tipo, String nombre) throws JMException {
+        return new ObjectName(DOMINIO + ":type=" + citarSiHaceFalta(tipo) + ",name=" + citarSiHaceFalta(nombre));
+    }
+
+    /** Los valores con caracteres reservados de JMX ({@code , = : " * ?}) van entre comillas. */
+    private static String citarSiHaceFalta(String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            if (",=:\"*?\n".indexOf(valor.charAt(i)) >= 0) {
+                return ObjectName.quote(valor);
+            }
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,108 @@
+package com.metricas;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias y contadores de una operación instrumentada.
+ * <p>
+ * Uso típico dentro de un DAO:
+ * </p>
+ * <pre>{@code
+ * long inicio = System.nanoTime();
+ * try (...) {
+ *     ...
+ *     OP_READ_ALL.registrar(inicio, lista.size());
+ * } catch (SQLException e) {
+ *     OP_READ_ALL.registrarError(inicio);
+ * }
+ * }</pre>
+ * <p>
+ * Se obtiene con {@link Metricas#operacion(String)}, que además la publica por JMX.
+ * </p>
+ */
+public final class MetricasOperacion implements MetricasOperacionMXBean {
+
+    private static final double NANOS_POR_MICRO = 1000.0;
+
+    /**
+     * Errores registrados por cada hilo, en todas las operaciones. Los DAO informan los fallos con
+     * valores vacíos (null, false, lista vacía); comparando este contador antes y después de una
+     * llamada, quien la hizo distingue un fallo de la base de datos de un resultado vacío.
+     */
+    private static final ThreadLocal<long[]> ERRORES_DEL_HILO = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final String nombre;
+    private final HistogramaLatencia latencias = new HistogramaLatencia();
+    private final LongAdder errores = new LongAdder();
+    private final LongAdder filas = new LongAdder();
+
+    MetricasOperacion(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Registra una llamada exitosa.
+     *
+     * @param inicioNanos valor de {@link System#nanoTime()} al comenzar la llamada.
+     * @param filas       filas leídas o escritas por la llamada.
+     */
+    public void registrar(long inicioNanos, long filas) {
+        latencias.registrar(System.nanoTime() - inicioNanos);
+        if (filas > 0) this.filas.add(filas);
+    }
+
+    /**
+     * Registra una llamada que terminó con error.
+     *
+     * @param inicioNanos valor de {@link System#nanoTime()} al comenzar la llamada.
+     */
+    public void registrarError(long inicioNanos) {
+        latencias.registrar(System.nanoTime() - inicioNanos);
+        errores.increment();
+        ERRORES_DEL_HILO.get()[0]++;
+    }
+
+    /**
+     * @return errores registrados hasta ahora por el hilo actual, en cualquier operación.
+     */
+    public static long getErroresDelHilo() {
+        return ERRORES_DEL_HILO.get()[0];
+    }
+
+    /** @return histograma de latencias de la operación. */
+    public HistogramaLatencia getLatencias() { return latencias; }
+
+    @Override
+    public String getNombre() { return nombre; }
+
+    @Override
+    public long getLlamadas() { return latencias.getCantidad(); }
+
+    @Override
+    public long getErrores() { return errores.sum(); }
+
+    @Override
+    public long getFilas() { return filas.sum(); }
+
+    @Override
+    public double getLatenciaMediaMicros() { return latencias.getMediaNanos() / NANOS_POR_MICRO; }
+
+    @Override
+    public double getLatenciaP50Micros() { return latencias.percentilNanos(50) / NANOS_POR_MICRO; }
+
+    @Override
+    public double getLatenciaP99Micros() { return latencias.percentilNanos(99) / NANOS_POR_MICRO; }
+
+    @Override
+    public double getLatenciaP999Micros() { return latencias.percentilNanos(99.9) / NANOS_POR_MICRO; }
+
+    @Override
+    public double getLatenciaMaximaMicros() { return latencias.getMaximoNanos() / NANOS_POR_MICRO; }
+
+    @Override
+    public String toString() {
+        return nombre + "{llamadas=" + getLlamadas() + ", errores=" + getErrores() + ", filas=" + getFilas()
+                + ", p50=" + getLatenciaP50Micros() + "us, p99=" + getLatenciaP99Micros()
+                + "us, max=" + getLatenciaMaximaMicros() + "us}";
+    }
+}
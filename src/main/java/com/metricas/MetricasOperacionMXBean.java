@@ -0,0 +1,38 @@
+package com.metricas;
+
+/**
+ * Vista JMX de las métricas de una operación (por ejemplo, {@code PedidoDAO.readAll}).
+ * <p>
+ * Los contadores son acumulados desde el inicio de la aplicación; las latencias se
+ * expresan en microsegundos.
+ * </p>
+ */
+public interface MetricasOperacionMXBean {
+
+    /** @return nombre de la operación. */
+    String getNombre();
+
+    /** @return cantidad de llamadas terminadas (con o sin error). */
+    long getLlamadas();
+
+    /** @return cantidad de llamadas que terminaron con error. */
+    long getErrores();
+
+    /** @return cantidad de filas leídas o escritas por la operación. */
+    long getFilas();
+
+    /** @return latencia promedio, en microsegundos. */
+    double getLatenciaMediaMicros();
+
+    /** @return percentil 50 de la latencia, en microsegundos. */
+    double getLatenciaP50Micros();
+
+    /** @return percentil 99 de la latencia, en microsegundos. */
+    double getLatenciaP99Micros();
+
+    /** @return percentil 99.9 de la latencia, en microsegundos. */
+    double getLatenciaP999Micros();
+
+    /** @return latencia máxima, en microsegundos. */
+    double getLatenciaMaximaMicros();
+}
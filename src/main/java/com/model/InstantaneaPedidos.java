@@ -0,0 +1,282 @@
+package com.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Instantánea inmutable de muchos pedidos en formato columnar, para cálculos en lote.
+ * <p>
+ * En lugar de una lista de objetos {@link Pedido}, guarda una columna por atributo en arreglos
+ * primitivos ({@code int[]} ids, {@code byte[]} tipo, {@code byte[]} estado, {@code double[]} distancia).
+ * Las filas se agrupan por tipo de pedido, de modo que el tiempo estimado de cada grupo se calcula
+ * con un bucle sin llamadas virtuales ni ramas por fila, que el compilador JIT puede vectorizar.
+ * Así, totales, conteos e histogramas sobre millones de pedidos toman milisegundos y no crean
+ * un objeto por fila.
+ * </p>
+ * <p>
+ * Las reglas de tiempo son las mismas de cada subclase ({@link PedidoComida#tiempoEntrega(double)}, etc.).
+ * La instantánea guarda el estado de cada pedido, pero no la marca de cancelación.
+ * </p>
+ */
+public final class InstantaneaPedidos {
+
+    private static final Pedido.TipoPedido[] TIPOS = Pedido.TipoPedido.values();
+    private static final EstadoPedido[] ESTADOS = EstadoPedido.values();
+
+    private final int[] ids;
+    private final byte[] tipos;
+    private final byte[] estados;
+    private final double[] distanciasKm;
+
+    /** Las filas del tipo {@code t} están en {@code [inicioTipo[t], inicioTipo[t + 1])}. */
+    private final int[] inicioTipo;
+
+    private InstantaneaPedidos(int[] ids, byte[] tipos, byte[] estados, double[] distanciasKm, int[] inicioTipo) {
+        this.ids = ids;
+        this.tipos = tipos;
+        this.estados = estados;
+        this.distanciasKm = distanciasKm;
+        this.inicioTipo = inicioTipo;
+    }
+
+    /**
+     * Construye una instantánea a partir de pedidos en memoria.
+     *
+     * @param pedidos pedidos a copiar (no nulo).
+     * @return instantánea con los datos actuales de los pedidos.
+     */
+    public static InstantaneaPedidos desde(Collection<? extends Pedido> pedidos) {
+        if (pedidos == null) throw new IllegalArgumentException("La colección de pedidos no puede ser nula.");
+        Acumulador acumulador = new Acumulador(pedidos.size());
+        for (Pedido p : pedidos) {
+            acumulador.agregar(p.getIdPedido(), p.getTipoPedido(), p.getEstado(), p.getDistanciaKm());
+        }
+        return acumulador.construir();
+    }
+
+    /** @return cantidad de pedidos. */
+    public int getCantidad() { return ids.length; }
+
+    /**
+     * @param tipo tipo de pedido.
+     * @return cantidad de pedidos de ese tipo.
+     */
+    public int getCantidad(Pedido.TipoPedido tipo) {
+        return inicioTipo[tipo.ordinal() + 1] - inicioTipo[tipo.ordinal()];
+    }
+
+    /** @return ID del pedido en la fila indicada. */
+    public int getId(int fila) { return ids[fila]; }
+
+    /** @return tipo del pedido en la fila indicada. */
+    public Pedido.TipoPedido getTipo(int fila) { return TIPOS[tipos[fila]]; }
+
+    /** @return estado del pedido en la fila indicada. */
+    public EstadoPedido getEstado(int fila) { return ESTADOS[estados[fila]]; }
+
+    /** @return distancia en kilómetros del pedido en la fila indicada. */
+    public double getDistanciaKm(int fila) { return distanciasKm[fila]; }
+
+    /**
+     * Calcula el tiempo estimado de entrega de todas las filas, un bucle por tipo.
+     *
+     * @return tiempo en minutos de cada fila, en el mismo orden que {@link #getId(int)}.
+     */
+    public int[] calcularTiemposEntrega() {
+        int[] tiempos = new int[ids.length];
+        for (Pedido.TipoPedido tipo : TIPOS) {
+            int desde = inicioTipo[tipo.ordinal()];
+            int hasta = inicioTipo[tipo.ordinal() + 1];
+            switch (tipo) {
+                case COMIDA:
+                    for (int i = desde; i < hasta; i++) tiempos[i] = PedidoComida.tiempoEntrega(distanciasKm[i]);
+                    break;
+                case ENCOMIENDA:
+                    for (int i = desde; i < hasta; i++) tiempos[i] = PedidoEncomienda.tiempoEntrega(distanciasKm[i]);
+                    break;
+                case EXPRESS:
+                    for (int i = desde; i < hasta; i++) tiempos[i] = PedidoCompraXpress.tiempoEntrega(distanciasKm[i]);
+                    break;
+            }
+        }
+        return tiempos;
+    }
+
+    /**
+     * @return suma de los tiempos estimados de todos los pedidos, en minutos.
+     */
+    public long sumarTiemposEntrega() {
+        return sumarTiemposEntrega(null);
+    }
+
+    /**
+     * Suma los tiempos estimados de los pedidos en un estado, sin materializar los tiempos por fila.
+     *
+     * @param estado estado a considerar, o null para todos.
+     * @return suma de los tiempos estimados, en minutos.
+     */
+    public long sumarTiemposEntrega(EstadoPedido estado) {
+        int e = estado == null ? -1 : estado.ordinal();
+        long suma = 0;
+        for (Pedido.TipoPedido tipo : TIPOS) {
+            int desde = inicioTipo[tipo.ordinal()];
+            int hasta = inicioTipo[tipo.ordinal() + 1];
+            switch (tipo) {
+                case COMIDA:
+                    for (int i = desde; i < hasta; i++) {
+                        int t = PedidoComida.tiempoEntrega(distanciasKm[i]);
+                        suma += (e < 0 || estados[i] == e) ? t : 0;
+                    }
+                    break;
+                case ENCOMIENDA:
+                    for (int i = desde; i < hasta; i++) {
+                        int t = PedidoEncomienda.tiempoEntrega(distanciasKm[i]);
+                        suma += (e < 0 || estados[i] == e) ? t : 0;
+                    }
+                    break;
+                case EXPRESS:
+                    for (int i = desde; i < hasta; i++) {
+                        int t = PedidoCompraXpress.tiempoEntrega(distanciasKm[i]);
+                        suma += (e < 0 || estados[i] == e) ? t : 0;
+                    }
+                    break;
+            }
+        }
+        return suma;
+    }
+
+    /**
+     * @return cantidad de pedidos por tipo, indexada por {@link Pedido.TipoPedido#ordinal()}.
+     */
+    public int[] contarPorTipo() {
+        int[] conteo = new int[TIPOS.length];
+        for (int t = 0; t < TIPOS.length; t++) {
+            conteo[t] = inicioTipo[t + 1] - inicioTipo[t];
+        }
+        return conteo;
+    }
+
+    /**
+     * @return cantidad de pedidos por estado, indexada por {@link EstadoPedido#ordinal()}.
+     */
+    public int[] contarPorEstado() {
+        int[] conteo = new int[ESTADOS.length];
+        for (byte e : estados) {
+            conteo[e]++;
+        }
+        return conteo;
+    }
+
+    /**
+     * Histograma de distancias con cubetas de ancho fijo. La última cubeta acumula además
+     * todas las distancias mayores.
+     *
+     * @param anchoKm  ancho de cada cubeta, en kilómetros (mayor que 0).
+     * @param cubetas  cantidad de cubetas (mayor que 0).
+     * @return cantidad de pedidos por cubeta; la cubeta {@code k} cubre {@code [k * anchoKm, (k + 1) * anchoKm)}.
+     * @throws IllegalArgumentException si algún parámetro no es positivo.
+     */
+    public int[] histogramaDistancias(double anchoKm, int cubetas) {
+        if (!(anchoKm > 0)) throw new IllegalArgumentException("anchoKm debe ser mayor que 0.");
+        if (cubetas <= 0) throw new IllegalArgumentException("cubetas debe ser mayor que 0.");
+        int[] histograma = new int[cubetas];
+        double inverso = 1.0 / anchoKm;
+        int ultima = cubetas - 1;
+        for (double km : distanciasKm) {
+            int k = (int) (km * inverso);
+            histograma[Math.max(0, Math.min(k, ultima))]++;
+        }
+        return histograma;
+    }
+
+    @Override
+    public String toString() {
+        return "InstantaneaPedidos{cantidad=" + ids.length + ", porTipo=" + Arrays.toString(contarPorTipo()) + '}';
+    }
+
+    /**
+     * Acumula filas de a una (por ejemplo, mientras se recorre un {@code ResultSet}) sin crear
+     * objetos {@link Pedido}, y arma la instantánea agrupando las filas por tipo.
+     */
+    public static final class Acumulador {
+        private int[] ids;
+        private byte[] tipos;
+        private byte[] estados;
+        private double[] distanciasKm;
+        private int cantidad;
+
+        /** Crea un acumulador con capacidad inicial por defecto. */
+        public Acumulador() {
+            this(1024);
+        }
+
+        /**
+         * @param capacidadInicial cantidad de filas esperadas (crece si se supera).
+         */
+        public Acumulador(int capacidadInicial) {
+            int capacidad = Math.max(16, capacidadInicial);
+            this.ids = new int[capacidad];
+            this.tipos = new byte[capacidad];
+            this.estados = new byte[capacidad];
+            this.distanciasKm = new double[capacidad];
+        }
+
+        /**
+         * Agrega una fila.
+         *
+         * @param id          ID del pedido.
+         * @param tipo        tipo del pedido (no nulo).
+         * @param estado      estado del pedido (no nulo).
+         * @param distanciaKm distancia en kilómetros.
+         */
+        public void agregar(int id, Pedido.TipoPedido tipo, EstadoPedido estado, double distanciaKm) {
+            if (tipo == null || estado == null) throw new IllegalArgumentException("tipo y estado no pueden ser nulos.");
+            if (cantidad == ids.length) {
+                int capacidad = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacidad);
+                tipos = Arrays.copyOf(tipos, capacidad);
+                estados = Arrays.copyOf(estados, capacidad);
+                distanciasKm = Arrays.copyOf(distanciasKm, capacidad);
+            }
+            ids[cantidad] = id;
+            tipos[cantidad] = (byte) tipo.ordinal();
+            estados[cantidad] = (byte) estado.ordinal();
+            distanciasKm[cantidad] = distanciaKm;
+            cantidad++;
+        }
+
+        /** @return cantidad de filas agregadas. */
+        public int getCantidad() { return cantidad; }
+
+        /**
+         * Arma la instantánea. Las filas quedan agrupadas por tipo, conservando su orden
+         * de llegada dentro de cada tipo.
+         *
+         * @return instantánea inmutable.
+         */
+        public InstantaneaPedidos construir() {
+            int[] inicioTipo = new int[TIPOS.length + 1];
+            for (int i = 0; i < cantidad; i++) {
+                inicioTipo[tipos[i] + 1]++;
+            }
+            for (int t = 0; t < TIPOS.length; t++) {
+                inicioTipo[t + 1] += inicioTipo[t];
+            }
+
+            // Ordenamiento por conteo, estable: una pasada y sin comparaciones
+            int[] cursor = Arrays.copyOf(inicioTipo, TIPOS.length);
+            int[] idsOrdenados = new int[cantidad];
+            byte[] tiposOrdenados = new byte[cantidad];
+            byte[] estadosOrdenados = new byte[cantidad];
+            double[] distanciasOrdenadas = new double[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                int destino = cursor[tipos[i]]++;
+                idsOrdenados[destino] = ids[i];
+                tiposOrdenados[destino] = tipos[i];
+                estadosOrdenados[destino] = estados[i];
+                distanciasOrdenadas[destino] = distanciasKm[i];
+            }
+            return new InstantaneaPedidos(idsOrdenados, tiposOrdenados, estadosOrdenados, distanciasOrdenadas, inicioTipo);
+        }
+    }
+}
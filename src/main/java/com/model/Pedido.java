@@ -2,10 +2,76 @@ package com.model;
 
 import com.interfaces.Cancelable;
 import com.interfaces.Despachable;
+import com.metricas.EventoPedidoCancelado;
+import com.metricas.EventoPedidoCreado;
+import com.metricas.EventoPedidoDespachado;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Clase base de todos los pedidos del sistema.
+ * <p>
+ * El estado del pedido y su marca de cancelación se guardan juntos en una sola palabra
+ * ({@code estadoEmpaquetado}) que se modifica con compare-and-set. Así, varios hilos de
+ * repartidores y acciones de la interfaz pueden operar sobre el mismo pedido sin locks y sin
+ * perder actualizaciones: una cancelación no puede pisarse con una entrega ni viceversa.
+ * </p>
+ *
+ * <h2>Transiciones válidas</h2>
+ * <ul>
+ *   <li>PENDIENTE → EN_REPARTO ({@link #despachar()}).</li>
+ *   <li>EN_REPARTO → ENTREGADO ({@link #marcarEntregado()}).</li>
+ *   <li>PENDIENTE o EN_REPARTO → cancelado ({@link #cancelar()}); un pedido cancelado no avanza más.</li>
+ * </ul>
+ */
 public abstract class Pedido implements Despachable, Cancelable {
 
+    /** Bit de la palabra de estado que indica cancelación; los bits inferiores guardan el ordinal de {@link EstadoPedido}. */
+    private static final int BIT_CANCELADO = 1 << 8;
+    private static final int MASCARA_ESTADO = BIT_CANCELADO - 1;
+    private static final EstadoPedido[] ESTADOS = EstadoPedido.values();
+
+    private static final VarHandle ESTADO_EMPAQUETADO;
+
+    static {
+        try {
+            ESTADO_EMPAQUETADO = MethodHandles.lookup().findVarHandle(Pedido.class, "estadoEmpaquetado", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** Reintentos de compare-and-set causados por escrituras concurrentes sobre el mismo pedido. */
+    private static final LongAdder CONTENCIONES = new LongAdder();
+
+    /** Transiciones rechazadas por no corresponder al estado actual o por cancelación. */
+    private static final LongAdder RECHAZOS = new LongAdder();
+
+    /**
+     * Recibe las transiciones aplicadas por {@link #transicionar} (por ejemplo, para persistirlas).
+     * Se invoca en el hilo que hizo la transición, después de aplicarla.
+     */
+    @FunctionalInterface
+    public interface ObservadorEstado {
+        void estadoCambiado(Pedido pedido, EstadoPedido anterior, EstadoPedido nuevo);
+
+        /**
+         * @param siguiente observador a invocar después de este.
+         * @return observador que notifica a ambos, en orden.
+         */
+        default ObservadorEstado luego(ObservadorEstado siguiente) {
+            Objects.requireNonNull(siguiente, "siguiente no puede ser null.");
+            return (pedido, anterior, nuevo) -> {
+                estadoCambiado(pedido, anterior, nuevo);
+                siguiente.estadoCambiado(pedido, anterior, nuevo);
+            };
+        }
+    }
+
+    private static volatile ObservadorEstado observador = (pedido, anterior, nuevo) -> { };
+
     public enum TipoPedido {
         COMIDA,
         ENCOMIENDA,
@@ -17,11 +83,11 @@ public abstract class Pedido implements Despachable, Cancelable {
     private double distanciaKm;
     private TipoPedido tipoPedido;
 
-    // NUEVO: Atributo exigido por la base de datos
-    private EstadoPedido estado;
+    // NUEVO: Atributo exigido por la base de datos.
+    // Ordinal de EstadoPedido + BIT_CANCELADO, modificado solo mediante compare-and-set.
+    private volatile int estadoEmpaquetado;
 
-    private String repartidor;
-    private boolean cancelado;
+    private volatile String repartidor;
 
     public Pedido(int idPedido, String direccionEntrega, double distanciaKm, TipoPedido tipoPedido) {
         if (idPedido <= 0) throw new IllegalArgumentException("idPedido debe ser mayor que 0.");
@@ -34,10 +100,11 @@ public abstract class Pedido implements Despachable, Cancelable {
         this.distanciaKm = distanciaKm;
         this.tipoPedido = tipoPedido;
 
-        // Todo pedido nace como PENDIENTE para coincidir con la BD
-        this.estado = EstadoPedido.PENDIENTE;
+        // Todo pedido nace como PENDIENTE (y no cancelado) para coincidir con la BD
+        this.estadoEmpaquetado = EstadoPedido.PENDIENTE.ordinal();
         this.repartidor = null;
-        this.cancelado = false;
+
+        EventoPedidoCreado.registrar(idPedido, tipoPedido.name(), distanciaKm);
     }
 
     public void mostrarResumen() {
@@ -45,7 +112,7 @@ public abstract class Pedido implements Despachable, Cancelable {
         System.out.println("Dirección: " + direccionEntrega);
         System.out.println("Distancia: " + formatearKm(distanciaKm) + " km");
         System.out.println("Repartidor asignado: " + (repartidor == null ? "Sin asignar" : repartidor));
-        System.out.println("Estado actual: " + estado);
+        System.out.println("Estado actual: " + getEstado());
         System.out.println("Tiempo estimado: " + calcularTiempoEntrega() + " minutos");
     }
 
@@ -59,37 +126,154 @@ public abstract class Pedido implements Despachable, Cancelable {
     public abstract int calcularTiempoEntrega();
 
     @Override
-    public void despachar() {
-        if (cancelado) {
+    public boolean despachar() {
+        // Evento JFR: sin una grabación activa, begin() y emitir() no hacen nada
+        EventoPedidoDespachado evento = new EventoPedidoDespachado();
+        evento.begin();
+        String asignado = repartidor;
+        if (isCancelado()) {
+            evento.emitir(idPedido, tipoPedido.name(), asignado, EventoPedidoDespachado.CANCELADO);
             System.out.println("No se puede despachar: el pedido #" + idPedido + " está cancelado.");
-            return;
+            return false;
         }
-        if (repartidor == null) {
+        if (asignado == null) {
+            evento.emitir(idPedido, tipoPedido.name(), null, EventoPedidoDespachado.SIN_REPARTIDOR);
             System.out.println("No se puede despachar: no hay repartidor asignado al pedido #" + idPedido + ".");
-            return;
+            return false;
+        }
+        if (!transicionar(EstadoPedido.PENDIENTE, EstadoPedido.EN_REPARTO)) {
+            evento.emitir(idPedido, tipoPedido.name(), asignado, EventoPedidoDespachado.ESTADO_INVALIDO);
+            System.out.println("No se puede despachar: el pedido #" + idPedido + " está "
+                    + (isCancelado() ? "cancelado." : "en estado " + getEstado() + "."));
+            return false;
         }
-        this.estado = EstadoPedido.EN_REPARTO; // Actualizamos estado
-        System.out.println("Pedido despachado correctamente. Estado: " + this.estado);
+        evento.emitir(idPedido, tipoPedido.name(), asignado, EventoPedidoDespachado.DESPACHADO);
+        System.out.println("Pedido despachado correctamente. Estado: " + getEstado());
+        return true;
     }
 
     @Override
     public void cancelar() {
-        this.cancelado = true;
-        System.out.println("→ Pedido cancelado exitosamente.");
+        EventoPedidoCancelado evento = new EventoPedidoCancelado();
+        evento.begin();
+        int reintentos = 0;
+        while (true) {
+            int actual = estadoEmpaquetado;
+            EstadoPedido estado = ESTADOS[actual & MASCARA_ESTADO];
+            if ((actual & BIT_CANCELADO) != 0) {
+                evento.emitir(idPedido, estado, EventoPedidoCancelado.YA_CANCELADO, reintentos);
+                System.out.println("→ El pedido ya se encontraba cancelado.");
+                return;
+            }
+            if ((actual & MASCARA_ESTADO) == EstadoPedido.ENTREGADO.ordinal()) {
+                RECHAZOS.increment();
+                evento.emitir(idPedido, estado, EventoPedidoCancelado.YA_ENTREGADO, reintentos);
+                System.out.println("No se puede cancelar: el pedido #" + idPedido + " ya fue entregado.");
+                return;
+            }
+            if (ESTADO_EMPAQUETADO.compareAndSet(this, actual, actual | BIT_CANCELADO)) {
+                evento.emitir(idPedido, estado, EventoPedidoCancelado.CANCELADO, reintentos);
+                System.out.println("→ Pedido cancelado exitosamente.");
+                return;
+            }
+            CONTENCIONES.increment();
+            reintentos++;
+        }
     }
 
+    /**
+     * Intenta mover el pedido de {@code esperado} a {@code nuevo} de forma atómica.
+     * <p>
+     * Falla (retorna false) si el pedido está cancelado o si otro hilo ya lo movió a otro estado.
+     * </p>
+     *
+     * @param esperado estado en que debe encontrarse el pedido.
+     * @param nuevo    estado destino.
+     * @return true si la transición se aplicó.
+     * @throws IllegalArgumentException si {@code esperado → nuevo} no es una transición válida.
+     */
+    public boolean transicionar(EstadoPedido esperado, EstadoPedido nuevo) {
+        if (!esTransicionValida(esperado, nuevo)) {
+            throw new IllegalArgumentException("Transición no permitida: " + esperado + " → " + nuevo + ".");
+        }
+        int desde = esperado.ordinal();
+        int hacia = nuevo.ordinal();
+        while (true) {
+            int actual = estadoEmpaquetado;
+            if (actual != desde) { // distinto estado o marcado como cancelado
+                RECHAZOS.increment();
+                return false;
+            }
+            if (ESTADO_EMPAQUETADO.compareAndSet(this, desde, hacia)) {
+                observador.estadoCambiado(this, esperado, nuevo);
+                return true;
+            }
+            CONTENCIONES.increment();
+        }
+    }
+
+    /**
+     * Marca como entregado un pedido que está EN_REPARTO y no fue cancelado.
+     *
+     * @return true si el pedido quedó ENTREGADO; false si estaba cancelado o en otro estado.
+     */
+    public boolean marcarEntregado() {
+        return transicionar(EstadoPedido.EN_REPARTO, EstadoPedido.ENTREGADO);
+    }
+
+    /**
+     * Indica si {@code desde → hacia} es un avance permitido del ciclo de vida del pedido.
+     *
+     * @param desde estado de origen.
+     * @param hacia estado destino.
+     * @return true si la transición es válida.
+     */
+    public static boolean esTransicionValida(EstadoPedido desde, EstadoPedido hacia) {
+        return (desde == EstadoPedido.PENDIENTE && hacia == EstadoPedido.EN_REPARTO)
+                || (desde == EstadoPedido.EN_REPARTO && hacia == EstadoPedido.ENTREGADO);
+    }
+
+    /**
+     * Reemplaza el observador de transiciones de todos los pedidos.
+     *
+     * @param nuevo observador (no nulo).
+     */
+    public static void setObservadorEstado(ObservadorEstado nuevo) {
+        observador = Objects.requireNonNull(nuevo, "observador no puede ser null.");
+    }
+
+    /** @return reintentos de compare-and-set acumulados por contención entre hilos (todos los pedidos). */
+    public static long getContencionesEstado() { return CONTENCIONES.sum(); }
+
+    /** @return transiciones rechazadas por estado inesperado o cancelación (todos los pedidos). */
+    public static long getTransicionesRechazadas() { return RECHAZOS.sum(); }
+
     // Getters
     public int getIdPedido() { return idPedido; }
     public String getDireccionEntrega() { return direccionEntrega; }
     public double getDistanciaKm() { return distanciaKm; }
     public TipoPedido getTipoPedido() { return tipoPedido; }
     public String getRepartidor() { return repartidor; }
-    public boolean isCancelado() { return cancelado; }
-    public EstadoPedido getEstado() { return estado; } // NUEVO GETTER
+    public boolean isCancelado() { return (estadoEmpaquetado & BIT_CANCELADO) != 0; }
+    public EstadoPedido getEstado() { return ESTADOS[estadoEmpaquetado & MASCARA_ESTADO]; } // NUEVO GETTER
 
     // Setters necesarios para armar el objeto desde la BD (DAO)
     public void setIdPedido(int idPedido) { this.idPedido = idPedido; }
-    public void setEstado(EstadoPedido estado) { this.estado = estado; }
+
+    /**
+     * Fija el estado sin validar la transición (para reconstruir el objeto desde la BD o un formulario).
+     * Conserva la marca de cancelación. Para el flujo operativo use {@link #transicionar}.
+     */
+    public void setEstado(EstadoPedido estado) {
+        if (estado == null) throw new IllegalArgumentException("estado no puede ser nulo.");
+        while (true) {
+            int actual = estadoEmpaquetado;
+            if (ESTADO_EMPAQUETADO.compareAndSet(this, actual, (actual & BIT_CANCELADO) | estado.ordinal())) {
+                return;
+            }
+            CONTENCIONES.increment();
+        }
+    }
 
     protected void setRepartidor(String repartidor) {
         if (repartidor == null || repartidor.trim().isEmpty()) throw new IllegalArgumentException("El nombre no puede ser nulo.");
@@ -103,7 +287,7 @@ public abstract class Pedido implements Despachable, Cancelable {
 
     @Override
     public String toString() {
-        return "Pedido{id=" + idPedido + ", direccion='" + direccionEntrega + "', tipo=" + tipoPedido + ", estado=" + estado + '}';
+        return "Pedido{id=" + idPedido + ", direccion='" + direccionEntrega + "', tipo=" + tipoPedido + ", estado=" + getEstado() + '}';
     }
 
     @Override
@@ -46,6 +46,17 @@ public class PedidoComida extends Pedido {
      */
     @Override
     public int calcularTiempoEntrega() {
-        return 15 + (int) (2 * getDistanciaKm());
+        return tiempoEntrega(getDistanciaKm());
+    }
+
+    /**
+     * Regla de tiempo de un pedido de comida, sin necesidad de instanciarlo
+     * (la usa {@link InstantaneaPedidos} para cálculos en lote).
+     *
+     * @param distanciaKm distancia del reparto en kilómetros.
+     * @return tiempo estimado de entrega en minutos.
+     */
+    public static int tiempoEntrega(double distanciaKm) {
+        return 15 + (int) (2 * distanciaKm);
     }
 }
@@ -45,10 +45,17 @@ public class PedidoCompraXpress extends Pedido {
      */
     @Override
     public int calcularTiempoEntrega() {
-        int tiempo = 10;
-        if (getDistanciaKm() > 5) {
-            tiempo += 5;
-        }
-        return tiempo;
+        return tiempoEntrega(getDistanciaKm());
+    }
+
+    /**
+     * Regla de tiempo de un pedido express, sin necesidad de instanciarlo
+     * (la usa {@link InstantaneaPedidos} para cálculos en lote).
+     *
+     * @param distanciaKm distancia del reparto en kilómetros.
+     * @return tiempo estimado de entrega en minutos.
+     */
+    public static int tiempoEntrega(double distanciaKm) {
+        return distanciaKm > 5 ? 15 : 10;
     }
 }
@@ -47,6 +47,17 @@ public class PedidoEncomienda extends Pedido {
      */
     @Override
     public int calcularTiempoEntrega() {
-        return (int) (20 + (1.5 * getDistanciaKm()));
+        return tiempoEntrega(getDistanciaKm());
+    }
+
+    /**
+     * Regla de tiempo de un pedido de encomienda, sin necesidad de instanciarlo
+     * (la usa {@link InstantaneaPedidos} para cálculos en lote).
+     *
+     * @param distanciaKm distancia del reparto en kilómetros.
+     * @return tiempo estimado de entrega en minutos.
+     */
+    public static int tiempoEntrega(double distanciaKm) {
+        return (int) (20 + (1.5 * distanciaKm));
     }
 }
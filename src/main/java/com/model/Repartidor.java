@@ -1,5 +1,6 @@
 package com.model;
 
+import com.metricas.EventoPedidoEntregado;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -7,10 +8,20 @@ import java.util.Random;
 
 public class Repartidor implements Runnable {
 
+    /**
+     * Espera entre entregas de la ruta. Por defecto duerme el hilo; puede reemplazarse
+     * (por ejemplo, en benchmarks) para recorrer la ruta sin pausas reales.
+     */
+    @FunctionalInterface
+    public interface Pausa {
+        void esperar(long ms) throws InterruptedException;
+    }
+
     private int id; // NUEVO: ID autoincremental de la base de datos
     private String nombre;
     private List<Pedido> pedidosAsignados;
     private final Random random = new Random();
+    private volatile Pausa pausa = Thread::sleep;
 
     // NUEVO: Constructor para usar al listar repartidores desde la BD (no traemos los pedidos de inmediato)
     public Repartidor(int id, String nombre) {
@@ -34,6 +45,10 @@ public class Repartidor implements Runnable {
     public void setNombre(String nombre) { this.nombre = nombre; }
     public List<Pedido> getPedidosAsignados() { return pedidosAsignados; }
 
+    public void setPausa(Pausa pausa) {
+        this.pausa = Objects.requireNonNull(pausa, "pausa no puede ser null.");
+    }
+
     @Override
     public void run() {
         System.out.println("[Repartidor-Hilo: " + nombre + "] Iniciando ruta. Pedidos: " + pedidosAsignados.size());
@@ -55,17 +70,30 @@ public class Repartidor implements Runnable {
             System.out.println("[Repartidor-Hilo: " + nombre + "] Entregando Pedido #" + String.format("%03d", pedido.getIdPedido())
                     + " (" + pedido.getTipoPedido() + ") -> " + pedido.getDireccionEntrega());
 
-            pedido.despachar();
+            // Solo seguimos si este hilo hizo el despacho: si otro ya lo puso EN_REPARTO, la entrega es suya
+            if (!pedido.despachar()) {
+                continue;
+            }
+
+            // Evento JFR del tramo de reparto (sin grabación activa no registra nada)
+            EventoPedidoEntregado evento = new EventoPedidoEntregado();
+            evento.begin();
 
             int pausaMs = 800 + random.nextInt(1201);
             try {
-                Thread.sleep(pausaMs);
+                pausa.esperar(pausaMs);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 return;
             }
 
-            pedido.setEstado(EstadoPedido.ENTREGADO); // NUEVO: Marcamos como entregado al finalizar el sleep
+            // NUEVO: Marcamos como entregado al finalizar el sleep, salvo que se haya cancelado durante el reparto
+            if (!pedido.marcarEntregado()) {
+                System.out.println("[Repartidor-Hilo: " + nombre + "] Pedido #" + String.format("%03d", pedido.getIdPedido())
+                        + " no se marcó como entregado (cancelado durante el reparto).");
+                continue;
+            }
+            evento.emitir(pedido.getIdPedido(), pedido.getTipoPedido().name(), nombre);
             System.out.println("[Repartidor-Hilo: " + nombre + "] Pedido completado #" + String.format("%03d", pedido.getIdPedido())
                     + " | Estado actual: " + pedido.getEstado());
         }
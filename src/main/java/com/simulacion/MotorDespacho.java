@@ -0,0 +1,211 @@
+package com.simulacion;
+
+import com.model.Repartidor;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Motor de despacho que ejecuta las rutas de los repartidores sobre hilos virtuales.
+ * <p>
+ * Cada {@link Repartidor} se ejecuta en su propio hilo virtual. Las pausas de {@code Thread.sleep}
+ * dentro de {@link Repartidor#run()} liberan el hilo de plataforma subyacente, por lo que es posible
+ * simular cientos de miles de repartidores concurrentes con un puñado de hilos del sistema operativo
+ * y una pila de pocos KB por ruta.
+ * </p>
+ *
+ * <h2>Ciclo de vida</h2>
+ * <ul>
+ *   <li>{@link #iniciar(Collection)}: lanza las rutas (puede llamarse varias veces durante un turno).</li>
+ *   <li>{@link #esperar(long, TimeUnit)}: bloquea hasta que todas las rutas lanzadas terminen.</li>
+ *   <li>{@link #detener()}: cancelación cooperativa; interrumpe las rutas en curso y descarta las pendientes.</li>
+ *   <li>{@link #close()}: detiene el motor y libera el ejecutor.</li>
+ * </ul>
+ */
+public class MotorDespacho implements AutoCloseable {
+
+    private final ExecutorService ejecutor;
+
+    /** Limita cuántas rutas pueden ejecutarse a la vez (acota la memoria usada por pedidos en vuelo). */
+    private final Semaphore cupos;
+
+    /** Hilos que están ejecutando una ruta en este momento, para poder interrumpirlos. */
+    private final Set<Thread> hilosActivos = ConcurrentHashMap.newKeySet();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition sinPendientes = lock.newCondition();
+    private int pendientes;
+
+    private final AtomicInteger completadas = new AtomicInteger();
+    private final AtomicInteger canceladas = new AtomicInteger();
+
+    private volatile boolean detenido;
+
+    /**
+     * Crea un motor sin límite de rutas simultáneas.
+     */
+    public MotorDespacho() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Crea un motor que ejecuta como máximo {@code maximoRutasSimultaneas} rutas a la vez.
+     * Las rutas restantes esperan (en su hilo virtual) a que se libere un cupo.
+     *
+     * @param maximoRutasSimultaneas cantidad máxima de rutas en ejecución (mayor que 0).
+     * @throws IllegalArgumentException si el máximo no es positivo.
+     */
+    public MotorDespacho(int maximoRutasSimultaneas) {
+        if (maximoRutasSimultaneas <= 0) throw new IllegalArgumentException("maximoRutasSimultaneas debe ser mayor que 0.");
+        this.cupos = new Semaphore(maximoRutasSimultaneas);
+        this.ejecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("repartidor-", 0).factory());
+    }
+
+    /**
+     * Lanza la ruta de cada repartidor en un hilo virtual.
+     *
+     * @param repartidores repartidores a poner en ruta (no nulo).
+     * @throws IllegalStateException si el motor ya fue detenido.
+     */
+    public void iniciar(Collection<? extends Repartidor> repartidores) {
+        if (repartidores == null) throw new IllegalArgumentException("La colección de repartidores no puede ser nula.");
+        if (detenido) throw new IllegalStateException("El motor de despacho fue detenido.");
+
+        lock.lock();
+        try {
+            pendientes += repartidores.size();
+        } finally {
+            lock.unlock();
+        }
+
+        int lanzadas = 0;
+        try {
+            for (Repartidor repartidor : repartidores) {
+                ejecutor.execute(() -> ejecutarRuta(repartidor));
+                lanzadas++;
+            }
+        } catch (RejectedExecutionException e) {
+            // Ejecutor cerrado entre la verificación y el lanzamiento: las rutas no lanzadas no deben retener a esperar()
+            for (int i = lanzadas; i < repartidores.size(); i++) {
+                canceladas.incrementAndGet();
+                terminarRuta();
+            }
+            throw new IllegalStateException("El motor de despacho fue detenido.", e);
+        }
+    }
+
+    /**
+     * Espera a que terminen todas las rutas lanzadas hasta ahora.
+     *
+     * @param tiempo tiempo máximo de espera.
+     * @param unidad unidad del tiempo de espera.
+     * @return true si todas las rutas terminaron, false si se agotó el tiempo.
+     * @throws InterruptedException si el hilo que espera es interrumpido.
+     */
+    public boolean esperar(long tiempo, TimeUnit unidad) throws InterruptedException {
+        long restanteNs = unidad.toNanos(tiempo);
+        lock.lock();
+        try {
+            while (pendientes > 0) {
+                if (restanteNs <= 0) return false;
+                restanteNs = sinPendientes.awaitNanos(restanteNs);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cancela el turno de forma cooperativa: las rutas en curso reciben una interrupción
+     * (que {@link Repartidor#run()} ya atiende) y las que aún no comienzan se descartan.
+     */
+    public void detener() {
+        detenido = true;
+        for (Thread hilo : hilosActivos) {
+            hilo.interrupt();
+        }
+    }
+
+    /**
+     * Detiene el motor y libera el ejecutor.
+     */
+    @Override
+    public void close() {
+        detener();
+        ejecutor.shutdownNow();
+    }
+
+    /** @return cantidad de rutas lanzadas que aún no terminan. */
+    public int getPendientes() {
+        lock.lock();
+        try {
+            return pendientes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return cantidad de rutas ejecutándose en este momento. */
+    public int getRutasActivas() { return hilosActivos.size(); }
+
+    /** @return cantidad de rutas que llegaron a ejecutarse completas o hasta su interrupción. */
+    public int getCompletadas() { return completadas.get(); }
+
+    /** @return cantidad de rutas descartadas antes de comenzar por una detención. */
+    public int getCanceladas() { return canceladas.get(); }
+
+    private void ejecutarRuta(Repartidor repartidor) {
+        boolean conCupo = false;
+        try {
+            if (detenido) {
+                canceladas.incrementAndGet();
+                return;
+            }
+            cupos.acquire();
+            conCupo = true;
+
+            // Primero nos registramos y luego revisamos la bandera, para que detener() no pierda esta ruta
+            hilosActivos.add(Thread.currentThread());
+            try {
+                if (detenido) {
+                    canceladas.incrementAndGet();
+                    return;
+                }
+                repartidor.run();
+            } finally {
+                hilosActivos.remove(Thread.currentThread());
+            }
+            completadas.incrementAndGet();
+
+        } catch (InterruptedException e) {
+            canceladas.incrementAndGet();
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            System.err.println("Error en la ruta de " + repartidor.getNombre() + ": " + e.getMessage());
+        } finally {
+            if (conCupo) cupos.release();
+            terminarRuta();
+        }
+    }
+
+    private void terminarRuta() {
+        lock.lock();
+        try {
+            pendientes--;
+            if (pendientes == 0) {
+                sinPendientes.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
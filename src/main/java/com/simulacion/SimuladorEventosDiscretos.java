@@ -0,0 +1,294 @@
+package com.simulacion;
+
+import com.model.EstadoPedido;
+import com.model.Pedido;
+import com.model.Repartidor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Simulador de eventos discretos para las rutas de los repartidores.
+ * <p>
+ * A diferencia de {@link Repartidor#run()}, que espera con {@code Thread.sleep} en tiempo real,
+ * este simulador avanza un reloj virtual saltando directamente al siguiente evento.
+ * Un día completo de operación se resuelve en milisegundos y, al usar una semilla fija,
+ * dos ejecuciones con los mismos datos producen exactamente el mismo resultado.
+ * </p>
+ *
+ * <h2>Modelo</h2>
+ * <ul>
+ *   <li>Cada repartidor recorre sus {@code pedidosAsignados} en orden, uno a la vez.</li>
+ *   <li>La duración de cada entrega es {@link Pedido#calcularTiempoEntrega()} (en minutos),
+ *       ajustada por un factor aleatorio de ±{@code variabilidad} tomado de la semilla.</li>
+ *   <li>Los pedidos cancelados, ya entregados o que otro hilo ya puso en reparto se omiten, igual que en {@link Repartidor#run()}.</li>
+ *   <li>Al iniciar una entrega el pedido pasa a EN_REPARTO y al terminarla a ENTREGADO,
+ *       usando las transiciones atómicas de {@link Pedido}.</li>
+ * </ul>
+ * <p>
+ * La cola de eventos es un heap binario sobre arreglos primitivos (instante, índice de repartidor),
+ * por lo que procesar un evento no crea objetos.
+ * </p>
+ */
+public class SimuladorEventosDiscretos {
+
+    /**
+     * Recibe una notificación por cada entrega completada en el reloj virtual.
+     */
+    @FunctionalInterface
+    public interface EscuchaEntregas {
+        /**
+         * @param instanteSeg instante virtual de término, en segundos desde el inicio.
+         * @param repartidor  repartidor que realizó la entrega.
+         * @param pedido      pedido entregado.
+         */
+        void entregaCompletada(long instanteSeg, Repartidor repartidor, Pedido pedido);
+    }
+
+    private final long semilla;
+    private final double variabilidad;
+    private final long horizonteSeg;
+    private final EscuchaEntregas escucha;
+
+    /**
+     * Crea un simulador sin variabilidad, sin horizonte y sin escucha.
+     *
+     * @param semilla semilla del generador aleatorio.
+     */
+    public SimuladorEventosDiscretos(long semilla) {
+        this(semilla, 0.0, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Crea un simulador.
+     *
+     * @param semilla      semilla del generador aleatorio.
+     * @param variabilidad fracción de variación aleatoria de cada entrega (0 = determinista, 0.2 = ±20%).
+     * @param horizonteSeg instante virtual (en segundos) en que se detiene la simulación.
+     * @param escucha      escucha de entregas completadas (puede ser null).
+     * @throws IllegalArgumentException si la variabilidad no está entre 0 y 1 o el horizonte no es positivo.
+     */
+    public SimuladorEventosDiscretos(long semilla, double variabilidad, long horizonteSeg, EscuchaEntregas escucha) {
+        if (variabilidad < 0 || variabilidad >= 1) throw new IllegalArgumentException("variabilidad debe estar entre 0 y 1.");
+        if (horizonteSeg <= 0) throw new IllegalArgumentException("horizonteSeg debe ser mayor que 0.");
+        this.semilla = semilla;
+        this.variabilidad = variabilidad;
+        this.horizonteSeg = horizonteSeg;
+        this.escucha = escucha;
+    }
+
+    /**
+     * Ejecuta la simulación completa de las rutas de los repartidores indicados.
+     *
+     * @param repartidores repartidores con sus pedidos asignados (no nulo).
+     * @return resumen de la simulación.
+     */
+    public Resultado simular(Collection<? extends Repartidor> repartidores) {
+        if (repartidores == null) throw new IllegalArgumentException("La colección de repartidores no puede ser nula.");
+
+        long inicioNs = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(semilla);
+
+        List<Repartidor> lista = new ArrayList<>(repartidores);
+        int n = lista.size();
+        int[] cursor = new int[n];          // siguiente pedido a iniciar por repartidor
+        Pedido[] enCurso = new Pedido[n];   // pedido que cada repartidor está entregando
+
+        ColaEventos cola = new ColaEventos(n);
+        long entregados = 0;
+        long omitidos = 0;
+        long eventos = 0;
+        long sumaMinutos = 0;
+        long reloj = 0;
+
+        // Cada repartidor comienza su primera entrega en el instante 0
+        for (int i = 0; i < n; i++) {
+            omitidos += iniciarSiguiente(lista.get(i), i, 0L, cursor, enCurso, cola, random);
+        }
+
+        while (!cola.vacia()) {
+            long instante = cola.instanteMinimo();
+            if (instante > horizonteSeg) break;
+
+            int i = cola.extraerMinimo();
+            reloj = instante;
+            eventos++;
+
+            Pedido pedido = enCurso[i];
+            enCurso[i] = null;
+            if (pedido.marcarEntregado()) {
+                entregados++;
+                sumaMinutos += pedido.calcularTiempoEntrega();
+                if (escucha != null) {
+                    escucha.entregaCompletada(instante, lista.get(i), pedido);
+                }
+            } else {
+                omitidos++; // cancelado por otro hilo mientras estaba en reparto
+            }
+
+            omitidos += iniciarSiguiente(lista.get(i), i, instante, cursor, enCurso, cola, random);
+        }
+
+        return new Resultado(entregados, omitidos, cola.tamano(), eventos, reloj, sumaMinutos,
+                System.nanoTime() - inicioNs);
+    }
+
+    /**
+     * Inicia la siguiente entrega pendiente del repartidor y agenda su término.
+     *
+     * @return cantidad de pedidos omitidos (cancelados o ya entregados) antes de encontrar uno válido.
+     */
+    private int iniciarSiguiente(Repartidor repartidor, int i, long ahora, int[] cursor, Pedido[] enCurso,
+                                 ColaEventos cola, SplittableRandom random) {
+        List<Pedido> pedidos = repartidor.getPedidosAsignados();
+        int omitidos = 0;
+        while (cursor[i] < pedidos.size()) {
+            Pedido pedido = pedidos.get(cursor[i]++);
+            if (pedido.isCancelado()) {
+                omitidos++;
+                continue;
+            }
+            if (pedido.getRepartidor() == null) {
+                pedido.asignarRepartidor();
+            }
+            // Solo este hilo reparte el pedido si fue él quien lo sacó de PENDIENTE
+            if (!pedido.transicionar(EstadoPedido.PENDIENTE, EstadoPedido.EN_REPARTO)) {
+                omitidos++; // ya en reparto o entregado por otro hilo, o cancelado concurrentemente
+                continue;
+            }
+            enCurso[i] = pedido;
+            cola.agregar(ahora + duracionSeg(pedido, random), i);
+            return omitidos;
+        }
+        return omitidos;
+    }
+
+    private long duracionSeg(Pedido pedido, SplittableRandom random) {
+        double segundos = pedido.calcularTiempoEntrega() * 60.0;
+        if (variabilidad > 0) {
+            segundos *= 1.0 + variabilidad * (2.0 * random.nextDouble() - 1.0);
+        }
+        return Math.max(1L, Math.round(segundos));
+    }
+
+    /**
+     * Resumen de una ejecución del simulador.
+     */
+    public static final class Resultado {
+        private final long entregados;
+        private final long omitidos;
+        private final long enCursoAlCorte;
+        private final long eventosProcesados;
+        private final long instanteFinalSeg;
+        private final long sumaMinutosEstimados;
+        private final long duracionRealNs;
+
+        private Resultado(long entregados, long omitidos, long enCursoAlCorte, long eventosProcesados,
+                          long instanteFinalSeg, long sumaMinutosEstimados, long duracionRealNs) {
+            this.entregados = entregados;
+            this.omitidos = omitidos;
+            this.enCursoAlCorte = enCursoAlCorte;
+            this.eventosProcesados = eventosProcesados;
+            this.instanteFinalSeg = instanteFinalSeg;
+            this.sumaMinutosEstimados = sumaMinutosEstimados;
+            this.duracionRealNs = duracionRealNs;
+        }
+
+        /** @return cantidad de pedidos entregados dentro del horizonte. */
+        public long getEntregados() { return entregados; }
+
+        /** @return cantidad de pedidos omitidos por estar cancelados o ya entregados. */
+        public long getOmitidos() { return omitidos; }
+
+        /** @return entregas que seguían en curso cuando se alcanzó el horizonte. */
+        public long getEnCursoAlCorte() { return enCursoAlCorte; }
+
+        /** @return cantidad de eventos procesados. */
+        public long getEventosProcesados() { return eventosProcesados; }
+
+        /** @return instante virtual del último evento procesado, en segundos. */
+        public long getInstanteFinalSeg() { return instanteFinalSeg; }
+
+        /** @return suma de los tiempos estimados ({@code calcularTiempoEntrega}) de los pedidos entregados. */
+        public long getSumaMinutosEstimados() { return sumaMinutosEstimados; }
+
+        /** @return tiempo real que tomó la simulación, en nanosegundos. */
+        public long getDuracionRealNs() { return duracionRealNs; }
+
+        /** @return eventos procesados por segundo de tiempo real. */
+        public double getEventosPorSegundo() {
+            return duracionRealNs == 0 ? 0.0 : eventosProcesados * 1_000_000_000.0 / duracionRealNs;
+        }
+
+        @Override
+        public String toString() {
+            return "Resultado{entregados=" + entregados + ", omitidos=" + omitidos
+                    + ", enCursoAlCorte=" + enCursoAlCorte + ", eventos=" + eventosProcesados
+                    + ", instanteFinalSeg=" + instanteFinalSeg + ", duracionRealMs=" + (duracionRealNs / 1_000_000) + '}';
+        }
+    }
+
+    /**
+     * Heap binario de mínimos sobre arreglos primitivos: instante de término y repartidor.
+     * Cada repartidor tiene a lo sumo un evento pendiente, por lo que la capacidad es fija.
+     */
+    private static final class ColaEventos {
+        private final long[] instantes;
+        private final int[] repartidores;
+        private int tamano;
+
+        private ColaEventos(int capacidad) {
+            this.instantes = new long[Math.max(1, capacidad)];
+            this.repartidores = new int[Math.max(1, capacidad)];
+        }
+
+        private boolean vacia() { return tamano == 0; }
+
+        private int tamano() { return tamano; }
+
+        private long instanteMinimo() { return instantes[0]; }
+
+        private void agregar(long instante, int repartidor) {
+            int i = tamano++;
+            while (i > 0) {
+                int padre = (i - 1) >>> 1;
+                if (!menor(instante, repartidor, instantes[padre], repartidores[padre])) break;
+                instantes[i] = instantes[padre];
+                repartidores[i] = repartidores[padre];
+                i = padre;
+            }
+            instantes[i] = instante;
+            repartidores[i] = repartidor;
+        }
+
+        private int extraerMinimo() {
+            int resultado = repartidores[0];
+            int ultimo = --tamano;
+            long instante = instantes[ultimo];
+            int repartidor = repartidores[ultimo];
+
+            int i = 0;
+            int mitad = tamano >>> 1;
+            while (i < mitad) {
+                int hijo = 2 * i + 1;
+                int derecho = hijo + 1;
+                if (derecho < tamano && menor(instantes[derecho], repartidores[derecho], instantes[hijo], repartidores[hijo])) {
+                    hijo = derecho;
+                }
+                if (!menor(instantes[hijo], repartidores[hijo], instante, repartidor)) break;
+                instantes[i] = instantes[hijo];
+                repartidores[i] = repartidores[hijo];
+                i = hijo;
+            }
+            instantes[i] = instante;
+            repartidores[i] = repartidor;
+            return resultado;
+        }
+
+        /** Desempata por índice de repartidor para que el orden sea reproducible. */
+        private static boolean menor(long t1, int r1, long t2, int r2) {
+            return t1 < t2 || (t1 == t2 && r1 < r2);
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package com.ui;
+
+import com.dao.AccesoDatosAsync;
+import com.dao.CambiosDesde;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.IntSupplier;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Modelo de tabla virtualizado que lee las filas por páginas, solo cuando se necesitan.
+ * <p>
+ * A diferencia de {@code DefaultTableModel}, no carga la tabla completa: {@link javax.swing.JTable}
+ * solo pide los valores de las filas visibles, y este modelo lee desde la base de datos la página
+ * que las contiene (más una página de margen hacia cada lado). Las páginas se guardan en una caché
+ * LRU de tamaño fijo, por lo que las que salen de la vista se descartan y el uso de memoria no
+ * depende del tamaño de la tabla.
+ * </p>
+ *
+ * <h2>Lecturas</h2>
+ * <ul>
+ *   <li>La cantidad de filas se obtiene con un {@code COUNT(*)} al refrescar.</li>
+ *   <li>Si se conoce el último ID de la página anterior, la página se lee por clave (keyset);
+ *       si se salta a una posición lejana, se usa {@code OFFSET}.</li>
+ *   <li>Todas las consultas se ejecutan fuera del EDT mediante {@link AccesoDatosAsync};
+ *       mientras una página llega, sus celdas se muestran vacías.</li>
+ * </ul>
+ *
+ * <h2>Sincronización incremental</h2>
+ * <p>
+ * Si la fuente registra cambios ({@link FuenteDatos#registraCambios}, ver {@link FuenteDatos#conCambios}), {@link #sincronizar()} lee solo
+ * las filas insertadas, actualizadas o eliminadas desde el último token y las aplica sobre las
+ * páginas en memoria: una actualización reemplaza la fila, y una inserción o eliminación descarta
+ * únicamente las páginas desde la posición afectada en adelante. Sin registro de cambios,
+ * {@link #sincronizar()} equivale a {@link #refrescar()}.
+ * </p>
+ * <p>
+ * Todos los métodos deben invocarse desde el hilo de eventos de Swing.
+ * </p>
+ *
+ * @param <T> tipo de las filas.
+ */
+public class ModeloTablaPaginado<T> extends AbstractTableModel {
+
+    /**
+     * Operaciones de lectura que necesita el modelo; normalmente se implementa con los métodos
+     * {@code count}, {@code readPage} y {@code readOffset} de un DAO.
+     *
+     * @param <T> tipo de las filas.
+     */
+    public interface FuenteDatos<T> {
+        /** @return cantidad total de filas. */
+        int contar();
+
+        /** @return hasta {@code limite} filas con ID mayor a {@code despuesDeId}, ordenadas por ID. */
+        List<T> leerDespuesDe(int despuesDeId, int limite);
+
+        /** @return hasta {@code limite} filas desde la posición {@code desde}, ordenadas por ID. */
+        List<T> leerDesde(int desde, int limite);
+
+        /** @return ID de la fila, usado como clave de paginación. */
+        int idDe(T fila);
+
+        /**
+         * @return true si la fuente registra cambios; solo entonces el modelo usa {@link #tokenCambios()}
+         *         y {@link #leerCambiosDesde(long)}.
+         */
+        default boolean registraCambios() {
+            return false;
+        }
+
+        /** @return token de cambios actual, o -1 si la fuente no registra cambios o si ocurre un error. */
+        default long tokenCambios() {
+            return -1;
+        }
+
+        /**
+         * @return filas modificadas después de {@code token}. El modelo solo lo invoca si
+         *         {@link #registraCambios()} es true.
+         * @throws UnsupportedOperationException si la fuente no registra cambios.
+         */
+        default CambiosDesde<T> leerCambiosDesde(long token) {
+            throw new UnsupportedOperationException("La fuente no registra cambios.");
+        }
+
+        /**
+         * Agrega a esta fuente la lectura de cambios (por ejemplo, {@code readChangeToken}
+         * y {@code readChangesSince} de un DAO).
+         *
+         * @param tokenCambios     lee el token de cambios actual.
+         * @param leerCambiosDesde lee las filas modificadas después de un token.
+         * @return fuente con registro de cambios.
+         */
+        default FuenteDatos<T> conCambios(LongSupplier tokenCambios, LongFunction<CambiosDesde<T>> leerCambiosDesde) {
+            FuenteDatos<T> base = this;
+            return new FuenteDatos<T>() {
+                @Override public int contar() { return base.contar(); }
+                @Override public List<T> leerDespuesDe(int despuesDeId, int limite) { return base.leerDespuesDe(despuesDeId, limite); }
+                @Override public List<T> leerDesde(int desde, int limite) { return base.leerDesde(desde, limite); }
+                @Override public int idDe(T fila) { return base.idDe(fila); }
+                @Override public boolean registraCambios() { return true; }
+                @Override public long tokenCambios() { return tokenCambios.getAsLong(); }
+                @Override public CambiosDesde<T> leerCambiosDesde(long token) { return leerCambiosDesde.apply(token); }
+            };
+        }
+
+        /**
+         * Arma una fuente a partir de métodos existentes (por ejemplo, los de un DAO).
+         *
+         * @param contar        cuenta las filas.
+         * @param leerDespuesDe lee una página por clave.
+         * @param leerDesde     lee una página por posición.
+         * @param idDe          obtiene el ID de una fila.
+         * @param <T>           tipo de las filas.
+         * @return fuente de datos.
+         */
+        static <T> FuenteDatos<T> de(IntSupplier contar, BiFunction<Integer, Integer, List<T>> leerDespuesDe,
+                                     BiFunction<Integer, Integer, List<T>> leerDesde, ToIntFunction<T> idDe) {
+            return new FuenteDatos<T>() {
+                @Override public int contar() { return contar.getAsInt(); }
+                @Override public List<T> leerDespuesDe(int despuesDeId, int limite) { return leerDespuesDe.apply(despuesDeId, limite); }
+                @Override public List<T> leerDesde(int desde, int limite) { return leerDesde.apply(desde, limite); }
+                @Override public int idDe(T fila) { return idDe.applyAsInt(fila); }
+            };
+        }
+    }
+
+    private static final int TAMANO_PAGINA_POR_DEFECTO = 200;
+    private static final int PAGINAS_MAXIMAS_POR_DEFECTO = 16;
+
+    /** Resultado de {@link #buscarEnPagina} cuando la página no está en memoria. */
+    private static final int PAGINA_NO_CARGADA = Integer.MIN_VALUE;
+
+    /** Intentos de leer conteo y token sin que el token cambie entre medio. */
+    private static final int INTENTOS_CONTEO = 3;
+
+    private final String[] columnas;
+    private final BiFunction<T, Integer, Object> valorColumna;
+    private final FuenteDatos<T> fuente;
+    private final int tamanoPagina;
+    private final AccesoDatosAsync datos;
+    private final String canal;
+
+    /** Páginas cargadas, en orden de acceso (LRU). */
+    private final LinkedHashMap<Integer, List<T>> paginas;
+
+    /**
+     * Último ID de cada página leída; permite leer la página siguiente por clave y ubicar
+     * la página de una fila modificada. Los IDs crecen con el número de página.
+     */
+    private final TreeMap<Integer, Integer> ultimoIdPorPagina = new TreeMap<>();
+
+    private final Set<Integer> cargando = new HashSet<>();
+
+    private int filas;
+
+    /** Token de cambios con el que está al día el modelo, o -1 si no se conoce. */
+    private long token = -1;
+
+    private boolean refrescando;
+
+    /**
+     * Se incrementa en cada refresco y en cada inserción o eliminación aplicada,
+     * para descartar páginas pedidas antes de ellos.
+     */
+    private int generacion;
+
+    /**
+     * Crea un modelo con el tamaño de página y la cantidad de páginas en memoria por defecto.
+     *
+     * @param columnas     nombres de las columnas.
+     * @param fuente       origen de las filas.
+     * @param valorColumna obtiene el valor de una columna (por índice) a partir de una fila.
+     */
+    public ModeloTablaPaginado(String[] columnas, FuenteDatos<T> fuente, BiFunction<T, Integer, Object> valorColumna) {
+        this(columnas, fuente, valorColumna, TAMANO_PAGINA_POR_DEFECTO, PAGINAS_MAXIMAS_POR_DEFECTO);
+    }
+
+    /**
+     * Crea un modelo paginado.
+     *
+     * @param columnas       nombres de las columnas.
+     * @param fuente         origen de las filas.
+     * @param valorColumna   obtiene el valor de una columna (por índice) a partir de una fila.
+     * @param tamanoPagina   cantidad de filas por página (mayor que 0).
+     * @param paginasMaximas cantidad de páginas retenidas en memoria (al menos 3).
+     * @throws IllegalArgumentException si algún parámetro no cumple validación.
+     */
+    public ModeloTablaPaginado(String[] columnas, FuenteDatos<T> fuente, BiFunction<T, Integer, Object> valorColumna,
+                               int tamanoPagina, int paginasMaximas) {
+        if (tamanoPagina <= 0) throw new IllegalArgumentException("tamanoPagina debe ser mayor que 0.");
+        if (paginasMaximas < 3) throw new IllegalArgumentException("paginasMaximas debe ser al menos 3.");
+        this.columnas = columnas.clone();
+        this.fuente = fuente;
+        this.valorColumna = valorColumna;
+        this.tamanoPagina = tamanoPagina;
+        this.datos = AccesoDatosAsync.getInstancia();
+        this.canal = "tabla-paginada-" + System.identityHashCode(this);
+        this.paginas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > paginasMaximas;
+            }
+        };
+    }
+
+    /**
+     * Descarta las páginas en memoria y vuelve a contar las filas.
+     * Las páginas visibles se leen de nuevo a medida que la tabla las pide.
+     */
+    public void refrescar() {
+        int generacionActual = ++generacion;
+        refrescando = true;
+        // Refrescos repetidos mientras el conteo está en curso reutilizan la misma consulta
+        AccesoDatosAsync.enEdt(datos.cargar(canal, "contar", this::contarConToken), conteo -> {
+            if (generacionActual != generacion) return;
+            refrescando = false;
+            paginas.clear();
+            ultimoIdPorPagina.clear();
+            cargando.clear();
+            filas = (int) conteo[0];
+            token = conteo[1];
+            fireTableDataChanged();
+        }, e -> {
+            if (generacionActual == generacion) refrescando = false;
+            System.err.println("Error al contar filas: " + e.getMessage());
+        });
+    }
+
+    /**
+     * Aplica solo las filas modificadas desde la última lectura. Si la fuente no registra cambios,
+     * si aún no hay un token o si cambiaron demasiadas filas, hace un {@link #refrescar()} completo.
+     */
+    public void sincronizar() {
+        if (!fuente.registraCambios() || refrescando || token < 0) {
+            refrescar();
+            return;
+        }
+        long desde = token;
+        int generacionActual = generacion;
+        AccesoDatosAsync.enEdt(datos.cargar(canal + ".cambios", "desde-" + desde, () -> fuente.leerCambiosDesde(desde)), cambios -> {
+            if (generacionActual != generacion || desde != token) return;
+            if (!cambios.isCompleto()) {
+                refrescar();
+                return;
+            }
+            aplicarCambios(cambios);
+        });
+    }
+
+    /**
+     * Lee el conteo junto con el token de cambios (fuera del EDT).
+     * <p>
+     * Si el token cambia mientras se cuenta, el conteo podría incluir filas que luego se aplicarían
+     * otra vez como inserciones, así que se reintenta. Si no se logra una lectura estable,
+     * el token queda desconocido y el próximo {@link #sincronizar()} vuelve a refrescar.
+     * </p>
+     *
+     * @return {cantidad de filas, token}.
+     */
+    private long[] contarConToken() {
+        if (!fuente.registraCambios()) return new long[]{fuente.contar(), -1};
+        for (int intento = 0; intento < INTENTOS_CONTEO; intento++) {
+            long antes = fuente.tokenCambios();
+            int total = fuente.contar();
+            if (antes < 0 || antes == fuente.tokenCambios()) {
+                return new long[]{total, antes};
+            }
+        }
+        return new long[]{fuente.contar(), -1};
+    }
+
+    private void aplicarCambios(CambiosDesde<T> cambios) {
+        token = cambios.getToken();
+        for (int id : cambios.getEliminadas()) {
+            eliminarFila(id);
+        }
+        for (T fila : cambios.getInsertadas()) {
+            insertarFila(fuente.idDe(fila));
+        }
+        for (T fila : cambios.getActualizadas()) {
+            actualizarFila(fila);
+        }
+    }
+
+    private void eliminarFila(int id) {
+        if (filas == 0) return;
+        int numero = paginaDe(id);
+        if (numero < 0) {
+            numero = ultimoIdPorPagina.isEmpty() ? 0 : ultimoIdPorPagina.lastKey() + 1;
+        }
+        int posicion = buscarEnPagina(numero, id);
+        invalidarDesde(numero);
+        // Si la página no estaba en memoria, la posición exacta se desconoce; se informa su inicio.
+        // Si estaba pero ya no contiene la fila (se leyó después de eliminarla), se usa su punto de inserción.
+        int enPagina = posicion == PAGINA_NO_CARGADA ? 0 : posicion < 0 ? -posicion - 1 : posicion;
+        int fila = Math.min(filas - 1, numero * tamanoPagina + enPagina);
+        filas--;
+        fireTableRowsDeleted(fila, fila);
+    }
+
+    private void insertarFila(int id) {
+        int numero = paginaDe(id);
+        int fila;
+        if (numero < 0) {
+            // Caso habitual con IDs autoincrementales: la fila va al final
+            numero = ultimoIdPorPagina.isEmpty() ? 0 : ultimoIdPorPagina.lastKey();
+            fila = filas;
+        } else {
+            int posicion = buscarEnPagina(numero, id);
+            int enPagina = posicion == PAGINA_NO_CARGADA ? 0 : posicion < 0 ? -posicion - 1 : posicion;
+            fila = numero * tamanoPagina + enPagina;
+        }
+        invalidarDesde(numero);
+        fila = Math.min(fila, filas);
+        filas++;
+        fireTableRowsInserted(fila, fila);
+    }
+
+    private void actualizarFila(T fila) {
+        int id = fuente.idDe(fila);
+        int numero = paginaDe(id);
+        if (numero < 0) return;
+        int posicion = buscarEnPagina(numero, id);
+        if (posicion < 0) return; // página fuera de memoria (se leerá actualizada al mostrarse) o la fila ya no está en ella
+
+        List<T> copia = new ArrayList<>(paginas.get(numero));
+        copia.set(posicion, fila);
+        paginas.put(numero, copia);
+        int indice = numero * tamanoPagina + posicion;
+        fireTableRowsUpdated(indice, indice);
+    }
+
+    /**
+     * @return primera página conocida cuyo último ID es mayor o igual a {@code id}, o -1 si el ID
+     *         queda después de todas las páginas conocidas. Las páginas anteriores no contienen la fila.
+     */
+    private int paginaDe(int id) {
+        for (Map.Entry<Integer, Integer> e : ultimoIdPorPagina.entrySet()) {
+            if (e.getValue() >= id) return e.getKey();
+        }
+        return -1;
+    }
+
+    /**
+     * Busca un ID en una página en memoria (las filas están ordenadas por ID).
+     *
+     * @return índice de la fila; si no está, {@code -(punto de inserción) - 1}; {@link #PAGINA_NO_CARGADA}
+     *         si la página no está en memoria.
+     */
+    private int buscarEnPagina(int numero, int id) {
+        List<T> pagina = paginas.get(numero);
+        if (pagina == null) return PAGINA_NO_CARGADA;
+        int bajo = 0;
+        int alto = pagina.size() - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int idMedio = fuente.idDe(pagina.get(medio));
+            if (idMedio < id) bajo = medio + 1;
+            else if (idMedio > id) alto = medio - 1;
+            else return medio;
+        }
+        return -bajo - 1;
+    }
+
+    /**
+     * Descarta las páginas desde {@code numero} en adelante, cuyas filas se desplazaron.
+     * Las anteriores siguen siendo válidas y no se vuelven a leer.
+     */
+    private void invalidarDesde(int numero) {
+        paginas.keySet().removeIf(n -> n >= numero);
+        ultimoIdPorPagina.tailMap(numero, true).clear();
+        cargando.clear();
+        generacion++;
+    }
+
+    /**
+     * Retorna la fila en la posición indicada si su página está en memoria.
+     *
+     * @param fila índice de la fila.
+     * @return objeto de la fila, o null si su página aún no se ha leído.
+     */
+    public T getFila(int fila) {
+        List<T> pagina = paginas.get(fila / tamanoPagina);
+        int i = fila % tamanoPagina;
+        return (pagina != null && i < pagina.size()) ? pagina.get(i) : null;
+    }
+
+    @Override
+    public int getRowCount() { return filas; }
+
+    @Override
+    public int getColumnCount() { return columnas.length; }
+
+    @Override
+    public String getColumnName(int column) { return columnas[column]; }
+
+    @Override
+    public boolean isCellEditable(int row, int column) { return false; }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int numero = row / tamanoPagina;
+        List<T> pagina = paginas.get(numero);
+        if (pagina == null) {
+            solicitar(numero);
+            return null;
+        }
+        // Precarga de la página vecina para que el desplazamiento no muestre celdas vacías
+        if (row % tamanoPagina == 0 && numero > 0) solicitar(numero - 1);
+        if (row % tamanoPagina == tamanoPagina - 1) solicitar(numero + 1);
+
+        int i = row % tamanoPagina;
+        return i < pagina.size() ? valorColumna.apply(pagina.get(i), column) : null;
+    }
+
+    /**
+     * Pide una página en segundo plano, si no está en memoria ni en camino.
+     */
+    private void solicitar(int numero) {
+        if (numero < 0 || numero * (long) tamanoPagina >= filas) return;
+        if (paginas.containsKey(numero) || !cargando.add(numero)) return;
+
+        Integer anterior = (numero == 0) ? Integer.valueOf(0) : ultimoIdPorPagina.get(numero - 1);
+        int generacionActual = generacion;
+        AccesoDatosAsync.enEdt(datos.leer(() -> anterior != null
+                ? fuente.leerDespuesDe(anterior, tamanoPagina)
+                : fuente.leerDesde(numero * tamanoPagina, tamanoPagina)), filasPagina -> {
+            if (generacionActual != generacion) return;
+            cargando.remove(numero);
+            paginas.put(numero, filasPagina);
+            if (!filasPagina.isEmpty()) {
+                ultimoIdPorPagina.put(numero, fuente.idDe(filasPagina.get(filasPagina.size() - 1)));
+            }
+            int primera = numero * tamanoPagina;
+            int ultima = Math.min(filas, primera + tamanoPagina) - 1;
+            if (ultima >= primera) {
+                fireTableRowsUpdated(primera, ultima);
+            }
+        }, e -> {
+            cargando.remove(numero);
+            System.err.println("Error al leer página " + numero + ": " + e.getMessage());
+        });
+    }
+}
@@ -1,17 +1,18 @@
 package com.ui;
 
+import com.controlador.AsignadorRepartidores;
+import com.dao.AccesoDatosAsync;
 import com.dao.EntregaDAO;
 import com.dao.PedidoDAO;
 import com.dao.RepartidorDAO;
+import com.dao.RepartidorDAOCache;
 import com.model.Entrega;
+import com.model.EstadoPedido;
 import com.model.Pedido;
 import com.model.Repartidor;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.sql.Date;
-import java.sql.Time;
 import java.util.List;
 
 public class VentanaEntregas extends JFrame {
@@ -19,18 +20,24 @@ public class VentanaEntregas extends JFrame {
     private EntregaDAO entregaDAO;
     private PedidoDAO pedidoDAO;
     private RepartidorDAO repartidorDAO;
+    private AccesoDatosAsync datos;
 
     private JTable tablaEntregas;
-    private DefaultTableModel modeloTabla;
+    private ModeloTablaPaginado<Entrega> modeloTabla;
 
     private JTextField txtId;
     private JComboBox<ComboItemPedido> cbPedidos;
     private JComboBox<Repartidor> cbRepartidores;
 
+    /** Tokens de cambios con los que están al día los combos (-1 = aún sin cargar). */
+    private long tokenPedidos = -1;
+    private long tokenRepartidores = -1;
+
     public VentanaEntregas() {
         entregaDAO = new EntregaDAO();
         pedidoDAO = new PedidoDAO();
-        repartidorDAO = new RepartidorDAO();
+        repartidorDAO = RepartidorDAOCache.getInstancia();
+        datos = AccesoDatosAsync.getInstancia();
 
         setTitle("Gestión de Entregas - SpeedFast");
         setSize(700, 500);
@@ -63,16 +70,26 @@ public class VentanaEntregas extends JFrame {
         add(panelFormulario, BorderLayout.NORTH);
 
         // --- PANEL CENTRO (Tabla) ---
-        modeloTabla = new DefaultTableModel(new String[]{"ID Entrega", "ID Pedido", "ID Repartidor", "Fecha", "Hora"}, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) { return false; }
-        };
+        // Modelo paginado: solo se leen de la BD las filas visibles
+        modeloTabla = new ModeloTablaPaginado<>(new String[]{"ID Entrega", "ID Pedido", "ID Repartidor", "Fecha", "Hora"},
+                ModeloTablaPaginado.FuenteDatos.de(entregaDAO::count, entregaDAO::readPage, entregaDAO::readOffset, Entrega::getId)
+                        .conCambios(entregaDAO::readChangeToken, entregaDAO::readChangesSince),
+                (en, columna) -> {
+                    switch (columna) {
+                        case 0: return en.getId();
+                        case 1: return en.getIdPedido();
+                        case 2: return en.getIdRepartidor();
+                        case 3: return en.getFecha();
+                        default: return en.getHora();
+                    }
+                });
         tablaEntregas = new JTable(modeloTabla);
 
         tablaEntregas.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting() && tablaEntregas.getSelectedRow() != -1) {
-                int fila = tablaEntregas.getSelectedRow();
-                txtId.setText(modeloTabla.getValueAt(fila, 0).toString());
+                Entrega entrega = modeloTabla.getFila(tablaEntregas.getSelectedRow());
+                if (entrega == null) return; // la página aún no llega
+                txtId.setText(String.valueOf(entrega.getId()));
                 // Por simplicidad, en este módulo solo permitiremos crear y eliminar,
                 // ya que actualizar combos desde la tabla requiere lógica extra de matching.
             }
@@ -83,46 +100,166 @@ public class VentanaEntregas extends JFrame {
         // --- PANEL SUR (Botones) ---
         JPanel panelBotones = new JPanel();
         JButton btnGuardar = new JButton("Registrar Entrega");
+        JButton btnAutomatico = new JButton("Asignación Automática");
         JButton btnEliminar = new JButton("Eliminar Entrega");
-        JButton btnRefrescar = new JButton("Refrescar Listas"); // Refresca los JComboBox
+        JButton btnRefrescar = new JButton("Refrescar Listas"); // Aplica los cambios en combos y tabla
 
         btnGuardar.addActionListener(e -> registrarEntrega());
+        btnAutomatico.addActionListener(e -> asignarAutomaticamente());
         btnEliminar.addActionListener(e -> eliminarEntrega());
-        btnRefrescar.addActionListener(e -> { cargarCombos(); cargarDatosTabla(); });
+        btnRefrescar.addActionListener(e -> { sincronizarCombos(); sincronizarTabla(); });
 
         panelBotones.add(btnGuardar);
+        panelBotones.add(btnAutomatico);
         panelBotones.add(btnEliminar);
         panelBotones.add(btnRefrescar);
 
         add(panelBotones, BorderLayout.SOUTH);
     }
 
-    // Carga los datos de la base de datos a los JComboBox
+    // Carga los datos de la base de datos a los JComboBox (consultas fuera del EDT)
     private void cargarCombos() {
-        cbPedidos.removeAllItems();
-        cbRepartidores.removeAllItems();
+        cargarPedidos();
+        cargarRepartidores();
+    }
+
+    // Aplica a los JComboBox solo los pedidos y repartidores modificados desde la última lectura
+    private void sincronizarCombos() {
+        sincronizarPedidos();
+        sincronizarRepartidores();
+    }
 
-        List<Pedido> pedidos = pedidoDAO.readAll();
-        for (Pedido p : pedidos) {
-            if (p.getEstado().name().equals("PENDIENTE")) { // Solo mostramos pedidos pendientes
+    private void cargarPedidos() {
+        // Solo mostramos pedidos pendientes; el filtro se resuelve en la base de datos.
+        // El token se lee antes que la lista para no perder cambios ocurridos entre ambas lecturas.
+        AccesoDatosAsync.enEdt(datos.cargar("entregas.pedidos", "PENDIENTE", () -> {
+            long token = pedidoDAO.readChangeToken();
+            return new Carga<>(token, pedidoDAO.findByEstado(EstadoPedido.PENDIENTE));
+        }), carga -> {
+            cbPedidos.removeAllItems();
+            for (Pedido p : carga.filas) {
                 cbPedidos.addItem(new ComboItemPedido(p));
             }
+            tokenPedidos = carga.token;
+        });
+    }
+
+    private void cargarRepartidores() {
+        AccesoDatosAsync.enEdt(datos.cargar("entregas.repartidores", "readAll", () -> {
+            long token = repartidorDAO.readChangeToken();
+            return new Carga<>(token, repartidorDAO.readAll());
+        }), carga -> {
+            cbRepartidores.removeAllItems();
+            for (Repartidor r : carga.filas) {
+                cbRepartidores.addItem(r); // Repartidor ya tiene el toString() formateado
+            }
+            tokenRepartidores = carga.token;
+        });
+    }
+
+    private void sincronizarPedidos() {
+        long desde = tokenPedidos;
+        if (desde < 0) {
+            cargarPedidos();
+            return;
         }
+        AccesoDatosAsync.enEdt(datos.cargar("entregas.pedidos.cambios", "desde-" + desde, () -> pedidoDAO.readChangesSince(desde)), cambios -> {
+            if (desde != tokenPedidos) return; // ya se aplicó o hubo una carga completa
+            if (!cambios.isCompleto()) {
+                cargarPedidos();
+                return;
+            }
+            for (int id : cambios.getEliminadas()) {
+                quitarPedido(id);
+            }
+            for (Pedido p : cambios.getInsertadas()) {
+                ponerPedido(p);
+            }
+            for (Pedido p : cambios.getActualizadas()) {
+                ponerPedido(p);
+            }
+            seleccionarPrimeroSiVacio(cbPedidos);
+            tokenPedidos = cambios.getToken();
+        });
+    }
 
-        List<Repartidor> repartidores = repartidorDAO.readAll();
-        for (Repartidor r : repartidores) {
-            cbRepartidores.addItem(r); // Repartidor ya tiene el toString() formateado
+    private void sincronizarRepartidores() {
+        long desde = tokenRepartidores;
+        if (desde < 0) {
+            cargarRepartidores();
+            return;
         }
+        AccesoDatosAsync.enEdt(datos.cargar("entregas.repartidores.cambios", "desde-" + desde, () -> repartidorDAO.readChangesSince(desde)), cambios -> {
+            if (desde != tokenRepartidores) return;
+            if (!cambios.isCompleto()) {
+                cargarRepartidores();
+                return;
+            }
+            for (int id : cambios.getEliminadas()) {
+                quitarRepartidor(id);
+            }
+            for (Repartidor r : cambios.getInsertadas()) {
+                ponerRepartidor(r);
+            }
+            for (Repartidor r : cambios.getActualizadas()) {
+                ponerRepartidor(r);
+            }
+            seleccionarPrimeroSiVacio(cbRepartidores);
+            tokenRepartidores = cambios.getToken();
+        });
     }
 
-    private void cargarDatosTabla() {
-        modeloTabla.setRowCount(0);
-        List<Entrega> entregas = entregaDAO.readAll();
-        for (Entrega e : entregas) {
-            modeloTabla.addRow(new Object[]{e.getId(), e.getIdPedido(), e.getIdRepartidor(), e.getFecha(), e.getHora()});
+    // Un pedido modificado queda en la lista solo si sigue PENDIENTE, en su posición según el ID
+    private void ponerPedido(Pedido pedido) {
+        quitarPedido(pedido.getIdPedido());
+        if (pedido.getEstado() != EstadoPedido.PENDIENTE) return;
+        int i = 0;
+        while (i < cbPedidos.getItemCount() && cbPedidos.getItemAt(i).getId() < pedido.getIdPedido()) i++;
+        cbPedidos.insertItemAt(new ComboItemPedido(pedido), i);
+    }
+
+    private void quitarPedido(int id) {
+        for (int i = 0; i < cbPedidos.getItemCount(); i++) {
+            if (cbPedidos.getItemAt(i).getId() == id) {
+                cbPedidos.removeItemAt(i);
+                return;
+            }
+        }
+    }
+
+    private void ponerRepartidor(Repartidor repartidor) {
+        quitarRepartidor(repartidor.getId());
+        int i = 0;
+        while (i < cbRepartidores.getItemCount() && cbRepartidores.getItemAt(i).getId() < repartidor.getId()) i++;
+        cbRepartidores.insertItemAt(repartidor, i);
+    }
+
+    private void quitarRepartidor(int id) {
+        for (int i = 0; i < cbRepartidores.getItemCount(); i++) {
+            if (cbRepartidores.getItemAt(i).getId() == id) {
+                cbRepartidores.removeItemAt(i);
+                return;
+            }
         }
     }
 
+    // insertItemAt no selecciona nada por sí solo; se mantiene el comportamiento de addItem
+    private void seleccionarPrimeroSiVacio(JComboBox<?> combo) {
+        if (combo.getSelectedItem() == null && combo.getItemCount() > 0) {
+            combo.setSelectedIndex(0);
+        }
+    }
+
+    // Vuelve a contar las filas; las páginas visibles se leen fuera del EDT a medida que se muestran
+    private void cargarDatosTabla() {
+        modeloTabla.refrescar();
+    }
+
+    // Aplica solo las entregas insertadas, actualizadas o eliminadas desde la última lectura
+    private void sincronizarTabla() {
+        modeloTabla.sincronizar();
+    }
+
     private void registrarEntrega() {
         if (cbPedidos.getSelectedItem() == null || cbRepartidores.getSelectedItem() == null) {
             JOptionPane.showMessageDialog(this, "Debe seleccionar un pedido y un repartidor.");
@@ -132,25 +269,50 @@ public class VentanaEntregas extends JFrame {
         ComboItemPedido pedidoSeleccionado = (ComboItemPedido) cbPedidos.getSelectedItem();
         Repartidor repartidorSeleccionado = (Repartidor) cbRepartidores.getSelectedItem();
 
-        long timeNow = System.currentTimeMillis();
-        Date fechaActual = new Date(timeNow);
-        Time horaActual = new Time(timeNow);
-
-        Entrega nuevaEntrega = new Entrega(0, pedidoSeleccionado.getId(), repartidorSeleccionado.getId(), fechaActual, horaActual);
-
-        if (entregaDAO.create(nuevaEntrega)) {
-            // Opcional: Actualizar el estado del pedido a EN_REPARTO
-            Pedido p = pedidoSeleccionado.getPedido();
-            p.setEstado(com.model.EstadoPedido.EN_REPARTO);
-            pedidoDAO.update(p);
+        int idPedido = pedidoSeleccionado.getId();
+        int idRepartidor = repartidorSeleccionado.getId();
+        Pedido p = pedidoSeleccionado.getPedido();
+        // Registro de la entrega y cambio a EN_REPARTO en una sola transacción
+        AccesoDatosAsync.enEdt(datos.ejecutar(() -> {
+            Entrega entrega = entregaDAO.asignarEntrega(idPedido, idRepartidor);
+            // Fuera del EDT: los observadores esperan el commit del diario y, con la cola llena, la escritura diferida
+            if (entrega != null) p.transicionar(EstadoPedido.PENDIENTE, EstadoPedido.EN_REPARTO);
+            return entrega;
+        }), entrega -> {
+            if (entrega != null) {
+                JOptionPane.showMessageDialog(this, "Entrega registrada exitosamente.");
+                txtId.setText("");
+            } else {
+                JOptionPane.showMessageDialog(this, "No se pudo registrar la entrega. Es posible que el pedido ya haya sido asignado.");
+            }
+            sincronizarCombos(); // Quita el pedido asignado sin releer la lista completa
+            sincronizarTabla();
+        });
+    }
 
-            JOptionPane.showMessageDialog(this, "Entrega registrada exitosamente.");
-            txtId.setText("");
-            cargarCombos(); // Recarga para quitar el pedido asignado
-            cargarDatosTabla();
-        } else {
-            JOptionPane.showMessageDialog(this, "Error al registrar la entrega.");
-        }
+    // Reparte todos los pedidos pendientes entre los repartidores balanceando la carga, en un solo commit
+    private void asignarAutomaticamente() {
+        AccesoDatosAsync.enEdt(datos.ejecutar(() -> {
+            List<Pedido> pendientes = pedidoDAO.findByEstado(EstadoPedido.PENDIENTE);
+            List<Repartidor> repartidores = repartidorDAO.readAll();
+            if (pendientes.isEmpty() || repartidores.isEmpty()) return null;
+
+            AsignadorRepartidores.Resultado resultado = new AsignadorRepartidores().asignar(pendientes, repartidores);
+            int registradas = 0;
+            for (int id : entregaDAO.asignarEntregas(resultado.getIdsPedido(), resultado.getIdsRepartidor())) {
+                if (id > 0) registradas++;
+            }
+            return "Entregas registradas: " + registradas + " de " + resultado.getAsignados()
+                    + "\nRuta más larga: " + resultado.getCargaMaxima() + " min";
+        }), resumen -> {
+            if (resumen == null) {
+                JOptionPane.showMessageDialog(this, "No hay pedidos pendientes o repartidores disponibles.");
+                return;
+            }
+            JOptionPane.showMessageDialog(this, resumen);
+            sincronizarCombos();
+            sincronizarTabla();
+        });
     }
 
     private void eliminarEntrega() {
@@ -159,12 +321,27 @@ public class VentanaEntregas extends JFrame {
         int confirmacion = JOptionPane.showConfirmDialog(this, "¿Eliminar entrega?", "Confirmar", JOptionPane.YES_NO_OPTION);
         if (confirmacion == JOptionPane.YES_OPTION) {
             int id = Integer.parseInt(txtId.getText());
-            if (entregaDAO.delete(id)) {
-                JOptionPane.showMessageDialog(this, "Entrega eliminada.");
-                txtId.setText("");
-                cargarCombos();
-                cargarDatosTabla();
-            }
+            AccesoDatosAsync.enEdt(datos.ejecutar(() -> entregaDAO.delete(id)), ok -> {
+                if (ok) {
+                    JOptionPane.showMessageDialog(this, "Entrega eliminada.");
+                    txtId.setText("");
+                    sincronizarCombos();
+                    sincronizarTabla();
+                }
+            });
+        }
+    }
+
+    /**
+     * Resultado de una carga completa junto con el token de cambios leído antes de ella.
+     */
+    private static class Carga<T> {
+        private final long token;
+        private final List<T> filas;
+
+        private Carga(long token, List<T> filas) {
+            this.token = token;
+            this.filas = filas;
         }
     }
 
@@ -1,5 +1,7 @@
 package com.ui;
 
+import com.dao.AccesoDatosAsync;
+import com.dao.ImportadorCsvPedidos;
 import com.dao.PedidoDAO;
 import com.model.EstadoPedido;
 import com.model.Pedido;
@@ -8,15 +10,17 @@ import com.model.PedidoCompraXpress;
 import com.model.PedidoEncomienda;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 public class VentanaPedidos extends JFrame {
 
     private PedidoDAO pedidoDAO;
+    private AccesoDatosAsync datos;
     private JTable tablaPedidos;
-    private DefaultTableModel modeloTabla;
+    private ModeloTablaPaginado<Pedido> modeloTabla;
 
     private JTextField txtId;
     private JTextField txtDireccion;
@@ -25,6 +29,7 @@ public class VentanaPedidos extends JFrame {
 
     public VentanaPedidos() {
         pedidoDAO = new PedidoDAO();
+        datos = AccesoDatosAsync.getInstancia();
 
         setTitle("Gestión de Pedidos - SpeedFast");
         setSize(700, 500);
@@ -60,19 +65,28 @@ public class VentanaPedidos extends JFrame {
         add(panelFormulario, BorderLayout.NORTH);
 
         // --- PANEL CENTRO (Tabla) ---
-        modeloTabla = new DefaultTableModel(new String[]{"ID", "Dirección", "Tipo", "Estado"}, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) { return false; }
-        };
+        // Modelo paginado: solo se leen de la BD las filas visibles
+        modeloTabla = new ModeloTablaPaginado<>(new String[]{"ID", "Dirección", "Tipo", "Estado"},
+                ModeloTablaPaginado.FuenteDatos.de(pedidoDAO::count, pedidoDAO::readPage, pedidoDAO::readOffset, Pedido::getIdPedido)
+                        .conCambios(pedidoDAO::readChangeToken, pedidoDAO::readChangesSince),
+                (p, columna) -> {
+                    switch (columna) {
+                        case 0: return p.getIdPedido();
+                        case 1: return p.getDireccionEntrega();
+                        case 2: return p.getTipoPedido().name();
+                        default: return p.getEstado().name();
+                    }
+                });
         tablaPedidos = new JTable(modeloTabla);
 
         tablaPedidos.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting() && tablaPedidos.getSelectedRow() != -1) {
-                int fila = tablaPedidos.getSelectedRow();
-                txtId.setText(modeloTabla.getValueAt(fila, 0).toString());
-                txtDireccion.setText(modeloTabla.getValueAt(fila, 1).toString());
-                cbTipo.setSelectedItem(modeloTabla.getValueAt(fila, 2).toString());
-                cbEstado.setSelectedItem(modeloTabla.getValueAt(fila, 3).toString());
+                Pedido p = modeloTabla.getFila(tablaPedidos.getSelectedRow());
+                if (p == null) return; // la página aún no llega
+                txtId.setText(String.valueOf(p.getIdPedido()));
+                txtDireccion.setText(p.getDireccionEntrega());
+                cbTipo.setSelectedItem(p.getTipoPedido().name());
+                cbEstado.setSelectedItem(p.getEstado().name());
             }
         });
 
@@ -84,26 +98,31 @@ public class VentanaPedidos extends JFrame {
         JButton btnActualizar = new JButton("Actualizar");
         JButton btnEliminar = new JButton("Eliminar");
         JButton btnLimpiar = new JButton("Limpiar");
+        JButton btnImportar = new JButton("Importar CSV");
 
         btnGuardar.addActionListener(e -> registrarPedido());
         btnActualizar.addActionListener(e -> actualizarPedido());
         btnEliminar.addActionListener(e -> eliminarPedido());
         btnLimpiar.addActionListener(e -> limpiarFormulario());
+        btnImportar.addActionListener(e -> importarCsv());
 
         panelBotones.add(btnGuardar);
         panelBotones.add(btnActualizar);
         panelBotones.add(btnEliminar);
         panelBotones.add(btnLimpiar);
+        panelBotones.add(btnImportar);
 
         add(panelBotones, BorderLayout.SOUTH);
     }
 
+    // Vuelve a contar las filas; las páginas visibles se leen fuera del EDT a medida que se muestran
     private void cargarDatosTabla() {
-        modeloTabla.setRowCount(0);
-        List<Pedido> pedidos = pedidoDAO.readAll();
-        for (Pedido p : pedidos) {
-            modeloTabla.addRow(new Object[]{p.getIdPedido(), p.getDireccionEntrega(), p.getTipoPedido().name(), p.getEstado().name()});
-        }
+        modeloTabla.refrescar();
+    }
+
+    // Aplica solo los pedidos insertados, actualizados o eliminados desde la última lectura
+    private void sincronizarTabla() {
+        modeloTabla.sincronizar();
     }
 
     private void registrarPedido() {
@@ -124,11 +143,14 @@ public class VentanaPedidos extends JFrame {
 
         nuevoPedido.setEstado(EstadoPedido.valueOf(cbEstado.getSelectedItem().toString()));
 
-        if (pedidoDAO.create(nuevoPedido)) {
-            JOptionPane.showMessageDialog(this, "Pedido registrado exitosamente.");
-            limpiarFormulario();
-            cargarDatosTabla();
-        }
+        Pedido pedido = nuevoPedido;
+        AccesoDatosAsync.enEdt(datos.ejecutar(() -> pedidoDAO.createAndGetId(pedido)), idGenerado -> {
+            if (idGenerado > 0) {
+                JOptionPane.showMessageDialog(this, "Pedido registrado exitosamente.");
+                limpiarFormulario();
+                sincronizarTabla();
+            }
+        });
     }
 
     private void actualizarPedido() {
@@ -152,11 +174,14 @@ public class VentanaPedidos extends JFrame {
 
         pedidoActualizado.setEstado(EstadoPedido.valueOf(cbEstado.getSelectedItem().toString()));
 
-        if (pedidoDAO.update(pedidoActualizado)) {
-            JOptionPane.showMessageDialog(this, "Pedido actualizado.");
-            limpiarFormulario();
-            cargarDatosTabla();
-        }
+        Pedido pedido = pedidoActualizado;
+        AccesoDatosAsync.enEdt(datos.ejecutar(() -> pedidoDAO.update(pedido)), ok -> {
+            if (ok) {
+                JOptionPane.showMessageDialog(this, "Pedido actualizado.");
+                limpiarFormulario();
+                sincronizarTabla();
+            }
+        });
     }
 
     private void eliminarPedido() {
@@ -165,16 +190,41 @@ public class VentanaPedidos extends JFrame {
         int confirmacion = JOptionPane.showConfirmDialog(this, "¿Eliminar pedido?", "Confirmar", JOptionPane.YES_NO_OPTION);
         if (confirmacion == JOptionPane.YES_OPTION) {
             int id = Integer.parseInt(txtId.getText());
-            if (pedidoDAO.delete(id)) {
-                JOptionPane.showMessageDialog(this, "Pedido eliminado.");
-                limpiarFormulario();
-                cargarDatosTabla();
-            } else {
-                JOptionPane.showMessageDialog(this, "Error. Puede estar asociado a una entrega.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            AccesoDatosAsync.enEdt(datos.ejecutar(() -> pedidoDAO.delete(id)), ok -> {
+                if (ok) {
+                    JOptionPane.showMessageDialog(this, "Pedido eliminado.");
+                    limpiarFormulario();
+                    sincronizarTabla();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Error. Puede estar asociado a una entrega.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
+    // Carga masiva desde un CSV (direccion,tipo,distancia_km); las filas inválidas quedan en <archivo>.rechazos.csv
+    private void importarCsv() {
+        JFileChooser selector = new JFileChooser();
+        if (selector.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        File archivo = selector.getSelectedFile();
+        File rechazos = new File(archivo.getPath() + ".rechazos.csv");
+        AccesoDatosAsync.enEdt(datos.ejecutar(() -> {
+            try {
+                return new ImportadorCsvPedidos(pedidoDAO).importar(archivo.toPath(), rechazos.toPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }), resultado -> {
+            String mensaje = resultado.getImportados() + " pedidos importados.";
+            if (resultado.getRechazados() > 0) {
+                mensaje += "\n" + resultado.getRechazados() + " filas rechazadas en " + rechazos.getName() + ".";
+            }
+            JOptionPane.showMessageDialog(this, mensaje);
+            cargarDatosTabla();
+        }, e -> JOptionPane.showMessageDialog(this, "No se pudo importar: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
+    }
+
     private void limpiarFormulario() {
         txtId.setText("");
         txtDireccion.setText("");
@@ -1,23 +1,25 @@
 package com.ui;
 
+import com.dao.AccesoDatosAsync;
 import com.dao.RepartidorDAO;
+import com.dao.RepartidorDAOCache;
 import com.model.Repartidor;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
 
 public class VentanaRepartidores extends JFrame {
 
     private RepartidorDAO repartidorDAO;
+    private AccesoDatosAsync datos;
     private JTable tabla;
-    private DefaultTableModel modeloTabla;
+    private ModeloTablaPaginado<Repartidor> modeloTabla;
     private JTextField txtId;
     private JTextField txtNombre;
 
     public VentanaRepartidores() {
-        repartidorDAO = new RepartidorDAO();
+        repartidorDAO = RepartidorDAOCache.getInstancia();
+        datos = AccesoDatosAsync.getInstancia();
 
         setTitle("Gestión de Repartidores");
         setSize(500, 400);
@@ -45,15 +47,17 @@ public class VentanaRepartidores extends JFrame {
         add(panelNorte, BorderLayout.NORTH);
 
         // Tabla Central
-        modeloTabla = new DefaultTableModel(new String[]{"ID", "Nombre"}, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) { return false; }
-        };
+        modeloTabla = new ModeloTablaPaginado<>(new String[]{"ID", "Nombre"},
+                ModeloTablaPaginado.FuenteDatos.de(repartidorDAO::count, repartidorDAO::readPage, repartidorDAO::readOffset, Repartidor::getId)
+                        .conCambios(repartidorDAO::readChangeToken, repartidorDAO::readChangesSince),
+                (r, columna) -> columna == 0 ? r.getId() : r.getNombre());
         tabla = new JTable(modeloTabla);
         tabla.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting() && tabla.getSelectedRow() != -1) {
-                txtId.setText(modeloTabla.getValueAt(tabla.getSelectedRow(), 0).toString());
-                txtNombre.setText(modeloTabla.getValueAt(tabla.getSelectedRow(), 1).toString());
+                Repartidor r = modeloTabla.getFila(tabla.getSelectedRow());
+                if (r == null) return; // la página aún no llega
+                txtId.setText(String.valueOf(r.getId()));
+                txtNombre.setText(r.getNombre());
             }
         });
         add(new JScrollPane(tabla), BorderLayout.CENTER);
@@ -78,11 +82,12 @@ public class VentanaRepartidores extends JFrame {
     }
 
     private void cargarDatos() {
-        modeloTabla.setRowCount(0);
-        List<Repartidor> lista = repartidorDAO.readAll();
-        for (Repartidor r : lista) {
-            modeloTabla.addRow(new Object[]{r.getId(), r.getNombre()});
-        }
+        modeloTabla.refrescar();
+    }
+
+    // Aplica solo los repartidores insertados, actualizados o eliminados desde la última lectura
+    private void sincronizarDatos() {
+        modeloTabla.sincronizar();
     }
 
     private void guardar() {
@@ -91,11 +96,13 @@ public class VentanaRepartidores extends JFrame {
             JOptionPane.showMessageDialog(this, "El nombre es obligatorio.");
             return;
         }
-        if (repartidorDAO.create(new Repartidor(0, nombre))) {
-            JOptionPane.showMessageDialog(this, "Guardado exitoso.");
-            limpiar();
-            cargarDatos();
-        }
+        AccesoDatosAsync.enEdt(datos.ejecutar(() -> repartidorDAO.create(new Repartidor(0, nombre))), ok -> {
+            if (ok) {
+                JOptionPane.showMessageDialog(this, "Guardado exitoso.");
+                limpiar();
+                sincronizarDatos();
+            }
+        });
     }
 
     private void actualizar() {
@@ -106,21 +113,27 @@ public class VentanaRepartidores extends JFrame {
         int id = Integer.parseInt(txtId.getText());
         String nombre = txtNombre.getText().trim();
 
-        if (repartidorDAO.update(new Repartidor(id, nombre))) {
-            JOptionPane.showMessageDialog(this, "Actualizado exitosamente.");
-            limpiar();
-            cargarDatos();
-        }
+        AccesoDatosAsync.enEdt(datos.ejecutar(() -> repartidorDAO.update(new Repartidor(id, nombre))), ok -> {
+            if (ok) {
+                JOptionPane.showMessageDialog(this, "Actualizado exitosamente.");
+                limpiar();
+                sincronizarDatos();
+            }
+        });
     }
 
     private void eliminar() {
         if (txtId.getText().isEmpty()) return;
         int id = Integer.parseInt(txtId.getText());
         int confirm = JOptionPane.showConfirmDialog(this, "¿Eliminar repartidor?", "Confirmar", JOptionPane.YES_NO_OPTION);
-        if (confirm == JOptionPane.YES_OPTION && repartidorDAO.delete(id)) {
-            JOptionPane.showMessageDialog(this, "Eliminado.");
-            limpiar();
-            cargarDatos();
+        if (confirm == JOptionPane.YES_OPTION) {
+            AccesoDatosAsync.enEdt(datos.ejecutar(() -> repartidorDAO.delete(id)), ok -> {
+                if (ok) {
+                    JOptionPane.showMessageDialog(this, "Eliminado.");
+                    limpiar();
+                    sincronizarDatos();
+                }
+            });
         }
     }
 